@@ -39,25 +39,46 @@
 
 package org.jogamp.java3d.utils.geometry;
 
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
 
 class EdgeTable {
 
-  private HashMap edgeTable;
+  // Open addressing hash table.  Each edge (v1, v2) is packed into a
+  // long key, and the value is the index of the third vertex of the
+  // triangle, or -1 for an empty slot.
+  private long keys[];
+  private int values[];
+  private int mask;
   private static final int DEBUG = 0;
 
 
 
-  Integer get(int a, int b)
+  private static long key(int a, int b)
   {
-    return (Integer)edgeTable.get(new Edge(a, b));
-  } // End of get()
+    return ((long)a << 32) | (b & 0xffffffffL);
+  } // End of key
+
 
 
-  Integer get(Edge e)
+  private int slot(long k)
   {
-    return (Integer)edgeTable.get(e);
+    long h = k * 0x9E3779B97F4A7C15L;
+    return (int)(h >>> 32) & mask;
+  } // End of slot
+
+
+
+  // Returns the index of the vertex across from edge (a, b), or -1
+  // if there is no such edge
+  int get(int a, int b)
+  {
+    long k = key(a, b);
+    int s = slot(k);
+    while (values[s] != -1) {
+      if (keys[s] == k) return values[s];
+      s = (s + 1) & mask;
+    }
+    return -1;
   } // End of get()
 
 
@@ -70,17 +91,23 @@ class EdgeTable {
   EdgeTable(int triangleIndices[])
   {
     // We'll have one edge for each vertex
-    edgeTable = new HashMap(triangleIndices.length * 2);
+    int size = 2;
+    while (size < triangleIndices.length * 2) size <<= 1;
+    mask = size - 1;
+    keys = new long[size];
+    values = new int[size];
+    Arrays.fill(values, -1);
 
     // Fill in table
-    Edge e;
     for (int t = 0 ; t < triangleIndices.length ; t += 3) {
       // Put all 3 edges of triangle into table
       for (int v = 0 ; v < 3 ; v++) {
-        e = new Edge(triangleIndices[t + v],
-                     triangleIndices[t + ((v + 1) % 3)]);
+	long k = key(triangleIndices[t + v],
+		     triangleIndices[t + ((v + 1) % 3)]);
+	int s = slot(k);
+	while ((values[s] != -1) && (keys[s] != k)) s = (s + 1) & mask;
 
-	if (edgeTable.get(e) != null) {
+	if (values[s] != -1) {
 	  if ((DEBUG & 1) != 0) {
 	    System.out.println("EdgeTable Error: duplicate edge (" +
 	    triangleIndices[t + v] + ", " +
@@ -88,18 +115,18 @@ class EdgeTable {
 	  }
 	} else {
 	  // Store index of 3rd vertex (across from edge)
-	  edgeTable.put(e, new Integer(t + ((v + 2) % 3)));
+	  keys[s] = k;
+	  values[s] = t + ((v + 2) % 3);
 	}
       }
     }
 
     if ((DEBUG & 1) != 0) {
       System.out.println("Edge Table:");
-      Iterator list = edgeTable.keySet().iterator();
-      while (list.hasNext()) {
-        Edge edge = (Edge)list.next();
-        System.out.println("  (" + edge.v1 + ", " + edge.v2 + ") = " +
-          get(edge.v1, edge.v2));
+      for (int s = 0 ; s < values.length ; s++) {
+	if (values[s] == -1) continue;
+        System.out.println("  (" + (int)(keys[s] >> 32) + ", " +
+	  (int)keys[s] + ") = " + values[s]);
       }
     }
   } // End of constructor EdgeTable
@@ -42,8 +42,12 @@ package org.jogamp.java3d.utils.geometry;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.jogamp.java3d.GeometryArray;
 import org.jogamp.java3d.IndexedGeometryArray;
@@ -215,6 +219,24 @@ public class GeometryInfo {
 
   private int[] vertexAttrSizes = null;
 
+  // Packed storage.  When packed is true the vertex data is held in
+  // these flat arrays (dim floats per vertex) and the vecmath arrays
+  // above are null.  texCoordSets is still allocated so that it
+  // carries the type of the texture coordinates, but its entries are
+  // null.
+  private boolean packed = false;
+  private float coordData[] = null;
+  private float colorData[] = null;
+  private int colorDim = 0;
+  private float normalData[] = null;
+  private float texCoordData[][] = null;
+
+  // Coordinates closer together than this are merged by indexify()
+  private float weldEpsilon = 0.0f;
+
+  // When set, indexify() and compact() run on this executor
+  private ExecutorService executor = null;
+
 
   /**
    * Constructor.
@@ -256,7 +278,8 @@ public class GeometryInfo {
   /**
    * Removes all data from the GeometryInfo and resets the primitive.
    * After a call to reset(), the GeometryInfo object will be just like
-   * it was when it was newly constructed.
+   * it was when it was newly constructed, except that the storage mode
+   * selected with setPackedStorage() is retained.
    * @param primitive Either TRIANGLE_ARRAY, QUAD_ARRAY,
    * TRIANGLE_FAN_ARRAY, TRIANGLE_STRIP_ARRAY, or POLYGON_ARRAY.
    * Tells the GeometryInfo object the type of primitive data to be stored
@@ -292,6 +315,12 @@ public class GeometryInfo {
       texCoordIndexSets = null;
       texCoordSetMap = null;
 
+      coordData = null;
+      colorData = null;
+      colorDim = 0;
+      normalData = null;
+      texCoordData = null;
+
       coordOnly = false;
 
   } // End of reset(int)
@@ -508,6 +537,7 @@ public class GeometryInfo {
 
 	  case POLYGON_ARRAY:
 	      if (tr == null) tr = new Triangulator();
+	      tr.setExecutorService(executor);
 	      tr.triangulate(this);
 	      break;
       }
@@ -551,11 +581,14 @@ public class GeometryInfo {
 
   /**
    * Sets the coordinates array.
-   * No data copying is done because a reference to user data is used.
+   * No data copying is done because a reference to user data is used,
+   * unless packed storage is in use, in which case the points are
+   * copied into a float array.
    */
   public void setCoordinates(Point3f coordinates[])
   {
-      this.coordinates = coordinates;
+      if (packed) coordData = packData(coordinates);
+      else this.coordinates = coordinates;
   } // End of setCoordinates
 
 
@@ -566,7 +599,17 @@ public class GeometryInfo {
    */
   public void setCoordinates(Point3d coordinates[])
   {
-      if (coordinates == null) this.coordinates = null;
+      if (packed) {
+	  coordData = null;
+	  if (coordinates != null) {
+	      coordData = new float[coordinates.length * 3];
+	      for (int i = 0 ; i < coordinates.length ; i++) {
+		  coordData[i * 3]     = (float)coordinates[i].x;
+		  coordData[i * 3 + 1] = (float)coordinates[i].y;
+		  coordData[i * 3 + 2] = (float)coordinates[i].z;
+	      }
+	  }
+      } else if (coordinates == null) this.coordinates = null;
       else {
 	  this.coordinates = new Point3f[coordinates.length];
 	  for (int i = 0 ; i < coordinates.length ; i++) {
@@ -586,7 +629,10 @@ public class GeometryInfo {
    */
   public void setCoordinates(float coordinates[])
   {
-      if (coordinates == null) this.coordinates = null;
+      if (packed) {
+	  coordData = (coordinates == null) ? null :
+	      Arrays.copyOf(coordinates, coordinates.length / 3 * 3);
+      } else if (coordinates == null) this.coordinates = null;
       else {
 	  this.coordinates = new Point3f[coordinates.length / 3];
 	  for (int i = 0 ; i < this.coordinates.length ; i++) {
@@ -605,7 +651,14 @@ public class GeometryInfo {
    */
   public void setCoordinates(double coordinates[])
   {
-      if (coordinates == null) this.coordinates = null;
+      if (packed) {
+	  coordData = null;
+	  if (coordinates != null) {
+	      coordData = new float[coordinates.length / 3 * 3];
+	      for (int i = 0 ; i < coordData.length ; i++)
+		  coordData[i] = (float)coordinates[i];
+	  }
+      } else if (coordinates == null) this.coordinates = null;
       else {
 	  this.coordinates = new Point3f[coordinates.length / 3];
 	  for (int i = 0 ; i < coordinates.length / 3 ; i++) {
@@ -620,9 +673,13 @@ public class GeometryInfo {
 
   /**
    * Retrieves a reference to the coordinate array.
+   * If packed storage is in use, the data is first converted back
+   * to vecmath objects.
+   * @see #setPackedStorage(boolean)
    */
   public Point3f[] getCoordinates()
   {
+      unpack();
       return coordinates;
   } // End of getCoordinates
 
@@ -635,6 +692,11 @@ public class GeometryInfo {
    */
   public void setColors(Color3f colors[])
   {
+      if (packed) {
+	  colorData = packData(colors);
+	  colorDim = (colors == null) ? 0 : 3;
+	  return;
+      }
       colors3 = colors;
       colors4 = null;
   } // End of setColors
@@ -648,6 +710,11 @@ public class GeometryInfo {
    */
   public void setColors(Color4f colors[])
   {
+      if (packed) {
+	  colorData = packData(colors);
+	  colorDim = (colors == null) ? 0 : 4;
+	  return;
+      }
       colors3 = null;
       colors4 = colors;
   } // End of setColors
@@ -660,7 +727,19 @@ public class GeometryInfo {
    */
   public void setColors(Color3b colors[])
   {
-      if (colors == null) {
+      if (packed) {
+	  colorData = null;
+	  colorDim = 0;
+	  if (colors != null) {
+	      colorData = new float[colors.length * 3];
+	      colorDim = 3;
+	      for (int i = 0 ; i < colors.length ; i++) {
+		  colorData[i * 3]     = (float) (colors[i].x & 0xff) / 255.0f;
+		  colorData[i * 3 + 1] = (float) (colors[i].y & 0xff) / 255.0f;
+		  colorData[i * 3 + 2] = (float) (colors[i].z & 0xff) / 255.0f;
+	      }
+	  }
+      } else if (colors == null) {
 	  colors3 = null;
 	  colors4 = null;
       } else {
@@ -682,7 +761,20 @@ public class GeometryInfo {
    */
   public void setColors(Color4b colors[])
   {
-      if (colors == null) {
+      if (packed) {
+	  colorData = null;
+	  colorDim = 0;
+	  if (colors != null) {
+	      colorData = new float[colors.length * 4];
+	      colorDim = 4;
+	      for (int i = 0 ; i < colors.length ; i++) {
+		  colorData[i * 4]     = (float) (colors[i].x & 0xff) / 255.0f;
+		  colorData[i * 4 + 1] = (float) (colors[i].y & 0xff) / 255.0f;
+		  colorData[i * 4 + 2] = (float) (colors[i].z & 0xff) / 255.0f;
+		  colorData[i * 4 + 3] = (float) (colors[i].w & 0xff) / 255.0f;
+	      }
+	  }
+      } else if (colors == null) {
 	  colors3 = null;
 	  colors4 = null;
       } else {
@@ -706,7 +798,11 @@ public class GeometryInfo {
    */
   public void setColors3(float colors[])
   {
-      if (colors == null) {
+      if (packed) {
+	  colorData = (colors == null) ? null :
+	      Arrays.copyOf(colors, colors.length / 3 * 3);
+	  colorDim = (colors == null) ? 0 : 3;
+      } else if (colors == null) {
 	  colors3 = null;
 	  colors4 = null;
       } else {
@@ -729,7 +825,11 @@ public class GeometryInfo {
    */
   public void setColors4(float colors[])
   {
-      if (colors == null) {
+      if (packed) {
+	  colorData = (colors == null) ? null :
+	      Arrays.copyOf(colors, colors.length / 4 * 4);
+	  colorDim = (colors == null) ? 0 : 4;
+      } else if (colors == null) {
 	  colors3 = null;
 	  colors4 = null;
       } else {
@@ -753,7 +853,10 @@ public class GeometryInfo {
    */
   public void setColors3(byte colors[])
   {
-      if (colors == null) {
+      if (packed) {
+	  colorData = (colors == null) ? null : byteToFloat(colors, 3);
+	  colorDim = (colors == null) ? 0 : 3;
+      } else if (colors == null) {
 	  colors3 = null;
 	  colors4 = null;
       } else {
@@ -777,7 +880,10 @@ public class GeometryInfo {
    */
   public void setColors4(byte colors[])
   {
-      if (colors == null) {
+      if (packed) {
+	  colorData = (colors == null) ? null : byteToFloat(colors, 4);
+	  colorDim = (colors == null) ? 0 : 4;
+      } else if (colors == null) {
 	  colors3 = null;
 	  colors4 = null;
       } else {
@@ -800,9 +906,13 @@ public class GeometryInfo {
    * <code>Color3f[]</code> or <code>Color4f[]</code> depending on
    * the type of the input data.  Call
    * getNumColorComponents() to find out which version is returned.
+   * If packed storage is in use, the data is first converted back
+   * to vecmath objects.
+   * @see #setPackedStorage(boolean)
    */
   public Object[] getColors()
   {
+      unpack();
       if (colors3 != null) return colors3;
       else return colors4;
   } // End of getColors
@@ -816,6 +926,7 @@ public class GeometryInfo {
    */
   public int getNumColorComponents()
   {
+      if (packed) return (colorData != null) ? colorDim : 0;
       if (colors3 != null) return 3;
       else if (colors4 != null) return 4;
       else return 0;
@@ -826,11 +937,13 @@ public class GeometryInfo {
   /**
    * Sets the normals array.
    * No data copying is done because a reference to
-   * user data is used.
+   * user data is used, unless packed storage is in use, in which
+   * case the normals are copied into a float array.
    */
   public void setNormals(Vector3f normals[])
   {
-      this.normals = normals;
+      if (packed) normalData = packData(normals);
+      else this.normals = normals;
   } // End of setNormals
 
 
@@ -841,7 +954,10 @@ public class GeometryInfo {
    */
   public void setNormals(float normals[])
   {
-      if (normals == null) this.normals = null;
+      if (packed) {
+	  normalData = (normals == null) ? null :
+	      Arrays.copyOf(normals, normals.length / 3 * 3);
+      } else if (normals == null) this.normals = null;
       else {
 	  this.normals = new Vector3f[normals.length / 3];
 	  for (int i = 0 ; i < this.normals.length ; i++) {
@@ -856,9 +972,13 @@ public class GeometryInfo {
 
   /**
    * Retrieves a reference to the normal array.
+   * If packed storage is in use, the data is first converted back
+   * to vecmath objects.
+   * @see #setPackedStorage(boolean)
    */
   public Vector3f[] getNormals()
   {
+      unpack();
       return normals;
   } // End of getNormals
 
@@ -906,6 +1026,7 @@ public class GeometryInfo {
 	      J3dUtilsI18N.getString("GeometryInfo9"));
       }
       texCoordIndexSets = new int[numSets][];
+      texCoordData = packed ? new float[numSets][] : null;
       texCoordDim = dim;
       texCoordSetCount = numSets;
   } // End of setTextureCoordinateParams
@@ -999,7 +1120,8 @@ public class GeometryInfo {
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo18"));
 
-      texCoordSets[texCoordSet] = texCoords;
+      if (packed) texCoordData[texCoordSet] = packData(texCoords);
+      else texCoordSets[texCoordSet] = texCoords;
   } // End of setTextureCoordinates(int, TexCoord3f[])
 
 
@@ -1018,7 +1140,10 @@ public class GeometryInfo {
       texCoordSetCount = 1;
       texCoordDim = 2;
       texCoordSets = new TexCoord2f[1][];
-      if (texCoords != null) {
+      if (packed) {
+	texCoordData = new float[1][];
+	texCoordData[0] = packData(texCoords);
+      } else if (texCoords != null) {
 	TexCoord2f[] tex = new TexCoord2f[texCoords.length];
 	for (int i = 0 ; i < texCoords.length ; i++)
 	    tex[i] = new TexCoord2f(texCoords[i]);
@@ -1048,7 +1173,8 @@ public class GeometryInfo {
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo18"));
 
-      texCoordSets[texCoordSet] = texCoords;
+      if (packed) texCoordData[texCoordSet] = packData(texCoords);
+      else texCoordSets[texCoordSet] = texCoords;
   } // End of setTextureCoordinates(int, TexCoord3f[])
 
 
@@ -1067,7 +1193,10 @@ public class GeometryInfo {
       texCoordSetCount = 1;
       texCoordDim = 3;
       texCoordSets = new TexCoord3f[1][];
-      if (texCoords != null) {
+      if (packed) {
+	texCoordData = new float[1][];
+	texCoordData[0] = packData(texCoords);
+      } else if (texCoords != null) {
 	TexCoord3f[] tex = new TexCoord3f[texCoords.length];
 	for (int i = 0 ; i < texCoords.length ; i++)
 	    tex[i] = new TexCoord3f(texCoords[i]);
@@ -1096,7 +1225,8 @@ public class GeometryInfo {
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo18"));
 
-      texCoordSets[texCoordSet] = texCoords;
+      if (packed) texCoordData[texCoordSet] = packData(texCoords);
+      else texCoordSets[texCoordSet] = texCoords;
   } // End of setTextureCoordinates(int, TexCoord4f[])
 
 
@@ -1121,6 +1251,17 @@ public class GeometryInfo {
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo2"));
 
+      if (packed) {
+	if ((texCoordDim < 2) || (texCoordDim > 4))
+	  throw new IllegalArgumentException(
+		  J3dUtilsI18N.getString("GeometryInfo21"));
+	if ((texCoordSet >= texCoordSetCount) || (texCoordSet < 0))
+	  throw new IllegalArgumentException(
+		  J3dUtilsI18N.getString("GeometryInfo18"));
+	texCoordData[texCoordSet] = Arrays.copyOf(texCoords, texCoords.length);
+	return;
+      }
+
       // Copy the texCoords into this GeometryInfo object
       if (texCoordDim == 2) {
 	TexCoord2f tcoords[] = new TexCoord2f[texCoords.length / 2];
@@ -1166,6 +1307,7 @@ public class GeometryInfo {
       texCoordSetCount = 1;
       texCoordDim = 2;
       texCoordSets = new TexCoord2f[1][];
+      if (packed) texCoordData = new float[1][];
       setTextureCoordinates(0, texCoords);
   } // End of setTextureCoordinates2(float[])
 
@@ -1186,6 +1328,7 @@ public class GeometryInfo {
       texCoordSetCount = 1;
       texCoordDim = 3;
       texCoordSets = new TexCoord3f[1][];
+      if (packed) texCoordData = new float[1][];
       setTextureCoordinates(0, texCoords);
   } // End of setTextureCoordinates3(float[])
 
@@ -1201,6 +1344,8 @@ public class GeometryInfo {
    * @param texCoordSet The index of the texture coordinate set to
    * retrieve.
    * @return An array of texture coordinates at the specified index
+   * If packed storage is in use, the data is first converted back
+   * to vecmath objects.
    * @throws IllegalArgumentException If <code> texCoordSet</code> < 0
    * or <code>texCoordSet >= texCoordSetCount</code>
    */
@@ -1209,6 +1354,7 @@ public class GeometryInfo {
       if ((texCoordSet >= texCoordSetCount) || (texCoordSet < 0))
 	  throw new IllegalArgumentException(
 	      J3dUtilsI18N.getString("GeometryInfo18"));
+      unpack();
       return texCoordSets[texCoordSet];
   } // End of getTextureCoordinates(int)
 
@@ -1227,6 +1373,7 @@ public class GeometryInfo {
    */
   public Object[] getTextureCoordinates()
   {
+      unpack();
       return texCoordSets[0];
   } // End of getTextureCoordinates()
 
@@ -1533,11 +1680,238 @@ public class GeometryInfo {
 
 
 
+  /**
+   * Selects the storage used for the vertex data.  By default the
+   * GeometryInfo holds its coordinates, colors, normals and texture
+   * coordinates as arrays of vecmath objects.  With packed storage
+   * the data is held in flat float arrays instead (three floats per
+   * coordinate, for example), so a large mesh costs a handful of
+   * arrays rather than millions of objects.  setCoordinates(float[]),
+   * indexify(), compact(), unindexify() and getGeometryArray() all
+   * work directly on the packed arrays.<p>
+   *
+   * Switching modes converts any data already in the GeometryInfo.
+   * The methods that return vecmath arrays (getCoordinates(),
+   * getColors(), getNormals() and getTextureCoordinates()) switch the
+   * GeometryInfo back to object storage before returning, as do the
+   * utilities that need those arrays (the NormalGenerator and
+   * Triangulator).  Geometry created BY_REFERENCE (but not
+   * INTERLEAVED or USE_NIO_BUFFER) from packed storage shares the
+   * packed arrays with the GeometryArray.
+   * @param packed true to hold the vertex data in float arrays,
+   * false to hold it in vecmath objects.
+   * @see #getCoordinateData()
+   */
+  public void setPackedStorage(boolean packed)
+  {
+      if (packed) pack();
+      else unpack();
+  } // End of setPackedStorage
+
+
+
+  /**
+   * Returns true if the vertex data is currently held in flat
+   * float arrays.
+   * @see #setPackedStorage(boolean)
+   */
+  public boolean getPackedStorage()
+  {
+      return packed;
+  } // End of getPackedStorage
+
+
+
+  /**
+   * Retrieves the coordinates as a float array with three values per
+   * vertex.  If packed storage is in use a reference to the internal
+   * array is returned, otherwise a new array is built from the
+   * vecmath data.  Does not change the storage mode.
+   * @see #setPackedStorage(boolean)
+   */
+  public float[] getCoordinateData()
+  {
+      if (packed) return coordData;
+      return packData(coordinates);
+  } // End of getCoordinateData
+
+
+
+  /**
+   * Retrieves the colors as a float array with getNumColorComponents()
+   * values per vertex.  If packed storage is in use a reference to the
+   * internal array is returned, otherwise a new array is built from the
+   * vecmath data.  Does not change the storage mode.
+   * @see #setPackedStorage(boolean)
+   */
+  public float[] getColorData()
+  {
+      if (packed) return colorData;
+      if (colors3 != null) return packData(colors3);
+      return packData(colors4);
+  } // End of getColorData
+
+
+
+  /**
+   * Retrieves the normals as a float array with three values per
+   * vertex.  If packed storage is in use a reference to the internal
+   * array is returned, otherwise a new array is built from the
+   * vecmath data.  Does not change the storage mode.
+   * @see #setPackedStorage(boolean)
+   */
+  public float[] getNormalData()
+  {
+      if (packed) return normalData;
+      return packData(normals);
+  } // End of getNormalData
+
+
+
+  /**
+   * Retrieves the specified texture coordinate set as a float array
+   * with getNumTexCoordComponents() values per vertex.  If packed
+   * storage is in use a reference to the internal array is returned,
+   * otherwise a new array is built from the vecmath data.  Does not
+   * change the storage mode.
+   * @param texCoordSet The index of the texture coordinate set to
+   * retrieve.
+   * @throws IllegalArgumentException If <code> texCoordSet</code> < 0
+   * or <code>texCoordSet >= texCoordSetCount</code>
+   * @see #setPackedStorage(boolean)
+   */
+  public float[] getTextureCoordinateData(int texCoordSet)
+  {
+      if ((texCoordSet >= texCoordSetCount) || (texCoordSet < 0))
+	  throw new IllegalArgumentException(
+	      J3dUtilsI18N.getString("GeometryInfo18"));
+      if (packed) return texCoordData[texCoordSet];
+      return packData(texCoordSets[texCoordSet]);
+  } // End of getTextureCoordinateData
+
+
+
+  // Converts an array of Tuple2f, Tuple3f or Tuple4f values into a
+  // float array.  Unlike vecmathToFloat, null and empty arrays are
+  // allowed.
+  private float[] packData(Object data[])
+  {
+      if (data == null) return null;
+      if (data.length == 0) return new float[0];
+      return vecmathToFloat(data);
+  } // End of packData
+
+
+
+  // Converts byte color components to floats in the range [0, 1]
+  private float[] byteToFloat(byte colors[], int dim)
+  {
+      float c[] = new float[colors.length / dim * dim];
+      for (int i = 0 ; i < c.length ; i++)
+	  c[i] = (float)(colors[i] & 0xff) / 255.0f;
+      return c;
+  } // End of byteToFloat
+
+
+
+  // Moves all vertex data from the vecmath arrays into the packed arrays
+  private void pack()
+  {
+      if (packed) return;
+
+      coordData = packData(coordinates);
+      colorDim = getNumColorComponents();
+      colorData = (colors3 != null) ? packData(colors3) : packData(colors4);
+      normalData = packData(normals);
+      texCoordData = null;
+      if (texCoordSets != null) {
+	  texCoordData = new float[texCoordSets.length][];
+	  for (int i = 0 ; i < texCoordSets.length ; i++) {
+	      texCoordData[i] = packData(texCoordSets[i]);
+	      texCoordSets[i] = null;
+	  }
+      }
+
+      coordinates = null;
+      colors3 = null;
+      colors4 = null;
+      normals = null;
+      packed = true;
+  } // End of pack
+
+
+
+  // Moves all vertex data from the packed arrays back into vecmath arrays
+  private void unpack()
+  {
+      if (!packed) return;
+      packed = false;
+
+      setCoordinates(coordData);
+      if (colorDim == 4) setColors4(colorData);
+      else setColors3(colorData);
+      setNormals(normalData);
+      if (texCoordData != null) {
+	  for (int i = 0 ; i < texCoordData.length ; i++) {
+	      if (texCoordData[i] != null)
+		  setTextureCoordinates(i, texCoordData[i]);
+	  }
+      }
+
+      coordData = null;
+      colorData = null;
+      colorDim = 0;
+      normalData = null;
+      texCoordData = null;
+  } // End of unpack
+
+
+
+  // Helpers that answer questions about the vertex data regardless
+  // of the storage mode
+
+  private boolean hasCoordinates()
+  {
+      return packed ? (coordData != null) : (coordinates != null);
+  } // End of hasCoordinates
+
+  private boolean hasColors()
+  {
+      if (packed) return colorData != null;
+      return (colors3 != null) || (colors4 != null);
+  } // End of hasColors
+
+  private boolean hasNormals()
+  {
+      return packed ? (normalData != null) : (normals != null);
+  } // End of hasNormals
+
+  private boolean hasTexCoordSet(int texCoordSet)
+  {
+      if (packed) return texCoordData[texCoordSet] != null;
+      return texCoordSets[texCoordSet] != null;
+  } // End of hasTexCoordSet
+
+  private int getCoordinateCount()
+  {
+      return packed ? coordData.length / 3 : coordinates.length;
+  } // End of getCoordinateCount
+
+
+
   /*
    * This routine will return an index list for any array of objects.
    */
   int[] getListIndices(Object list[])
   {
+      // Arrays of vecmath tuples are copied into a float array and
+      // indexed with a primitive hash table
+      int dim = VertexHash.tupleSize(list);
+      if (dim != 0) {
+	  float data[] = VertexHash.tupleData(list, dim);
+	  if (data != null) return VertexHash.indexFloats(data, dim);
+      }
+
       // Create list of indices to return
       int indices[] = new int[list.length];
 
@@ -1569,40 +1943,28 @@ public class GeometryInfo {
 
 
 
-  // Class to hash 'size' integers
-  private class IndexRow {
-    int[] val;
-    int size;
-    //private static final int HASHCONST = 0xBABEFACE;
-
-    @Override
-    public int hashCode()
-    {
-    	return Arrays.hashCode(val);
-    } // End of IndexRow.hashCode
-
-    @Override
-    public boolean equals(Object obj)
-    {
-    	return Arrays.equals(val, ((IndexRow) obj).val);
-    } // End of IndexRow.equals()
+  /*
+   * This routine will return an index list for packed data with dim
+   * floats per entry.  Entries are equal when all their components
+   * are equal, matching the equals() test of the vecmath classes.
+   */
+  int[] getListIndices(float data[], int dim)
+  {
+      return VertexHash.indexFloats(data, dim);
+  } // End of getListIndices(float[], int)
 
-    public int get(int index)
-    {
-      return val[index];
-    } // End of IndexRow.get
 
-    public void set(int index, int value)
-    {
-      val[index] = value;
-    } // End of IndexRow.set
 
-    IndexRow(int numColumns)
-    {
-      size = numColumns;
-      val = new int[size];
-    } // End of IndexRow constructor
-  } // End of class IndexRow
+  /*
+   * Index list for the coordinates.  Identical to getListIndices
+   * unless a weld tolerance has been set, in which case nearby
+   * points share an index.
+   */
+  private int[] getCoordinateListIndices(float data[])
+  {
+      if (weldEpsilon > 0.0f) return VertexHash.weldPoints(data, weldEpsilon);
+      return VertexHash.indexFloats(data, 3);
+  } // End of getCoordinateListIndices
 
 
 
@@ -1648,75 +2010,77 @@ public class GeometryInfo {
         if (normalIndices != null) numLists++;
 	numLists += texCoordSetCount;
 
-	// Make single array containing all indices
+	// Make single array containing all indices, numLists per row
 	int n = coordinateIndices.length;
-	IndexRow[] ir = new IndexRow[n];
-	int j;
+	int ir[] = new int[n * numLists];
+	int j = 0;
 	for (int i = 0 ; i < n ; i++) {
-	  ir[i] = new IndexRow(numLists);
-	  j = 0;
-	  ir[i].set(j++, coordinateIndices[i]);
-	  if (colorIndices != null) ir[i].set(j++, colorIndices[i]);
-	  if (normalIndices != null) ir[i].set(j++, normalIndices[i]);
+	  ir[j++] = coordinateIndices[i];
+	  if (colorIndices != null) ir[j++] = colorIndices[i];
+	  if (normalIndices != null) ir[j++] = normalIndices[i];
 	  for (int k = 0 ; k < texCoordSetCount ; k++) {
-	    ir[i].set(j++, texCoordIndexSets[k][i]);
+	    ir[j++] = texCoordIndexSets[k][i];
 	  }
 	}
 
 	// Get index into that array
-	int[] coordOnlyIndices = getListIndices(ir);
+	int[] coordOnlyIndices = VertexHash.indexInts(ir, numLists);
 
 	// Get rid of duplicate rows
 	int newInd[] = new int[coordOnlyIndices.length];
-	ir = (IndexRow[])compactData(coordOnlyIndices, ir, newInd);
+	ir = compactRows(coordOnlyIndices, ir, numLists, newInd);
 	coordOnlyIndices = newInd;
+	int rows = ir.length / numLists;
 
 	// Reformat data lists to correspond to new index
 
-	// Allocate arrays to hold reformatted data
-	Point3f[] newCoords = new Point3f[ir.length];
-	Color3f[] newColors3 = null;
-	Color4f[] newColors4 = null;
-	Vector3f[] newNormals = null;
-	Object newTexCoordSets[][] = null;
-	if (colors3 != null) newColors3 = new Color3f[ir.length];
-	else if (colors4 != null) newColors4 = new Color4f[ir.length];
-	if (normals != null) newNormals = new Vector3f[ir.length];
-	for (int i = 0 ; i < texCoordSetCount ; i++) {
-	  if (texCoordDim == 2) {
-	    if (i == 0) newTexCoordSets = new TexCoord2f[texCoordSetCount][];
-	    newTexCoordSets[i] = new TexCoord2f[ir.length];
-	  } else if (texCoordDim == 3) {
-	    if (i == 0) newTexCoordSets = new TexCoord3f[texCoordSetCount][];
-	    newTexCoordSets[i] = new TexCoord3f[ir.length];
-	  } else if (texCoordDim == 4) {
-	    if (i == 0) newTexCoordSets = new TexCoord4f[texCoordSetCount][];
-	    newTexCoordSets[i] = new TexCoord4f[ir.length];
+	if (packed) {
+	  reorderPackedData(ir, numLists);
+	} else {
+	  // Allocate arrays to hold reformatted data
+	  Point3f[] newCoords = new Point3f[rows];
+	  Color3f[] newColors3 = null;
+	  Color4f[] newColors4 = null;
+	  Vector3f[] newNormals = null;
+	  Object newTexCoordSets[][] = null;
+	  if (colors3 != null) newColors3 = new Color3f[rows];
+	  else if (colors4 != null) newColors4 = new Color4f[rows];
+	  if (normals != null) newNormals = new Vector3f[rows];
+	  for (int i = 0 ; i < texCoordSetCount ; i++) {
+	    if (texCoordDim == 2) {
+	      if (i == 0) newTexCoordSets = new TexCoord2f[texCoordSetCount][];
+	      newTexCoordSets[i] = new TexCoord2f[rows];
+	    } else if (texCoordDim == 3) {
+	      if (i == 0) newTexCoordSets = new TexCoord3f[texCoordSetCount][];
+	      newTexCoordSets[i] = new TexCoord3f[rows];
+	    } else if (texCoordDim == 4) {
+	      if (i == 0) newTexCoordSets = new TexCoord4f[texCoordSetCount][];
+	      newTexCoordSets[i] = new TexCoord4f[rows];
+	    }
 	  }
-	}
 
-	// Copy data into new arrays
-	n = ir.length;
-	for (int i = 0 ; i < n ; i++) {
+	  // Copy data into new arrays
 	  j = 0;
-	  newCoords[i] = coordinates[(ir[i]).get(j++)];
-	  if (colors3 != null) {
-	    newColors3[i] = colors3[(ir[i]).get(j++)];
-	  } else if (colors4 != null) {
-	    newColors4[i] = colors4[(ir[i]).get(j++)];
-	  }
-	  if (normals != null) newNormals[i] = normals[(ir[i]).get(j++)];
-	  for (int k = 0 ; k < texCoordSetCount ; k++) {
-	    newTexCoordSets[k][i] = texCoordSets[k][(ir[i]).get(j++)];
+	  for (int i = 0 ; i < rows ; i++) {
+	    newCoords[i] = coordinates[ir[j++]];
+	    if (colors3 != null) {
+	      newColors3[i] = colors3[ir[j++]];
+	    } else if (colors4 != null) {
+	      newColors4[i] = colors4[ir[j++]];
+	    }
+	    if (normals != null) newNormals[i] = normals[ir[j++]];
+	    for (int k = 0 ; k < texCoordSetCount ; k++) {
+	      newTexCoordSets[k][i] = texCoordSets[k][ir[j++]];
+	    }
 	  }
-	}
 
-	// Replace old arrays with new arrays
-        coordinates = newCoords;
-	colors3 = newColors3;
-	colors4 = newColors4;
-	normals = newNormals;
-	texCoordSets = newTexCoordSets;
+	  // Replace old arrays with new arrays
+	  coordinates = newCoords;
+	  colors3 = newColors3;
+	  colors4 = newColors4;
+	  normals = newNormals;
+	  texCoordSets = newTexCoordSets;
+	}
 	coordinateIndices = coordOnlyIndices;
 	colorIndices = null;
 	normalIndices = null;
@@ -1729,11 +2093,11 @@ public class GeometryInfo {
 	// later.
 
 	int n = coordinateIndices.length;
-	if ((colors3 != null) || (colors4 != null)) {
+	if (hasColors()) {
 	  colorIndices = new int[n];
 	  for (int i = 0 ; i < n ; i++) colorIndices[i] = coordinateIndices[i];
 	}
-	if (normals != null) {
+	if (hasNormals()) {
 	  normalIndices = new int[n];
 	  for (int i = 0 ; i < n ; i++) normalIndices[i] = coordinateIndices[i];
 	}
@@ -1750,7 +2114,30 @@ public class GeometryInfo {
 	// No need to indexify if already indexed
 	if (coordinateIndices != null) return;
 
-	coordinateIndices = getListIndices(coordinates);
+	if (executor != null) {
+	  indexifyParallel();
+	  return;
+	}
+
+	if (packed) {
+	  coordinateIndices = getCoordinateListIndices(coordData);
+	  if (colorData != null)
+	    colorIndices = getListIndices(colorData, colorDim);
+	  if (normalData != null)
+	    normalIndices = getListIndices(normalData, 3);
+	  texCoordIndexSets = new int[texCoordSetCount][];
+	  for (int i = 0 ; i < texCoordSetCount ; i++) {
+	    texCoordIndexSets[i] = getListIndices(texCoordData[i],
+						  texCoordDim);
+	  }
+	  coordOnly = false;
+	  return;
+	}
+
+	if (weldEpsilon > 0.0f) {
+	  coordinateIndices = getCoordinateListIndices(
+	      VertexHash.tupleData(coordinates, 3));
+	} else coordinateIndices = getListIndices(coordinates);
 
 	if (colors3 != null) colorIndices = getListIndices(colors3);
 	else if (colors4 != null) colorIndices = getListIndices(colors4);
@@ -1765,7 +2152,7 @@ public class GeometryInfo {
 	coordOnly = false;
       }
 
-      if ((DEBUG & 1) == 1) {
+      if (((DEBUG & 1) == 1) && !packed) {
 	  System.out.println("Coordinate Array:");
 	  for (int i = 0 ; i < coordinates.length ; i++) {
 	      System.out.println("  " + i + " " + coordinates[i] +
@@ -1788,6 +2175,165 @@ public class GeometryInfo {
 
 
 
+  /**
+   * Sets the ExecutorService used by indexify(), compact() and the
+   * triangulation of POLYGON_ARRAY data.  When an executor is set, the
+   * coordinate, color, normal and texture coordinate lists are
+   * processed at the same time, very long lists are split into several
+   * pieces, and the faces of large polygon meshes are triangulated at
+   * the same time.  The results are identical to those computed on the
+   * calling thread.  The number of threads used is controlled by the
+   * executor, for example <code>new ForkJoinPool(4)</code> or
+   * <code>Executors.newFixedThreadPool(4)</code>.  The GeometryInfo
+   * does not shut the executor down.
+   * @param executor The executor to use, or null (the default) to do
+   * all of the work on the calling thread.
+   */
+  public void setExecutorService(ExecutorService executor)
+  {
+    this.executor = executor;
+  } // End of setExecutorService
+
+
+
+  /**
+   * Returns the ExecutorService used by indexify() and compact(), or
+   * null if they run on the calling thread.
+   * @see #setExecutorService(ExecutorService)
+   */
+  public ExecutorService getExecutorService()
+  {
+    return executor;
+  } // End of getExecutorService
+
+
+
+  // indexify(false) on the executor, for data that has no indices
+  private void indexifyParallel()
+  {
+      int numStreams = 1 + texCoordSetCount;
+      if (hasColors()) numStreams++;
+      if (hasNormals()) numStreams++;
+
+      Object streams[] = new Object[numStreams];
+      int dims[] = new int[numStreams];
+      float welds[] = new float[numStreams];
+      int s = 0;
+      streams[s] = packed ? (Object)coordData : (Object)coordinates;
+      dims[s] = 3;
+      welds[s++] = weldEpsilon;
+      int colorStream = -1;
+      if (hasColors()) {
+	  colorStream = s;
+	  if (packed) streams[s] = colorData;
+	  else streams[s] = (colors3 != null) ? (Object)colors3 : (Object)colors4;
+	  dims[s++] = getNumColorComponents();
+      }
+      int normalStream = -1;
+      if (hasNormals()) {
+	  normalStream = s;
+	  streams[s] = packed ? (Object)normalData : (Object)normals;
+	  dims[s++] = 3;
+      }
+      int texStream = s;
+      for (int i = 0 ; i < texCoordSetCount ; i++) {
+	  streams[s] = packed ? (Object)texCoordData[i] :
+				(Object)texCoordSets[i];
+	  dims[s++] = texCoordDim;
+      }
+
+      int result[][] = new ParallelIndexer(executor).index(streams, dims,
+							  welds);
+
+      // Object arrays that couldn't be converted to floats
+      for (int i = 0 ; i < numStreams ; i++) {
+	  if (result[i] == null) result[i] = getListIndices((Object[])streams[i]);
+      }
+
+      coordinateIndices = result[0];
+      if (colorStream != -1) colorIndices = result[colorStream];
+      if (normalStream != -1) normalIndices = result[normalStream];
+      texCoordIndexSets = new int[texCoordSetCount][];
+      for (int i = 0 ; i < texCoordSetCount ; i++)
+	  texCoordIndexSets[i] = result[texStream + i];
+      coordOnly = false;
+  } // End of indexifyParallel
+
+
+
+  /**
+   * Sets the distance below which indexify() treats two coordinates
+   * as the same point.  With the default of 0 only identical
+   * coordinates share an index.  With a positive value, each
+   * coordinate is given the index of the first earlier coordinate
+   * within that distance, so near-duplicate vertices from sloppy
+   * source data are welded together.  Only coordinates are welded;
+   * colors, normals and texture coordinates are still matched
+   * exactly.  Call compact() afterwards to remove the coordinates
+   * that are no longer referenced.
+   * @param epsilon The weld distance.  Values less than or equal to
+   * zero turn welding off.
+   */
+  public void setWeldEpsilon(float epsilon)
+  {
+    weldEpsilon = (epsilon > 0.0f) ? epsilon : 0.0f;
+  } // End of setWeldEpsilon
+
+
+
+  /**
+   * Returns the weld distance used by indexify().
+   * @see #setWeldEpsilon(float)
+   */
+  public float getWeldEpsilon()
+  {
+    return weldEpsilon;
+  } // End of getWeldEpsilon
+
+
+
+  // Reorders the packed data lists so that entry i of each list holds
+  // the data referenced by row i of ir, which has numLists indices per
+  // row.  Used when converting packed data to USE_COORD_INDEX_ONLY
+  // format.
+  private void reorderPackedData(int ir[], int numLists)
+  {
+      int n = ir.length / numLists;
+      float newCoordData[] = new float[n * 3];
+      float newColorData[] = null;
+      float newNormalData[] = null;
+      float newTexCoordData[][] = new float[texCoordSetCount][];
+      if (colorData != null) newColorData = new float[n * colorDim];
+      if (normalData != null) newNormalData = new float[n * 3];
+      for (int k = 0 ; k < texCoordSetCount ; k++)
+	  newTexCoordData[k] = new float[n * texCoordDim];
+
+      int j = 0;
+      for (int i = 0 ; i < n ; i++) {
+	  System.arraycopy(coordData, ir[j++] * 3,
+			   newCoordData, i * 3, 3);
+	  if (colorData != null) {
+	      System.arraycopy(colorData, ir[j++] * colorDim,
+			       newColorData, i * colorDim, colorDim);
+	  }
+	  if (normalData != null) {
+	      System.arraycopy(normalData, ir[j++] * 3,
+			       newNormalData, i * 3, 3);
+	  }
+	  for (int k = 0 ; k < texCoordSetCount ; k++) {
+	      System.arraycopy(texCoordData[k], ir[j++] * texCoordDim,
+			       newTexCoordData[k], i * texCoordDim, texCoordDim);
+	  }
+      }
+
+      coordData = newCoordData;
+      colorData = newColorData;
+      normalData = newNormalData;
+      texCoordData = newTexCoordData;
+  } // End of reorderPackedData
+
+
+
   /**
    * Allocates an array of the same type as the input type. This allows us to
    * use a generic compactData method.
@@ -1819,9 +2365,6 @@ public class GeometryInfo {
 	  newData = new TexCoord3f[num];
       } else if (data instanceof org.jogamp.vecmath.TexCoord4f[]) {
 	  newData = new TexCoord4f[num];
-      } else if (data instanceof IndexRow[]) {
-	  // Hack so we can use compactData for coordIndexOnly
-	  newData = new IndexRow[num];
       } else throw new IllegalArgumentException(
 	  J3dUtilsI18N.getString("GeometryInfo9"));
       return newData;
@@ -1884,6 +2427,69 @@ public class GeometryInfo {
 
 
 
+  /**
+   * Compacts packed data with dim floats per entry.  Works like
+   * compactData(int[], Object[], int[]).
+   */
+  private float[] compactData(int indices[], float data[], int dim,
+			      int newInd[]) {
+      int numUnique = 0;
+      int translationTable[] = new int[data.length / dim];
+      for (int i = 0 ; i < indices.length ; i++) {
+	  if (translationTable[indices[i]] == 0) {
+
+	      numUnique++;
+	      translationTable[indices[i]] = 1;
+	  }
+      }
+      float newData[] = new float[numUnique * dim];
+      int newIdx = 0;
+      for (int i = 0 ; i < translationTable.length ; i++) {
+	  if (translationTable[i] != 0) {
+	      System.arraycopy(data, i * dim, newData, newIdx * dim, dim);
+	      translationTable[i] = newIdx++;
+	  }
+      }
+      for (int i = 0 ; i < indices.length ; i++) {
+	  newInd[i] = translationTable[indices[i]];
+      }
+      return newData;
+  } // End of compactData(int[], float[], int, int[])
+
+
+
+  /**
+   * Removes duplicate rows from an array of index rows with numLists
+   * ints per row.  Works like compactData(int[], Object[], int[]).
+   */
+  private int[] compactRows(int indices[], int rows[], int numLists,
+			    int newInd[]) {
+      int numUnique = 0;
+      int translationTable[] = new int[rows.length / numLists];
+      for (int i = 0 ; i < indices.length ; i++) {
+	  if (translationTable[indices[i]] == 0) {
+
+	      numUnique++;
+	      translationTable[indices[i]] = 1;
+	  }
+      }
+      int newRows[] = new int[numUnique * numLists];
+      int newIdx = 0;
+      for (int i = 0 ; i < translationTable.length ; i++) {
+	  if (translationTable[i] != 0) {
+	      System.arraycopy(rows, i * numLists, newRows, newIdx * numLists,
+			       numLists);
+	      translationTable[i] = newIdx++;
+	  }
+      }
+      for (int i = 0 ; i < indices.length ; i++) {
+	  newInd[i] = translationTable[indices[i]];
+      }
+      return newRows;
+  } // End of compactRows
+
+
+
   /**
    * Remove unused data from an indexed dataset.
    * Indexed data may contain data entries that are never referenced by
@@ -1910,6 +2516,16 @@ public class GeometryInfo {
       // USE_COORD_INDEX_ONLY never has unused data
       if (coordOnly) return;
 
+      if (executor != null) {
+	  compactParallel();
+	  return;
+      }
+
+      if (packed) {
+	  compactPacked();
+	  return;
+      }
+
       int newInd[] = new int[coordinateIndices.length];
       coordinates =
 	  (Point3f[])compactData(coordinateIndices, coordinates, newInd);
@@ -1940,6 +2556,120 @@ public class GeometryInfo {
 
 
 
+  // compact() for packed data
+  private void compactPacked()
+  {
+      int newInd[] = new int[coordinateIndices.length];
+      coordData = compactData(coordinateIndices, coordData, 3, newInd);
+      coordinateIndices = newInd;
+
+      if (colorIndices != null) {
+	  newInd = new int[colorIndices.length];
+	  colorData = compactData(colorIndices, colorData, colorDim, newInd);
+	  colorIndices = newInd;
+      }
+
+      if (normalIndices != null) {
+	  newInd = new int[normalIndices.length];
+	  normalData = compactData(normalIndices, normalData, 3, newInd);
+	  normalIndices = newInd;
+      }
+
+      for (int i = 0 ; i < texCoordSetCount ; i++) {
+	  newInd = new int[texCoordIndexSets[i].length];
+	  texCoordData[i] = compactData(texCoordIndexSets[i],
+					texCoordData[i], texCoordDim, newInd);
+	  texCoordIndexSets[i] = newInd;
+      }
+  } // End of compactPacked
+
+
+
+  // compact() on the executor, one task for each data list
+  private void compactParallel()
+  {
+      List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+
+      tasks.add(new Callable<Object>() {
+	  @Override
+	  public Object call() {
+	      int newInd[] = new int[coordinateIndices.length];
+	      if (packed) {
+		  coordData = compactData(coordinateIndices, coordData, 3,
+					  newInd);
+	      } else {
+		  coordinates = (Point3f[])compactData(coordinateIndices,
+						       coordinates, newInd);
+	      }
+	      coordinateIndices = newInd;
+	      return null;
+	  }
+      });
+
+      if (colorIndices != null) {
+	  tasks.add(new Callable<Object>() {
+	      @Override
+	      public Object call() {
+		  int newInd[] = new int[colorIndices.length];
+		  if (packed) {
+		      colorData = compactData(colorIndices, colorData,
+					      colorDim, newInd);
+		  } else if (colors3 != null) {
+		      colors3 = (Color3f[])compactData(colorIndices, colors3,
+						       newInd);
+		  } else if (colors4 != null) {
+		      colors4 = (Color4f[])compactData(colorIndices, colors4,
+						       newInd);
+		  }
+		  colorIndices = newInd;
+		  return null;
+	      }
+	  });
+      }
+
+      if (normalIndices != null) {
+	  tasks.add(new Callable<Object>() {
+	      @Override
+	      public Object call() {
+		  int newInd[] = new int[normalIndices.length];
+		  if (packed) {
+		      normalData = compactData(normalIndices, normalData, 3,
+					       newInd);
+		  } else {
+		      normals = (Vector3f[])compactData(normalIndices, normals,
+							newInd);
+		  }
+		  normalIndices = newInd;
+		  return null;
+	      }
+	  });
+      }
+
+      for (int i = 0 ; i < texCoordSetCount ; i++) {
+	  final int set = i;
+	  tasks.add(new Callable<Object>() {
+	      @Override
+	      public Object call() {
+		  int newInd[] = new int[texCoordIndexSets[set].length];
+		  if (packed) {
+		      texCoordData[set] = compactData(texCoordIndexSets[set],
+						      texCoordData[set],
+						      texCoordDim, newInd);
+		  } else {
+		      texCoordSets[set] = compactData(texCoordIndexSets[set],
+						      texCoordSets[set], newInd);
+		  }
+		  texCoordIndexSets[set] = newInd;
+		  return null;
+	      }
+	  });
+      }
+
+      ParallelIndexer.invokeAll(executor, tasks);
+  } // End of compactParallel
+
+
+
   /**
    * Check the data to make sure everything's consistent.
    */
@@ -1949,7 +2679,7 @@ public class GeometryInfo {
       //
       // Coordinates are required
       //
-      if (coordinates == null) {
+      if (!hasCoordinates()) {
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo3"));
       }
@@ -1957,10 +2687,10 @@ public class GeometryInfo {
       //
       // Check for indices with no data
       //
-      if ((colors3 == null) && (colors4 == null) && (colorIndices != null))
+      if (!hasColors() && (colorIndices != null))
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo4"));
-      if ((normals == null) && (normalIndices != null))
+      if (!hasNormals() && (normalIndices != null))
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo11"));
 
@@ -1968,7 +2698,7 @@ public class GeometryInfo {
       // Make sure all TextureCoordinate data is set (indices or not)
       //
       for (int i = 0 ; i < texCoordSetCount ; i++) {
-	if (texCoordSets[i] == null)
+	if (!hasTexCoordSet(i))
 	  throw new IllegalArgumentException(
 		  J3dUtilsI18N.getString("GeometryInfo10"));
       }
@@ -1996,9 +2726,8 @@ public class GeometryInfo {
 	    throw new IllegalArgumentException(
 	      J3dUtilsI18N.getString("GeometryInfo20"));
 	  }
-	} else if (((colors3 != null) || (colors4 != null)) &&
-	         (colorIndices == null)) badData = true;
-	else if ((normals != null) && (normalIndices == null)) badData = true;
+	} else if (hasColors() && (colorIndices == null)) badData = true;
+	else if (hasNormals() && (normalIndices == null)) badData = true;
 	else if ((texCoordSetCount > 0) && !texInds) badData = true;
 	if (badData) throw new
 	  IllegalArgumentException(J3dUtilsI18N.getString("GeometryInfo19"));
@@ -2008,10 +2737,10 @@ public class GeometryInfo {
       // Make sure index lists are all the same length
       //
       if ((coordinateIndices != null) && (!coordOnly)) {
-	  if (((colors3 != null) || (colors4 != null)) &&
+	  if (hasColors() &&
 	      (colorIndices.length != coordinateIndices.length))
 	    badData = true;
-	  else if ((normals != null) &&
+	  else if (hasNormals() &&
 	           (normalIndices.length != coordinateIndices.length))
 	    badData = true;
 	  else {
@@ -2044,7 +2773,7 @@ public class GeometryInfo {
 
       // Find out how much data we have
       int count;
-      if (coordinateIndices == null) count = coordinates.length;
+      if (coordinateIndices == null) count = getCoordinateCount();
       else count = coordinateIndices.length;
 
       //
@@ -2118,6 +2847,11 @@ public class GeometryInfo {
 	  // Switch from USE_COORD_INDEX_ONLY format
 	  if (coordOnly) indexify(false);
 
+	  if (packed) {
+	      unindexifyPacked();
+	      return;
+	  }
+
 	  coordinates =
 	    (Point3f[])unindexifyData(coordinates, coordinateIndices);
 	  coordinateIndices = null;
@@ -2159,6 +2893,43 @@ public class GeometryInfo {
 
 
 
+  /**
+   * Unindexify for packed data with dim floats per entry.
+   */
+  private float[] unindexifyData(float data[], int dim, int index[])
+  {
+      float newData[] = new float[index.length * dim];
+      for (int i = 0 ; i < index.length ; i++) {
+	  System.arraycopy(data, index[i] * dim, newData, i * dim, dim);
+      }
+      return newData;
+  } // End of unindexifyData(float[], int, int[])
+
+
+
+  // unindexify() for packed data
+  private void unindexifyPacked()
+  {
+      coordData = unindexifyData(coordData, 3, coordinateIndices);
+      coordinateIndices = null;
+
+      if (colorData != null)
+	  colorData = unindexifyData(colorData, colorDim, colorIndices);
+      colorIndices = null;
+
+      if (normalData != null) {
+	  normalData = unindexifyData(normalData, 3, normalIndices);
+	  normalIndices = null;
+      }
+
+      for (int i = 0 ; i < texCoordSetCount ; i++)
+	  texCoordData[i] = unindexifyData(texCoordData[i], texCoordDim,
+					   texCoordIndexSets[i]);
+      texCoordIndexSets = new int[texCoordSetCount][];
+  } // End of unindexifyPacked
+
+
+
   /**
    * Calculate vertexFormat based on data.
    */
@@ -2166,10 +2937,11 @@ public class GeometryInfo {
   {
       int vertexFormat = GeometryArray.COORDINATES;
 
-      if (colors3 != null) vertexFormat |= GeometryArray.COLOR_3;
-      else if (colors4 != null) vertexFormat |= GeometryArray.COLOR_4;
+      int numColors = getNumColorComponents();
+      if (numColors == 3) vertexFormat |= GeometryArray.COLOR_3;
+      else if (numColors == 4) vertexFormat |= GeometryArray.COLOR_4;
 
-      if (normals != null) vertexFormat |= GeometryArray.NORMALS;
+      if (hasNormals()) vertexFormat |= GeometryArray.NORMALS;
 
       if (texCoordDim == 2)
 	  vertexFormat |= GeometryArray.TEXTURE_COORDINATE_2;
@@ -2191,6 +2963,19 @@ public class GeometryInfo {
    */
   private int getVertexCount()
   {
+      if (packed) {
+	  int vertexCount = coordData.length / 3;
+	  if ((colorData != null) && (colorData.length / colorDim > vertexCount))
+	      vertexCount = colorData.length / colorDim;
+	  if ((normalData != null) && (normalData.length / 3 > vertexCount))
+	      vertexCount = normalData.length / 3;
+	  for (int i = 0 ; i < texCoordSetCount ; i++) {
+	      if (texCoordData[i].length / texCoordDim > vertexCount)
+		  vertexCount = texCoordData[i].length / texCoordDim;
+	  }
+	  return vertexCount;
+      }
+
       int vertexCount = coordinates.length;
 
       if (colors3 != null) {
@@ -2262,7 +3047,9 @@ public class GeometryInfo {
   private void fillIn(GeometryArray ga, boolean byRef, boolean interleaved,
 		      boolean nio)
   {
-      if (interleaved) {
+      if (packed) {
+	fillInPacked(ga, byRef, interleaved, nio);
+      } else if (interleaved) {
 	// Calculate number of words per vertex
 	int wpv = 3;                      // Always have coordinate data
 	if (normals != null) wpv += 3;
@@ -2397,6 +3184,75 @@ public class GeometryInfo {
 
 
 
+  // Creates a direct FloatBuffer holding a copy of the data
+  private J3DBuffer toBuffer(float data[])
+  {
+      ByteBuffer b = ByteBuffer.allocateDirect(data.length * 4);
+      FloatBuffer f = b.order(ByteOrder.nativeOrder()).asFloatBuffer();
+      f.put(data);
+      return new J3DBuffer(f);
+  } // End of toBuffer
+
+
+
+  /**
+   * Fill in the vertex data of the GeometryArray object from packed
+   * storage.  Used by fillIn, which sets the indices.
+   */
+  private void fillInPacked(GeometryArray ga, boolean byRef,
+			    boolean interleaved, boolean nio)
+  {
+      if (interleaved) {
+	int colors = (colorData != null) ? colorDim : 0;
+	int norms = (normalData != null) ? 3 : 0;
+	int wpv = 3 + colors + norms + (texCoordSetCount * texCoordDim);
+	int n = coordData.length / 3;
+	float[] d = new float[wpv * n];
+
+	int offset = 0;
+	for (int i = 0 ; i < n ; i++) {
+	  for (int j = 0 ; j < texCoordSetCount ; j++) {
+	    System.arraycopy(texCoordData[j], i * texCoordDim,
+			     d, offset, texCoordDim);
+	    offset += texCoordDim;
+	  }
+	  if (colors != 0) {
+	    System.arraycopy(colorData, i * colors, d, offset, colors);
+	    offset += colors;
+	  }
+	  if (norms != 0) {
+	    System.arraycopy(normalData, i * 3, d, offset, 3);
+	    offset += 3;
+	  }
+	  System.arraycopy(coordData, i * 3, d, offset, 3);
+	  offset += 3;
+	}
+	if (nio) ga.setInterleavedVertexBuffer(toBuffer(d));
+	else ga.setInterleavedVertices(d);
+      } else if (nio) {
+	ga.setCoordRefBuffer(toBuffer(coordData));
+	if (colorData != null) ga.setColorRefBuffer(toBuffer(colorData));
+	if (normalData != null) ga.setNormalRefBuffer(toBuffer(normalData));
+	for (int i = 0 ; i < texCoordSetCount ; i++)
+	  ga.setTexCoordRefBuffer(i, toBuffer(texCoordData[i]));
+      } else if (byRef) {
+	// The packed arrays are already in the format GeometryArray wants
+	ga.setCoordRefFloat(coordData);
+	if (colorData != null) ga.setColorRefFloat(colorData);
+	if (normalData != null) ga.setNormalRefFloat(normalData);
+	for (int i = 0 ; i < texCoordSetCount ; i++)
+	  ga.setTexCoordRefFloat(i, texCoordData[i]);
+      } else {
+	ga.setCoordinates(0, coordData);
+	if (colorData != null) ga.setColors(0, colorData);
+	if (normalData != null) ga.setNormals(0, normalData);
+	for (int i = 0 ; i < texCoordSetCount ; i++)
+	  ga.setTextureCoordinates(i, 0, texCoordData[i]);
+      }
+  } // End of fillInPacked
+
+
+
   /**
    * Redo indexes to guarantee connection information.
    * Use this routine if your original data is in indexed format, but
@@ -2550,6 +3406,7 @@ public class GeometryInfo {
 
       if (prim == POLYGON_ARRAY) {
 	  if (tr == null) tr = new Triangulator();
+	  tr.setExecutorService(executor);
 	  tr.triangulate(this);
       } else changeBackToOldPrim();
 
@@ -2562,7 +3419,7 @@ public class GeometryInfo {
 					GeometryArray.INTERLEAVED);
       if (byRef) vertexFormat |= GeometryArray.BY_REFERENCE;
 
-      int vertexCount = coordinates.length;
+      int vertexCount = getCoordinateCount();
 
       // If the texCoordSetMap hasn't been set, assume one set of
       // texture coordinates only and one texture state unit
@@ -2673,6 +3530,7 @@ public class GeometryInfo {
 
       if (prim == POLYGON_ARRAY) {
 	  if (tr == null) tr = new Triangulator();
+	  tr.setExecutorService(executor);
 	  tr.triangulate(this);
       } else changeBackToOldPrim();
 
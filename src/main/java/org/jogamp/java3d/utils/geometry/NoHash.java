@@ -59,6 +59,13 @@ class NoHash {
 
     static final int NIL = -1;
 
+    // Loops with at least this many reflex vertices keep them in a grid, so
+    // that the ear test only looks at reflex vertices near the triangle.
+    static final int GRID_MIN_REFLEX = 64;
+
+    // Average number of reflex vertices per grid cell.
+    static final int GRID_CELL_SIZE = 4;
+
 
     static void insertAfterVtx(Triangulator triRef, int iVtx) {
 	int size;
@@ -91,6 +98,10 @@ class NoHash {
 	    return;
 
 	}
+	if (triRef.reflexGrid) {
+	    deleteFromGrid(triRef, i);
+	    return;
+	}
 	indPnt = triRef.reflexVertices;
 	if(inVtxList(triRef, indPnt)==false)
 	    System.out.println("NoHash:deleteFromList. Problem :Not is InVtxList ..." +
@@ -134,10 +145,120 @@ class NoHash {
 	triRef.noHashingEdges  = false;
 	triRef.noHashingPnts   = false;
 
+	clearReflexGrid(triRef);
 	triRef.numVtxList      = 0;
     }
 
 
+    static void buildReflexGrid(Triangulator triRef) {
+	int i, i4, cell, size;
+	int imin, imax;
+	double y, ymin, ymax;
+	int n = triRef.numVtxList;
+
+	imin = Integer.MAX_VALUE;
+	imax = Integer.MIN_VALUE;
+	ymin = Double.MAX_VALUE;
+	ymax = -Double.MAX_VALUE;
+	for (i = 0; i < n; i++) {
+	    i4 = triRef.fetchData(triRef.vtxList[i].pnt);
+	    if (i4 < imin)  imin = i4;
+	    if (i4 > imax)  imax = i4;
+	    y = triRef.points[i4].y;
+	    if (y < ymin)  ymin = y;
+	    if (y > ymax)  ymax = y;
+	}
+
+	// the points are sorted lexicographically, so a range of point indices
+	// is a range of x coordinates.
+	size = (int)Math.ceil(Math.sqrt((double)n / GRID_CELL_SIZE));
+	triRef.gridSize = size;
+	triRef.gridIMin = imin;
+	triRef.gridColWidth = (imax - imin) / size + 1;
+	triRef.gridYMin = ymin;
+	triRef.gridYScale = (ymax > ymin) ? size / (ymax - ymin) : 0.0;
+
+	if ((triRef.gridHead == null) || (triRef.gridHead.length < size * size))
+	    triRef.gridHead = new int[size * size];
+	for (i = 0; i < size * size; i++)
+	    triRef.gridHead[i] = NIL;
+	if ((triRef.gridNext == null) || (triRef.gridNext.length < n)) {
+	    triRef.gridNext = new int[triRef.vtxList.length];
+	    triRef.gridPrev = new int[triRef.vtxList.length];
+	}
+	if ((triRef.reflexNode == null) ||
+	    (triRef.reflexNode.length < triRef.numList)) {
+	    triRef.reflexNode = new int[triRef.list.length];
+	    for (i = 0; i < triRef.reflexNode.length; i++)
+		triRef.reflexNode[i] = NIL;
+	}
+
+	for (i = 0; i < n; i++) {
+	    i4 = triRef.fetchData(triRef.vtxList[i].pnt);
+	    cell = gridRow(triRef, triRef.points[i4].y) * size + gridCol(triRef, i4);
+	    triRef.gridPrev[i] = NIL;
+	    triRef.gridNext[i] = triRef.gridHead[cell];
+	    if (triRef.gridHead[cell] != NIL)
+		triRef.gridPrev[triRef.gridHead[cell]] = i;
+	    triRef.gridHead[cell] = i;
+	    triRef.reflexNode[triRef.vtxList[i].pnt] = i;
+	}
+
+	triRef.reflexGrid = true;
+    }
+
+
+    static void clearReflexGrid(Triangulator triRef) {
+	if (triRef.reflexGrid) {
+	    for (int i = 0; i < triRef.numVtxList; i++)
+		triRef.reflexNode[triRef.vtxList[i].pnt] = NIL;
+	    triRef.reflexGrid = false;
+	}
+    }
+
+
+    static int gridCol(Triangulator triRef, int i4) {
+	int col = (i4 - triRef.gridIMin) / triRef.gridColWidth;
+	if (col < 0)                  return 0;
+	if (col >= triRef.gridSize)   return triRef.gridSize - 1;
+	return col;
+    }
+
+
+    static int gridRow(Triangulator triRef, double y) {
+	int row = (int)((y - triRef.gridYMin) * triRef.gridYScale);
+	if (row < 0)                  return 0;
+	if (row >= triRef.gridSize)   return triRef.gridSize - 1;
+	return row;
+    }
+
+
+    static void deleteFromGrid(Triangulator triRef, int i) {
+	int node, cell, i4;
+
+	node = triRef.reflexNode[i];
+	// the node may be left over from an earlier loop.
+	if ((node == NIL) || (node >= triRef.numVtxList) ||
+	    (triRef.vtxList[node].pnt != i))
+	    return;
+
+	if (triRef.gridPrev[node] != NIL) {
+	    triRef.gridNext[triRef.gridPrev[node]] = triRef.gridNext[node];
+	}
+	else {
+	    i4 = triRef.fetchData(i);
+	    cell = gridRow(triRef, triRef.points[i4].y) * triRef.gridSize +
+		gridCol(triRef, i4);
+	    triRef.gridHead[cell] = triRef.gridNext[node];
+	}
+	if (triRef.gridNext[node] != NIL)
+	    triRef.gridPrev[triRef.gridNext[node]] = triRef.gridPrev[node];
+
+	triRef.reflexNode[i] = NIL;
+	--triRef.numReflex;
+    }
+
+
 
     static void prepareNoHashEdges(Triangulator triRef,
 				   int currLoopMin, int currLoopMax) {
@@ -154,6 +275,7 @@ class NoHash {
 	int ind, ind1;
 	int i1;
 
+	clearReflexGrid(triRef);
 	triRef.numVtxList    = 0;
 	triRef.reflexVertices = NIL;
 
@@ -171,6 +293,10 @@ class NoHash {
 	    i1 = triRef.fetchData(ind1);
 	} while (ind1 != ind);
 
+	// the reflexVertices list is not kept up to date while the grid is used.
+	if (triRef.numReflex >= GRID_MIN_REFLEX)
+	    buildReflexGrid(triRef);
+
 	triRef.noHashingPnts = true;
 
     }
@@ -178,11 +304,9 @@ class NoHash {
 
     static boolean noHashIntersectionExists(Triangulator triRef, int i1, int ind1,
 					    int i2, int i3, BBox bb) {
-	int indVtx, ind5;
+	int indVtx;
 	int indPnt;
-	int i4, i5;
 	int type[] = new int[1];
-	boolean flag;
 	double y;
 
 	if(triRef.noHashingPnts==false)
@@ -205,32 +329,16 @@ class NoHash {
 	// check whether the triangle  i1, i2, i3  contains any reflex vertex; we
 	// assume that  i2, i3  is the new diagonal, and that the triangle is
 	// oriented CCW.
+	if (triRef.reflexGrid)
+	    return gridIntersectionExists(triRef, i1, ind1, i2, i3, bb);
+
 	indPnt = triRef.reflexVertices;
-	flag    = false;
 	do {
 	    // assert(InVtxList(ind_pnt));
 	    indVtx = triRef.vtxList[indPnt].pnt;
 	    // assert(InPolyList(ind_vtx));
-	    i4 = triRef.fetchData(indVtx);
-
-
-	    if (bb.pntInBBox(triRef, i4)) {
-		// only if the reflex vertex lies inside the BBox of the triangle.
-		ind5 = triRef.fetchNextData(indVtx);
-		i5 = triRef.fetchData(ind5);
-		if ((indVtx != ind1)  &&  (indVtx != ind5)) {
-		    // only if this node isn't  i1,  and if it still belongs to the
-		    // polygon
-		    if (i4 == i1) {
-			if (Degenerate.handleDegeneracies(triRef, i1, ind1, i2, i3, i4, indVtx))
-			    return  true;
-		    }
-		    else if ((i4 != i2)  &&  (i4 != i3)) {
-			flag = Numerics.vtxInTriangle(triRef, i1, i2, i3, i4, type);
-			if (flag)   return  true;
-		    }
-		}
-	    }
+	    if (reflexVtxInTriangle(triRef, i1, ind1, i2, i3, bb, indVtx, type))
+		return true;
 	    indPnt = triRef.vtxList[indPnt].next;
 
 	} while (indPnt != NIL);
@@ -239,6 +347,60 @@ class NoHash {
     }
 
 
+    static boolean gridIntersectionExists(Triangulator triRef, int i1, int ind1,
+					  int i2, int i3, BBox bb) {
+	int row, col, node;
+	int col0, col1, row1;
+	int type[] = new int[1];
+
+	// only the cells overlapping the BBox of the triangle can hold a
+	// reflex vertex inside it.
+	col0 = gridCol(triRef, bb.imin);
+	col1 = gridCol(triRef, bb.imax);
+	row1 = gridRow(triRef, bb.ymax);
+	for (row = gridRow(triRef, bb.ymin);  row <= row1;  ++row) {
+	    for (col = col0;  col <= col1;  ++col) {
+		node = triRef.gridHead[row * triRef.gridSize + col];
+		while (node != NIL) {
+		    if (reflexVtxInTriangle(triRef, i1, ind1, i2, i3, bb,
+					    triRef.vtxList[node].pnt, type))
+			return true;
+		    node = triRef.gridNext[node];
+		}
+	    }
+	}
+
+	return false;
+    }
+
+
+    static boolean reflexVtxInTriangle(Triangulator triRef, int i1, int ind1,
+				       int i2, int i3, BBox bb, int indVtx,
+				       int type[]) {
+	int ind5, i4;
+
+	i4 = triRef.fetchData(indVtx);
+
+	if (bb.pntInBBox(triRef, i4)) {
+	    // only if the reflex vertex lies inside the BBox of the triangle.
+	    ind5 = triRef.fetchNextData(indVtx);
+	    if ((indVtx != ind1)  &&  (indVtx != ind5)) {
+		// only if this node isn't  i1,  and if it still belongs to the
+		// polygon
+		if (i4 == i1) {
+		    if (Degenerate.handleDegeneracies(triRef, i1, ind1, i2, i3, i4, indVtx))
+			return  true;
+		}
+		else if ((i4 != i2)  &&  (i4 != i3)) {
+		    if (Numerics.vtxInTriangle(triRef, i1, i2, i3, i4, type))
+			return  true;
+		}
+	    }
+	}
+	return false;
+    }
+
+
 
 
     static void deleteReflexVertex(Triangulator triRef, int ind) {
@@ -40,8 +40,10 @@
 package org.jogamp.java3d.utils.geometry;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
-import org.jogamp.vecmath.Point3f;
 import org.jogamp.vecmath.Vector3f;
 
 /**
@@ -68,7 +70,9 @@ import org.jogamp.vecmath.Vector3f;
 public class NormalGenerator {
 
   private double creaseAngle;
-  private ArrayList<ArrayList<Integer>> tally;
+  private int sharers[];
+  private int groupStart[];
+  private int numGroups;
   private int coordInds[];
   private int normalInds[];
   private int colorInds[];
@@ -77,6 +81,11 @@ public class NormalGenerator {
   private static long t1=0, t2=0, t3=0, t4=0, t5=0, t6=0;
   private Triangulator tr = null;
   private int numTexSets;
+  private ExecutorService executor;
+
+  // Triangles (or normal groups) handled by one task when running on
+  // an executor.  Smaller models are done on the calling thread.
+  private static final int CHUNK = 1 << 14;
 
 
   // 0 - No debug info
@@ -93,59 +102,105 @@ public class NormalGenerator {
 
 
   // Calculate the normal of each triangle in the list by finding
-  // the cross product
-  private Vector3f[] calculatefacetNorms(GeometryInfo gi)
+  // the cross product.  The normals are returned in a float array
+  // with three values per triangle.
+  private float[] calculatefacetNorms(GeometryInfo gi)
   {
-    Point3f coordinates[] = gi.getCoordinates();
-    Vector3f[] facetNorms = new Vector3f[coordInds.length / 3];
-    Vector3f a = new Vector3f();
-    Vector3f b = new Vector3f();
+    final float coordinates[] = gi.getCoordinateData();
+    final float facetNorms[] = new float[coordInds.length];
+    final boolean quads = gi.getOldPrim() == GeometryInfo.QUAD_ARRAY;
     if ((DEBUG & 1) != 0) System.out.println("Facet normals:");
 
-    if (gi.getOldPrim() != GeometryInfo.QUAD_ARRAY) {
-      for (int t = 0 ; t < coordInds.length ; t += 3) {
-	a.sub(coordinates[coordInds[t + 2]], coordinates[coordInds[t + 1]]);
-	b.sub(coordinates[coordInds[t + 0]], coordinates[coordInds[t + 1]]);
-	facetNorms[t / 3] = new Vector3f();
-	facetNorms[t / 3].cross(a, b);
-	facetNorms[t / 3].normalize();
-
-	if (Float.isNaN(facetNorms[t / 3].x)) {
-	  // Normal isn't valid
-	  facetNorms[t / 3].x = 1.0f;
-	  facetNorms[t / 3].y = facetNorms[t / 3].z = 0.0f;
-	}
+    if (executor != null && coordInds.length > CHUNK * 3) {
+      // Split on a multiple of 6 so both halves of a quad stay together
+      List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+      for (int i = 0 ; i < coordInds.length ; i += CHUNK * 6) {
+	final int from = i;
+	final int to = Math.min(i + CHUNK * 6, coordInds.length);
+	tasks.add(new Callable<Object>() {
+	  @Override
+	  public Object call() {
+	    facetNorms(coordinates, quads, facetNorms, from, to);
+	    return null;
+	  }
+	});
+      }
+      ParallelIndexer.invokeAll(executor, tasks);
+    } else facetNorms(coordinates, quads, facetNorms, 0, coordInds.length);
+
+    return facetNorms;
+  } // End of calculatefacetNorms
+
+
+
+  // Calculates the facet normals of the triangles whose coordinate
+  // indices start at from up to (but not including) to.
+  private void facetNorms(float coordinates[], boolean quads,
+			  float facetNorms[], int from, int to)
+  {
+    if (!quads) {
+      for (int t = from ; t < to ; t += 3) {
+	facetNorm(coordinates, coordInds[t + 2], coordInds[t + 1],
+		  coordInds[t + 0], coordInds[t + 1], facetNorms, t);
 	if ((DEBUG & 1) != 0) {
-	  System.out.println("  " + (t/3) + " " + facetNorms[t / 3]);
+	  System.out.println("  " + (t/3) + " (" + facetNorms[t] + ", " +
+	    facetNorms[t + 1] + ", " + facetNorms[t + 2] + ")");
 	}
       }
     } else {
       // For quads, the facet normal of both triangles is the cross
       // product of the two vectors that make an 'X' across the quad.
-      for (int t = 0 ; t < coordInds.length ; t += 6) {
-	a.sub(coordinates[coordInds[t + 2]], coordinates[coordInds[t + 0]]);
-	b.sub(coordinates[coordInds[t + 5]], coordinates[coordInds[t + 1]]);
-	facetNorms[t / 3] = new Vector3f();
-	facetNorms[t / 3].cross(a, b);
-	facetNorms[t / 3].normalize();
-
-	if (Float.isNaN(facetNorms[t / 3].x)) {
-	  // Normal isn't valid
-	  facetNorms[t / 3].x = 1.0f;
-	  facetNorms[t / 3].y = facetNorms[t / 3].z = 0.0f;
-	}
+      for (int t = from ; t < to ; t += 6) {
+	facetNorm(coordinates, coordInds[t + 2], coordInds[t + 0],
+		  coordInds[t + 5], coordInds[t + 1], facetNorms, t);
 
         // Second triangle of quad
-	facetNorms[t / 3 + 1] = new Vector3f(facetNorms[t / 3]);
+	facetNorms[t + 3] = facetNorms[t];
+	facetNorms[t + 4] = facetNorms[t + 1];
+	facetNorms[t + 5] = facetNorms[t + 2];
 
 	if ((DEBUG & 1) != 0) {
-	  System.out.println("  " + (t/3) + "&" + (t/3 + 1) + " " +
-	    facetNorms[t / 3]);
+	  System.out.println("  " + (t/3) + "&" + (t/3 + 1) + " (" +
+	    facetNorms[t] + ", " + facetNorms[t + 1] + ", " +
+	    facetNorms[t + 2] + ")");
 	}
       }
     }
-    return facetNorms;
-  } // End of calculatefacetNorms
+  } // End of facetNorms
+
+
+
+  // Stores the normalized cross product of (a1 - a0) and (b1 - b0)
+  // in norms[n] through norms[n + 2].  The ai and bi are indices
+  // into the coordinate array.
+  private static void facetNorm(float coordinates[], int a1, int a0,
+				int b1, int b0, float norms[], int n)
+  {
+    float ax = coordinates[a1 * 3]     - coordinates[a0 * 3];
+    float ay = coordinates[a1 * 3 + 1] - coordinates[a0 * 3 + 1];
+    float az = coordinates[a1 * 3 + 2] - coordinates[a0 * 3 + 2];
+    float bx = coordinates[b1 * 3]     - coordinates[b0 * 3];
+    float by = coordinates[b1 * 3 + 1] - coordinates[b0 * 3 + 1];
+    float bz = coordinates[b1 * 3 + 2] - coordinates[b0 * 3 + 2];
+
+    float x = ay * bz - az * by;
+    float y = bx * az - bz * ax;
+    float z = ax * by - ay * bx;
+
+    float norm = (float)(1.0 / Math.sqrt(x * x + y * y + z * z));
+    x *= norm;
+    y *= norm;
+    z *= norm;
+
+    if (Float.isNaN(x)) {
+      // Normal isn't valid
+      x = 1.0f;
+      y = z = 0.0f;
+    }
+    norms[n]     = x;
+    norms[n + 1] = y;
+    norms[n + 2] = z;
+  } // End of facetNorm
 
 
 
@@ -167,18 +222,27 @@ public class NormalGenerator {
   // vertex, the triangle is added to the group of triangles whose normals
   // will be averaged to make the vertex normal.
   //
+  // The groups are stored one after the other in the sharers array.
+  // Group g is sharers[groupStart[g]] through sharers[groupStart[g+1]-1].
+  // Every vertex ends up in exactly one group, so sharers has one
+  // entry per vertex.
+  //
   // Returns the largest number of triangles that share a single normal.
   //
-  private int createHardEdges(Vector3f[] facetNorms)
+  private int createHardEdges(float facetNorms[])
   {
     EdgeTable et = new EdgeTable(coordInds);
-    tally = new ArrayList<ArrayList<Integer>>();
+    sharers = new int[coordInds.length];
+    groupStart = new int[coordInds.length + 1];
+    numGroups = 0;
+    int numSharers = 0;
     int normalMap[] = new int[coordInds.length];
     int maxShare = 1;
     float cosine;
     boolean smooth;
     float threshold = (float)Math.cos(creaseAngle);
     boolean goingRight;
+    int edgeV1, edgeV2;
 
     // Set Normal Indices array values to a flag
     for (int c = 0 ; c < coordInds.length ; c++)
@@ -192,20 +256,20 @@ public class NormalGenerator {
 	  System.out.println(
 	    "Coordinate Index " + c + ": vertex " + coordInds[c]);
 	}
-	// Create a list of vertices used for calculating this normal
-	ArrayList<Integer> sharers = new ArrayList<Integer>();
-	tally.add(sharers);
-	// Put this coordinate in the list
-	sharers.add(new Integer(c));
-	// Point this coordinate's index at its list
-	normalMap[c] = tally.size() - 1;
+	// Start a new group of vertices used for calculating this normal
+	int group = numGroups++;
+	groupStart[group] = numSharers;
+	// Put this coordinate in the group
+	sharers[numSharers++] = c;
+	// Point this coordinate's index at its group
+	normalMap[c] = group;
 
 	// First do right edge
 	goingRight = true;
-	Edge edge = new Edge(coordInds[c],
-			     coordInds[(c + 1) % 3 == 0 ? c - 2 : c + 1]);
+	edgeV1 = coordInds[c];
+	edgeV2 = coordInds[(c + 1) % 3 == 0 ? c - 2 : c + 1];
 	if ((DEBUG & 32) != 0)
-	  System.out.println( "  Right edge: " + edge);
+	  System.out.println( "  Right edge: (" + edgeV1 + ", " + edgeV2 + ")");
 
 	// This is how we'll know we've gone all the way around
 	int endVertex = coordInds[c % 3 == 0 ? c + 2 : c - 1];
@@ -216,20 +280,19 @@ public class NormalGenerator {
 	// Proceed from one triangle to the next
 	do {
 	  // Look up edge in Edge Table to find neighbor triangle
-	  Integer tableVal = et.get(edge.v2, edge.v1);
+	  int n = et.get(edgeV2, edgeV1);
 	  if ((DEBUG & 32) != 0) {
 	    System.out.println(
-	      "  Search Edge: " + (new Edge(edge.v2, edge.v1)));
+	      "  Search Edge: (" + edgeV2 + ", " + edgeV1 + ")");
 	  }
 
 	  // See if there is no triangle on the other side of this edge
-	  if (tableVal == null) {
+	  if (n == -1) {
 	    smooth = false;
 	    if ((DEBUG & 32) != 0)
 	      System.out.println("    No neighboring triangle found.");
 	  } else {
 
-	    int n = tableVal.intValue();
 	    if ((DEBUG & 32) != 0) {
 	      System.out.println(
 		"    Table lookup result: " + n + " (vertex " + coordInds[n] +
@@ -238,7 +301,11 @@ public class NormalGenerator {
 		": ");
 	    }
 
-	    cosine = facetNorms[cur / 3].dot(facetNorms[n / 3]);
+	    int f1 = cur / 3 * 3;
+	    int f2 = n / 3 * 3;
+	    cosine = facetNorms[f1] * facetNorms[f2] +
+		     facetNorms[f1 + 1] * facetNorms[f2 + 1] +
+		     facetNorms[f1 + 2] * facetNorms[f2 + 2];
 	    smooth = cosine > threshold;
 	    if (smooth) {
 	      // The center coordinate (c) shares the same normal in these
@@ -258,17 +325,18 @@ public class NormalGenerator {
 		  "    Error:  Coordinate aleady has normal (bad data).");
 	      } else {
 
-		normalMap[centerv] = tally.size() - 1;
+		normalMap[centerv] = group;
 
 		// Consider this triangle's facet normal when calculating the
 		// vertex's normal
-		sharers.add(new Integer(centerv));
-		if (sharers.size() > maxShare) maxShare = sharers.size();
+		sharers[numSharers++] = centerv;
+		if (numSharers - groupStart[group] > maxShare)
+		  maxShare = numSharers - groupStart[group];
 
 		// Continue on around the vertex to the next triangle
 		cur = n;
-		if (goingRight) edge.v2 = coordInds[cur];
-		else edge.v1 = coordInds[cur];
+		if (goingRight) edgeV2 = coordInds[cur];
+		else edgeV1 = coordInds[cur];
 	      }
 	    } else if ((DEBUG & 32) != 0) System.out.println("Hard Edge!");
 	  }
@@ -281,27 +349,29 @@ public class NormalGenerator {
 	    smooth = true;		// Trick do loop
 	    cur = c;			// Go back to original triangle
 
-	    edge = new Edge(coordInds[(c % 3) == 0 ? c + 2 : c - 1],
-			    coordInds[c]);
-	    if ((DEBUG & 32) != 0) System.out.println( "  Left edge: " + edge);
+	    edgeV1 = coordInds[(c % 3) == 0 ? c + 2 : c - 1];
+	    edgeV2 = coordInds[c];
+	    if ((DEBUG & 32) != 0)
+	      System.out.println( "  Left edge: (" + edgeV1 + ", " + edgeV2 +
+				  ")");
 
 	  }
 
-	} while (smooth && ((goingRight && (edge.v2 != endVertex)) ||
+	} while (smooth && ((goingRight && (edgeV2 != endVertex)) ||
 			    !goingRight));
 
-	if (((DEBUG & 32) != 0) && goingRight && (edge.v2 == endVertex))
+	if (((DEBUG & 32) != 0) && goingRight && (edgeV2 == endVertex))
 	  System.out.println("  Went all the way around!");
       }
     }
+    groupStart[numGroups] = numSharers;
 
     if ((DEBUG & 32) != 0) {
       System.out.println("Tally:");
-      for (int i = 0 ; i < tally.size() ; i++) {
+      for (int i = 0 ; i < numGroups ; i++) {
 	System.out.print("  " + i + ": ");
-	ArrayList<Integer> sharers = tally.get(i);
-	for (int j = 0 ; j < sharers.size() ; j++) {
-	  System.out.print(" " + sharers.get(j));
+	for (int j = groupStart[i] ; j < groupStart[i + 1] ; j++) {
+	  System.out.print(" " + sharers[j]);
 	}
 	System.out.println();
       }
@@ -333,73 +403,37 @@ public class NormalGenerator {
   // indexed, table.  That way, to tell if two triangles have the
   // same normal, we just need to compare indexes.  This would speed up
   // the process of checking for duplicates.
-  private void calculateVertexNormals(GeometryInfo gi, Vector3f[] facetNorms, int maxShare)
+  private void calculateVertexNormals(GeometryInfo gi,
+				      final float facetNorms[],
+				      final int maxShare)
   {
-    Vector3f normals[];
-    ArrayList<Integer> sharers;
-    int triangle;
-    Vector3f fn[];	// Normals of facets joined by this vertex
-    int fnsize;		// Number of elements currently ised in fn
+    float normals[];
 
     if (creaseAngle != 0.0) {
-      fn = new Vector3f[maxShare];
-      normals = new Vector3f[tally.size()];
+      final float vertexNorms[] = new float[numGroups * 3];
       normalInds = new int[coordInds.length];
-      for (int n = 0 ; n < tally.size() ; n++) {
-	sharers = tally.get(n);
-	if ((DEBUG & 128) != 0) {
-	  System.out.println(n + ": " + sharers.size() +
-	    " triangles:");
-	}
-	fnsize = 0;
-	normals[n] = new Vector3f();
-	for (int t = 0 ; t < sharers.size() ; t++) {
-	  int v = sharers.get(t).intValue();
-	  // See if index removed by hard edge process
-	  if (v != -1) {
-	    triangle = v / 3;
-	    if (!Float.isNaN(facetNorms[triangle].x)) {
-
-	      int f;
-	      // Don't add the same facet normal twice
-	      for (f = 0 ; f < fnsize ; f++) {
-		if (fn[f].equals(facetNorms[triangle])) break;
-	      }
-
-	      normalInds[v] = n;
-	      if (f == fnsize) {
-		// Didn't find this triangle's normal already in the list
-		normals[n].add(facetNorms[triangle]);
-		fn[fnsize++] = facetNorms[triangle];
-	      } else if ((DEBUG & 128) != 0) {
-		System.out.println("  triangle " + t + " ignored.");
-	      }
+      if (executor != null && numGroups > CHUNK) {
+	List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+	for (int i = 0 ; i < numGroups ; i += CHUNK) {
+	  final int from = i;
+	  final int to = Math.min(i + CHUNK, numGroups);
+	  tasks.add(new Callable<Object>() {
+	    @Override
+	    public Object call() {
+	      averageNormals(facetNorms, maxShare, vertexNorms, from, to);
+	      return null;
 	    }
-	  }
-	}
-	normals[n].normalize();
-	if (Float.isNaN(normals[n].x)) {
-	  // Normal isn't valid
-	  normals[n].x = 1.0f; normals[n].y = normals[n].z = 0.0f;
-	}
-	if ((DEBUG & 128) != 0) {
-	  for (int t = 0 ; t < sharers.size() ; t++) {
-	    int v = sharers.get(t).intValue();
-	    if (v != -1) {
-	      triangle = v / 3;
-	      System.out.println("  " + facetNorms[triangle]);
-	    }
-	  }
-	  System.out.println("  Result: " + normals[n]);
-	  System.out.println();
+	  });
 	}
-      }
+	ParallelIndexer.invokeAll(executor, tasks);
+      } else averageNormals(facetNorms, maxShare, vertexNorms, 0, numGroups);
+      normals = vertexNorms;
     } else {
       // This code renders the facet normals
       normals = facetNorms;
 
-      normalInds = new int[facetNorms.length * 3];
-      for (int i = 0 ; i < facetNorms.length ; i++) {
+      normalInds = new int[facetNorms.length];
+      for (int i = 0 ; i < facetNorms.length / 3 ; i++) {
 	normalInds[i * 3 + 0] = i;
 	normalInds[i * 3 + 1] = i;
 	normalInds[i * 3 + 2] = i;
@@ -409,8 +443,9 @@ public class NormalGenerator {
 
     if ((DEBUG & 4) != 0) {
       System.out.println("Normals:");
-      for (int i = 0 ; i < normals.length ; i++) {
-	System.out.println("  " + i + " " + normals[i]);
+      for (int i = 0 ; i < normals.length / 3 ; i++) {
+	System.out.println("  " + i + " (" + normals[i * 3] + ", " +
+	  normals[i * 3 + 1] + ", " + normals[i * 3 + 2] + ")");
       }
       System.out.println("Indices:");
       for (int i = 0 ; i < normalInds.length ; i++) {
@@ -421,6 +456,71 @@ public class NormalGenerator {
 
 
 
+  // Averages the facet normals of normal groups from up to (but not
+  // including) to, storing the vertex normals in normals.
+  private void averageNormals(float facetNorms[], int maxShare,
+			      float normals[], int from, int to)
+  {
+    // Facets (as offsets into facetNorms) joined by this vertex
+    int fn[] = new int[maxShare];
+    int fnsize;		// Number of elements currently used in fn
+    for (int n = from ; n < to ; n++) {
+      if ((DEBUG & 128) != 0) {
+	System.out.println(n + ": " + (groupStart[n + 1] - groupStart[n]) +
+	  " triangles:");
+      }
+      fnsize = 0;
+      float x = 0.0f, y = 0.0f, z = 0.0f;
+      for (int t = groupStart[n] ; t < groupStart[n + 1] ; t++) {
+	int v = sharers[t];
+	int triangle = v / 3 * 3;
+	if (!Float.isNaN(facetNorms[triangle])) {
+
+	  int f;
+	  // Don't add the same facet normal twice
+	  for (f = 0 ; f < fnsize ; f++) {
+	    if ((facetNorms[fn[f]] == facetNorms[triangle]) &&
+		(facetNorms[fn[f] + 1] == facetNorms[triangle + 1]) &&
+		(facetNorms[fn[f] + 2] == facetNorms[triangle + 2])) break;
+	  }
+
+	  normalInds[v] = n;
+	  if (f == fnsize) {
+	    // Didn't find this triangle's normal already in the list
+	    x += facetNorms[triangle];
+	    y += facetNorms[triangle + 1];
+	    z += facetNorms[triangle + 2];
+	    fn[fnsize++] = triangle;
+	  } else if ((DEBUG & 128) != 0) {
+	    System.out.println("  triangle " + t + " ignored.");
+	  }
+	}
+      }
+      float norm = (float)(1.0 / Math.sqrt(x * x + y * y + z * z));
+      x *= norm;
+      y *= norm;
+      z *= norm;
+      if (Float.isNaN(x)) {
+	// Normal isn't valid
+	x = 1.0f; y = z = 0.0f;
+      }
+      normals[n * 3]     = x;
+      normals[n * 3 + 1] = y;
+      normals[n * 3 + 2] = z;
+      if ((DEBUG & 128) != 0) {
+	for (int t = groupStart[n] ; t < groupStart[n + 1] ; t++) {
+	  int triangle = sharers[t] / 3 * 3;
+	  System.out.println("  (" + facetNorms[triangle] + ", " +
+	    facetNorms[triangle + 1] + ", " + facetNorms[triangle + 2] + ")");
+	}
+	System.out.println("  Result: (" + x + ", " + y + ", " + z + ")");
+	System.out.println();
+      }
+    }
+  } // End of averageNormals
+
+
+
   // The original data was in quads and we converted it to triangles to
   // calculate the normals.  Now we are converting it back to quads.
   // It's a very simple algorithm.
@@ -806,7 +906,7 @@ public class NormalGenerator {
       time = System.currentTimeMillis();
     }
 
-	Vector3f[] facetNorms = calculatefacetNorms(gi);
+    float facetNorms[] = calculatefacetNorms(gi);
     if ((DEBUG & 16) != 0) {
       t2 += System.currentTimeMillis() - time;
       System.out.println("Calculate Facet Normals: " + t2 + " ms");
@@ -821,6 +921,11 @@ public class NormalGenerator {
     }
 
     calculateVertexNormals(gi, facetNorms, maxShare);
+
+    // Release the working arrays
+    sharers = null;
+    groupStart = null;
+
     if ((DEBUG & 16) != 0) {
       t5 += System.currentTimeMillis() - time;
       System.out.println("Vertex Normals: " + t5 + " ms");
@@ -875,6 +980,36 @@ public class NormalGenerator {
 
 
 
+  /**
+   * Sets the ExecutorService used by generateNormals().  When an
+   * executor is set, the facet normals and the averaged vertex normals
+   * of large models are computed in pieces at the same time.  The
+   * results are identical to those computed on the calling thread.
+   * The number of threads used is controlled by the executor, for
+   * example <code>new ForkJoinPool(4)</code>.  The NormalGenerator
+   * does not shut the executor down.
+   * @param executor The executor to use, or null (the default) to do
+   * all of the work on the calling thread.
+   */
+  public void setExecutorService(ExecutorService executor)
+  {
+    this.executor = executor;
+  } // End of setExecutorService
+
+
+
+  /**
+   * Returns the ExecutorService used by generateNormals(), or null if
+   * it runs on the calling thread.
+   * @see #setExecutorService(ExecutorService)
+   */
+  public ExecutorService getExecutorService()
+  {
+    return executor;
+  } // End of getExecutorService
+
+
+
   /**
    * Constructor.  Construct a NormalGenerator object with creaseAngle
    * set to the given value.
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+package org.jogamp.java3d.utils.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the index lists for several data streams (coordinates,
+ * colors, normals and texture coordinate sets) at the same time on an
+ * ExecutorService.  Streams are independent so each gets its own
+ * task, and streams longer than CHUNK entries are further split into
+ * hash partitions.  The results are identical to building each list
+ * with VertexHash on a single thread.  Tasks never wait on other
+ * tasks, so any executor (including a small fixed thread pool) can be
+ * used.
+ */
+class ParallelIndexer {
+
+  // Streams with more entries than this are split up
+  static final int CHUNK = 1 << 16;
+
+  // Most partitions a single stream is split into
+  private static final int MAX_PARTS = 64;
+
+  private ExecutorService executor;
+
+
+
+  /**
+   * Runs all of the tasks on the executor and waits for them to
+   * finish.  Exceptions thrown by a task are passed on to the caller.
+   */
+  static void invokeAll(ExecutorService executor, List<Callable<Object>> tasks)
+  {
+    if (tasks.isEmpty()) return;
+    try {
+      List<Future<Object>> results = executor.invokeAll(tasks);
+      for (int i = 0 ; i < results.size() ; i++) results.get(i).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+      if (cause instanceof Error) throw (Error)cause;
+      throw new RuntimeException(cause);
+    }
+  } // End of invokeAll
+
+
+
+  /**
+   * Builds the index list of each stream.
+   * @param streams Each entry is either a float array with dims[i]
+   * floats per entry or an array of vecmath tuples of that size.
+   * @param dims Number of floats per entry of each stream.
+   * @param welds Weld distance of each stream (see
+   * VertexHash.weldPoints).  Only used with three floats per entry.
+   * @return The index list of each stream.  An entry is null if the
+   * stream is an object array that could not be converted to floats
+   * (for example because it holds null entries).
+   */
+  int[][] index(final Object streams[], final int dims[], final float welds[])
+  {
+    final int numStreams = streams.length;
+    final float data[][] = new float[numStreams][];
+    final int result[][] = new int[numStreams][];
+    final int hash[][] = new int[numStreams][];
+    List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+
+    // Convert object arrays to floats
+    for (int s = 0 ; s < numStreams ; s++) {
+      if (streams[s] instanceof float[]) {
+	data[s] = (float[])streams[s];
+      } else {
+	final int st = s;
+	tasks.add(new Callable<Object>() {
+	  @Override
+	  public Object call() {
+	    data[st] = VertexHash.tupleData((Object[])streams[st], dims[st]);
+	    return null;
+	  }
+	});
+      }
+    }
+    invokeAll(executor, tasks);
+    tasks.clear();
+
+    // Small streams and welded streams are indexed in one task.
+    // Large streams get their hash codes computed in chunks.
+    for (int s = 0 ; s < numStreams ; s++) {
+      if (data[s] == null) continue;
+      final int st = s;
+      final int n = data[s].length / dims[s];
+      if ((welds[s] > 0.0f) && (dims[s] == 3)) {
+	tasks.add(new Callable<Object>() {
+	  @Override
+	  public Object call() {
+	    result[st] = VertexHash.weldPoints(data[st], welds[st]);
+	    return null;
+	  }
+	});
+      } else if (n <= CHUNK) {
+	tasks.add(new Callable<Object>() {
+	  @Override
+	  public Object call() {
+	    result[st] = VertexHash.indexFloats(data[st], dims[st]);
+	    return null;
+	  }
+	});
+      } else {
+	hash[s] = new int[n];
+	result[s] = new int[n];
+	for (int from = 0 ; from < n ; from += CHUNK) {
+	  final int f = from;
+	  final int t = Math.min(n, from + CHUNK);
+	  tasks.add(new Callable<Object>() {
+	    @Override
+	    public Object call() {
+	      VertexHash.hashRange(data[st], dims[st], hash[st], f, t);
+	      return null;
+	    }
+	  });
+	}
+      }
+    }
+    invokeAll(executor, tasks);
+    tasks.clear();
+
+    // Fill in the index lists of the large streams by partition.  The
+    // entries are sorted by partition first so that each task only
+    // visits its own.
+    for (int s = 0 ; s < numStreams ; s++) {
+      if (hash[s] == null) continue;
+      final int st = s;
+      final int parts = Math.min(MAX_PARTS,
+				 (hash[s].length + CHUNK - 1) / CHUNK);
+      final int order[] = new int[hash[s].length];
+      final int start[] = VertexHash.sortPartitions(hash[s], parts, order);
+      for (int p = 0 ; p < parts ; p++) {
+	final int part = p;
+	tasks.add(new Callable<Object>() {
+	  @Override
+	  public Object call() {
+	    VertexHash.indexPartition(data[st], dims[st], hash[st], order,
+				      start[part], start[part + 1], result[st]);
+	    return null;
+	  }
+	});
+      }
+    }
+    invokeAll(executor, tasks);
+
+    return result;
+  } // End of index
+
+
+
+  ParallelIndexer(ExecutorService executor)
+  {
+    this.executor = executor;
+  } // End of constructor ParallelIndexer
+
+} // End of class ParallelIndexer
+
+// End of file ParallelIndexer.java
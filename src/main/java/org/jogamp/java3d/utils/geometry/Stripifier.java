@@ -55,6 +55,8 @@
 package org.jogamp.java3d.utils.geometry;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.jogamp.java3d.internal.J3dUtilsI18N;
 
@@ -98,6 +100,33 @@ public class Stripifier {
 
     int[] numNhbrs;
 
+    // the adjacency graph: adj[f*3+i] is the face across the edge
+    // opposite vertex i of face f, or EMPTY
+    int[] adj;
+
+    // the attribute indices of vertex i of face f, stored at
+    // corners[(f*3+i)*stride]: coordinate, normal, texture sets, color
+    int[] corners;
+    int stride;
+
+    // the binary spanning tree built by the search.  Each face is a node
+    // of the tree, and the arrays are indexed by the face key
+    int[] parent;       // the parent node
+    int[] left;         // the left child
+    int[] right;        // the right child
+    int[] depth;        // the topological distance of the node from the root
+    int[] numChildren;  // the number of children
+    int[] attrib;       // characteristic of the node eg. color
+
+    // the attributes - 3 states for a node
+    static final int WHITE = 0;  // not being accessed yet
+    static final int GREY = 1;   // being accessed but not done yet
+    static final int BLACK = 2;  // done
+
+    // scratch space for findNext
+    int[] nextNhbrs = new int[3];
+    int[] nextFaces = new int[3];
+
     /**
      * Indicates to the stripifier to collect statistics on the data
      */
@@ -136,8 +165,7 @@ public class Stripifier {
 	//     	gi.writeObj();
 
 	Face[] faces = createFaceArray(gi);
-	Edge[] edges = createEdgeArray(faces);
-	buildAdjacencies(edges, faces);
+	buildAdjacencies(faces);
 
 	// print out the adjacency information
  	if (DEBUG) {
@@ -151,14 +179,12 @@ public class Stripifier {
  	    System.out.println("");
  	}
 
-	Node[] faceNodes = new Node[faces.length];
-	// 	Node[] queue = hybridSearch(faces, faceNodes);
-	Node[] queue = dfSearch(faces, faceNodes);
+	int[] queue = dfSearch(faces);
 
 	// print out the queue
  	if (DEBUG) {
  	    for (int i = 0; i < queue.length; i++) {
- 		queue[i].print();
+ 		printNode(queue[i], faces);
  	    }
  	    System.out.println("");
  	}
@@ -167,7 +193,8 @@ public class Stripifier {
 	// hamiliton
 	int[] ns = new int[1];
 	int[] np = new int[1];
-	ArrayList hamiltons = hamilton(queue, ns, np);
+	ArrayList hamiltons = hamilton(queue, faces, ns, np);
+	freeTree();
 	int numStrips = ns[0];
 	int numPatches = np[0];
 
@@ -220,6 +247,8 @@ public class Stripifier {
 
 	// put the stripified data into the GeometryInfo object
 	putBackData(gi, strips);
+	adj = null;
+	corners = null;
 
 	// 	System.out.println("time: " + (System.currentTimeMillis()-time));
 	// 	System.out.println("");
@@ -274,15 +303,14 @@ public class Stripifier {
 
     /**
      * Creates an array of faces from the geometry in the GeometryInfo object.
+     * The attribute indices of the faces are also stored in the corners
+     * array, which is used to build the adjacency graph.
      */
     Face[] createFaceArray(GeometryInfo gi) {
 	int[] vertices = gi.getCoordinateIndices();
 	int[] normals = gi.getNormalIndices();
 
 	int[][] textures = null;
-	int[] t1 = null;
-	int[] t2 = null;
-	int[] t3 = null;
 	texSetCount = gi.getTexCoordSetCount();
 	if (texSetCount > 0) {
 	    hasTextures = true;
@@ -290,203 +318,147 @@ public class Stripifier {
 	    for (int i = 0; i < texSetCount; i++) {
 		textures[i] = gi.getTextureCoordinateIndices(i);
 	    }
-	    t1 = new int[texSetCount];
-	    t2 = new int[texSetCount];
-	    t3 = new int[texSetCount];
 	} else hasTextures = false;
 
 	int[] colors = gi.getColorIndices();
-	Face[] faces = new Face[vertices.length/3];
-	int n1, n2, n3, c1, c2, c3;
-	Vertex v1, v2, v3;
+	hasNormals = (normals != null);
+	hasColors = (colors != null);
+
+	stride = texSetCount + 3;
+	corners = new int[vertices.length*stride];
 	int count = 0;
-	for (int i = 0; i < vertices.length;) {
-	    if (normals != null) {
-		// 		System.out.println("hasNormals");
-		hasNormals = true;
-		n1 = normals[i];
-		n2 = normals[i+1];
-		n3 = normals[i+2];
-	    }
-	    else {
-		// 		System.out.println("doesn't have normals");
-		hasNormals = false;
-		n1 = EMPTY;
-		n2 = EMPTY;
-		n3 = EMPTY;
+	int c, k;
+	for (int i = 0; i < vertices.length; i++) {
+	    // the corners of a degenerate face are overwritten by the next
+	    c = (count*3 + i%3)*stride;
+	    corners[c] = vertices[i];
+	    corners[c+1] = hasNormals ? normals[i] : EMPTY;
+	    for (k = 0; k < texSetCount; k++) {
+		corners[c+2+k] = textures[k][i];
 	    }
-	    if (hasTextures) {
-		for (int j = 0; j < texSetCount; j++) {
-		    t1[j] = textures[j][i];
-		    t2[j] = textures[j][(i+1)];
-		    t3[j] = textures[j][(i+2)];
+	    corners[c+stride-1] = hasColors ? colors[i] : EMPTY;
+	    if (i%3 == 2) {
+		c = count*3;
+		if (!cornerEquals(c, c+1) && !cornerEquals(c+1, c+2) &&
+		    !cornerEquals(c+2, c)) {
+		    count++;
 		}
 	    }
-	    if (colors != null) {
-		hasColors = true;
-		c1 = colors[i];
-		c2 = colors[i+1];
-		c3 = colors[i+2];
-	    }
-	    else {
-		hasColors = false;
-		c1 = EMPTY;
-		c2 = EMPTY;
-		c3 = EMPTY;
-	    }
-	    v1 = new Vertex(vertices[i], n1, texSetCount, t1, c1);
-	    v2 = new Vertex(vertices[i+1], n2, texSetCount, t2, c2);
-	    v3 = new Vertex(vertices[i+2], n3, texSetCount, t3, c3);
-	    if (!v1.equals(v2) && !v2.equals(v3) && !v3.equals(v1)) {
-		faces[count] = new Face(count, v1, v2, v3);
-		count++;
-	    }
-	    i+=3;
 	}
 
-	if (faces.length > count) {
-	    Face[] temp = faces;
-	    faces = new Face[count];
-	    System.arraycopy(temp, 0, faces, 0, count);
+	Face[] faces = new Face[count];
+	for (int i = 0; i < count; i++) {
+	    faces[i] = new Face(i, createVertex(i*3), createVertex(i*3+1),
+				createVertex(i*3+2));
 	}
 	return faces;
     }
 
     /**
-     * Creates an array of edges from the Face array.
+     * Creates a vertex with the attribute indices of corner c
      */
-    Edge[] createEdgeArray(Face[] faces) {
-	Edge[] edges = new Edge[faces.length*3];
-	Face face;
-	for (int i = 0; i < faces.length; i++) {
-	    face = faces[i];
-	    edges[i*3] = new Edge(face.verts[0], face.verts[1], face.key);
-	    edges[i*3+1] = new Edge(face.verts[1], face.verts[2], face.key);
-	    edges[i*3+2] = new Edge(face.verts[2], face.verts[0], face.key);
+    Vertex createVertex(int c) {
+	int i = c*stride;
+	Vertex v = new Vertex(corners[i], corners[i+1], 0, null,
+			      corners[i+stride-1]);
+	if (texSetCount > 0) {
+	    v.numTexSets = texSetCount;
+	    v.texture = new int[texSetCount];
+	    System.arraycopy(corners, i+2, v.texture, 0, texSetCount);
 	}
-	return edges;
+	return v;
     }
 
     /**
-     * Builds the adjacency graph by finding the neighbors of the edges
+     * Returns true if corners a and b have the same attribute indices
      */
-    void buildAdjacencies(Edge[] edges, Face[] faces) {
-	// 	sortEdges(edges);
-	quickSortEdges(edges, 0, edges.length-1);
-	// 	int i = 1;
+    boolean cornerEquals(int a, int b) {
+	a *= stride;
+	b *= stride;
+	for (int i = 0; i < stride; i++) {
+	    if (corners[a+i] != corners[b+i]) return false;
+	}
+	return true;
+    }
 
-	// set up the edge list of each face
-	Edge edge;
-	Face face;
-	Vertex[] verts;
-	boolean flag;
-	int k;
-	for (int i = 0; i < edges.length; i++) {
-	    // edges are kept in order s.t. the ith edge is the opposite
-	    // edge of the ith vertex
-	    edge = edges[i];
-	    face = faces[edge.face];
-	    verts = face.verts;
-
-	    flag = true;
- 	    if ((!verts[0].equals(edge.v1)) && (!verts[0].equals(edge.v2))) {
-		face.edges[0] = edge;
-		face.numNhbrs--;
-		flag = false;
-	    }
- 	    else if ((!verts[1].equals(edge.v1)) &&
- 		     (!verts[1].equals(edge.v2))) {
-		face.edges[1] = edge;
-		face.numNhbrs--;
-		flag = false;
-	    }
- 	    else if ((!verts[2].equals(edge.v1)) &&
- 		     (!verts[2].equals(edge.v2))) {
-		face.edges[2] = edge;
-		face.numNhbrs--;
-		flag = false;
-	    }
-	    else {
-		if (DEBUG) System.out.println("error!!!  Stripifier.buildAdj");
-	    }
+    /**
+     * Compares the attribute indices of corners a and b in the order
+     * coordinate, normal, texture sets, color.  Returns a negative
+     * number, zero or a positive number if a is less than, equal to or
+     * greater than b.
+     */
+    int compareCorners(int a, int b) {
+	a *= stride;
+	b *= stride;
+	for (int i = 0; i < stride; i++) {
+	    if (corners[a+i] < corners[b+i]) return -1;
+	    if (corners[a+i] > corners[b+i]) return 1;
+	}
+	return 0;
+    }
 
-	    // handle degenerencies
-	    if (flag) {
-		Vertex i1;
-		// triangle degenerated to a point
- 		if ((edge.v1).equals(edge.v2)) {
-		    face.edges[--face.numNhbrs] = edge;
-		}
-		// triangle degenerated to an edge
-		else {
- 		    if (verts[0].equals(verts[1])) {
-			i1 = verts[1];
-		    }
-		    else {
-			i1 = verts[2];
-		    }
- 		    if (verts[0].equals(i1) && face.edges[0] == null) {
-			face.edges[0] = edge;
-			face.numNhbrs--;
-		    }
- 		    else if (verts[1].equals(i1) && face.edges[1] == null) {
-			face.edges[1] = edge;
-			face.numNhbrs--;
-		    }
-		    else {
-			face.edges[2] = edge;
-			face.numNhbrs--;
-		    }
-		}
+    /**
+     * Builds the adjacency graph by finding the neighbors of the edges.
+     * Edge e of face f runs from verts[e] to verts[(e+1)%3], so it is the
+     * edge opposite vertex (e+2)%3 of the face.
+     */
+    void buildAdjacencies(Face[] faces) {
+	int numEdges = faces.length*3;
+	adj = new int[numEdges];
+	Arrays.fill(adj, EMPTY);
+
+	// the corners of the lesser and the greater vertex of each edge, and
+	// the edges sorted so that equal edges are next to each other
+	int[] v1 = new int[numEdges];
+	int[] v2 = new int[numEdges];
+	int[] edges = new int[numEdges];
+	int a, b;
+	for (int i = 0; i < numEdges; i++) {
+	    a = i;
+	    b = i - i%3 + (i+1)%3;
+	    // this could be causing wrapping problem
+	    if (compareCorners(a, b) < 0) {
+		v1[i] = a;
+		v2[i] = b;
+	    } else {
+		v1[i] = b;
+		v2[i] = a;
 	    }
+	    edges[i] = i;
 	}
+	quickSortEdges(edges, v1, v2, 0, numEdges-1);
 
 	// build the adjacency information by pairing up every two triangles
 	// that share the same edge
 	int i = 0; int j = 0;
-	int j1, j2;
-	while (i < (edges.length-1)) {
+	int ei, ej, j1, j2;
+	Face face;
+	boolean flag;
+	while (i < (numEdges-1)) {
 	    j = i+1;
-	    if (edges[i].equals(edges[j])) {
+	    ei = edges[i];
+	    ej = edges[j];
+	    if (cornerEquals(v1[ei], v1[ej]) && cornerEquals(v2[ei], v2[ej])) {
 		// determine the orientations of the common edge in the two
 		// adjacent triangles.  Only set them to be adjacent if they
 		// are opposite
-		j1 = edges[i].face;
-		j2 = edges[j].face;
+		j1 = ei/3;
+		j2 = ej/3;
 		if (j1 != j2) { // set up the two faces as neighbors
-		    edge = edges[i];
-		    face = faces[j1];
-		    k = face.getEdgeIndex(edge);
-		    if ((edge.v1.equals(face.verts[(k+1)%3])) &&
-			(edge.v2.equals(face.verts[(k+2)%3]))) {
-			flag = false;
-		    }
-		    else flag = true;
-
-		    edge = edges[j];
-		    face = faces[j2];
-		    k = face.getEdgeIndex(edge);
-		    if ((edge.v1.equals(face.verts[(k+1)%3])) &&
-			(edge.v2.equals(face.verts[(k+2)%3]))) {
-			flag = flag;
-		    }
-		    else flag = (!flag);
+		    flag = (v1[ei] == ei);
+		    if (v1[ej] == ej) flag = (!flag);
 
 		    if (flag) {
-			edges[i].face = j2;
-			edges[j].face = j1;
+			adj[j1*3 + (ei%3+2)%3] = j2;
+			adj[j2*3 + (ej%3+2)%3] = j1;
 			(faces[j1].numNhbrs)++;
 			(faces[j2].numNhbrs)++;
 			j++;
 		    }
-		    else edges[i].face = EMPTY;
 		}
-		else edges[i].face = EMPTY;
 	    }
-	    else edges[i].face = EMPTY;
 	    i=j;
 	}
-	if (i <= (edges.length-1)) edges[i].face = EMPTY;
 
 	// check, for each face, if it is duplicated.  For a face that
 	// neighbors its duplicate in the adjacency graph, it's possible
@@ -497,60 +469,40 @@ public class Stripifier {
 	for (i = 0; i < faces.length; i++) {
 	    face = faces[i];
  	    if (face.numNhbrs == 3) {
-		if ((j1 = face.edges[1].face) == face.edges[0].face) {
-		    face.edges[1].face = EMPTY;
+		if ((j1 = adj[i*3+1]) == adj[i*3]) {
+		    adj[i*3+1] = EMPTY;
 		    face.numNhbrs--;
-		    faces[j1].counterEdgeDel(face.edges[1]);
+		    faces[j1].counterEdgeDel(face, 1);
 		}
-		if ((j2 = face.edges[2].face) == face.edges[0].face) {
-		    face.edges[2].face = EMPTY;
+		if ((j2 = adj[i*3+2]) == adj[i*3]) {
+		    adj[i*3+2] = EMPTY;
 		    face.numNhbrs--;
-		    faces[j2].counterEdgeDel(face.edges[2]);
+		    faces[j2].counterEdgeDel(face, 2);
 		}
- 		if ((face.edges[1].face != EMPTY) && (j1 == j2)) {
-		    face.edges[2].face = EMPTY;
+ 		if ((adj[i*3+1] != EMPTY) && (j1 == j2)) {
+		    adj[i*3+2] = EMPTY;
 		    face.numNhbrs--;
-		    faces[j1].counterEdgeDel(face.edges[2]);
+		    faces[j1].counterEdgeDel(face, 2);
 		}
 	    }
 	}
     }
 
     /**
-     * Sorts the edges using BubbleSort
+     * uses quicksort to sort the edges.  Edges are compared by their
+     * lesser vertex (v1) and then by their greater vertex (v2)
      */
-    void sortEdges(Edge[] edges) {
-	int i = edges.length;
-	boolean sorted = false;
-	Edge temp = null;
-	while ((i > 1) && !sorted) {
-	    sorted = true;
-	    for (int j = 1; j < i; j++) {
-		if (edges[j].lessThan(edges[j-1])) {
-		    temp = edges[j-1];
-		    edges[j-1] = edges[j];
-		    edges[j] = temp;
-		    sorted = false;
-		}
-	    }
-	    i--;
-	}
-    }
-
-    /**
-     * uses quicksort to sort the edges
-     */
-    void quickSortEdges(Edge[] edges, int l, int r) {
+    void quickSortEdges(int[] edges, int[] v1, int[] v2, int l, int r) {
 	if (edges.length > 0) {
 	    int i = l;
 	    int j = r;
-	    Edge k = edges[(l+r) / 2];
+	    int k = edges[(l+r) / 2];
 
 	    do {
-		while (edges[i].lessThan(k)) i++;
-		while (k.lessThan(edges[j])) j--;
+		while (edgeLessThan(edges[i], k, v1, v2)) i++;
+		while (edgeLessThan(k, edges[j], v1, v2)) j--;
 		if (i <= j) {
-		    Edge tmp = edges[i];
+		    int tmp = edges[i];
 		    edges[i] = edges[j];
 		    edges[j] = tmp;
 		    i++;
@@ -558,116 +510,105 @@ public class Stripifier {
 		}
 	    } while (i <= j);
 
-	    if (l < j) quickSortEdges(edges, l, j);
-	    if (l < r) quickSortEdges(edges, i, r);
+	    if (l < j) quickSortEdges(edges, v1, v2, l, j);
+	    if (i < r) quickSortEdges(edges, v1, v2, i, r);
 	}
     }
 
     /**
-     * Takes a list of faces as input and performs a hybrid search, a
-     * variated depth first search that returns to the highest level node
-     * not yet fully explored.  Returns an array of pointers to the faces
-     * found in order from the search.  The faceNodes parameter is an
-     * array of the Nodes created for the faces.
+     * Used to sort the edges.  Returns true if edge e is less than
+     * edge f: first check if vertex1 of e is less than vertex1 of f.
+     * If the first vertices are equal then check vertex2.
      */
-    Node[] hybridSearch(Face[] faces, Node[] faceNodes) {
-
-	int numFaces = faces.length;
-	int i = 0, j = 0, k = 0, ind = 0;
-
-	// keep # of faces with certain # of neighbors
-	int[] count = {0, 0, 0, 0};
-
-	// faces sorted by number of neighbors
-	int[] index = new int[numFaces];
-	// the index of a certain face in the sorted array
-	int[] rindex = new int[numFaces];
-
-	// Control list pop up operation
-	boolean popFlag = false;
+    boolean edgeLessThan(int e, int f, int[] v1, int[] v2) {
+	int c = compareCorners(v1[e], v1[f]);
+	if (c != 0) return (c < 0);
+	else return (compareCorners(v2[e], v2[f]) < 0);
+    }
 
-	// queue of pointers to faces found in search
-	Node[] queue = new Node[numFaces];
-	// root of depth first tree
-	Node source;
-	// for the next node
-	Node nnode;
-	// a face
-	Face face;
-	// starting position for insertion into the list
-	int start = 0;
-	// list for search
-	SortedList dlist;
+    /**
+     * Creates the arrays that hold the binary spanning tree built by
+     * the search.  Each face is a node of the tree.
+     */
+    void createTree(int numFaces) {
+	parent = new int[numFaces];
+	left = new int[numFaces];
+	right = new int[numFaces];
+	depth = new int[numFaces];
+	numChildren = new int[numFaces];
+	attrib = new int[numFaces];
+	Arrays.fill(parent, EMPTY);
+	Arrays.fill(left, EMPTY);
+	Arrays.fill(right, EMPTY);
+    }
 
-	// count how many faces have a certain # of neighbors and
-	// create a Node for each face
-	for (i = 0; i < numFaces; i++) {
-	    j = faces[i].numNhbrs;
-	    count[j]++;
-	    faceNodes[i] = new Node(faces[i]);
-	}
+    void freeTree() {
+	parent = null;
+	left = null;
+	right = null;
+	depth = null;
+	numChildren = null;
+	attrib = null;
+    }
 
-	// to help with sorting
-	for (i = 1; i < 4; i++) {
-	    count[i] += count[i-1];
-	}
+    /**
+     * inserts the node below the parent supplied.
+     */
+    void insertNode(int node, int p) {
+	parent[node] = p;
+	depth[node] = depth[p] + 1;
+	attrib[node] = GREY;
+
+	if (left[p] == EMPTY) left[p] = node;
+	else right[p] = node;
+	(numChildren[p])++;
+    }
 
-	// decreasing i to make sorting stable
-	for (i = numFaces - 1; i >= 0; i--) {
-	    j = faces[i].numNhbrs;
-	    count[j]--;
-	    index[count[j]] = i;
-	    rindex[i] = count[j];
+    /**
+     * remove the node from its parent
+     */
+    void removeNode(int node) {
+	int p = parent[node];
+	if (p != EMPTY) {
+	    if (left[p] == node) {
+		left[p] = right[p];
+		right[p] = EMPTY;
+	    }
+	    else {
+		right[p] = EMPTY;
+	    }
+	    (numChildren[p])--;
 	}
+    }
 
-	// start the hybrid search
-	for (i = 0; i < numFaces; i++) {
-	    if (index[i] != EMPTY) {
-		dlist = new SortedList();
-		source = faceNodes[index[i]];
-		source.setRoot();
-		queue[ind] = source;
-		ind++;
-		index[i] = EMPTY;
-
-		while (source != null) {
-		    nnode = null;
-		    // use the first eligible for continuing search
-		    face = source.face;
-		    for (j = 0; j < 3; j++) {
-			k = face.getNeighbor(j);
-			if ((k != EMPTY) &&
-			    (faceNodes[k].notAccessed())) {
-			    nnode = faceNodes[k];
-			    break;
-			}
-		    }
+    /**
+     * sets the depth of the node to 0 and the attrib to GREY
+     */
+    void setRoot(int node) {
+	depth[node] = 0;
+	attrib[node] = GREY;
+    }
 
-		    if (nnode != null) {
-			// insert the new node
-			nnode.insert(source);
-			if (!popFlag) {
-			    start = dlist.sortedInsert(source, start);
-			}
-			else popFlag = false;
-			source = nnode;
-			queue[ind] = source;
-			ind++;
-			index[rindex[k]] = EMPTY;
-		    }
-		    else {
-			source.processed();
-			source = dlist.pop();
-			popFlag = true;
-			start = 0;
-		    }
-		} // while -- does popFlag need to be set to false here?
-	    }
-	}
-	return queue;
+    /**
+     * prints the information in the node
+     */
+    void printNode(int node, Face[] faces) {
+	System.out.println("Node depth: " + depth[node]);
+	faces[node].printVertices();
+	System.out.print("parent: ");
+	if (parent[node] != EMPTY) faces[parent[node]].printVertices();
+	else System.out.println("null");
+	System.out.print("left: ");
+	if (left[node] != EMPTY) faces[left[node]].printVertices();
+	else System.out.println("null");
+	System.out.print("right: ");
+	if (right[node] != EMPTY) faces[right[node]].printVertices();
+	else System.out.println("null");
+	System.out.println("attrib: " + attrib[node]);
+	System.out.println("");
     }
 
-    Node[] dfSearch(Face[] faces, Node[] faceNodes) {
+    int[] dfSearch(Face[] faces) {
 	int numFaces = faces.length;
 	int i = 0, j = 0, k = 0, ind = 0;
 
@@ -679,24 +620,20 @@ public class Stripifier {
 	// index of a certain face in the sorted array
 	int[] rindex = new int[numFaces];
 
-	// queue of pointers to faces found in the search
-	Node[] queue = new Node[numFaces];
+	// queue of faces found in the search
+	int[] queue = new int[numFaces];
 	// root of the depth first tree
-	Node source;
+	int source;
 	// the current node
-	Node node;
-	// for the next Node
-	Node nnode;
-	// a face
-	Face face;
+	int node;
 
 	// count how many faces have a certain # of neighbors and create
-	// a Node for each face
+	// the tree
 	for (i = 0; i < numFaces; i++) {
 	    j = faces[i].numNhbrs;
 	    count[j]++;
-	    faceNodes[i] = new Node(faces[i]);
 	}
+	createTree(numFaces);
 
 	// to help with sorting
 	for (i = 1; i < 4; i++) count[i] += count[i-1];
@@ -713,8 +650,8 @@ public class Stripifier {
 	// start the dfs
 	for (i = 0; i < numFaces; i++) {
 	    if (index[i] != EMPTY) {
-		source = faceNodes[index[i]];
-		source.setRoot();
+		source = index[i];
+		setRoot(source);
 		queue[ind] = source;
 		ind++;
 		index[i] = EMPTY;
@@ -722,56 +659,44 @@ public class Stripifier {
 
 		do {
 		    // if source has been done, stop
-		    if ((node == source) && (node.right != null)) break;
-
-		    nnode = null;
- 		    face = node.face;
-
-		    //  		    for (j = 0; j < 3; j++) {
-		    //  			if (((k = face.getNeighbor(j)) != EMPTY) &&
-		    //  			    (faceNodes[k].notAccessed())) {
-		    //  			    nnode = faceNodes[k];
-		    //  			    break;
-		    //  			}
-		    //  		    }
+		    if ((node == source) && (right[node] != EMPTY)) break;
 
- 		    k = findNext(node, faceNodes, faces);
- 		    if (k != EMPTY) nnode = faceNodes[k];
- 		    if (nnode != null) updateNumNhbrs(nnode);
+ 		    k = findNext(node, faces);
 
-		    if (nnode != null) {
+		    if (k != EMPTY) {
+			updateNumNhbrs(faces[k]);
 			// insert new node
-			nnode.insert(node);
-			node = nnode;
+			insertNode(k, node);
+			node = k;
 			queue[ind] = node;
 			ind++;
 			index[rindex[k]] = EMPTY;
 		    }
 		    else {
-			node.processed();
-			node = node.parent;
+			attrib[node] = BLACK;
+			node = parent[node];
 		    }
-		} while (node != source.parent);
+		} while (node != parent[source]);
 	    }
 	}
 	freeNhbrTable();
 	return queue;
     }
 
-    int findNext(Node node, Node[] faceNodes, Face[] faces) {
-	Face face = node.face;
+    int findNext(int node, Face[] faces) {
+	Face face = faces[node];
 	// this face has no neighbors so return
 	if (face.numNhbrs == 0) return EMPTY;
 
 	int i, j, count;
-	int[] n = new int[3];  // num neighbors of neighboring face
-	int[] ind = {-1, -1, -1}; // neighboring faces
+	int[] n = nextNhbrs;  // num neighbors of neighboring face
+	int[] ind = nextFaces; // neighboring faces
 
 	// find the number of neighbors for each neighbor
 	count = 0;
 	for (i = 0; i < 3; i++) {
 	    if (((j = face.getNeighbor(i)) != EMPTY) &&
-		(faceNodes[j].notAccessed())) {
+		(attrib[j] == WHITE)) {
 		ind[count] = j;
 		n[count] = numNhbrs[j];
 		count++;
@@ -787,20 +712,20 @@ public class Stripifier {
 	if (count == 2) {
 	    // if the number of neighbors are the same, try reseting
 	    if ((n[0] == n[1]) && (n[0] != 0)) {
-		n[0] = resetNhbr(ind[0], faces, faceNodes);
-		n[1] = resetNhbr(ind[1], faces, faceNodes);
+		n[0] = resetNhbr(ind[0], faces);
+		n[1] = resetNhbr(ind[1], faces);
 	    }
 	    // if one neighbor has fewer neighbors, return that neighbor
 	    if (n[0] < n[1]) return ind[0];
 	    if (n[1] < n[0]) return ind[1];
 	    // neighbors tie.  pick the sequential one
-	    Node pnode, ppnode;
+	    int pnode, ppnode;
 	    Face pface, ppface;
-	    if ((pnode = node.parent) != null) {
-		pface = pnode.face;
+	    if ((pnode = parent[node]) != EMPTY) {
+		pface = faces[pnode];
 		i = pface.findSharedEdge(face.key);
-		if ((ppnode = pnode.parent) != null) {
-		    ppface = ppnode.face;
+		if ((ppnode = parent[pnode]) != EMPTY) {
+		    ppface = faces[ppnode];
 		    if (pface.getNeighbor((i+1)%3) == ppface.key) {
 			j = pface.verts[(i+2)%3].index;
 		    }
@@ -824,33 +749,33 @@ public class Stripifier {
 	    else if ((n[2] < n[0]) && (n[2] < n[1])) return ind[2];
 	    else if ((n[0] == n[1]) && (n[0] < n[2])) {
 		if (n[0] != 0) {
-		    n[0] = resetNhbr(ind[0], faces, faceNodes);
-		    n[1] = resetNhbr(ind[1], faces, faceNodes);
+		    n[0] = resetNhbr(ind[0], faces);
+		    n[1] = resetNhbr(ind[1], faces);
 		}
 		if (n[0] <= n[1]) return ind[0];
 		else return ind[1];
 	    }
 	    else if ((n[1] == n[2]) && n[1] < n[0]) {
 		if (n[1] != 0) {
-		    n[1] = resetNhbr(ind[1], faces, faceNodes);
-		    n[2] = resetNhbr(ind[2], faces, faceNodes);
+		    n[1] = resetNhbr(ind[1], faces);
+		    n[2] = resetNhbr(ind[2], faces);
 		}
 		if (n[1] <= n[2]) return ind[1];
 		else return ind[2];
 	    }
 	    else if ((n[2] == n[0]) && (n[2] < n[1])) {
 		if (n[0] != 0) {
-		    n[0] = resetNhbr(ind[0], faces, faceNodes);
-		    n[2] = resetNhbr(ind[2], faces, faceNodes);
+		    n[0] = resetNhbr(ind[0], faces);
+		    n[2] = resetNhbr(ind[2], faces);
 		}
 		if (n[0] <= n[2]) return ind[0];
 		else return ind[2];
 	    }
 	    else {
 		if (n[0] != 0) {
-		    n[0] = resetNhbr(ind[0], faces, faceNodes);
-		    n[1] = resetNhbr(ind[1], faces, faceNodes);
-		    n[2] = resetNhbr(ind[2], faces, faceNodes);
+		    n[0] = resetNhbr(ind[0], faces);
+		    n[1] = resetNhbr(ind[1], faces);
+		    n[2] = resetNhbr(ind[2], faces);
 		}
 		if ((n[0] <= n[1]) && (n[0] <= n[2])) return ind[0];
 		else if (n[1] <= n[2]) return ind[1];
@@ -871,21 +796,20 @@ public class Stripifier {
 	numNhbrs = null;
     }
 
-    void updateNumNhbrs(Node node) {
-	Face face = node.face;
+    void updateNumNhbrs(Face face) {
 	int i;
 	if ((i = face.getNeighbor(0)) != EMPTY) numNhbrs[i]--;
 	if ((i = face.getNeighbor(1)) != EMPTY) numNhbrs[i]--;
 	if ((i = face.getNeighbor(2)) != EMPTY) numNhbrs[i]--;
     }
 
-    int resetNhbr(int y, Face[] faces, Node[] faceNodes) {
+    int resetNhbr(int y, Face[] faces) {
 	int x = EMPTY;
 	Face nface = faces[y];
 	int i;
 	for (int j = 0; j < 3; j++) {
 	    if (((i = nface.getNeighbor(j)) != EMPTY) &&
-		(faceNodes[i].notAccessed())) {
+		(attrib[i] == WHITE)) {
 		if ((x == EMPTY) || (x > numNhbrs[i])) x = numNhbrs[i];
 	    }
 	}
@@ -899,7 +823,8 @@ public class Stripifier {
      * return the number of strips and patches in the numStrips and
      * numPatches "pointers"
      */
-    ArrayList hamilton(Node[] sTree, int[] numStrips, int[] numPatches) {
+    ArrayList hamilton(int[] sTree, Face[] faces, int[] numStrips,
+		       int[] numPatches) {
 	// the number of nodes in the tree
 	int numNodes = sTree.length;
 	// number of strips
@@ -907,11 +832,9 @@ public class Stripifier {
 	// number of patches
 	int np = 0;
 	// some tree node variables
-	Node node, pnode, cnode;
+	int pnode, cnode;
 	// the Vector of strips
 	ArrayList strips = new ArrayList();
-	// the current strip
-	ArrayList currStrip;
 
 	// the tree nodes are visited in such a bottom-up fashion that
 	// any node is visited prior to its parent
@@ -919,74 +842,36 @@ public class Stripifier {
 	    cnode = sTree[i];
 
 	    // if cnode is the root of a tree create a strip
-	    if (cnode.isRoot()) {
+	    if (parent[cnode] == EMPTY) {
 		// each patch is a single tree
 		np++;
-		// create a new strip
-		currStrip = new ArrayList();
-		// insert the current node into the list
-		currStrip.add(0, cnode.face);
-
-		// add the left "wing" of the parent node to the strip
-		node = cnode.left;
-		while (node != null) {
-		    currStrip.add(0, node.face);
-		    node = node.left;
-		}
-
-		// add the right "wing" of the parent node to the strip
-		node = cnode.right;
-		while (node != null) {
-		    currStrip.add(currStrip.size(), node.face);
-		    node = node.left;
-		}
-
 		// increase the number of strips
 		ns++;
 		// add the strip to the Vector
-		strips.add(currStrip);
+		strips.add(makeStrip(cnode, faces));
 	    }
 
 	    // if the number of children of this node is 2, create a strip
-	    else if (cnode.numChildren == 2) {
+	    else if (numChildren[cnode] == 2) {
 		// if the root has a single child with double children, it
 		// could be left over as a singleton.  However, the following
 		// rearrangement reduces the chances
-  		pnode = cnode.parent;
-  		if (pnode.isRoot() && (pnode.numChildren == 1)) {
-  		    pnode = cnode.right;
-  		    if (pnode.left != null) cnode = pnode;
-  		    else cnode = cnode.left;
+  		pnode = parent[cnode];
+  		if ((parent[pnode] == EMPTY) && (numChildren[pnode] == 1)) {
+  		    pnode = right[cnode];
+  		    if (left[pnode] != EMPTY) cnode = pnode;
+  		    else cnode = left[cnode];
   		}
 
 		// handle non-root case
 
  		// remove the node
- 		cnode.remove();
-
-		// create a new strip
-		currStrip = new ArrayList();
-		// insert the current node into the list
-		currStrip.add(0, cnode.face);
-
-		// add the left "wing" of cnode to the list
-		node = cnode.left;
-		while (node != null) {
-		    currStrip.add(0, node.face);
-		    node = node.left;
-		}
-
-		// add the right "wing" of cnode to the list
-		node = cnode.right;
-		while (node != null) {
-		    currStrip.add(currStrip.size(), node.face);
-		    node = node.left;
-		}
+ 		removeNode(cnode);
 
 		// increase the number of strips
 		ns++;
 		// add the strip to the Vector
-		strips.add(currStrip);
+		strips.add(makeStrip(cnode, faces));
 	    }
 	}
 
@@ -998,6 +883,34 @@ public class Stripifier {
 	return strips;
     }
 
+    /**
+     * creates a strip from the node and its left and right "wings"
+     */
+    ArrayList makeStrip(int cnode, Face[] faces) {
+	ArrayList currStrip = new ArrayList();
+	int node;
+
+	// add the left "wing" of the node, which goes in front of it
+	// in reverse order
+	node = left[cnode];
+	while (node != EMPTY) {
+	    currStrip.add(faces[node]);
+	    node = left[node];
+	}
+	Collections.reverse(currStrip);
+
+	// insert the current node into the list
+	currStrip.add(faces[cnode]);
+
+	// add the right "wing" of the node to the list
+	node = right[cnode];
+	while (node != EMPTY) {
+	    currStrip.add(faces[node]);
+	    node = left[node];
+	}
+	return currStrip;
+    }
+
     /**
      * creates the triangle strips
      */
@@ -1213,8 +1126,8 @@ public class Stripifier {
 
     boolean seq(Istream stream, Face face, int share) {
 	int length = stream.length;
-	Vertex v1 = face.edges[share].v1;
-	Vertex v2 = face.edges[share].v2;
+	Vertex v1 = face.verts[(share+1)%3];
+	Vertex v2 = face.verts[(share+2)%3];
 	Vertex last = stream.istream[length-1];
 	Vertex prev = stream.istream[length-2];
 	if (((v1.equals(prev)) && (v2.equals(last))) ||
@@ -2013,17 +1926,17 @@ public class Stripifier {
 	int[] tempStripCounts = new int[strips.size()];
 	int ciSize = 0;
 	int stripLength;
-	for (int i = 0; i < strips.size();) {
+	int numStrips = 0;
+	for (int i = 0; i < strips.size(); i++) {
 	    stripLength = ((Istream)strips.get(i)).length;
  	    if (stripLength != 0) {
-		tempStripCounts[i] = stripLength;
+		tempStripCounts[numStrips] = stripLength;
 		ciSize += stripLength;
-		i++;
-	    }
-	    else {
-		strips.remove(i);
+		strips.set(numStrips++, strips.get(i));
 	    }
 	}
+	// remove the empty strips left over from concatenation
+	strips.subList(numStrips, strips.size()).clear();
 	if (ciSize > 3) {
 	    gi.setPrimitive(gi.TRIANGLE_STRIP_ARRAY);
 	    int[] stripCounts = new int[strips.size()];
@@ -2135,63 +2048,6 @@ public class Stripifier {
 		    (v.normal == normal) &&
 		    (v.color == color));
 	}
-
-	// will this yield same results as c code ???
-	boolean lessThan(Vertex v) {
-	    if (index < v.index) return true;
-	    if (index > v.index) return false;
-	    if (normal < v.normal) return true;
-	    if (normal > v.normal) return false;
-	    for (int i = 0; i < numTexSets; i++) {
-		if (texture[i] < v.texture[i]) return true;
-		if (texture[i] > v.texture[i]) return false;
-	    }
-	    if (color < v.color) return true;
-	    if (color > v.color) return false;
-	    return false;
-	}
-    }
-
-    /**
-     * Stores the information about an edge of a triangle
-     */
-    class Edge {
-
-	Vertex v1, v2;
-	int face;
-
-	Edge(Vertex vertex1, Vertex vertex2, int faceIndex) {
-	    face = faceIndex;
-
-	    // this could be causing wrapping problem
-   	    if (vertex1.lessThan(vertex2)) {
-  		v1 = vertex1;
- 		v2 = vertex2;
-   	    } else {
-   		v1 = vertex2;
-   		v2 = vertex1;
-   	    }
-	}
-
-	/**
-	 * Determine whether the edges have the same vertices
-	 */
-	boolean equals(Edge edge) {
- 	    return ((v1.equals(edge.v1)) && (v2.equals(edge.v2)));
-
-	}
-
-	/**
-	 * Used to sort the edges.  If this is less than the edge parameter,
-	 * return true.  First check if vertex1 is less than vertex1 of the
-	 * edge provided.  If so, return true.  If the first vertices are equal
-	 * then check vertex2.
-	 */
-	boolean lessThan(Edge edge) {
- 	    if (v1.lessThan(edge.v1)) return true;
- 	    else if (v1.equals(edge.v1)) return (v2.lessThan(edge.v2));
- 	    else return false;
-	}
     }
 
     /**
@@ -2201,9 +2057,6 @@ public class Stripifier {
 	int key;
 	int numNhbrs = 0;
 	Vertex[] verts = null;
-	// edges are kept in order s.t. the ith edge is the opposite
-	// edge of the ith vertex
-	Edge[] edges = null;
 
 	/**
 	 * Creates a new Face with the three given vertices
@@ -2215,12 +2068,6 @@ public class Stripifier {
 	    verts[0] = v1;
 	    verts[1] = v2;
 	    verts[2] = v3;
-
-	    edges = new Edge[3];
-	    edges[0] = null;
-	    edges[1] = null;
-	    edges[2] = null;
-	    numNhbrs = 3;
 	}
 
 	/**
@@ -2228,7 +2075,7 @@ public class Stripifier {
 	 * by the parameter
 	 */
 	int getNeighbor(int edge) {
-	    return edges[edge].face;
+	    return adj[key*3 + edge];
 	}
 
 	/**
@@ -2236,32 +2083,42 @@ public class Stripifier {
 	 * specified by the key parameter
 	 */
 	int findSharedEdge(int key) {
- 	    if (edges[0].face == key) return 0;
-	    else if (edges[1].face == key) return 1;
-	    else if (edges[2].face == key) return 2;
+ 	    if (getNeighbor(0) == key) return 0;
+	    else if (getNeighbor(1) == key) return 1;
+	    else if (getNeighbor(2) == key) return 2;
 	    else return -1; /* error */
 	}
 
-	int getEdgeIndex(Edge edge) {
-	    if (edges[0].equals(edge)) return 0;
-	    else if (edges[1].equals(edge)) return 1;
-	    else return 2;
+	/**
+	 * Determine whether the edge opposite vertex i of this face has
+	 * the same vertices as the edge opposite vertex j of the face
+	 * supplied
+	 */
+	boolean sameEdge(int i, Face face, int j) {
+	    int a = key*3 + (i+1)%3, b = key*3 + (i+2)%3;
+	    int c = face.key*3 + (j+1)%3, d = face.key*3 + (j+2)%3;
+	    return ((cornerEquals(a, c) && cornerEquals(b, d)) ||
+		    (cornerEquals(a, d) && cornerEquals(b, c)));
 	}
 
-	void counterEdgeDel(Edge edge) {
+	/**
+	 * Removes the neighbor across the edge of this face that is the
+	 * same as the edge opposite vertex i of the face supplied
+	 */
+	void counterEdgeDel(Face face, int i) {
 	    if (DEBUG) {
 		System.out.println("counterEdgeDel");
 	    }
-	    if ((edges[0]).equals(edge)) {
-		edges[0].face = EMPTY;
+	    if (sameEdge(0, face, i)) {
+		adj[key*3] = EMPTY;
 		numNhbrs--;
 	    }
-	    else if ((edges[1]).equals(edge)) {
-		edges[1].face = EMPTY;
+	    else if (sameEdge(1, face, i)) {
+		adj[key*3+1] = EMPTY;
 		numNhbrs--;
 	    }
-	    else if ((edges[2]).equals(edge)) {
-		edges[2].face = EMPTY;
+	    else if (sameEdge(2, face, i)) {
+		adj[key*3+2] = EMPTY;
 		numNhbrs--;
 	    }
 	    else {
@@ -2274,9 +2131,9 @@ public class Stripifier {
 	void printAdjacency() {
 	    System.out.println("Face " + key + ": ");
 	    System.out.println("\t numNhbrs = " + numNhbrs);
-	    System.out.println("\t edge 0: Face " + edges[0].face);
-	    System.out.println("\t edge 1: Face " + edges[1].face);
-	    System.out.println("\t edge 2: Face " + edges[2].face);
+	    System.out.println("\t edge 0: Face " + getNeighbor(0));
+	    System.out.println("\t edge 1: Face " + getNeighbor(1));
+	    System.out.println("\t edge 2: Face " + getNeighbor(2));
 	}
 
 	void printVertices() {
@@ -2285,149 +2142,6 @@ public class Stripifier {
 	}
     }
 
-    /**
-     * stores the information for a face node
-     */
-    class Node {
-	Face face;        // the data: the face
-	Node parent;      // the parent node
-	Node left;        // the left child
-	Node right;       // the right child
-	int depth;        // the topological distance of the node from the root
-	int numChildren;  // the number of children
-	int attrib;       // characteristic of the node eg. color
-
-	// the attributes - 3 states for the Node
-	static final int WHITE = 0;  // not being accessed yet
-	static final int GREY = 1;   // being accessed but not done yet
-	static final int BLACK = 2;  // done
-
-	Node(Face f) {
-	    face = f;
-	}
-
-	/**
-	 * inserts this node below the parent supplied.
-	 */
-	void insert(Node p) {
-	    parent = p;
-	    depth = p.depth + 1;
-	    attrib = GREY;
-
-	    if (parent.left == null) parent.left = this;
-	    else parent.right = this;
-	    (parent.numChildren)++;
-	}
-
-	/**
-	 * remove this node from its parent
-	 */
-	void remove() {
-	    if (parent != null) {
-		if (parent.left == this) {
-		    parent.left = parent.right;
-		    parent.right = null;
-		}
-		else {
-		    parent.right = null;
-		}
-		(parent.numChildren)--;
-	    }
-	}
-
-
-	/**
-	 * sets the depth to 0 and the attrib to GREY
-	 */
-	void setRoot() {
-	    depth = 0;
-	    attrib = GREY;
-	}
-
-	/**
-	 * returns true if the attrib is WHITE
-	 */
-	boolean notAccessed() {
-	    return (attrib == WHITE);
-	}
-
-	/**
-	 * sets the color to BLACK
-	 */
-	void processed() {
-	    attrib = BLACK;
-	}
-
-	/**
-	 * a node is the root if it doesn't have a parent
-	 */
-	boolean isRoot() {
-	    return (parent == null);
-	}
-
-	/**
-	 * prints the information in this Node
-	 */
-	void print() {
-	    System.out.println(this);
-	    System.out.println("Node depth: " + depth);
-	    face.printVertices();
-	    System.out.print("parent: ");
-	    if (parent != null) parent.face.printVertices();
-	    else System.out.println("null");
-	    System.out.print("left: ");
-	    if (left != null) left.face.printVertices();
-	    else System.out.println("null");
-	    System.out.print("right: ");
-	    if (right != null) right.face.printVertices();
-	    else System.out.println("null");
-	    System.out.println("attrib: " + attrib);
-	    System.out.println("");
-	}
-    }
-
-    /**
-     * sorts the Nodes by depth
-     */
-    class SortedList {
-
-	ArrayList list;
-
-	/**
-	 * create a new SortedList
-	 */
-	SortedList() {
-	    list = new ArrayList();
-	}
-
-	/**
-	 * insert into the list sorted by depth.  start looking at start
-	 * to save some time.  Returns the index of the next item of the
-	 * inserted element
-	 */
-	int sortedInsert(Node data, int start) {
-	    // adjust start to where insert sorted
-	    while ((start < list.size()) &&
-		   (((Node)list.get(start)).depth <= data.depth)) {
-		start++;
-	    }
-
-	    // insert at start index
-	    list.add(start, data);
-
-	    // return start+1 -- the index of the next element
-	    return (start+1);
-	}
-
-	/**
-	 * remove and return 1st element
-	 */
-	Node pop() {
-	    if (!list.isEmpty()) return (Node)list.remove(0);
-	    else return null;
-	}
-    }
-
     class Istream {
 
 	// fan encoding
@@ -2479,9 +2193,8 @@ public class Stripifier {
 	void growArray() {
 	    if (length >= istream.length) {
 		Vertex[] old = istream;
-		// for now add enough space to add three more vertices
-		// may change this later
-		istream = new Vertex[length + 3];
+		// double the space so that appending stays linear
+		istream = new Vertex[length*2 + 3];
 		System.arraycopy(old, 0, istream, 0, length);
 	    }
 	}
@@ -2490,14 +2203,13 @@ public class Stripifier {
 	 * inverts the istream
 	 */
 	void invert() {
-	    Vertex[] tmp = new Vertex[istream.length];
-	    // reverse the stream
-	    for (int i = 0; i < length; i++) {
-		tmp[i] = istream[length - i - 1];
+	    // reverse the stream in place
+	    Vertex tmp;
+	    for (int i = 0, j = length - 1; i < j; i++, j--) {
+		tmp = istream[i];
+		istream[i] = istream[j];
+		istream[j] = tmp;
 	    }
-	    // copy it back
-	    System.arraycopy(tmp, 0, istream, 0, istream.length);
-	    tmp = null;
 	    // swap the head and the tail
 	    int swap = head;
 	    head = tail;
@@ -2515,7 +2227,7 @@ public class Stripifier {
 	    // make the istream bigger
 	    if (size >= istream.length) {
 		Vertex[] old = istream;
-		istream = new Vertex[size];
+		istream = new Vertex[Math.max(size, length*2 + 3)];
 		System.arraycopy(old, 0, istream, 0, length);
 	    }
 
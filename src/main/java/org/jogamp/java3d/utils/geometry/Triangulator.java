@@ -54,7 +54,10 @@
 
 package org.jogamp.java3d.utils.geometry;
 
+import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.jogamp.vecmath.Point2f;
 import org.jogamp.vecmath.Point3f;
@@ -96,6 +99,13 @@ public class Triangulator extends Object {
 
     int firstNode = 0;
 
+    // When set, large meshes are triangulated on this executor
+    private ExecutorService executor = null;
+
+    // Meshes with more vertices than this are split into runs of faces
+    // of about this many vertices, each triangulated by its own task.
+    static final int CHUNK = 1 << 14;
+
     int numChains = 0;
     int maxNumChains = 0;
 
@@ -111,6 +121,15 @@ public class Triangulator extends Object {
     int numVtxList = 0;
     int numReflex = 0;
     int reflexVertices;
+    // Grid of reflex vertices, used instead of the reflexVertices list
+    // for loops with many reflex vertices.
+    boolean reflexGrid = false;
+    int gridSize, gridIMin, gridColWidth;
+    double gridYMin, gridYScale;
+    int gridHead[] = null;
+    int gridNext[] = null;
+    int gridPrev[] = null;
+    int reflexNode[] = null;
 
     // For Bridge class.
     Distance distances[] = null;
@@ -199,6 +218,31 @@ public class Triangulator extends Object {
 
     }
 
+    /**
+     * Sets the ExecutorService used by triangulate().  When an executor
+     * is set, the faces of large meshes are triangulated at the same
+     * time, each task with its own working storage.  The triangles are
+     * put back together in the original face order, so the results are
+     * identical to those computed on the calling thread.  A Triangulator
+     * created with EARS_RANDOM always works on the calling thread, since
+     * its faces share one random number generator.  The Triangulator
+     * does not shut the executor down.
+     * @param executor The executor to use, or null (the default) to do
+     * all of the work on the calling thread.
+     */
+    public void setExecutorService(ExecutorService executor) {
+	this.executor = executor;
+    }
+
+    /**
+     * Returns the ExecutorService used by triangulate(), or null if it
+     * runs on the calling thread.
+     * @see #setExecutorService(ExecutorService)
+     */
+    public ExecutorService getExecutorService() {
+	return executor;
+    }
+
     /**
      * This routine converts the GeometryInfo object from primitive type
      * POLYGON_ARRAY to primitive type TRIANGLE_ARRAY using polygon
@@ -213,13 +257,7 @@ public class Triangulator extends Object {
      * @param gi Geometry to be triangulated
      **/
     public void triangulate(GeometryInfo gi) {
-	int i, j, k;
-	int sIndex = 0, index, currLoop, lastInd, ind;
-	boolean proceed;
-	boolean reset = false, troubles = false;
-
-	boolean done[] = new boolean[1];
-	boolean gotIt[] = new boolean[1];
+	int i;
 
 	if (gi.getPrimitive() != GeometryInfo.POLYGON_ARRAY){
 	    throw new IllegalArgumentException(J3dUtilsI18N.getString("Triangulator0"));
@@ -280,6 +318,46 @@ public class Triangulator extends Object {
 	  }
 	*/
 
+	// random ear order draws from one generator across all of the
+	// faces, so it can only be reproduced on the calling thread
+	if (executor != null && !earsRandom && vertexIndices != null &&
+	    vertexIndices.length > CHUNK) {
+	    int tris[] = triangulateParallel();
+	    if (tris != null) writeTriangleToGeomInfo(tris);
+	    return;
+	}
+
+	if (!triangulateFaces(0, numFaces, 0, 0)) return;
+
+	/*
+	  if (troubles)
+	  System.out.println("\n\nTriangulation completed!\n");
+	  else
+	  System.out.println("\n\nTriangulation successfully completed!\n");
+	*/
+	// System.out.println("\n...writing the output data: ");
+
+	// Output triangles here.
+	writeTriangleToGeomInfo();
+
+    }
+
+    /**
+     * Triangulates the faces firstFace up to (not including) lastFace.
+     * firstLoop and firstIndex are the strip and vertex index of the
+     * first vertex of firstFace.  Returns false if some face could not
+     * be triangulated.
+     */
+    boolean triangulateFaces(int firstFace, int lastFace,
+			     int firstLoop, int firstIndex) {
+	int i, j, k;
+	int sIndex, index, currLoop, lastInd, ind;
+	boolean proceed;
+	boolean reset = false, troubles = false;
+
+	boolean done[] = new boolean[1];
+	boolean gotIt[] = new boolean[1];
+
 	maxNumLoops = 0;
 	maxNumList = 0;
 	maxNumPoints = 0;
@@ -288,7 +366,8 @@ public class Triangulator extends Object {
 	maxNumPUnsorted = 0;
 
 	// Compute the length of loops and list.
-	for(i=0; i<faces.length; i++) {
+	sIndex = firstLoop;
+	for(i=firstFace; i<lastFace; i++) {
 	    maxNumLoops += faces[i];
 	    for(j=0; j<faces[i]; j++, sIndex++) {
 		maxNumList += (stripCounts[sIndex]+1);
@@ -313,10 +392,10 @@ public class Triangulator extends Object {
 	numPoints = 0;
 	numLoops = 0;
 	numList = 0;
-	sIndex = 0;
-	index = 0;
+	sIndex = firstLoop;
+	index = firstIndex;
 
-	for(i=0; i<faces.length; i++) {
+	for(i=firstFace; i<lastFace; i++) {
 	    for(j=0; j<faces[i]; j++, sIndex++) {
 
 		currLoop = makeLoopHeader();
@@ -360,7 +439,7 @@ public class Triangulator extends Object {
 
 	int i1 = 0;
 	int i2 = 0;
-	for( j = 0;  j < numFaces;  ++j) {
+	for( j = firstFace;  j < lastFace;  ++j) {
 	    ccwLoop = true;
 	    done[0] = false;
 	    i2 = i1 + faces[j];
@@ -482,7 +561,7 @@ public class Triangulator extends Object {
 				      System.out.println("***** ask a triangulation wizard, or ");
 				      System.out.println("clean-up your polyhedron! ***** \n");
 				    */
-				    return;
+				    return false;
 				}
 			    }
 			    else {
@@ -536,17 +615,71 @@ public class Triangulator extends Object {
 
 	}
 
-	/*
-	  if (troubles)
-	  System.out.println("\n\nTriangulation completed!\n");
-	  else
-	  System.out.println("\n\nTriangulation successfully completed!\n");
-	*/
-	// System.out.println("\n...writing the output data: ");
+	return true;
+    }
 
-	// Output triangles here.
-	writeTriangleToGeomInfo();
+    /**
+     * Triangulates the faces on the executor.  Each task works on a run
+     * of consecutive faces with its own Triangulator, and the triangles
+     * are put back together in face order, so the result is the same as
+     * on the calling thread.  Returns the common indices of the
+     * triangles, or null if some face could not be triangulated.
+     */
+    int[] triangulateParallel() {
+	int i, j, count;
+	int sIndex = 0, index = 0;
+	ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+	final ArrayList<int[]> results = new ArrayList<int[]>();
+
+	int firstFace = 0, firstLoop = 0, firstIndex = 0;
+	count = 0;
+	for (i = 0; i < numFaces; i++) {
+	    for (j = 0; j < faces[i]; j++, sIndex++) {
+		index += stripCounts[sIndex];
+		count += stripCounts[sIndex];
+	    }
+	    if (count >= CHUNK || i == numFaces - 1) {
+		final int n = tasks.size();
+		final int ff = firstFace, lf = i + 1;
+		final int fl = firstLoop, fi = firstIndex;
+		results.add(null);
+		tasks.add(new Callable<Object>() {
+		    @Override
+		    public Object call() {
+			Triangulator tr = new Triangulator();
+			tr.earsSorted = earsSorted;
+			tr.vertices = vertices;
+			tr.vertexIndices = vertexIndices;
+			tr.stripCounts = stripCounts;
+			tr.faces = faces;
+			// a face that can't be triangulated leaves a null
+			if (tr.triangulateFaces(ff, lf, fl, fi))
+			    results.set(n, tr.getCommonIndices());
+			return null;
+		    }
+		});
+		firstFace = i + 1;
+		firstLoop = sIndex;
+		firstIndex = index;
+		count = 0;
+	    }
+	}
 
+	ParallelIndexer.invokeAll(executor, tasks);
+
+	count = 0;
+	for (i = 0; i < results.size(); i++) {
+	    if (results.get(i) == null) return null;
+	    count += results.get(i).length;
+	}
+	int tris[] = new int[count];
+	count = 0;
+	for (i = 0; i < results.size(); i++) {
+	    System.arraycopy(results.get(i), 0, tris, count,
+			     results.get(i).length);
+	    count += results.get(i).length;
+	}
+	return tris;
     }
 
     void printVtxList() {
@@ -589,7 +722,7 @@ public class Triangulator extends Object {
     }
 
     void writeTriangleToGeomInfo() {
-	int i, currIndex;
+	int i;
 
 	// There are 2 approaches to take here : (1) Output all triangles as
 	// a single face.(Easy) (2) Preserve the faces of the polyhedron and
@@ -622,81 +755,58 @@ public class Triangulator extends Object {
 	    }
 	}
 
+	writeTriangleToGeomInfo(getCommonIndices());
+    }
+
+    /**
+     * Returns the common indices of the corners of the triangles found
+     * so far, three for each triangle.
+     */
+    int[] getCommonIndices() {
+	int tris[] = new int[numTriangles*3];
+	int currIndex = 0;
+	for(int i=0; i<numTriangles; i++) {
+	    tris[currIndex++] = list[triangles[i].v1].getCommonIndex();
+	    tris[currIndex++] = list[triangles[i].v2].getCommonIndex();
+	    tris[currIndex++] = list[triangles[i].v3].getCommonIndex();
+	}
+	return tris;
+    }
+
+    void writeTriangleToGeomInfo(int tris[]) {
+	int i;
+
 	gInfo.setPrimitive(GeometryInfo.TRIANGLE_ARRAY);
 	gInfo.setContourCounts(null);
 	gInfo.forgetOldPrim();
 	gInfo.setStripCounts(null);
 
-	currIndex = 0;
-	int newVertexIndices[] = new int[numTriangles*3];
-	int index;
-	for(i=0; i<numTriangles; i++) {
-	    index = list[triangles[i].v1].getCommonIndex();
-	    newVertexIndices[currIndex++] = vertexIndices[index];
-	    index = list[triangles[i].v2].getCommonIndex();
-	    newVertexIndices[currIndex++] = vertexIndices[index];
-	    index = list[triangles[i].v3].getCommonIndex();
-	    newVertexIndices[currIndex++] = vertexIndices[index];
-	}
+	int newVertexIndices[] = new int[tris.length];
+	for(i=0; i<tris.length; i++)
+	    newVertexIndices[i] = vertexIndices[tris[i]];
 	gInfo.setCoordinateIndices(newVertexIndices);
 
-	/*
-	  for(i=0;i<newVertexIndices.length;) {
-	  System.out.println("v1 " + newVertexIndices[i++] +
-	  ", v2 " + newVertexIndices[i++] +
-	  ", v3 " + newVertexIndices[i++]);
-	  }
-
-	  System.out.println("Pysical point:");
-	  for(i=0;i<newVertexIndices.length;) {
-	  System.out.println("v1 " + vertices[newVertexIndices[i++]] +
-	  ", v2 " + vertices[newVertexIndices[i++]] +
-	  ", v3 " + vertices[newVertexIndices[i++]]);
-	  }
-	*/
-
 	if(normals != null) {
 	    int oldNormalIndices[] = gInfo.getNormalIndices();
-	    int newNormalIndices[] = new int[numTriangles*3];
-	    currIndex = 0;
-	    for(i=0; i<numTriangles; i++) {
-		index = list[triangles[i].v1].getCommonIndex();
-		newNormalIndices[currIndex++] = oldNormalIndices[index];
-		index = list[triangles[i].v2].getCommonIndex();
-		newNormalIndices[currIndex++] = oldNormalIndices[index];
-		index = list[triangles[i].v3].getCommonIndex();
-		newNormalIndices[currIndex++] = oldNormalIndices[index];
-	    }
+	    int newNormalIndices[] = new int[tris.length];
+	    for(i=0; i<tris.length; i++)
+		newNormalIndices[i] = oldNormalIndices[tris[i]];
 	    gInfo.setNormalIndices(newNormalIndices);
 	}
 
 	if(colors != null) {
-	    currIndex = 0;
 	    int oldColorIndices[] = gInfo.getColorIndices();
-	    int newColorIndices[] = new int[numTriangles*3];
-	    for(i=0; i<numTriangles; i++) {
-		index = list[triangles[i].v1].getCommonIndex();
-		newColorIndices[currIndex++] = oldColorIndices[index];
-		index = list[triangles[i].v2].getCommonIndex();
-		newColorIndices[currIndex++] = oldColorIndices[index];
-		index = list[triangles[i].v3].getCommonIndex();
-		newColorIndices[currIndex++] = oldColorIndices[index];
-	    }
+	    int newColorIndices[] = new int[tris.length];
+	    for(i=0; i<tris.length; i++)
+		newColorIndices[i] = oldColorIndices[tris[i]];
 	    gInfo.setColorIndices(newColorIndices);
 	}
 
 	for(int j = 0; j < numTexSets; j++) {
-	    int newTextureIndices[] = new int[numTriangles*3];
+	    int newTextureIndices[] = new int[tris.length];
 	    int oldTextureIndices[] = gInfo.getTextureCoordinateIndices(j);
-	    currIndex = 0;
-	    for(i=0; i<numTriangles; i++) {
-		index = list[triangles[i].v1].getCommonIndex();
-		newTextureIndices[currIndex++] = oldTextureIndices[index];
-		index = list[triangles[i].v2].getCommonIndex();
-		newTextureIndices[currIndex++] = oldTextureIndices[index];
-		index = list[triangles[i].v3].getCommonIndex();
-		newTextureIndices[currIndex++] = oldTextureIndices[index];
-	    }
+	    for(i=0; i<tris.length; i++)
+		newTextureIndices[i] = oldTextureIndices[tris[i]];
 	    gInfo.setTextureCoordinateIndices(j, newTextureIndices);
 	}
     }
@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+package org.jogamp.java3d.utils.geometry;
+
+import java.util.Arrays;
+
+import org.jogamp.java3d.internal.J3dUtilsI18N;
+
+/**
+ * The VertexCacheOptimizer utility reorders the triangles of a
+ * GeometryInfo object so that they make better use of the
+ * post-transform vertex cache of the graphics hardware, and then
+ * renumbers the vertex data in the order it is first used so that
+ * vertex fetches are close together in memory.  The result is an
+ * indexed TRIANGLE_ARRAY.<p>
+ * <p>
+ * Where the Stripifier reduces the number of indices sent to the
+ * hardware, the VertexCacheOptimizer reduces the number of vertices
+ * that have to be transformed more than once, measured as the average
+ * cache miss ratio (ACMR, the number of cache misses per triangle).
+ * Triangles are ordered with Tom Forsyth's "Linear-Speed Vertex Cache
+ * Optimisation" scoring, which works well for a range of cache sizes
+ * and runs in time proportional to the number of triangles.  Example:<p>
+ * <p>
+ * <pre>
+ *   GeometryInfo gi = new GeometryInfo(TRIANGLE_ARRAY);
+ *   gi.setCoordinates(coordinateData);
+ *
+ *   NormalGenerator ng = new NormalGenerator();
+ *   ng.generateNormals(gi);
+ *
+ *   VertexCacheOptimizer vco = new VertexCacheOptimizer();
+ *   vco.optimize(gi);
+ *
+ *   Shape3D part = new Shape3D();
+ *   part.setAppearance(appearance);
+ *   part.setGeometry(gi.getIndexedGeometryArray());
+ *   </pre>
+ *
+ * @see Stripifier
+ * @see VertexCacheOptimizerStats
+ */
+public class VertexCacheOptimizer {
+
+    /**
+     * Indicates to the optimizer to collect statistics on the data
+     */
+    public static final int COLLECT_STATS = 0x01;
+
+    /**
+     * The default size of the simulated vertex cache
+     */
+    public static final int DEFAULT_CACHE_SIZE = 32;
+
+    // scoring parameters from Forsyth's paper
+    static final float CACHE_DECAY_POWER = 1.5f;
+    static final float LAST_TRI_SCORE = 0.75f;
+    static final float VALENCE_BOOST_SCALE = 2.0f;
+    static final float VALENCE_BOOST_POWER = 0.5f;
+
+    // valence scores are looked up for vertices with fewer remaining
+    // triangles than this
+    static final int MAX_VALENCE = 32;
+
+    int cacheSize = DEFAULT_CACHE_SIZE;
+
+    VertexCacheOptimizerStats stats;
+
+    /**
+     * Creates the VertexCacheOptimizer object.
+     */
+    public VertexCacheOptimizer() {
+    }
+
+    /**
+     * Creates the VertexCacheOptimizer object.
+     * @param flags Flags
+     */
+    public VertexCacheOptimizer(int flags) {
+	if ((flags & COLLECT_STATS) != 0) {
+	    stats = new VertexCacheOptimizerStats();
+	}
+    }
+
+    /**
+     * Sets the number of vertices in the modelled vertex cache.  The
+     * same size is used to score the triangles and to measure the ACMR
+     * reported in the stats.  The default is 32.
+     * @exception IllegalArgumentException if cacheSize is less than 4
+     */
+    public void setCacheSize(int cacheSize) {
+	if (cacheSize < 4) {
+	    throw new IllegalArgumentException(
+		J3dUtilsI18N.getString("VertexCacheOptimizer1"));
+	}
+	this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Returns the number of vertices in the modelled vertex cache.
+     */
+    public int getCacheSize() {
+	return cacheSize;
+    }
+
+    /**
+     * Returns the optimizer stats object.
+     * @exception IllegalStateException if the VertexCacheOptimizer has
+     * not been constructed with the COLLECT_STATS flag
+     */
+    public VertexCacheOptimizerStats getVertexCacheOptimizerStats() {
+	if (stats == null) {
+	    throw new IllegalStateException(
+		J3dUtilsI18N.getString("VertexCacheOptimizer0"));
+	}
+	return stats;
+    }
+
+    /**
+     * Converts the geometry contained in the GeometryInfo object into an
+     * indexed triangle array whose triangles are ordered for vertex cache
+     * reuse and whose vertex data is ordered by first use.  Data that is
+     * not referenced by any triangle is removed.
+     */
+    public void optimize(GeometryInfo gi) {
+	long time = System.currentTimeMillis();
+	gi.convertToIndexedTriangles();
+	gi.forgetOldPrim();
+
+	int[] verts = vertexIds(gi);
+	int numTris = verts.length/3;
+	int numVerts = 0;
+	for (int i = 0; i < verts.length; i++) {
+	    if (verts[i] >= numVerts) numVerts = verts[i] + 1;
+	}
+
+	int missesBefore = 0;
+	if (stats != null) missesBefore = cacheMisses(verts, numVerts, cacheSize);
+
+	int[] order = orderTriangles(verts, numVerts);
+
+	// put the triangles in their new order
+	int[] newVerts = reorderTriangles(verts, order);
+	gi.setCoordinateIndices(
+	    reorderTriangles(gi.getCoordinateIndices(), order));
+	if (gi.getColorIndices() != null) {
+	    gi.setColorIndices(reorderTriangles(gi.getColorIndices(), order));
+	}
+	if (gi.getNormalIndices() != null) {
+	    gi.setNormalIndices(reorderTriangles(gi.getNormalIndices(), order));
+	}
+	for (int i = 0; i < gi.getTexCoordSetCount(); i++) {
+	    gi.setTextureCoordinateIndices(i,
+		reorderTriangles(gi.getTextureCoordinateIndices(i), order));
+	}
+
+	// renumber the data lists in the order the triangles use them
+	int[] indices = gi.getCoordinateIndices();
+	gi.setCoordinates(reorderData(indices, gi.getCoordinateData(), 3));
+	if (gi.getColorIndices() != null) {
+	    indices = gi.getColorIndices();
+	    int dim = gi.getNumColorComponents();
+	    float[] colors = reorderData(indices, gi.getColorData(), dim);
+	    if (dim == 3) gi.setColors3(colors);
+	    else gi.setColors4(colors);
+	}
+	if (gi.getNormalIndices() != null) {
+	    indices = gi.getNormalIndices();
+	    gi.setNormals(reorderData(indices, gi.getNormalData(), 3));
+	}
+	for (int i = 0; i < gi.getTexCoordSetCount(); i++) {
+	    indices = gi.getTextureCoordinateIndices(i);
+	    gi.setTextureCoordinates(i,
+		reorderData(indices, gi.getTextureCoordinateData(i),
+			    gi.getNumTexCoordComponents()));
+	}
+
+	if (stats != null) {
+	    stats.updateInfo(System.currentTimeMillis() - time, numTris,
+			     numVerts, missesBefore,
+			     cacheMisses(newVerts, numVerts, cacheSize));
+	}
+    }
+
+    /**
+     * Returns, for every triangle corner, the number of the vertex the
+     * hardware will see: corners with the same coordinate, color, normal
+     * and texture coordinate indices share a vertex.  Vertices are
+     * numbered from 0 in order of first use.
+     */
+    int[] vertexIds(GeometryInfo gi) {
+	int[] coords = gi.getCoordinateIndices();
+	int[] colors = gi.getColorIndices();
+	int[] normals = gi.getNormalIndices();
+	int texSetCount = gi.getTexCoordSetCount();
+	int[][] textures = new int[texSetCount][];
+	for (int k = 0; k < texSetCount; k++) {
+	    textures[k] = gi.getTextureCoordinateIndices(k);
+	}
+	int numLists = 1 + texSetCount;
+	if (colors != null) numLists++;
+	if (normals != null) numLists++;
+
+	int[] ids;
+	if (numLists == 1) ids = coords;
+	else {
+	    int n = coords.length;
+	    int[] rows = new int[n * numLists];
+	    int j = 0;
+	    for (int i = 0; i < n; i++) {
+		rows[j++] = coords[i];
+		if (colors != null) rows[j++] = colors[i];
+		if (normals != null) rows[j++] = normals[i];
+		for (int k = 0; k < texSetCount; k++) {
+		    rows[j++] = textures[k][i];
+		}
+	    }
+	    ids = VertexHash.indexInts(rows, numLists);
+	}
+
+	// number the vertices densely
+	int max = 0;
+	for (int i = 0; i < ids.length; i++) {
+	    if (ids[i] > max) max = ids[i];
+	}
+	int[] table = new int[max + 1];
+	Arrays.fill(table, -1);
+	int[] verts = new int[ids.length];
+	int numVerts = 0;
+	for (int i = 0; i < ids.length; i++) {
+	    if (table[ids[i]] == -1) table[ids[i]] = numVerts++;
+	    verts[i] = table[ids[i]];
+	}
+	return verts;
+    }
+
+    /**
+     * Orders the triangles for vertex cache reuse.  Returns the original
+     * number of each triangle in the new order.
+     */
+    int[] orderTriangles(int[] verts, int numVerts) {
+	int numTris = verts.length/3;
+
+	// score tables
+	float[] cacheScore = new float[cacheSize];
+	for (int i = 0; i < cacheSize; i++) {
+	    if (i < 3) cacheScore[i] = LAST_TRI_SCORE;
+	    else {
+		cacheScore[i] = (float)Math.pow(
+		    1.0f - (float)(i - 3)/(float)(cacheSize - 3),
+		    CACHE_DECAY_POWER);
+	    }
+	}
+	float[] valenceScore = new float[MAX_VALENCE];
+	for (int i = 1; i < MAX_VALENCE; i++) {
+	    valenceScore[i] = VALENCE_BOOST_SCALE *
+		(float)Math.pow(i, -VALENCE_BOOST_POWER);
+	}
+
+	// the triangles using each vertex.  The first remaining[v]
+	// entries of vertex v's list are the triangles not yet output
+	int[] triStart = new int[numVerts + 1];
+	for (int i = 0; i < verts.length; i++) triStart[verts[i] + 1]++;
+	for (int v = 0; v < numVerts; v++) triStart[v + 1] += triStart[v];
+	int[] remaining = new int[numVerts];
+	int[] triList = new int[verts.length];
+	for (int i = 0; i < verts.length; i++) {
+	    int v = verts[i];
+	    triList[triStart[v] + remaining[v]++] = i/3;
+	}
+
+	int[] cachePos = new int[numVerts];
+	Arrays.fill(cachePos, -1);
+	float[] vertScore = new float[numVerts];
+	for (int v = 0; v < numVerts; v++) {
+	    vertScore[v] = score(-1, remaining[v], cacheScore, valenceScore);
+	}
+	float[] triScore = new float[numTris];
+	int bestTri = -1;
+	float bestScore = -1.0f;
+	for (int t = 0; t < numTris; t++) {
+	    triScore[t] = vertScore[verts[t*3]] + vertScore[verts[t*3+1]] +
+		vertScore[verts[t*3+2]];
+	    if (triScore[t] > bestScore) {
+		bestScore = triScore[t];
+		bestTri = t;
+	    }
+	}
+
+	boolean[] added = new boolean[numTris];
+	int[] order = new int[numTris];
+	// the LRU cache, most recently used first.  It may briefly hold
+	// three more vertices than the cache size
+	int[] cache = new int[cacheSize + 3];
+	int[] newCache = new int[cacheSize + 3];
+	int cacheLen = 0;
+	// where to look for a triangle when none are near the cache
+	int next = 0;
+
+	for (int i = 0; i < numTris; i++) {
+	    if (bestTri == -1) {
+		// no triangle uses a cached vertex, so take the next one
+		while (added[next]) next++;
+		bestTri = next;
+	    }
+	    order[i] = bestTri;
+	    added[bestTri] = true;
+
+	    // remove the triangle from its vertices' lists and put its
+	    // vertices at the front of the cache
+	    int newLen = 0;
+	    for (int k = 0; k < 3; k++) {
+		int v = verts[bestTri*3 + k];
+		int end = triStart[v] + remaining[v] - 1;
+		for (int j = triStart[v]; j <= end; j++) {
+		    if (triList[j] == bestTri) {
+			triList[j] = triList[end];
+			triList[end] = bestTri;
+			break;
+		    }
+		}
+		remaining[v]--;
+		if (cachePos[v] != -2) {
+		    newCache[newLen++] = v;
+		    cachePos[v] = -2;	// mark as already in newCache
+		}
+	    }
+	    for (int j = 0; j < cacheLen; j++) {
+		int v = cache[j];
+		if (cachePos[v] != -2) {
+		    newCache[newLen++] = v;
+		    cachePos[v] = -2;
+		}
+	    }
+
+	    // update the scores of the cached vertices and of vertices
+	    // that just dropped out of the cache
+	    for (int j = 0; j < newLen; j++) {
+		int v = newCache[j];
+		cachePos[v] = (j < cacheSize) ? j : -1;
+		vertScore[v] = score(cachePos[v], remaining[v], cacheScore,
+				     valenceScore);
+	    }
+
+	    // find the best triangle using one of those vertices
+	    bestTri = -1;
+	    bestScore = -1.0f;
+	    for (int j = 0; j < newLen; j++) {
+		int v = newCache[j];
+		for (int n = triStart[v]; n < triStart[v] + remaining[v]; n++) {
+		    int t = triList[n];
+		    float s = vertScore[verts[t*3]] + vertScore[verts[t*3+1]] +
+			vertScore[verts[t*3+2]];
+		    triScore[t] = s;
+		    if (s > bestScore) {
+			bestScore = s;
+			bestTri = t;
+		    }
+		}
+	    }
+
+	    int[] swap = cache;
+	    cache = newCache;
+	    newCache = swap;
+	    cacheLen = Math.min(newLen, cacheSize);
+	}
+	return order;
+    }
+
+    /**
+     * Returns the score of a vertex at the given position in the cache
+     * (-1 if it is not cached) that is used by the given number of
+     * triangles not yet output.
+     */
+    float score(int pos, int numTris, float[] cacheScore,
+		float[] valenceScore) {
+	// no triangles left need this vertex
+	if (numTris == 0) return -1.0f;
+
+	float s = 0.0f;
+	if (pos >= 0) s = cacheScore[pos];
+	if (numTris < MAX_VALENCE) s += valenceScore[numTris];
+	else {
+	    s += VALENCE_BOOST_SCALE *
+		(float)Math.pow(numTris, -VALENCE_BOOST_POWER);
+	}
+	return s;
+    }
+
+    /**
+     * Returns a copy of a triangle index list with the triangles in the
+     * given order.
+     */
+    static int[] reorderTriangles(int[] indices, int[] order) {
+	int[] newIndices = new int[indices.length];
+	for (int i = 0; i < order.length; i++) {
+	    newIndices[i*3] = indices[order[i]*3];
+	    newIndices[i*3+1] = indices[order[i]*3+1];
+	    newIndices[i*3+2] = indices[order[i]*3+2];
+	}
+	return newIndices;
+    }
+
+    /**
+     * Renumbers a data list with dim floats per entry in the order the
+     * index list first uses the entries, dropping entries that are not
+     * used.  The index list is updated in place and the new data list
+     * is returned.
+     */
+    static float[] reorderData(int[] indices, float[] data, int dim) {
+	int[] table = new int[data.length/dim];
+	Arrays.fill(table, -1);
+	int numUsed = 0;
+	for (int i = 0; i < indices.length; i++) {
+	    if (table[indices[i]] == -1) table[indices[i]] = numUsed++;
+	}
+	float[] newData = new float[numUsed*dim];
+	for (int i = 0; i < table.length; i++) {
+	    if (table[i] != -1) {
+		System.arraycopy(data, i*dim, newData, table[i]*dim, dim);
+	    }
+	}
+	for (int i = 0; i < indices.length; i++) {
+	    indices[i] = table[indices[i]];
+	}
+	return newData;
+    }
+
+    /**
+     * Returns the number of cache misses when the vertices are sent to
+     * a first-in first-out cache of the given size.
+     */
+    static int cacheMisses(int[] verts, int numVerts, int cacheSize) {
+	// the number of misses before each vertex last entered the cache
+	int[] entered = new int[numVerts];
+	Arrays.fill(entered, -1);
+	int misses = 0;
+	for (int i = 0; i < verts.length; i++) {
+	    int v = verts[i];
+	    if ((entered[v] == -1) || (misses - entered[v] > cacheSize)) {
+		entered[v] = misses;
+		misses++;
+	    }
+	}
+	return misses;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+package org.jogamp.java3d.utils.geometry;
+
+/**
+ * This class collects statistics on the VertexCacheOptimizer.  The
+ * statistics are cumulative over all calls to optimize() until
+ * clearData() is called.  The average cache miss ratio (ACMR) is the
+ * number of vertices that have to be transformed per triangle when the
+ * vertices are sent through a first-in first-out cache of the
+ * optimizer's cache size.  It is 3.0 when no vertex is ever reused
+ * and approaches 0.5 for large regular meshes.
+ *
+ * @see VertexCacheOptimizer
+ */
+
+public class VertexCacheOptimizerStats {
+
+    int numTris = 0;
+    int numVerts = 0;
+    long missesBefore = 0;
+    long missesAfter = 0;
+    long time = 0;
+
+    /**
+     * Returns the number of triangles optimized.
+     */
+    public int getNumTris() {
+	return numTris;
+    }
+
+    /**
+     * Returns the number of distinct vertices used by the triangles.
+     */
+    public int getNumVerts() {
+	return numVerts;
+    }
+
+    /**
+     * Returns the average cache miss ratio of the triangles in their
+     * original order.
+     */
+    public double getAcmrBefore() {
+	return ((double)missesBefore/(double)numTris);
+    }
+
+    /**
+     * Returns the average cache miss ratio of the triangles in their
+     * optimized order.
+     */
+    public double getAcmrAfter() {
+	return ((double)missesAfter/(double)numTris);
+    }
+
+    /**
+     * Returns the total time spent in the optimize() method
+     */
+    public long getTotalTime() {
+	return time;
+    }
+
+    /**
+     * Returns a formated String that can be used to print out
+     * the VertexCacheOptimizer stats.
+     */
+    @Override
+    public String toString() {
+	return "num tris:             " + numTris + "\n" +
+	    "num vertices:         " + numVerts + "\n" +
+	    "ACMR before:          " + getAcmrBefore() + "\n" +
+	    "ACMR after:           " + getAcmrAfter() + "\n" +
+	    "total time:           " + time + "\n";
+    }
+
+    /**
+     * Clears the statistical data
+     */
+    public void clearData() {
+	numTris = 0;
+	numVerts = 0;
+	missesBefore = 0;
+	missesAfter = 0;
+	time = 0;
+    }
+
+    void updateInfo(long ntime, int nNumTris, int nNumVerts,
+		    int nMissesBefore, int nMissesAfter) {
+	time += ntime;
+	numTris += nNumTris;
+	numVerts += nNumVerts;
+	missesBefore += nMissesBefore;
+	missesAfter += nMissesAfter;
+    }
+
+    VertexCacheOptimizerStats() {
+    }
+}
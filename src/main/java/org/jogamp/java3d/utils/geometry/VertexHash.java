@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+package org.jogamp.java3d.utils.geometry;
+
+import java.util.Arrays;
+
+import org.jogamp.vecmath.Tuple2f;
+import org.jogamp.vecmath.Tuple3f;
+import org.jogamp.vecmath.Tuple4f;
+
+/**
+ * Open addressing hash tables used by GeometryInfo to build index
+ * lists.  Entries are fixed length tuples of floats or ints stored in
+ * flat arrays, and the tables are plain int arrays, so no objects are
+ * created per entry.  Each method returns an index list where entry
+ * i holds the index of the first entry equal to entry i.
+ */
+class VertexHash {
+
+  // Returns a power of two table size at least twice n
+  private static int tableSize(int n)
+  {
+    int size = 2;
+    while (size < n * 2) size <<= 1;
+    return size;
+  } // End of tableSize
+
+
+
+  // Final avalanche step so that nearby keys spread over the table
+  private static int mix(int h)
+  {
+    h ^= (h >>> 16);
+    h *= 0x85ebca6b;
+    h ^= (h >>> 13);
+    h *= 0xc2b2ae35;
+    h ^= (h >>> 16);
+    return h;
+  } // End of mix
+
+
+
+  // Hash code of the entry of dim floats starting at base
+  private static int hashFloats(float data[], int base, int dim)
+  {
+    int h = 1;
+    for (int k = 0 ; k < dim ; k++) {
+      // Adding 0.0f turns -0.0f into 0.0f so that they hash the same
+      h = 31 * h + Float.floatToIntBits(data[base + k] + 0.0f);
+    }
+    return mix(h);
+  } // End of hashFloats
+
+
+
+  /**
+   * Index list for float data with dim floats per entry.  Entries are
+   * equal when all their components are ==, matching the equals()
+   * test of the vecmath classes (so 0.0 equals -0.0 and NaN never
+   * equals anything).
+   */
+  static int[] indexFloats(float data[], int dim)
+  {
+    int n = data.length / dim;
+    int indices[] = new int[n];
+    int mask = tableSize(n) - 1;
+    int table[] = new int[mask + 1];
+    Arrays.fill(table, -1);
+
+    for (int i = 0 ; i < n ; i++) {
+      int base = i * dim;
+      int slot = hashFloats(data, base, dim) & mask;
+      int found = -1;
+      while (table[slot] != -1) {
+	int other = table[slot] * dim;
+	int k = 0;
+	while ((k < dim) && (data[other + k] == data[base + k])) k++;
+	if (k == dim) {
+	  found = table[slot];
+	  break;
+	}
+	slot = (slot + 1) & mask;
+      }
+
+      if (found == -1) {
+	table[slot] = i;
+	indices[i] = i;
+      } else indices[i] = found;
+    }
+
+    return indices;
+  } // End of indexFloats
+
+
+
+  /**
+   * Fills in hash[from] through hash[to - 1] with the hash codes of
+   * the float entries.  First half of a partitioned indexFloats().
+   */
+  static void hashRange(float data[], int dim, int hash[], int from, int to)
+  {
+    for (int i = from ; i < to ; i++) hash[i] = hashFloats(data, i * dim, dim);
+  } // End of hashRange
+
+
+
+  // Partition of the table an entry with hash code h belongs to.  Uses
+  // the high bits since the low bits pick the slot within a table.
+  private static int partition(int h, int parts)
+  {
+    return (h >>> 16) % parts;
+  } // End of partition
+
+
+
+  /**
+   * Sorts the entries by the partition their hash code (from hashRange)
+   * falls in, keeping entries of the same partition in order.  The
+   * entries of partition p are order[start[p]] through
+   * order[start[p + 1] - 1].
+   * @return The start array, with parts + 1 entries.
+   */
+  static int[] sortPartitions(int hash[], int parts, int order[])
+  {
+    int n = hash.length;
+    int start[] = new int[parts + 1];
+    for (int i = 0 ; i < n ; i++) start[partition(hash[i], parts) + 1]++;
+    for (int p = 0 ; p < parts ; p++) start[p + 1] += start[p];
+
+    int next[] = new int[parts];
+    System.arraycopy(start, 0, next, 0, parts);
+    for (int i = 0 ; i < n ; i++) order[next[partition(hash[i], parts)]++] = i;
+    return start;
+  } // End of sortPartitions
+
+
+
+  /**
+   * Fills in indices[i] for the float entries order[from] through
+   * order[to - 1], which are the entries of one partition from
+   * sortPartitions().  Equal entries always fall in the same partition
+   * and entries are visited in order, so running every partition gives
+   * exactly the result of indexFloats() while letting the partitions
+   * run at the same time.
+   */
+  static void indexPartition(float data[], int dim, int hash[],
+			     int order[], int from, int to, int indices[])
+  {
+    int mask = tableSize(to - from) - 1;
+    int table[] = new int[mask + 1];
+    Arrays.fill(table, -1);
+
+    for (int j = from ; j < to ; j++) {
+      int i = order[j];
+      int base = i * dim;
+      int slot = hash[i] & mask;
+      int found = -1;
+      while (table[slot] != -1) {
+	int other = table[slot] * dim;
+	int k = 0;
+	while ((k < dim) && (data[other + k] == data[base + k])) k++;
+	if (k == dim) {
+	  found = table[slot];
+	  break;
+	}
+	slot = (slot + 1) & mask;
+      }
+
+      if (found == -1) {
+	table[slot] = i;
+	indices[i] = i;
+      } else indices[i] = found;
+    }
+  } // End of indexPartition
+
+
+
+  /**
+   * Index list for int data with dim ints per entry.  Used to merge
+   * rows of indices when building USE_COORD_INDEX_ONLY data.
+   */
+  static int[] indexInts(int data[], int dim)
+  {
+    int n = data.length / dim;
+    int indices[] = new int[n];
+    int mask = tableSize(n) - 1;
+    int table[] = new int[mask + 1];
+    Arrays.fill(table, -1);
+
+    for (int i = 0 ; i < n ; i++) {
+      int base = i * dim;
+      int h = 1;
+      for (int k = 0 ; k < dim ; k++) h = 31 * h + data[base + k];
+
+      int slot = mix(h) & mask;
+      int found = -1;
+      while (table[slot] != -1) {
+	int other = table[slot] * dim;
+	int k = 0;
+	while ((k < dim) && (data[other + k] == data[base + k])) k++;
+	if (k == dim) {
+	  found = table[slot];
+	  break;
+	}
+	slot = (slot + 1) & mask;
+      }
+
+      if (found == -1) {
+	table[slot] = i;
+	indices[i] = i;
+      } else indices[i] = found;
+    }
+
+    return indices;
+  } // End of indexInts
+
+
+
+  /**
+   * Copies an array of Tuple2f, Tuple3f or Tuple4f into a float array.
+   * Returns null if the array holds anything else (including null
+   * entries) so that the caller can fall back to a generic table.
+   */
+  static float[] tupleData(Object list[], int dim)
+  {
+    float data[] = new float[list.length * dim];
+    for (int i = 0 ; i < list.length ; i++) {
+      Object o = list[i];
+      if ((dim == 2) && (o instanceof Tuple2f)) {
+	Tuple2f t = (Tuple2f)o;
+	data[i * 2]     = t.x;
+	data[i * 2 + 1] = t.y;
+      } else if ((dim == 3) && (o instanceof Tuple3f)) {
+	Tuple3f t = (Tuple3f)o;
+	data[i * 3]     = t.x;
+	data[i * 3 + 1] = t.y;
+	data[i * 3 + 2] = t.z;
+      } else if ((dim == 4) && (o instanceof Tuple4f)) {
+	Tuple4f t = (Tuple4f)o;
+	data[i * 4]     = t.x;
+	data[i * 4 + 1] = t.y;
+	data[i * 4 + 2] = t.z;
+	data[i * 4 + 3] = t.w;
+      } else return null;
+    }
+    return data;
+  } // End of tupleData
+
+
+
+  /**
+   * Returns the number of floats in the tuples of the array, or 0
+   * if the array is not an array of Tuple2f, Tuple3f or Tuple4f.
+   */
+  static int tupleSize(Object list[])
+  {
+    if (list instanceof Tuple2f[]) return 2;
+    if (list instanceof Tuple3f[]) return 3;
+    if (list instanceof Tuple4f[]) return 4;
+    return 0;
+  } // End of tupleSize
+
+
+
+  /**
+   * Index list for points (three floats per entry) where points
+   * closer together than epsilon are merged.  Points are visited in
+   * order, and each one is merged with the lowest numbered earlier
+   * point that was kept and is within epsilon of it.  A uniform grid
+   * with cells epsilon wide is used, so only the 27 cells around a
+   * point need to be searched.
+   */
+  static int[] weldPoints(float data[], float epsilon)
+  {
+    int n = data.length / 3;
+    int indices[] = new int[n];
+    double eps2 = (double)epsilon * (double)epsilon;
+
+    // Grid cells are kept in an open addressing table keyed on the
+    // cell coordinates.  Each cell holds a linked list (through
+    // next[]) of the kept points that fall in it.
+    int mask = tableSize(n) - 1;
+    long cellX[] = new long[mask + 1];
+    long cellY[] = new long[mask + 1];
+    long cellZ[] = new long[mask + 1];
+    int head[] = new int[mask + 1];
+    Arrays.fill(head, -1);
+    int next[] = new int[n];
+
+    for (int i = 0 ; i < n ; i++) {
+      float x = data[i * 3];
+      float y = data[i * 3 + 1];
+      float z = data[i * 3 + 2];
+      long cx = (long)Math.floor(x / epsilon);
+      long cy = (long)Math.floor(y / epsilon);
+      long cz = (long)Math.floor(z / epsilon);
+
+      // Look for the lowest numbered kept point within epsilon
+      int found = -1;
+      for (long gx = cx - 1 ; gx <= cx + 1 ; gx++) {
+	for (long gy = cy - 1 ; gy <= cy + 1 ; gy++) {
+	  for (long gz = cz - 1 ; gz <= cz + 1 ; gz++) {
+	    int slot = findCell(cellX, cellY, cellZ, head, mask, gx, gy, gz);
+	    for (int p = head[slot] ; p != -1 ; p = next[p]) {
+	      if ((found != -1) && (p > found)) continue;
+	      double dx = data[p * 3] - x;
+	      double dy = data[p * 3 + 1] - y;
+	      double dz = data[p * 3 + 2] - z;
+	      if (dx * dx + dy * dy + dz * dz <= eps2) found = p;
+	    }
+	  }
+	}
+      }
+
+      if (found == -1) {
+	// Keep this point and add it to its cell
+	int slot = findCell(cellX, cellY, cellZ, head, mask, cx, cy, cz);
+	if (head[slot] == -1) {
+	  cellX[slot] = cx;
+	  cellY[slot] = cy;
+	  cellZ[slot] = cz;
+	}
+	next[i] = head[slot];
+	head[slot] = i;
+	indices[i] = i;
+      } else indices[i] = found;
+    }
+
+    return indices;
+  } // End of weldPoints
+
+
+
+  // Returns the slot holding the given cell, or the empty slot where
+  // it would be inserted
+  private static int findCell(long cellX[], long cellY[], long cellZ[],
+			      int head[], int mask,
+			      long cx, long cy, long cz)
+  {
+    long h = cx * 73856093L ^ cy * 19349663L ^ cz * 83492791L;
+    int slot = mix((int)(h ^ (h >>> 32))) & mask;
+    while (head[slot] != -1) {
+      if ((cellX[slot] == cx) && (cellY[slot] == cy) && (cellZ[slot] == cz))
+	return slot;
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  } // End of findCell
+
+} // End of class VertexHash
+
+// End of file VertexHash.java
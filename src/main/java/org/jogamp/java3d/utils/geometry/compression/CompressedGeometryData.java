@@ -39,6 +39,8 @@
 
 package org.jogamp.java3d.utils.geometry.compression;
 
+import java.nio.ByteBuffer;
+
 import org.jogamp.java3d.Canvas3D;
 import org.jogamp.java3d.J3DBuffer;
 import org.jogamp.java3d.Shape3D;
@@ -68,9 +70,10 @@ import org.jogamp.java3d.internal.J3dUtilsI18N;
  * <li><b>By Reference:</b>
  * In by-reference mode, the
  * compressed geometry data is accessed by reference, directly from
- * the user's array.  To use this feature, you need to construct a
- * CompressedGeometryData object with the <code>byReference</code> flag
- * set to <code>true</code>.  In this mode, a reference to the input
+ * the user's array or NIO byte buffer.  To use this feature, you need to
+ * construct a CompressedGeometryData object with the
+ * <code>byReference</code> flag set to <code>true</code>, or with a
+ * J3DBuffer.  In this mode, a reference to the input
  * data is saved, but the data itself is not necessarily copied.  Note
  * that the compressed geometry header is still copied into this
  * compressed geometry object.  Data referenced by a
@@ -89,6 +92,7 @@ public class CompressedGeometryData extends Object {
 
     private Header cgHeader;
     private CompressedGeometryRetained retained;
+    private J3DBuffer buffer = null;
 
 
     /**
@@ -179,9 +183,6 @@ public class CompressedGeometryData extends Object {
      * geometry must conform to the format described in Appendix B of
      * the <i>Java 3D API Specification</i>.
      *
-     * @exception UnsupportedOperationException this method is not
-     * yet implemented
-     *
      * @exception IllegalArgumentException if a problem is detected with the
      * header,
      * or if the java.nio.Buffer contained in the specified J3DBuffer
@@ -192,7 +193,23 @@ public class CompressedGeometryData extends Object {
     public CompressedGeometryData(Header hdr,
             J3DBuffer compressedGeometry) {
 
-        throw new UnsupportedOperationException("not implemented");
+        if (!(compressedGeometry.getBuffer() instanceof ByteBuffer)) {
+            throw new IllegalArgumentException(J3dUtilsI18N.getString("CompressedGeometry10"));
+        }
+
+        ByteBuffer geometry = (ByteBuffer)compressedGeometry.getBuffer();
+        if ((hdr.size + hdr.start) > geometry.limit()) {
+            throw new IllegalArgumentException(J3dUtilsI18N.getString("CompressedGeometry0"));
+        }
+
+        // Create a separate copy of the given header.
+        cgHeader = new Header();
+        hdr.copy(cgHeader);
+
+        // Create the retained object.
+        buffer = compressedGeometry;
+        retained = new CompressedGeometryRetained();
+        this.retained.createCompressedGeometry(cgHeader, geometry);
     }
 
 
@@ -280,6 +297,29 @@ public class CompressedGeometryData extends Object {
     }
 
 
+    /**
+     * Decompresses the compressed geometry, optionally into geometry that
+     * references direct NIO buffers.  If <code>nioBuffers</code> is true,
+     * the decompressed vertices are written straight into direct
+     * FloatBuffers and the returned Shape nodes contain geometry created
+     * with the BY_REFERENCE and USE_NIO_BUFFER vertex format flags;
+     * otherwise this is the same as <code>decompress()</code>.
+     *
+     * @param nioBuffers if true, return geometry referencing NIO buffers
+     *
+     * @return an array of Shape nodes containing the
+     * geometry decompressed from this CompressedGeometryData
+     * object, or null if its version is incompatible
+     */
+    public Shape3D[] decompress(boolean nioBuffers) {
+	GeometryDecompressorShape3D decompressor =
+                new GeometryDecompressorShape3D();
+
+	decompressor.setNioBufferOutput(nioBuffers);
+	return decompressor.toTriangleStripArrays(this.retained);
+    }
+
+
     /**
      * Retrieves the data access mode for this CompressedGeometryData object.
      *
@@ -295,7 +335,8 @@ public class CompressedGeometryData extends Object {
     /**
      * Gets the compressed geometry data reference.
      *
-     * @return the current compressed geometry data reference.
+     * @return the current compressed geometry data reference, or null if
+     * the data is accessed by reference from a J3DBuffer.
      *
      * @exception IllegalStateException if the data access mode for this
      * object is not by-reference.
@@ -311,14 +352,13 @@ public class CompressedGeometryData extends Object {
 
 
     /**
-     * Gets the compressed geometry data buffer reference, which is
-     * always null since NIO buffers are not supported for
-     * CompressedGeometryData objects.
+     * Gets the compressed geometry data buffer reference.
      *
-     * @return null
+     * @return the J3DBuffer this object was created with, or null if the
+     * data is held in an array.
      */
     public J3DBuffer getCompressedGeometryBuffer() {
-        return null;
+        return buffer;
     }
 
 
@@ -42,8 +42,13 @@ package org.jogamp.java3d.utils.geometry.compression;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.jogamp.java3d.CapabilityNotSetException;
+import org.jogamp.java3d.J3DBuffer;
 
 //
 // The compressed geometry file format supported by this class has a 32
@@ -62,7 +67,16 @@ import org.jogamp.java3d.CapabilityNotSetException;
  * This class provides methods to read and write compressed geometry resource
  * files.  These files usually end with the .cg extension and support
  * sequential as well as random access to multiple compressed geometry
- * objects.
+ * objects.<p>
+ *
+ * A file may also be opened in mapped mode, which is read-only.  The file is
+ * then memory mapped when it is opened, and each object read from it is a
+ * by-reference CompressedGeometryData whose J3DBuffer is a slice of the
+ * mapping, so no geometry is copied.  The directory gives the location of
+ * every object, so read(int) takes the same time for any index.  Reads in
+ * mapped mode don't share any buffers, so read(int) and read() may be
+ * called by several threads at the same time; the current index used by
+ * readNext() is then that of whichever read finished last.
  *
  * @since Java 3D 1.5
  */
@@ -163,6 +177,11 @@ public class CompressedGeometryFile {
      */
     static final int BLOCK_HEADER_SIZE = 8 ;
 
+    /**
+     * Largest number of bytes mapped by a single buffer in mapped mode.
+     */
+    static final long MAX_REGION_SIZE = Integer.MAX_VALUE ;
+
     // The name of the compressed geometry resource file.
     String fileName = null ;
 
@@ -210,6 +229,12 @@ public class CompressedGeometryFile {
     // Flag indicating file update.
     boolean fileUpdate = false ;
 
+    // In mapped mode, the file is mapped by one or more regions, each
+    // holding consecutive objects.  These are null otherwise.
+    MappedByteBuffer regions[] = null ;
+    long regionStarts[] ;
+    int objectRegions[] ;
+
     /**
      * Construct a new CompressedGeometryFile instance associated with the
      * specified file.  An attempt is made to open the file with read-only
@@ -241,6 +266,34 @@ public class CompressedGeometryFile {
      * @exception IOException if there is a header or directory read error
      */
     public CompressedGeometryFile(String file, boolean rw) throws IOException {
+	this(file, rw, false) ;
+    }
+
+    /**
+     * Construct a new CompressedGeometryFile instance associated with the
+     * specified file, optionally in mapped mode.  Mapped mode is read-only;
+     * the file is memory mapped and objects read from it reference the
+     * mapping through J3DBuffer slices instead of copies.
+     *
+     * @param file path to the compressed geometry resource file
+     * @param rw if true, opens the file for read and write access or attempts
+     * to create one if it doesn't exist; if false, opens the file with
+     * read-only access
+     * @param mapped if true, memory maps the file for reading
+     * @exception FileNotFoundException if file doesn't exist or
+     * access permissions disallow access
+     * @exception IllegalArgumentException if the file is not a compressed
+     * geometry resource file, or if both rw and mapped are true
+     * @exception IOException if there is a header or directory read error,
+     * or if the file can't be mapped
+     */
+    public CompressedGeometryFile(String file, boolean rw, boolean mapped)
+	throws IOException {
+
+	if (rw && mapped)
+	    throw new IllegalArgumentException
+		("\n" + file + ": mapped mode is read-only") ;
+
 	// Open the file and read the file header.
 	open(file, rw) ;
 
@@ -249,6 +302,9 @@ public class CompressedGeometryFile {
 
 	// Set up the file fields.
 	initialize() ;
+
+	if (mapped)
+	    map() ;
     }
 
     /**
@@ -279,6 +335,8 @@ public class CompressedGeometryFile {
      * @exception IOException if clear fails
      */
     public void clear() throws IOException {
+	checkWritable() ;
+
 	// Truncate the file.
 	cgFile.setLength(0) ;
 
@@ -327,6 +385,15 @@ public class CompressedGeometryFile {
 	return minorMinorVersionNumber ;
     }
 
+    /**
+     * Return true if this instance was opened in mapped mode.
+     *
+     * @return true if objects are read from a memory mapping of the file
+     */
+    public boolean isMapped() {
+	return regions != null ;
+    }
+
     /**
      * Return the number of compressed objects in this instance.
      *
@@ -365,6 +432,15 @@ public class CompressedGeometryFile {
      * @exception IOException if read fails
      */
     public CompressedGeometryData readNext() throws IOException {
+	if (regions != null) {
+	    int index = objectIndex ;
+	    if (index >= objectCount)
+		return null ;
+
+	    objectIndex = index + 1 ;
+	    return readMapped(index) ;
+	}
+
 	return readNext(cgBuffer.length) ;
     }
 
@@ -383,6 +459,14 @@ public class CompressedGeometryFile {
 	if (benchmark)
 	    startTime = System.currentTimeMillis() ;
 
+	if (regions != null) {
+	    for (int i = 0 ; i < objectCount ; i++)
+		cg[i] = readMapped(i) ;
+
+	    objectIndex = objectCount ;
+	    return cg ;
+	}
+
 	objectIndex = 0 ;
 	setFilePointer(directory[0]) ;
 	bufferNextObjectCount = 0 ;
@@ -414,17 +498,23 @@ public class CompressedGeometryFile {
      * @exception IOException if read fails
      */
     public CompressedGeometryData read(int index) throws IOException {
-	objectIndex = index ;
-
-	if (objectIndex < 0) {
+	if (index < 0) {
 	    throw new IndexOutOfBoundsException
 		("\nobject index must be >= 0") ;
 	}
-	if (objectIndex >= objectCount) {
+	if (index >= objectCount) {
 	    throw new IndexOutOfBoundsException
 		("\nobject index must be < " + objectCount) ;
 	}
 
+	if (regions != null) {
+	    CompressedGeometryData cg = readMapped(index) ;
+	    objectIndex = index + 1 ;
+	    return cg ;
+	}
+
+	objectIndex = index ;
+
 	// Check if object is in cache.
 	if ((objectIndex >= bufferObjectStart) &&
 	    (objectIndex <  bufferObjectStart + bufferObjectCount)) {
@@ -462,6 +552,8 @@ public class CompressedGeometryFile {
      * @exception IOException if write fails
      */
     public void write(CompressedGeometryData cg) throws IOException {
+	checkWritable() ;
+
 	CompressedGeometryData.Header cgh = new CompressedGeometryData.Header() ;
 	cg.getCompressedGeometryHeader(cgh) ;
 
@@ -491,6 +583,8 @@ public class CompressedGeometryFile {
     public void write(CompressedGeometryData.Header cgh, byte geometry[])
 	throws IOException {
 
+	checkWritable() ;
+
 	// Update the read/write buffer size if necessary.  It won't be used
 	// in this method, but should be big enough to read any object in
 	// the file, including the one to be written.
@@ -616,6 +710,9 @@ public class CompressedGeometryFile {
 	cgBuffer = null ;
 	directory = null ;
 	objectSizes = null ;
+	regions = null ;
+	regionStarts = null ;
+	objectRegions = null ;
     }
 
 
@@ -646,6 +743,97 @@ public class CompressedGeometryFile {
 	}
     }
 
+    //
+    // Map the objects of the file into one or more read-only regions, each
+    // no larger than MAX_REGION_SIZE, and close the file.  The mapping
+    // remains valid after the file is closed.
+    //
+    void map() throws IOException {
+	int regionCount = 0 ;
+	long regionEnds[] = new long[objectCount] ;
+	regionStarts = new long[objectCount] ;
+	objectRegions = new int[objectCount] ;
+
+	for (int i = 0 ; i < objectCount ; i++) {
+	    long end = directory[i] + objectSizes[i] ;
+	    if (regionCount == 0 ||
+		end - regionStarts[regionCount-1] > MAX_REGION_SIZE) {
+		regionStarts[regionCount] = directory[i] ;
+		regionCount++ ;
+	    }
+	    regionEnds[regionCount-1] = end ;
+	    objectRegions[i] = regionCount-1 ;
+	}
+
+	FileChannel channel = cgFile.getChannel() ;
+	MappedByteBuffer mappedRegions[] = new MappedByteBuffer[regionCount] ;
+	try {
+	    for (int i = 0 ; i < regionCount ; i++)
+		mappedRegions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+					       regionStarts[i],
+					       regionEnds[i] - regionStarts[i]) ;
+	}
+	catch (IOException e) {
+	    close() ;
+	    throw new IOException
+		(e.getMessage() + "\nfailed to map " + fileName) ;
+	}
+
+	if (print)
+	    System.out.println("mapped " + objectCount + " objects in " +
+			       regionCount + " regions") ;
+
+	cgFile.close() ;
+	cgFile = null ;
+	cgBuffer = null ;
+	regions = mappedRegions ;
+    }
+
+    //
+    // Return the object at the specified index from the mapped regions.
+    // Only the immutable mapping and directory are used, so this may be
+    // called by several threads at the same time.
+    //
+    CompressedGeometryData readMapped(int index) {
+	int region = objectRegions[index] ;
+	int block = (int)(directory[index] - regionStarts[region]) ;
+
+	int geomSize = regions[region].getInt(block + OBJECT_SIZE_OFFSET) ;
+	int geomDataType = regions[region].getInt(block + GEOM_DATA_OFFSET) ;
+
+	if (print) {
+	    System.out.println("\nobject " + index +
+			       "\nfile offset " + directory[index]) ;
+	    System.out.println("size " + geomSize + " bytes, " +
+			       "data descriptor 0x" +
+			       Integer.toHexString(geomDataType)) ;
+	}
+
+	// J3DBuffer only accepts buffers in native byte order; the
+	// decompressor reads the data as big-endian regardless.
+	ByteBuffer geometry = regions[region].duplicate() ;
+	geometry.limit(block + BLOCK_HEADER_SIZE + geomSize) ;
+	geometry.position(block + BLOCK_HEADER_SIZE) ;
+	geometry = geometry.slice().order(ByteOrder.nativeOrder()) ;
+
+	CompressedGeometryData.Header hdr = new CompressedGeometryData.Header() ;
+	hdr.majorVersionNumber = majorVersionNumber ;
+	hdr.minorVersionNumber = minorVersionNumber ;
+	hdr.minorMinorVersionNumber = minorMinorVersionNumber ;
+	setHeader(hdr, geomSize, 0, geomDataType) ;
+
+	return new CompressedGeometryData(hdr, new J3DBuffer(geometry)) ;
+    }
+
+    //
+    // Throw an exception if this instance can't be written.
+    //
+    void checkWritable() throws IOException {
+	if (regions != null)
+	    throw new IOException
+		("\n" + fileName + ": mapped mode is read-only") ;
+    }
+
     //
     // Seek to the specified offset in the file.
     //
@@ -972,6 +1160,16 @@ public class CompressedGeometryFile {
     CompressedGeometryData newCG(int geomSize,
 				       int geomStart,
 				       int geomDataType) {
+	setHeader(cgh, geomSize, geomStart, geomDataType) ;
+	return new CompressedGeometryData(cgh, cgBuffer) ;
+    }
+
+    //
+    // Set the extent, buffer type, and data present in a compressed geometry
+    // header from an individual block header.
+    //
+    static void setHeader(CompressedGeometryData.Header cgh,
+			  int geomSize, int geomStart, int geomDataType) {
 	cgh.size = geomSize ;
 	cgh.start = geomStart ;
 
@@ -995,8 +1193,6 @@ public class CompressedGeometryFile {
 	if ((geomDataType & ALPHA_PRESENT_MASK) != 0)
 	    cgh.bufferDataPresent |=
 		CompressedGeometryData.Header.ALPHA_IN_BUFFER ;
-
-	return new CompressedGeometryData(cgh, cgBuffer) ;
     }
 
     /**
@@ -39,6 +39,8 @@
 
 package org.jogamp.java3d.utils.geometry.compression;
 
+import java.nio.ByteBuffer;
+
 import org.jogamp.java3d.GeometryArray;
 
 /**
@@ -90,6 +92,10 @@ class CompressedGeometryRetained extends Object {
     int size ;
     byte[] compressedGeometry ;
 
+    // The compressed geometry if it is accessed by reference from an NIO
+    // buffer instead of an array, otherwise null.
+    ByteBuffer compressedGeometryBuffer = null ;
+
     // A reference to the original byte array with which this object was
     // created.  If hardware decompression is available but it doesn't support
     // by-reference semantics, then an internal copy of the original byte array
@@ -153,7 +159,44 @@ class CompressedGeometryRetained extends Object {
 				  byte[] geometry, boolean byReference) {
 
 	this.byReference = byReference ;
+	setHeader(hdr) ;
+
+	if (byReference) {
+	    // Assume we can use the given reference, but maintain a second
+	    // reference in case a copy is later needed.
+	    this.compressedGeometry = geometry;
+            this.originalCompressedGeometry = geometry;
+	} else {
+	    // Copy the original data into a format that can be used by both
+	    // the software and native hardware decompressors.
+	    createByCopy(geometry);
+            this.originalCompressedGeometry = null;
+	}
+    }
+
+    /**
+     * Creates the retained compressed geometry data accessed by reference
+     * from an NIO buffer.  Data from the header is always copied.
+     *
+     * @param hdr the compressed geometry header
+     * @param geometry buffer containing the compressed geometry
+     */
+    void createCompressedGeometry(CompressedGeometryData.Header hdr,
+				  ByteBuffer geometry) {
+
+	this.byReference = true ;
+	setHeader(hdr) ;
+
+	this.compressedGeometry = null ;
+	this.originalCompressedGeometry = null ;
+	this.compressedGeometryBuffer = geometry ;
+    }
 
+    //
+    // Copy the version, type, and extent of the compressed geometry from
+    // the header.
+    //
+    private void setHeader(CompressedGeometryData.Header hdr) {
 ////	this.centroid.set(geoBounds.getCenter());
 ////	recompCentroid = false;
 	this.majorVersionNumber = hdr.majorVersionNumber ;
@@ -182,18 +225,6 @@ class CompressedGeometryRetained extends Object {
 
 	this.size = hdr.size ;
 	this.offset = hdr.start ;
-
-	if (byReference) {
-	    // Assume we can use the given reference, but maintain a second
-	    // reference in case a copy is later needed.
-	    this.compressedGeometry = geometry;
-            this.originalCompressedGeometry = geometry;
-	} else {
-	    // Copy the original data into a format that can be used by both
-	    // the software and native hardware decompressors.
-	    createByCopy(geometry);
-            this.originalCompressedGeometry = null;
-	}
     }
 
     /**
@@ -42,9 +42,7 @@ package org.jogamp.java3d.utils.geometry.compression;
 import java.nio.ByteBuffer;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 import org.jogamp.java3d.Appearance;
 import org.jogamp.java3d.Geometry;
@@ -99,24 +97,24 @@ public class CompressionStream {
     // reference could be included in every CompressionStreamElement along
     // with the data offsets.
     //
-    // TODO: Quantize on-the-fly when adding GeometryArray vertex data so that
-    // CompressionStreamElements don't need references to the original float,
-    // double, or byte data.  Quantization is currently a separate pass since
-    // the 1st pass adds vertex data and gets the total object bounds, but
-    // this can be computed by merging the bounds of each GeometryArray
-    // compressed into a single object.  The 2nd pass quantization is still
-    // needed for vertex data which isn't retrieved from a GeometryArray; for
-    // example, apps that might use the addVertex() methods directly instead
-    // of addGeometryArray().
+    // Stream elements are not kept as objects.  Their opcodes, floating
+    // point components, and integer parameters are packed into parallel
+    // primitive arrays as they are added, and the quantization pass packs
+    // their quantized representations into another int array for the output
+    // pass.  A single instance of each CompressionStreamElement subclass is
+    // loaded from these arrays in turn to quantize and output each element,
+    // and the mesh buffer mirror keeps copies of the absolute quantized
+    // values it needs, so compressing large geometry no longer allocates
+    // objects per vertex.
     //
-    // TODO: To further optimize memory, create new subclasses of
-    // CompressionStream{Color, Normal} for bundled attributes and add them as
-    // explicit stream elements.  Then CompressionStreamVertex won't need to
-    // carry references to them.  This memory savings might be negated by the
-    // extra overhead of adding more elements to the stream, however.
-    //
-    // TODO: Keep the absolute quantized values in the mesh buffer mirror so
-    // that unmeshed CompressionStreamElements don't need to carry them.
+    // TODO: Quantize on-the-fly when adding GeometryArray vertex data.
+    // Quantization is currently a separate pass since the 1st pass adds
+    // vertex data and gets the total object bounds, but this can be computed
+    // by merging the bounds of each GeometryArray compressed into a single
+    // object.  The 2nd pass quantization is still needed for vertex data
+    // which isn't retrieved from a GeometryArray; for example, apps that
+    // might use the addVertex() methods directly instead of
+    // addGeometryArray().
     //
     // TODO: Support texture coordinate compression even though Level II is
     // not supported by any hardware decompressor on any graphics card.
@@ -372,8 +370,43 @@ public class CompressionStream {
     MeshBuffer meshBuffer = new MeshBuffer() ;
 
 
-    // Collection which holds the elements of this stream.
-    private Collection stream ;
+    // Opcodes of the packed stream elements.
+    private static final byte VERTEX = 0 ;
+    private static final byte VERTEX_COLOR = 1 ;
+    private static final byte COLOR3 = 2 ;
+    private static final byte COLOR4 = 3 ;
+    private static final byte NORMAL = 4 ;
+    private static final byte MESH_REFERENCE = 5 ;
+    private static final byte POSITION_QUANT = 6 ;
+    private static final byte COLOR_QUANT = 7 ;
+    private static final byte NORMAL_QUANT = 8 ;
+
+    // Packed elements of this stream, in the order they were added.  Each
+    // element has an opcode in elementOps.  Its floating point components
+    // follow those of the preceding elements in elementFloats: a vertex
+    // stores its position followed by any bundled normal and color.  Strip
+    // and mesh flags, mesh buffer indices, and quantization values follow
+    // in elementInts.
+    private byte elementOps[] = new byte[256] ;
+    private float elementFloats[] = new float[1024] ;
+    private int elementInts[] = new int[512] ;
+    private int elementCount = 0 ;
+    private int floatCount = 0 ;
+    private int intCount = 0 ;
+
+    // Quantized representations of the packed elements, computed by the
+    // quantization pass and consumed by the output pass.
+    private int quantizedData[] = null ;
+    private int quantizedCount = 0 ;
+
+    // Stream elements loaded from the packed arrays, and the current
+    // positions in those arrays.
+    private CompressionStreamVertex streamVertex =
+	new CompressionStreamVertex() ;
+    private CompressionStreamColor streamColor = new CompressionStreamColor() ;
+    private CompressionStreamNormal streamNormal =
+	new CompressionStreamNormal() ;
+    private int floatIndex, intIndex, quantizedIndex ;
 
     // True if preceding stream elements were colors or normals.  Used to flag
     // color and normal mesh buffer substitution when computing deltas during
@@ -392,8 +425,6 @@ public class CompressionStream {
 
     // Private constructor for common initializations.
     private CompressionStream() {
-	this.stream = new LinkedList() ;
-
 	byteCount = 0 ;
 	vertexCount = 0 ;
 	meshReferenceCount = 0 ;
@@ -596,24 +627,30 @@ public class CompressionStream {
 	firstPosition = firstColor = firstNormal = true ;
 
 	// Apply quantization.
-	Iterator i = stream.iterator() ;
-	while (i.hasNext()) {
-	    Object o = i.next() ;
+	floatIndex = intIndex = quantizedIndex = 0 ;
+	quantizedData = new int[quantizedCount] ;
 
-	    if (o instanceof CompressionStreamElement) {
-		((CompressionStreamElement)o).quantize(this, huffmanTable) ;
+	for (int i = 0 ; i < elementCount ; i++) {
+	    byte op = elementOps[i] ;
+	    CompressionStreamElement e = loadElement(op) ;
 
-		// Keep track of whether last two elements were colors or
-		// normals for mesh buffer component substitution semantics.
-		lastLastElementColor = lastElementColor ;
-		lastLastElementNormal = lastElementNormal ;
-		lastElementColor = lastElementNormal = false ;
-
-		if (o instanceof CompressionStreamColor)
-		    lastElementColor = true ;
-		else if (o instanceof CompressionStreamNormal)
-		    lastElementNormal = true ;
+	    if (e != null) {
+		e.quantize(this, huffmanTable) ;
+		saveQuantized(e) ;
+	    }
+	    else if (op == MESH_REFERENCE) {
+		quantizeMeshReference(elementInts[intIndex + 1]) ;
+		intIndex += 2 ;
 	    }
+	    else
+		quantizeParameter(op, elementInts[intIndex++]) ;
+
+	    // Keep track of whether last two elements were colors or
+	    // normals for mesh buffer component substitution semantics.
+	    lastLastElementColor = lastElementColor ;
+	    lastLastElementNormal = lastElementNormal ;
+	    lastElementColor = (e == streamColor) ;
+	    lastElementNormal = (e == streamNormal) ;
 	}
 
 	// Compute the bounds in normalized coordinates.
@@ -664,12 +701,23 @@ public class CompressionStream {
 	huffmanTable.outputCommands(outputBuffer) ;
 
 	// Output each compression stream element's data.
-	Iterator i = stream.iterator() ;
-	while (i.hasNext()) {
-	    Object o = i.next() ;
-	    if (o instanceof CompressionStreamElement)
-		((CompressionStreamElement)o).outputCommand(huffmanTable,
-							    outputBuffer) ;
+	floatIndex = intIndex = quantizedIndex = 0 ;
+
+	for (int i = 0 ; i < elementCount ; i++) {
+	    byte op = elementOps[i] ;
+	    CompressionStreamElement e = loadElement(op) ;
+
+	    if (e != null) {
+		loadQuantized(e) ;
+		e.outputCommand(huffmanTable, outputBuffer) ;
+	    }
+	    else if (op == MESH_REFERENCE) {
+		outputMeshReference(outputBuffer, elementInts[intIndex],
+				    elementInts[intIndex + 1]) ;
+		intIndex += 2 ;
+	    }
+	    else
+		intIndex++ ;
 	}
 
 	// Finish the header-forwarding interleave and long-word align.
@@ -702,136 +750,280 @@ public class CompressionStream {
 	return meshReferenceCount ;
     }
 
-    /**
-     * Stream element that sets position quantization during quantize pass.
-     */
-    private class PositionQuant extends CompressionStreamElement {
-	int value ;
+    //
+    // Load the packed element with the given opcode into the reusable stream
+    // element of its type and return it, advancing the packed array indices
+    // past its floating point components and flags.  Mesh buffer references
+    // and quantization changes return null, leaving their parameters at
+    // intIndex.
+    //
+    private CompressionStreamElement loadElement(byte op) {
+	switch (op) {
+	case VERTEX:
+	case VERTEX_COLOR:
+	    streamVertex.set(elementFloats[floatIndex],
+			     elementFloats[floatIndex + 1],
+			     elementFloats[floatIndex + 2],
+			     elementInts[intIndex], elementInts[intIndex + 1]) ;
+	    floatIndex += 3 ;
+	    intIndex += 2 ;
 
-	PositionQuant(int value) {
-	    this.value = value ;
+	    if (vertexNormals) {
+		loadNormal() ;
+		streamVertex.normal = streamNormal ;
+	    }
+	    else
+		streamVertex.normal = null ;
+
+	    if (op == VERTEX_COLOR) {
+		loadColor(vertexColor3? COLOR3 : COLOR4) ;
+		streamVertex.color = streamColor ;
+	    }
+	    else
+		streamVertex.color = null ;
+
+	    return streamVertex ;
+
+	case COLOR3:
+	case COLOR4:
+	    loadColor(op) ;
+	    return streamColor ;
+
+	case NORMAL:
+	    loadNormal() ;
+	    return streamNormal ;
+
+	default:
+	    return null ;
 	}
+    }
 
-	@Override
-	void quantize(CompressionStream s, HuffmanTable t) {
+    private void loadColor(byte op) {
+	if (op == COLOR3) {
+	    streamColor.set(elementFloats[floatIndex],
+			    elementFloats[floatIndex + 1],
+			    elementFloats[floatIndex + 2]) ;
+	    floatIndex += 3 ;
+	}
+	else {
+	    streamColor.set(elementFloats[floatIndex],
+			    elementFloats[floatIndex + 1],
+			    elementFloats[floatIndex + 2],
+			    elementFloats[floatIndex + 3]) ;
+	    floatIndex += 4 ;
+	}
+    }
+
+    private void loadNormal() {
+	streamNormal.set(elementFloats[floatIndex],
+			 elementFloats[floatIndex + 1],
+			 elementFloats[floatIndex + 2]) ;
+	floatIndex += 3 ;
+    }
+
+    //
+    // Store the quantized representation of an element returned by
+    // loadElement(), including any color or normal bundled with a vertex.
+    //
+    private void saveQuantized(CompressionStreamElement e) {
+	int q = quantizedIndex ;
+
+	if (e == streamVertex) {
+	    q = streamVertex.saveQuantized(quantizedData, q) ;
+	    if (streamVertex.normal != null)
+		q = streamNormal.saveQuantized(quantizedData, q) ;
+	    if (streamVertex.color != null)
+		q = streamColor.saveQuantized(quantizedData, q) ;
+	}
+	else if (e == streamColor)
+	    q = streamColor.saveQuantized(quantizedData, q) ;
+	else
+	    q = streamNormal.saveQuantized(quantizedData, q) ;
+
+	quantizedIndex = q ;
+    }
+
+    //
+    // Load the quantized representation stored by saveQuantized() into an
+    // element returned by loadElement().
+    //
+    private void loadQuantized(CompressionStreamElement e) {
+	int q = quantizedIndex ;
+
+	if (e == streamVertex) {
+	    q = streamVertex.loadQuantized(quantizedData, q) ;
+	    if (streamVertex.normal != null)
+		q = streamNormal.loadQuantized(quantizedData, q) ;
+	    if (streamVertex.color != null)
+		q = streamColor.loadQuantized(quantizedData, q) ;
+	}
+	else if (e == streamColor)
+	    q = streamColor.loadQuantized(quantizedData, q) ;
+	else
+	    q = streamNormal.loadQuantized(quantizedData, q) ;
+
+	quantizedIndex = q ;
+    }
+
+    //
+    // Apply a position, color, or normal quantization change during the
+    // quantization pass.
+    //
+    private void quantizeParameter(byte op, int value) {
+	switch (op) {
+	case POSITION_QUANT:
 	    positionQuant = value ;
 	    positionQuantChanged = true ;
 
 	    // Adjust range of unit cube scaling to match quantization.
 	    scale = (2.0 / positionRangeMaximum) *
 		(((double)((1 << (value-1)) - 1))/((double)(1 << (value-1)))) ;
-	}
-
-	@Override
-	public String toString() {
-	    return "positionQuant: " + value ;
-	}
-    }
-
-    /**
-     * Stream element that sets normal quantization during quantize pass.
-     */
-    private class NormalQuant extends CompressionStreamElement {
-	int value ;
+	    break ;
 
-	NormalQuant(int value) {
-	    this.value = value ;
-	}
+	case COLOR_QUANT:
+	    colorQuant = value ;
+	    colorQuantChanged = true ;
+	    break ;
 
-	@Override
-	void quantize(CompressionStream s, HuffmanTable t) {
+	case NORMAL_QUANT:
 	    normalQuant = value ;
 	    normalQuantChanged = true ;
+	    break ;
 	}
+    }
 
-	@Override
-	public String toString() {
-	    return "normalQuant: " + value ;
+    //
+    // Retrieve a mesh buffer reference's vertex from the mesh buffer mirror
+    // and set up the data needed for the next stream element to compute its
+    // deltas.
+    //
+    private void quantizeMeshReference(int meshIndex) {
+	CompressionStreamVertex v = meshBuffer.getVertex(meshIndex) ;
+	lastPosition[0] = v.xAbsolute ;
+	lastPosition[1] = v.yAbsolute ;
+	lastPosition[2] = v.zAbsolute ;
+
+	// Set up last color data if it exists and previous elements
+	// don't override it.
+	if (v.color != null && !lastElementColor &&
+	    !(lastElementNormal && lastLastElementColor)) {
+	    lastColor[0] = v.color.rAbsolute ;
+	    lastColor[1] = v.color.gAbsolute ;
+	    lastColor[2] = v.color.bAbsolute ;
+	    lastColor[3] = v.color.aAbsolute ;
+	}
+
+	// Set up last normal data if it exists and previous element
+	// doesn't override it.
+	if (v.normal != null && !lastElementNormal &&
+	    !(lastElementColor && lastLastElementNormal)) {
+	    lastSextant = v.normal.sextant ;
+	    lastOctant = v.normal.octant ;
+	    lastU = v.normal.uAbsolute ;
+	    lastV = v.normal.vAbsolute ;
+	    lastSpecialNormal = v.normal.specialNormal ;
 	}
     }
 
-    /**
-     * Stream element that sets color quantization during quantize pass.
-     */
-    private class ColorQuant extends CompressionStreamElement {
-	int value ;
+    //
+    // Output a mesh buffer reference command.
+    //
+    private static void outputMeshReference(CommandStream outputBuffer,
+					    int stripFlag, int meshIndex) {
+	int command = CommandStream.MESH_B_R ;
+	long data = stripFlag & 0x1 ;
 
-	ColorQuant(int value) {
-	    this.value = value ;
-	}
+	command |= (((meshIndex & 0xf) << 1) | (stripFlag >> 1)) ;
+	outputBuffer.addCommand(command, 8, data, 1) ;
+    }
 
-	@Override
-	void quantize(CompressionStream s, HuffmanTable t) {
-	    colorQuant = value ;
-	    colorQuantChanged = true ;
-	}
+    //
+    // Append an opcode and make room for the components and parameters of
+    // the element it introduces.
+    //
+    private void addElement(byte op, int floats, int ints) {
+	if (elementCount == elementOps.length)
+	    elementOps = Arrays.copyOf(elementOps, 2 * elementCount) ;
 
-	@Override
-	public String toString() {
-	    return "colorQuant: " + value ;
-	}
+	if (floatCount + floats > elementFloats.length)
+	    elementFloats = Arrays.copyOf
+		(elementFloats, Math.max(2 * elementFloats.length,
+					 floatCount + floats)) ;
+
+	if (intCount + ints > elementInts.length)
+	    elementInts = Arrays.copyOf
+		(elementInts, Math.max(2 * elementInts.length,
+				       intCount + ints)) ;
+
+	elementOps[elementCount++] = op ;
     }
 
-    /**
-     * Stream element that references the mesh buffer.
-     */
-    private class MeshReference extends CompressionStreamElement {
-	int stripFlag, meshIndex ;
+    //
+    // Append a vertex with any bundled normal and color.  The color is
+    // bundled only if its type matches the vertex format, and is either a
+    // Color3f or Color4f.
+    //
+    private void addVertexElement(Point3f p, Vector3f n, Object c,
+				  boolean bundleColor,
+				  int stripFlag, int meshFlag) {
 
-	MeshReference(int stripFlag, int meshIndex) {
-	    this.stripFlag = stripFlag ;
-	    this.meshIndex = meshIndex ;
-	    meshReferenceCount++ ;
-	}
+	addElement(bundleColor? VERTEX_COLOR : VERTEX, 10, 2) ;
+	elementInts[intCount++] = stripFlag ;
+	elementInts[intCount++] = meshFlag ;
 
-	@Override
-	void quantize(CompressionStream s, HuffmanTable t) {
-	    // Retrieve the vertex from the mesh buffer mirror and set up the
-	    // data needed for the next stream element to compute its deltas.
-	    CompressionStreamVertex v = meshBuffer.getVertex(meshIndex) ;
-	    lastPosition[0] = v.xAbsolute ;
-	    lastPosition[1] = v.yAbsolute ;
-	    lastPosition[2] = v.zAbsolute ;
-
-	    // Set up last color data if it exists and previous elements
-	    // don't override it.
-	    if (v.color != null && !lastElementColor &&
-		!(lastElementNormal && lastLastElementColor)) {
-		lastColor[0] = v.color.rAbsolute ;
-		lastColor[1] = v.color.gAbsolute ;
-		lastColor[2] = v.color.bAbsolute ;
-		lastColor[3] = v.color.aAbsolute ;
-	    }
-
-	    // Set up last normal data if it exists and previous element
-	    // doesn't override it.
-	    if (v.normal != null && !lastElementNormal &&
-		!(lastElementColor && lastLastElementNormal)) {
-		lastSextant = v.normal.sextant ;
-		lastOctant = v.normal.octant ;
-		lastU = v.normal.uAbsolute ;
-		lastV = v.normal.vAbsolute ;
-		lastSpecialNormal = v.normal.specialNormal ;
-	    }
-	}
+	elementFloats[floatCount++] = p.x ;
+	elementFloats[floatCount++] = p.y ;
+	elementFloats[floatCount++] = p.z ;
+	quantizedCount += 4 ;
 
-	@Override
-	void outputCommand(HuffmanTable t, CommandStream outputBuffer) {
-	    int command = CommandStream.MESH_B_R ;
-	    long data = stripFlag & 0x1 ;
+	byteCount += 12 ;
+	vertexCount++ ;
 
-	    command |= (((meshIndex & 0xf) << 1) | (stripFlag >> 1)) ;
-	    outputBuffer.addCommand(command, 8, data, 1) ;
-	}
+	if (p.x < mcBounds[0].x) mcBounds[0].x = p.x ;
+	if (p.y < mcBounds[0].y) mcBounds[0].y = p.y ;
+	if (p.z < mcBounds[0].z) mcBounds[0].z = p.z ;
 
-	@Override
-	public String toString() {
-	    return
-		"meshReference: stripFlag " + stripFlag +
-		" meshIndex " + meshIndex ;
+	if (p.x > mcBounds[1].x) mcBounds[1].x = p.x ;
+	if (p.y > mcBounds[1].y) mcBounds[1].y = p.y ;
+	if (p.z > mcBounds[1].z) mcBounds[1].z = p.z ;
+
+	if (vertexNormals) {
+	    elementFloats[floatCount++] = n.x ;
+	    elementFloats[floatCount++] = n.y ;
+	    elementFloats[floatCount++] = n.z ;
+	    quantizedCount += 3 ;
+	    byteCount += 12 ;
+	}
+
+	if (bundleColor) {
+	    if (c instanceof Color3f) {
+		Color3f c3 = (Color3f)c ;
+		elementFloats[floatCount++] = c3.x ;
+		elementFloats[floatCount++] = c3.y ;
+		elementFloats[floatCount++] = c3.z ;
+		byteCount += 12 ;
+	    }
+	    else {
+		Color4f c4 = (Color4f)c ;
+		elementFloats[floatCount++] = c4.x ;
+		elementFloats[floatCount++] = c4.y ;
+		elementFloats[floatCount++] = c4.z ;
+		elementFloats[floatCount++] = c4.w ;
+		byteCount += 16 ;
+	    }
+	    quantizedCount += 5 ;
 	}
     }
 
+    private void addVertexElement(Point3f p, Vector3f n, Color3f c,
+				  int stripFlag, int meshFlag) {
+	addVertexElement(p, n, c, vertexColor3, stripFlag, meshFlag) ;
+    }
+
+    private void addVertexElement(Point3f p, Vector3f n, Color4f c,
+				  int stripFlag, int meshFlag) {
+	addVertexElement(p, n, c, vertexColor4, stripFlag, meshFlag) ;
+    }
 
     /**
      * Copy vertex data and add it to the end of this stream.
@@ -840,9 +1032,8 @@ public class CompressionStream {
      * REPLACE_OLDEST, or REPLACE_MIDDLE
      */
     void addVertex(Point3f pos, int stripFlag) {
-	stream.add(new CompressionStreamVertex(this, pos,
-					       (Vector3f)null, (Color3f)null,
-					       stripFlag, NO_MESH_PUSH)) ;
+	addVertexElement(pos, (Vector3f)null, (Color3f)null,
+			 stripFlag, NO_MESH_PUSH) ;
     }
 
     /**
@@ -853,8 +1044,7 @@ public class CompressionStream {
      * REPLACE_OLDEST, or REPLACE_MIDDLE
      */
     void addVertex(Point3f pos, Vector3f norm, int stripFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, norm, (Color3f)null, stripFlag, NO_MESH_PUSH)) ;
+	addVertexElement(pos, norm, (Color3f)null, stripFlag, NO_MESH_PUSH) ;
     }
 
     /**
@@ -865,8 +1055,7 @@ public class CompressionStream {
      * REPLACE_OLDEST, or REPLACE_MIDDLE
      */
     void addVertex(Point3f pos, Color3f color, int stripFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, (Vector3f)null, color, stripFlag, NO_MESH_PUSH)) ;
+	addVertexElement(pos, (Vector3f)null, color, stripFlag, NO_MESH_PUSH) ;
     }
 
     /**
@@ -877,8 +1066,7 @@ public class CompressionStream {
      * REPLACE_OLDEST, or REPLACE_MIDDLE
      */
     void addVertex(Point3f pos, Color4f color, int stripFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, (Vector3f)null, color, stripFlag, NO_MESH_PUSH)) ;
+	addVertexElement(pos, (Vector3f)null, color, stripFlag, NO_MESH_PUSH) ;
     }
 
     /**
@@ -891,8 +1079,7 @@ public class CompressionStream {
      */
     void addVertex(Point3f pos, Vector3f norm, Color3f color,
 			  int stripFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, norm, color, stripFlag, NO_MESH_PUSH)) ;
+	addVertexElement(pos, norm, color, stripFlag, NO_MESH_PUSH) ;
     }
 
     /**
@@ -905,8 +1092,7 @@ public class CompressionStream {
      */
     void addVertex(Point3f pos, Vector3f norm, Color4f color,
 			  int stripFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, norm, color, stripFlag, NO_MESH_PUSH)) ;
+	addVertexElement(pos, norm, color, stripFlag, NO_MESH_PUSH) ;
     }
 
     /**
@@ -917,8 +1103,8 @@ public class CompressionStream {
      * @param meshFlag if MESH_PUSH the vertex is pushed into the mesh buffer
      */
     void addVertex(Point3f pos, int stripFlag, int meshFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, (Vector3f)null, (Color3f)null, stripFlag, meshFlag)) ;
+	addVertexElement(pos, (Vector3f)null, (Color3f)null,
+			 stripFlag, meshFlag) ;
     }
 
     /**
@@ -931,8 +1117,7 @@ public class CompressionStream {
      */
     void addVertex(Point3f pos, Vector3f norm,
 			  int stripFlag, int meshFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, norm, (Color3f)null, stripFlag, meshFlag)) ;
+	addVertexElement(pos, norm, (Color3f)null, stripFlag, meshFlag) ;
     }
 
     /**
@@ -945,8 +1130,7 @@ public class CompressionStream {
      */
     void addVertex(Point3f pos, Color3f color,
 			  int stripFlag, int meshFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, (Vector3f)null, color, stripFlag, meshFlag)) ;
+	addVertexElement(pos, (Vector3f)null, color, stripFlag, meshFlag) ;
     }
 
     /**
@@ -959,8 +1143,7 @@ public class CompressionStream {
      */
     void addVertex(Point3f pos, Color4f color,
 			  int stripFlag, int meshFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, (Vector3f)null, color, stripFlag, meshFlag)) ;
+	addVertexElement(pos, (Vector3f)null, color, stripFlag, meshFlag) ;
     }
 
     /**
@@ -974,8 +1157,7 @@ public class CompressionStream {
      */
     void addVertex(Point3f pos, Vector3f norm, Color3f color,
 			  int stripFlag, int meshFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, norm, color, stripFlag, meshFlag)) ;
+	addVertexElement(pos, norm, color, stripFlag, meshFlag) ;
     }
 
     /**
@@ -989,8 +1171,7 @@ public class CompressionStream {
      */
     void addVertex(Point3f pos, Vector3f norm, Color4f color,
 			  int stripFlag, int meshFlag) {
-	stream.add(new CompressionStreamVertex
-	    (this, pos, norm, color, stripFlag, meshFlag)) ;
+	addVertexElement(pos, norm, color, stripFlag, meshFlag) ;
     }
 
     /**
@@ -1007,11 +1188,9 @@ public class CompressionStream {
 		   Object color, int stripFlag, int meshFlag) {
 
 	if (vertexColor3)
-	    stream.add(new CompressionStreamVertex
-		       (this, pos, norm, (Color3f)color, stripFlag, meshFlag)) ;
+	    addVertexElement(pos, norm, (Color3f)color, stripFlag, meshFlag) ;
 	else
-	    stream.add(new CompressionStreamVertex
-		       (this, pos, norm, (Color4f)color, stripFlag, meshFlag)) ;
+	    addVertexElement(pos, norm, (Color4f)color, stripFlag, meshFlag) ;
     }
 
     /**
@@ -1021,7 +1200,10 @@ public class CompressionStream {
      * @param meshIndex index of vertex to retrieve from the mesh buffer
      */
     void addMeshReference(int stripFlag, int meshIndex) {
-	stream.add(new MeshReference(stripFlag, meshIndex)) ;
+	addElement(MESH_REFERENCE, 0, 2) ;
+	elementInts[intCount++] = stripFlag ;
+	elementInts[intCount++] = meshIndex ;
+	meshReferenceCount++ ;
     }
 
     /**
@@ -1029,7 +1211,12 @@ public class CompressionStream {
      * state change that applies to all subsequent vertices.
      */
     void addColor(Color3f c3f) {
-	stream.add(new CompressionStreamColor(this, c3f)) ;
+	addElement(COLOR3, 3, 0) ;
+	elementFloats[floatCount++] = c3f.x ;
+	elementFloats[floatCount++] = c3f.y ;
+	elementFloats[floatCount++] = c3f.z ;
+	quantizedCount += 5 ;
+	byteCount += 12 ;
     }
 
     /**
@@ -1037,7 +1224,13 @@ public class CompressionStream {
      * state change that applies to all subsequent vertices.
      */
     void addColor(Color4f c4f) {
-	stream.add(new CompressionStreamColor(this, c4f)) ;
+	addElement(COLOR4, 4, 0) ;
+	elementFloats[floatCount++] = c4f.x ;
+	elementFloats[floatCount++] = c4f.y ;
+	elementFloats[floatCount++] = c4f.z ;
+	elementFloats[floatCount++] = c4f.w ;
+	quantizedCount += 5 ;
+	byteCount += 16 ;
     }
 
     /**
@@ -1045,7 +1238,12 @@ public class CompressionStream {
      * state change that applies to all subsequent vertices.
      */
     void addNormal(Vector3f n) {
-	stream.add(new CompressionStreamNormal(this, n)) ;
+	addElement(NORMAL, 3, 0) ;
+	elementFloats[floatCount++] = n.x ;
+	elementFloats[floatCount++] = n.y ;
+	elementFloats[floatCount++] = n.z ;
+	quantizedCount += 3 ;
+	byteCount += 12 ;
     }
 
     /**
@@ -1056,7 +1254,8 @@ public class CompressionStream {
      * and Z components, ranging from 1 to 16 with a default of 16
      */
     void addPositionQuantization(int value) {
-	stream.add(new PositionQuant(value)) ;
+	addElement(POSITION_QUANT, 0, 1) ;
+	elementInts[intCount++] = value ;
     }
 
     /**
@@ -1067,7 +1266,8 @@ public class CompressionStream {
      * alpha components, ranging from 2 to 16 with a default of 9
      */
     void addColorQuantization(int value) {
-	stream.add(new ColorQuant(value)) ;
+	addElement(COLOR_QUANT, 0, 1) ;
+	elementInts[intCount++] = value ;
     }
 
     /**
@@ -1079,7 +1279,8 @@ public class CompressionStream {
      * 6 with a default of 6
      */
     void addNormalQuantization(int value) {
-	stream.add(new NormalQuant(value)) ;
+	addElement(NORMAL_QUANT, 0, 1) ;
+	elementInts[intCount++] = value ;
     }
 
     /**
@@ -2033,7 +2234,7 @@ public class CompressionStream {
      * Print the stream to standard output.
      */
     void print() {
-	System.out.println("\nstream has " + stream.size() + " entries") ;
+	System.out.println("\nstream has " + elementCount + " entries") ;
 	System.out.println("uncompressed size " + byteCount + " bytes") ;
 	System.out.println("upper position bound: " + mcBounds[1].toString()) ;
 	System.out.println("lower position bound: " + mcBounds[0].toString()) ;
@@ -2043,9 +2244,29 @@ public class CompressionStream {
 			   ((float)center[2]) + ")\n" +
 			   "scale " + ((float)scale) + "\n") ;
 
-	Iterator i = stream.iterator() ;
-	while (i.hasNext()) {
-	    System.out.println(i.next().toString() + "\n") ;
+	floatIndex = intIndex = quantizedIndex = 0 ;
+	for (int i = 0 ; i < elementCount ; i++) {
+	    byte op = elementOps[i] ;
+	    CompressionStreamElement e = loadElement(op) ;
+	    String s ;
+
+	    if (e != null) {
+		if (quantizedData != null)
+		    loadQuantized(e) ;
+		s = e.toString() ;
+	    }
+	    else if (op == MESH_REFERENCE) {
+		s = "meshReference: stripFlag " + elementInts[intIndex] +
+		    " meshIndex " + elementInts[intIndex + 1] ;
+		intIndex += 2 ;
+	    }
+	    else {
+		s = (op == POSITION_QUANT? "positionQuant: " :
+		     (op == COLOR_QUANT? "colorQuant: " : "normalQuant: ")) +
+		    elementInts[intIndex++] ;
+	    }
+
+	    System.out.println(s + "\n") ;
 	}
     }
 
@@ -39,9 +39,6 @@
 
 package org.jogamp.java3d.utils.geometry.compression;
 
-import org.jogamp.vecmath.Color3f;
-import org.jogamp.vecmath.Color4f;
-
 /**
  * This class represents a color in a compression stream. It maintains both
  * floating-point and quantized representations.  This color may be bundled
@@ -56,35 +53,88 @@ class CompressionStreamColor extends CompressionStreamElement {
     int rAbsolute, gAbsolute, bAbsolute, aAbsolute ;
 
     /**
-     * Create a CompressionStreamColor.
+     * Create a CompressionStreamColor.  A CompressionStream keeps its colors
+     * in packed arrays and reuses instances of this class, loaded with
+     * set(), to quantize and output each of them in turn.
+     */
+    CompressionStreamColor() {
+    }
+
+    /**
+     * Load a 3-component floating-point color.
      *
-     * @param stream CompressionStream associated with this element
-     * @param color3 floating-point representation to be encoded
+     * @param r red component
+     * @param g green component
+     * @param b blue component
      */
-    CompressionStreamColor(CompressionStream stream, Color3f c3) {
+    void set(float r, float g, float b) {
 	this.color4 = false ;
 	this.color3 = true ;
-	colorR = c3.x ;
-	colorG = c3.y ;
-	colorB = c3.z ;
+	colorR = r ;
+	colorG = g ;
+	colorB = b ;
 	colorA = 0.0f ;
-	stream.byteCount += 12 ;
     }
 
     /**
-     * Create a CompressionStreamColor.
+     * Load a 4-component floating-point color.
      *
-     * @param stream CompressionStream associated with this element
-     * @param color4 floating-point representation to be encoded
+     * @param r red component
+     * @param g green component
+     * @param b blue component
+     * @param a alpha component
      */
-    CompressionStreamColor(CompressionStream stream, Color4f c4) {
+    void set(float r, float g, float b, float a) {
 	this.color3 = false ;
 	this.color4 = true ;
-	colorR = c4.x ;
-	colorG = c4.y ;
-	colorB = c4.z ;
-	colorA = c4.w ;
-	stream.byteCount += 16 ;
+	colorR = r ;
+	colorG = g ;
+	colorB = b ;
+	colorA = a ;
+    }
+
+    /**
+     * Store the quantized color computed by quantize() into an array.
+     *
+     * @param data array receiving the quantized representation
+     * @param i index of the first element to store
+     * @return index following the last element stored
+     */
+    int saveQuantized(int data[], int i) {
+	data[i++] = R ;
+	data[i++] = G ;
+	data[i++] = B ;
+	data[i++] = A ;
+	data[i++] = packLengthShift() ;
+	return i ;
+    }
+
+    /**
+     * Load a quantized color previously stored by saveQuantized().
+     *
+     * @param data array containing the quantized representation
+     * @param i index of the first element to load
+     * @return index following the last element loaded
+     */
+    int loadQuantized(int data[], int i) {
+	R = data[i++] ;
+	G = data[i++] ;
+	B = data[i++] ;
+	A = data[i++] ;
+	unpackLengthShift(data[i++]) ;
+	return i ;
+    }
+
+    /**
+     * Copy the absolute quantized components of another color.
+     *
+     * @param c color whose absolute quantized components are copied
+     */
+    void copyAbsolute(CompressionStreamColor c) {
+	rAbsolute = c.rAbsolute ;
+	gAbsolute = c.gAbsolute ;
+	bAbsolute = c.bAbsolute ;
+	aAbsolute = c.aAbsolute ;
     }
 
     /**
@@ -136,6 +136,31 @@ abstract class CompressionStreamElement {
     void outputCommand(HuffmanTable table, CommandStream output) {
     }
 
+    /**
+     * Packs the length, shift, and absolute status of this element into the
+     * low 10 bits of an int.  A CompressionStream keeps quantized elements
+     * in this form between the quantization and output passes.
+     *
+     * @return packed length, shift, and absolute status
+     * @see #unpackLengthShift
+     */
+    final int packLengthShift() {
+	return length | (shift << 5) | (absolute? 0x200 : 0) ;
+    }
+
+    /**
+     * Restores the length, shift, and absolute status of this element from
+     * the low 10 bits of an int created by packLengthShift().
+     *
+     * @param bits packed length, shift, and absolute status
+     * @see #packLengthShift
+     */
+    final void unpackLengthShift(int bits) {
+	length = bits & 0x1f ;
+	shift = (bits >> 5) & 0xf ;
+	absolute = (bits & 0x200) != 0 ;
+    }
+
     /**
      * Finds the minimum bits needed to represent the given 16-bit signed 2's
      * complement integer.  For positive integers, this include the first
@@ -39,8 +39,6 @@
 
 package org.jogamp.java3d.utils.geometry.compression;
 
-import org.jogamp.vecmath.Vector3f;
-
 /**
  * This class represents a normal in a compression stream. It maintains both
  * floating-point and quantized representations.  This normal may be bundled
@@ -56,16 +54,77 @@ class CompressionStreamNormal extends CompressionStreamElement {
     int uAbsolute, vAbsolute ;
 
     /**
-     * Create a CompressionStreamNormal.
+     * Create a CompressionStreamNormal.  A CompressionStream keeps its
+     * normals in packed arrays and reuses instances of this class, loaded
+     * with set(), to quantize and output each of them in turn.
+     */
+    CompressionStreamNormal() {
+    }
+
+    /**
+     * Load a floating-point normal.
      *
-     * @param stream CompressionStream associated with this element
-     * @param normal floating-point representation to be encoded
+     * @param x X normal component
+     * @param y Y normal component
+     * @param z Z normal component
+     */
+    void set(float x, float y, float z) {
+	this.normalX = x ;
+	this.normalY = y ;
+	this.normalZ = z ;
+    }
+
+    /**
+     * Store the quantized normal computed by quantize() into an array.  The
+     * sextant, octant, and special encoding are packed above the length,
+     * shift, and absolute status.
+     *
+     * @param data array receiving the quantized representation
+     * @param i index of the first element to store
+     * @return index following the last element stored
+     */
+    int saveQuantized(int data[], int i) {
+	data[i++] = u ;
+	data[i++] = v ;
+	data[i++] = packLengthShift() |
+	    (specialNormal? 0x400 : 0) |
+	    (sextant << 11) | (octant << 14) |
+	    (specialSextant << 17) | (specialOctant << 20) ;
+	return i ;
+    }
+
+    /**
+     * Load a quantized normal previously stored by saveQuantized().
+     *
+     * @param data array containing the quantized representation
+     * @param i index of the first element to load
+     * @return index following the last element loaded
+     */
+    int loadQuantized(int data[], int i) {
+	u = data[i++] ;
+	v = data[i++] ;
+
+	int bits = data[i++] ;
+	unpackLengthShift(bits) ;
+	specialNormal = (bits & 0x400) != 0 ;
+	sextant = (bits >> 11) & 0x7 ;
+	octant = (bits >> 14) & 0x7 ;
+	specialSextant = (bits >> 17) & 0x7 ;
+	specialOctant = (bits >> 20) & 0x7 ;
+	return i ;
+    }
+
+    /**
+     * Copy the absolute quantized representation of another normal.
+     *
+     * @param n normal whose absolute quantized representation is copied
      */
-    CompressionStreamNormal(CompressionStream stream, Vector3f normal) {
-	this.normalX = normal.x ;
-	this.normalY = normal.y ;
-	this.normalZ = normal.z ;
-	stream.byteCount += 12 ;
+    void copyAbsolute(CompressionStreamNormal n) {
+	sextant = n.sextant ;
+	octant = n.octant ;
+	uAbsolute = n.uAbsolute ;
+	vAbsolute = n.vAbsolute ;
+	specialNormal = n.specialNormal ;
     }
 
     //
@@ -39,11 +39,6 @@
 
 package org.jogamp.java3d.utils.geometry.compression;
 
-import org.jogamp.vecmath.Color3f;
-import org.jogamp.vecmath.Color4f;
-import org.jogamp.vecmath.Point3f;
-import org.jogamp.vecmath.Vector3f;
-
 /**
  * This class represents a vertex in a compression stream.  It maintains both
  * floating-point and quantized representations of the vertex position along
@@ -63,82 +58,92 @@ class CompressionStreamVertex extends CompressionStreamElement {
     CompressionStreamNormal normal = null ;
 
     /**
-     * Create a CompressionStreamVertex with the given parameters.
-     *
-     * @param stream CompressionStream associated with this vertex
-     * @param p position
-     * @param n normal bundled with this vertex or null if not bundled
-     * @param c color bundled with this vertex or null if not bundled
-     * @param stripFlag CompressionStream.RESTART,
-     * CompressionStream.REPLACE_OLDEST, or CompressionStream.REPLACE_MIDDLE
-     * @param meshFlag CompressionStream.MESH_PUSH or
-     * CompressionStream.NO_MESH_PUSH
+     * Create a CompressionStreamVertex.  A CompressionStream keeps its
+     * vertices in packed arrays and reuses a single instance of this class,
+     * loaded with set(), to quantize and output each of them in turn.  Any
+     * bundled color or normal is loaded separately through the color and
+     * normal fields.
      */
-    CompressionStreamVertex(CompressionStream stream,
-			    Point3f p, Vector3f n, Color3f c,
-			    int stripFlag, int meshFlag) {
-
-	this(stream, p, n, stripFlag, meshFlag) ;
-
-	if (stream.vertexColor3)
-	    color = new CompressionStreamColor(stream, c) ;
+    CompressionStreamVertex() {
     }
 
     /**
-     * Create a CompressionStreamVertex with the given parameters.
+     * Load the floating-point position and flags of a vertex.
      *
-     * @param stream CompressionStream associated with this vertex
-     * @param p position
-     * @param n normal bundled with this vertex or null if not bundled
-     * @param c color bundled with this vertex or null if not bundled
+     * @param x X position component
+     * @param y Y position component
+     * @param z Z position component
      * @param stripFlag CompressionStream.RESTART,
      * CompressionStream.REPLACE_OLDEST, or CompressionStream.REPLACE_MIDDLE
      * @param meshFlag CompressionStream.MESH_PUSH or
      * CompressionStream.NO_MESH_PUSH
      */
-    CompressionStreamVertex(CompressionStream stream,
-			    Point3f p, Vector3f n, Color4f c,
-			    int stripFlag, int meshFlag) {
-
-	this(stream, p, n, stripFlag, meshFlag) ;
-
-	if (stream.vertexColor4)
-	    color = new CompressionStreamColor(stream, c) ;
+    void set(float x, float y, float z, int stripFlag, int meshFlag) {
+	this.floatX = x ;
+	this.floatY = y ;
+	this.floatZ = z ;
+	this.stripFlag = stripFlag ;
+	this.meshFlag = meshFlag ;
     }
 
     /**
-     * Create a CompressionStreamVertex with the given parameters.
+     * Store the quantized position computed by quantize() into an array.
      *
-     * @param stream CompressionStream associated with this vertex
-     * @param p position
-     * @param n normal bundled with this vertex or null if not bundled
-     * @param stripFlag CompressionStream.RESTART,
-     * CompressionStream.REPLACE_OLDEST, or CompressionStream.REPLACE_MIDDLE
-     * @param meshFlag CompressionStream.MESH_PUSH or
-     * CompressionStream.NO_MESH_PUSH
+     * @param data array receiving the quantized representation
+     * @param i index of the first element to store
+     * @return index following the last element stored
      */
-    CompressionStreamVertex(CompressionStream stream, Point3f p, Vector3f n,
-			    int stripFlag, int meshFlag) {
-
-	this.stripFlag = stripFlag ;
-	this.meshFlag = meshFlag ;
-	this.floatX = p.x ;
-	this.floatY = p.y ;
-	this.floatZ = p.z ;
+    int saveQuantized(int data[], int i) {
+	data[i++] = X ;
+	data[i++] = Y ;
+	data[i++] = Z ;
+	data[i++] = packLengthShift() ;
+	return i ;
+    }
 
-	stream.byteCount += 12 ;
-	stream.vertexCount++ ;
+    /**
+     * Load a quantized position previously stored by saveQuantized().
+     *
+     * @param data array containing the quantized representation
+     * @param i index of the first element to load
+     * @return index following the last element loaded
+     */
+    int loadQuantized(int data[], int i) {
+	X = data[i++] ;
+	Y = data[i++] ;
+	Z = data[i++] ;
+	unpackLengthShift(data[i++]) ;
+	return i ;
+    }
 
-	if (p.x < stream.mcBounds[0].x) stream.mcBounds[0].x = p.x ;
-	if (p.y < stream.mcBounds[0].y) stream.mcBounds[0].y = p.y ;
-	if (p.z < stream.mcBounds[0].z) stream.mcBounds[0].z = p.z ;
+    /**
+     * Copy the absolute quantized position, color, and normal of another
+     * vertex into this one.  The mesh buffer mirror retains these copies
+     * since the vertex pushed during the quantization pass is reused for
+     * subsequent vertices.
+     *
+     * @param v vertex whose absolute quantized values are copied
+     */
+    void copyAbsolute(CompressionStreamVertex v) {
+	xAbsolute = v.xAbsolute ;
+	yAbsolute = v.yAbsolute ;
+	zAbsolute = v.zAbsolute ;
 
-	if (p.x > stream.mcBounds[1].x) stream.mcBounds[1].x = p.x ;
-	if (p.y > stream.mcBounds[1].y) stream.mcBounds[1].y = p.y ;
-	if (p.z > stream.mcBounds[1].z) stream.mcBounds[1].z = p.z ;
+	if (v.color == null)
+	    color = null ;
+	else {
+	    if (color == null)
+		color = new CompressionStreamColor() ;
+	    color.copyAbsolute(v.color) ;
+	}
 
-	if (stream.vertexNormals)
-	    normal = new CompressionStreamNormal(stream, n) ;
+	if (v.normal == null)
+	    normal = null ;
+	else {
+	    if (normal == null)
+		normal = new CompressionStreamNormal() ;
+	    normal.copyAbsolute(v.normal) ;
+	}
     }
 
     /**
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+
+package org.jogamp.java3d.utils.geometry.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.jogamp.java3d.J3DBuffer;
+import org.jogamp.vecmath.Color4f;
+import org.jogamp.vecmath.Point3f;
+import org.jogamp.vecmath.Vector3f;
+
+/**
+ * Measures the throughput of the compressed geometry decoder.  Only the
+ * decoding of the compressed stream is timed; the decoded vertices are
+ * counted and discarded rather than converted to Shape3D objects.  The
+ * class can be run from the command line:<p>
+ *
+ * <code>java org.jogamp.java3d.utils.geometry.compression.DecompressorBenchmark
+ * [-r repetitions] file.cg ...</code><p>
+ *
+ * and prints the number of vertices decoded per second for each file.
+ *
+ * @see GeometryDecompressor
+ * @see CompressedGeometryFile
+ */
+public class DecompressorBenchmark {
+
+    // Decompressor backend that only counts vertices.
+    private static class CountingDecompressor extends GeometryDecompressor {
+	long vertexCount = 0 ;
+
+	@Override
+	void outputVertexFormat(boolean bundlingNorm,
+				boolean bundlingColor,
+				boolean doingAlpha) {
+	}
+
+	@Override
+	void outputVertex(Point3f position, Vector3f normal,
+			  Color4f color, int vertexReplaceCode) {
+	    vertexCount++ ;
+	}
+
+	@Override
+	void outputColor(Color4f color) {
+	}
+
+	@Override
+	void outputNormal(Vector3f normal) {
+	}
+    }
+
+    private DecompressorBenchmark() {
+    }
+
+    /**
+     * Decode the given compressed geometry objects the specified number of
+     * times and return the number of vertices decoded per second.  The
+     * objects are decoded once beforehand without being timed.  Objects
+     * accessed by reference, such as those read from a memory-mapped
+     * CompressedGeometryFile, are decoded in place from their array or
+     * buffer.
+     *
+     * @param objects the compressed geometry to decode
+     * @param repetitions number of times to decode all the objects
+     * @return the number of vertices decoded per second
+     * @exception IllegalArgumentException if repetitions is less than 1
+     */
+    public static double verticesPerSecond(CompressedGeometryData objects[],
+					   int repetitions) {
+	if (repetitions < 1)
+	    throw new IllegalArgumentException
+		("\nrepetitions must be >= 1") ;
+
+	// Each object's data is a byte array or a ByteBuffer, holding
+	// length bytes of compressed geometry at offset start.
+	Object data[] = new Object[objects.length] ;
+	int start[] = new int[objects.length] ;
+	int length[] = new int[objects.length] ;
+	CompressedGeometryData.Header hdr = new CompressedGeometryData.Header() ;
+	for (int i = 0 ; i < objects.length ; i++) {
+	    length[i] = objects[i].getByteCount() ;
+	    if (!objects[i].isByReference()) {
+		byte copy[] = new byte[length[i]] ;
+		objects[i].getCompressedGeometry(copy) ;
+		data[i] = copy ;
+	    }
+	    else {
+		objects[i].getCompressedGeometryHeader(hdr) ;
+		start[i] = hdr.start ;
+		J3DBuffer buffer = objects[i].getCompressedGeometryBuffer() ;
+		if (buffer != null)
+		    data[i] = buffer.getBuffer() ;
+		else
+		    data[i] = objects[i].getCompressedGeometryRef() ;
+	    }
+	}
+
+	CountingDecompressor decompressor = new CountingDecompressor() ;
+	decode(decompressor, data, start, length) ;
+
+	decompressor.vertexCount = 0 ;
+	long startTime = System.nanoTime() ;
+	for (int r = 0 ; r < repetitions ; r++)
+	    decode(decompressor, data, start, length) ;
+	long endTime = System.nanoTime() ;
+
+	return decompressor.vertexCount / ((endTime - startTime) / 1e9) ;
+    }
+
+    private static void decode(GeometryDecompressor decompressor,
+			       Object data[], int start[], int length[]) {
+	for (int i = 0 ; i < data.length ; i++) {
+	    if (data[i] instanceof ByteBuffer)
+		decompressor.decompress(start[i], length[i],
+					(ByteBuffer)data[i]) ;
+	    else
+		decompressor.decompress(start[i], length[i], (byte[])data[i]) ;
+	}
+    }
+
+    /**
+     * Run the benchmark on the compressed geometry files named on the
+     * command line.
+     *
+     * @param args an optional -r option followed by the number of
+     * repetitions, and the names of one or more compressed geometry files
+     * @exception IOException if a file can't be read
+     */
+    public static void main(String args[]) throws IOException {
+	int repetitions = 10 ;
+	int first = 0 ;
+
+	if (args.length > 1 && args[0].equals("-r")) {
+	    repetitions = Integer.parseInt(args[1]) ;
+	    first = 2 ;
+	}
+
+	if (first == args.length) {
+	    System.err.println("usage: DecompressorBenchmark " +
+			       "[-r repetitions] file.cg ...") ;
+	    return ;
+	}
+
+	for (int i = first ; i < args.length ; i++) {
+	    CompressedGeometryFile file = new CompressedGeometryFile(args[i]) ;
+	    CompressedGeometryData objects[] = file.read() ;
+	    file.close() ;
+
+	    System.out.println(args[i] + ": " + objects.length +
+			       " objects, " +
+			       (long)verticesPerSecond(objects, repetitions) +
+			       " vertices/sec") ;
+	}
+    }
+}
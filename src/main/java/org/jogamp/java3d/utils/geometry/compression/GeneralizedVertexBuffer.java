@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+
+package org.jogamp.java3d.utils.geometry.compression;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.jogamp.java3d.GeometryArray;
+import org.jogamp.java3d.J3DBuffer;
+import org.jogamp.vecmath.Color4f;
+import org.jogamp.vecmath.Point3f;
+import org.jogamp.vecmath.Vector3f;
+
+/**
+ * A GeneralizedVertexList that stores its vertex components directly in
+ * growable direct FloatBuffers instead of creating an object for each
+ * vertex.  The GeometryArray objects it outputs are BY_REFERENCE and
+ * USE_NIO_BUFFER, and reference new direct buffers holding the vertices in
+ * output order.
+ *
+ * @see GeneralizedVertexList
+ * @see GeometryDecompressorShape3D
+ */
+class GeneralizedVertexBuffer extends GeneralizedVertexList {
+
+    // Initial number of vertices the buffers can hold.
+    private static final int INITIAL_SIZE = 256 ;
+
+    // Vertex components, with each buffer's position at the end of its data.
+    private FloatBuffer coords ;
+    private FloatBuffer normals ;
+    private FloatBuffer colors ;
+
+    // Number of floats in each color.
+    private int colorSize ;
+
+    // The flag of each vertex.
+    private int flags[] ;
+    private int size ;
+
+    /**
+     * Creates a new GeneralizedVertexBuffer for the specified vertex format.
+     * @param vertexFormat a mask indicating which components are
+     * present in each vertex, as used by GeometryArray.
+     * @param frontFace a flag, either GeneralizedStripFlags.FRONTFACE_CW or
+     * GeneralizedStripFlags.FRONTFACE_CCW, indicating front face winding
+     * @see GeometryArray
+     */
+    GeneralizedVertexBuffer(int vertexFormat, int frontFace) {
+	super(vertexFormat, frontFace) ;
+
+	if ((vertexFormat & GeometryArray.COLOR_4) == GeometryArray.COLOR_4)
+	    colorSize = 4 ;
+	else if ((vertexFormat & GeometryArray.COLOR_3) ==
+		 GeometryArray.COLOR_3)
+	    colorSize = 3 ;
+	else
+	    colorSize = 0 ;
+
+	coords = newBuffer(INITIAL_SIZE * 3) ;
+	if ((vertexFormat & GeometryArray.NORMALS) != 0)
+	    normals = newBuffer(INITIAL_SIZE * 3) ;
+	if (colorSize != 0)
+	    colors = newBuffer(INITIAL_SIZE * colorSize) ;
+
+	flags = new int[INITIAL_SIZE] ;
+	size = 0 ;
+    }
+
+    /**
+     * Append the components of a vertex to the buffers.
+     */
+    @Override
+    void addVertex(Point3f pos, Vector3f norm, Color4f color, int flag) {
+	if (size == flags.length)
+	    grow() ;
+
+	coords.put(pos.x).put(pos.y).put(pos.z) ;
+
+	if (normals != null)
+	    normals.put(norm.x).put(norm.y).put(norm.z) ;
+
+	if (colorSize != 0) {
+	    colors.put(color.x).put(color.y).put(color.z) ;
+	    if (colorSize == 4)
+		colors.put(color.w) ;
+	}
+
+	flags[size++] = flag ;
+    }
+
+    /**
+     * Return the number of vertices in this list.
+     */
+    @Override
+    int size() {
+	return size ;
+    }
+
+    // GeneralizedStripFlags interface implementation
+    @Override
+    public int getFlagCount() {
+	return size ;
+    }
+
+    // GeneralizedStripFlags interface implementation
+    @Override
+    public int getFlag(int index) {
+	return flags[index] ;
+    }
+
+    /**
+     * Return the vertex format of the GeometryArray objects output by this
+     * list.
+     */
+    @Override
+    int geometryFormat() {
+	return vertexFormat |
+	    GeometryArray.BY_REFERENCE | GeometryArray.USE_NIO_BUFFER ;
+    }
+
+    // Gather the vertices in the given order into new direct buffers and
+    // set them as the references of the GeometryArray.
+    @Override
+    void copyVertexData(GeometryArray ga,
+			GeneralizedStrip.IntList indices) {
+
+	ga.setCoordRefBuffer(new J3DBuffer(gather(coords, 3, indices))) ;
+
+	if (normals != null)
+	    ga.setNormalRefBuffer
+		(new J3DBuffer(gather(normals, 3, indices))) ;
+
+	if (colorSize != 0)
+	    ga.setColorRefBuffer
+		(new J3DBuffer(gather(colors, colorSize, indices))) ;
+    }
+
+    //
+    // Return a new direct buffer in native byte order, as required by
+    // J3DBuffer, holding the given number of floats.
+    //
+    private static FloatBuffer newBuffer(int floatCount) {
+	return ByteBuffer.allocateDirect(floatCount * 4)
+	    .order(ByteOrder.nativeOrder()).asFloatBuffer() ;
+    }
+
+    //
+    // Return a new buffer with the elements of the given size at the
+    // specified indices of the source buffer.
+    //
+    private static FloatBuffer gather(FloatBuffer src, int elementSize,
+				      GeneralizedStrip.IntList indices) {
+
+	FloatBuffer dst = newBuffer(indices.count * elementSize) ;
+	int ints[] = indices.ints ;
+
+	if (elementSize == 3) {
+	    for (int i = 0 ; i < indices.count ; i++) {
+		int j = ints[i] * 3 ;
+		dst.put(src.get(j)).put(src.get(j+1)).put(src.get(j+2)) ;
+	    }
+	}
+	else {
+	    for (int i = 0 ; i < indices.count ; i++) {
+		int j = ints[i] * elementSize ;
+		for (int k = 0 ; k < elementSize ; k++)
+		    dst.put(src.get(j+k)) ;
+	    }
+	}
+
+	dst.rewind() ;
+	return dst ;
+    }
+
+    //
+    // Double the capacity of the flags array and the component buffers.
+    //
+    private void grow() {
+	int newFlags[] = new int[2*flags.length] ;
+	System.arraycopy(flags, 0, newFlags, 0, size) ;
+	flags = newFlags ;
+
+	coords = grow(coords) ;
+	if (normals != null)
+	    normals = grow(normals) ;
+	if (colorSize != 0)
+	    colors = grow(colors) ;
+    }
+
+    private static FloatBuffer grow(FloatBuffer buffer) {
+	FloatBuffer newBuffer = newBuffer(2*buffer.capacity()) ;
+	buffer.flip() ;
+	newBuffer.put(buffer) ;
+	return newBuffer ;
+    }
+}
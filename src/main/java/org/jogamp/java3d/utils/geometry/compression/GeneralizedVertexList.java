@@ -202,11 +202,19 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 	return ((Vertex)vertices.get(index)).flag ;
     }
 
+    /**
+     * Return the vertex format of the GeometryArray objects output by this
+     * list.
+     */
+    int geometryFormat() {
+	return vertexFormat ;
+    }
+
     // Copy vertices in the given order to a fixed-length GeometryArray.
     // Using the array versions of the GeometryArray set() methods results in
     // a significant performance improvement despite needing to create
     // fixed-length arrays to hold the vertex elements.
-    private void copyVertexData(GeometryArray ga,
+    void copyVertexData(GeometryArray ga,
 				GeneralizedStrip.IntList indices) {
 	Vertex v ;
 	Point3f p3f[] = new Point3f[indices.count] ;
@@ -275,10 +283,10 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
      * Output a PointArray.
      */
     PointArray toPointArray() {
-	int size = vertices.size() ;
+	int size = size() ;
 
 	if (size > 0) {
-	    PointArray pa = new PointArray(size, vertexFormat) ;
+	    PointArray pa = new PointArray(size, geometryFormat()) ;
 	    GeneralizedStrip.IntList il = new GeneralizedStrip.IntList(size) ;
 
 	    il.fillAscending() ;
@@ -301,7 +309,7 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 	    TriangleArray ta ;
 	    GeneralizedStrip.IntList il ;
 
-	    ta = new TriangleArray(vertices.length, vertexFormat) ;
+	    ta = new TriangleArray(vertices.length, geometryFormat()) ;
 	    il = new GeneralizedStrip.IntList(vertices) ;
 	    copyVertexData(ta, il) ;
 
@@ -322,7 +330,7 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 	if (stripArray != null) {
 	    LineStripArray lsa ;
 	    lsa = new LineStripArray(stripArray.vertices.count,
-				     vertexFormat,
+				     geometryFormat(),
 				     stripArray.stripCounts.trim()) ;
 
 	    copyVertexData(lsa, stripArray.vertices) ;
@@ -344,7 +352,7 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 	if (stripArray != null) {
 	    TriangleStripArray tsa ;
 	    tsa = new TriangleStripArray(stripArray.vertices.count,
-					 vertexFormat,
+					 geometryFormat(),
 					 stripArray.stripCounts.trim()) ;
 
 	    copyVertexData(tsa, stripArray.vertices) ;
@@ -370,7 +378,7 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 
 	if (stripArray[0] != null) {
 	    gsa[0] = new TriangleStripArray(stripArray[0].vertices.count,
-					    vertexFormat,
+					    geometryFormat(),
 					    stripArray[0].stripCounts.trim()) ;
 
 	    copyVertexData(gsa[0], stripArray[0].vertices) ;
@@ -381,7 +389,7 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 
 	if (stripArray[1] != null) {
 	    gsa[1] = new TriangleFanArray(stripArray[1].vertices.count,
-					  vertexFormat,
+					  geometryFormat(),
 					  stripArray[1].stripCounts.trim()) ;
 
 	    copyVertexData(gsa[1], stripArray[1].vertices) ;
@@ -406,7 +414,7 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 
 	if (stripArray[0] != null) {
 	    ga[0] = new TriangleStripArray(stripArray[0].vertices.count,
-					   vertexFormat,
+					   geometryFormat(),
 					   stripArray[0].stripCounts.trim()) ;
 
 	    copyVertexData(ga[0], stripArray[0].vertices) ;
@@ -417,7 +425,7 @@ class GeneralizedVertexList implements GeneralizedStripFlags {
 
 	if (stripArray[1] != null) {
 	    ga[1] = new TriangleArray(stripArray[1].vertices.count,
-				      vertexFormat) ;
+				      geometryFormat()) ;
 
 	    copyVertexData(ga[1], stripArray[1].vertices) ;
 	    triangleCount += stripArray[1].vertices.count/3 ;
@@ -40,6 +40,12 @@
 package org.jogamp.java3d.utils.geometry.compression;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.jogamp.vecmath.Point3d;
 
@@ -49,7 +55,15 @@ import org.jogamp.vecmath.Point3d;
  * compresses it into a stream of commands as defined by appendix B
  * of the Java 3D specification.  The resulting data may be output
  * in the form of a CompressedGeometryData node component or appended
- * to a CompressedGeometryFile.
+ * to a CompressedGeometryFile.<p>
+ *
+ * Several streams can be compressed with a single call.  If an
+ * ExecutorService is set with setExecutorService(), they are compressed at
+ * the same time.  Each stream is quantized and Huffman encoded on its own,
+ * so the results are identical to compressing the streams one at a time and
+ * are always returned or written in the order of the streams.  Very large
+ * geometry can be split into spatial chunks by creating one
+ * CompressionStream for each group of shapes.
  *
  * @see CompressionStream
  * @see CompressedGeometryData
@@ -66,6 +80,8 @@ public class GeometryCompressor {
     private CommandStream outputBuffer ;
     private CompressedGeometryData.Header cgHeader ;
     private long startTime ;
+    private long elapsedTime ;
+    private ExecutorService executor = null ;
 
     public GeometryCompressor() {
 	// Create a compressed geometry header.
@@ -90,6 +106,7 @@ public class GeometryCompressor {
 	CompressedGeometryData cg ;
 
 	compressStream(stream) ;
+	endStream(stream) ;
 	cg = new CompressedGeometryData(cgHeader, outputBuffer.getBytes()) ;
 
 	outputBuffer.clear() ;
@@ -109,11 +126,179 @@ public class GeometryCompressor {
 	throws IOException {
 
 	compressStream(stream) ;
+	endStream(stream) ;
 	f.write(cgHeader, outputBuffer.getBytes()) ;
 
 	outputBuffer.clear() ;
     }
 
+    /**
+     * Compress several streams into CompressedGeometryData node components.
+     * If an executor was set with setExecutorService(), the streams are
+     * compressed at the same time; otherwise they are compressed one at a
+     * time on the calling thread.  The results are the same either way.
+     *
+     * @param streams distinct CompressionStreams containing the geometry to
+     * be compressed
+     * @return a CompressedGeometryData node component for each stream, in
+     * the same order as the streams
+     */
+    public CompressedGeometryData[] compress(CompressionStream[] streams) {
+	CompressedGeometryData cg[] =
+	    new CompressedGeometryData[streams.length] ;
+
+	if (executor == null || streams.length < 2) {
+	    for (int i = 0 ; i < streams.length ; i++)
+		cg[i] = compress(streams[i]) ;
+	    return cg ;
+	}
+
+	List<Future<GeometryCompressor>> results = submit(streams) ;
+	try {
+	    for (int i = 0 ; i < streams.length ; i++) {
+		GeometryCompressor gc = getResult(results, i) ;
+		gc.endStream(streams[i]) ;
+		cg[i] = new CompressedGeometryData
+		    (gc.cgHeader, gc.outputBuffer.getBytes()) ;
+	    }
+	}
+	finally {
+	    cancel(results) ;
+	}
+	return cg ;
+    }
+
+    /**
+     * Compress several streams and append the output to a
+     * CompressedGeometryFile.  If an executor was set with
+     * setExecutorService(), the streams are compressed at the same time;
+     * otherwise they are compressed one at a time on the calling thread.
+     * Either way the objects are written by the calling thread in the same
+     * order as the streams, each as soon as it and all the preceding ones
+     * are done, so the file is identical to one written by calling
+     * compress(CompressionStream, CompressedGeometryFile) for each stream.
+     * The resource remains open for subsequent updates; its close() method
+     * must be called to create a valid compressed geometry resource file.
+     *
+     * @param streams distinct CompressionStreams containing the geometry to
+     * be compressed
+     * @param f a currently open CompressedGeometryFile with write access
+     * @exception IOException if write fails
+     */
+    public void compress(CompressionStream[] streams, CompressedGeometryFile f)
+	throws IOException {
+
+	if (executor == null || streams.length < 2) {
+	    for (int i = 0 ; i < streams.length ; i++)
+		compress(streams[i], f) ;
+	    return ;
+	}
+
+	List<Future<GeometryCompressor>> results = submit(streams) ;
+	try {
+	    for (int i = 0 ; i < streams.length ; i++) {
+		GeometryCompressor gc = getResult(results, i) ;
+		gc.endStream(streams[i]) ;
+		f.write(gc.cgHeader, gc.outputBuffer.getBytes()) ;
+	    }
+	}
+	finally {
+	    cancel(results) ;
+	}
+    }
+
+    /**
+     * Sets the ExecutorService used to compress the streams passed to
+     * compress(CompressionStream[]) and
+     * compress(CompressionStream[], CompressedGeometryFile) at the same
+     * time.  The GeometryCompressor does not shut the executor down.
+     *
+     * @param executor the executor to use, or null (the default) to compress
+     * every stream on the calling thread
+     */
+    public void setExecutorService(ExecutorService executor) {
+	this.executor = executor ;
+    }
+
+    /**
+     * Returns the ExecutorService used to compress several streams at the
+     * same time, or null if they are compressed on the calling thread.
+     *
+     * @return the executor, or null
+     * @see #setExecutorService(ExecutorService)
+     */
+    public ExecutorService getExecutorService() {
+	return executor ;
+    }
+
+    //
+    // Submit a task compressing each stream with its own GeometryCompressor,
+    // since a compressor holds the Huffman table, output buffer, and header
+    // of the stream it is working on.
+    //
+    private List<Future<GeometryCompressor>>
+	submit(CompressionStream[] streams) {
+
+	List<Future<GeometryCompressor>> results =
+	    new ArrayList<Future<GeometryCompressor>>(streams.length) ;
+
+	try {
+	    for (int i = 0 ; i < streams.length ; i++) {
+		final CompressionStream stream = streams[i] ;
+		results.add(executor.submit(new Callable<GeometryCompressor>() {
+		    @Override
+		    public GeometryCompressor call() {
+			GeometryCompressor gc = new GeometryCompressor() ;
+			gc.compressStream(stream) ;
+			return gc ;
+		    }
+		})) ;
+	    }
+	}
+	catch (RuntimeException e) {
+	    cancel(results) ;
+	    throw e ;
+	}
+	return results ;
+    }
+
+    //
+    // Wait for the i-th stream to be compressed and release its result.
+    // Exceptions thrown by the task are passed on to the caller.
+    //
+    private static GeometryCompressor
+	getResult(List<Future<GeometryCompressor>> results, int i) {
+
+	try {
+	    GeometryCompressor gc = results.get(i).get() ;
+	    results.set(i, null) ;
+	    return gc ;
+	}
+	catch (InterruptedException e) {
+	    Thread.currentThread().interrupt() ;
+	    throw new RuntimeException(e) ;
+	}
+	catch (ExecutionException e) {
+	    Throwable cause = e.getCause() ;
+	    if (cause instanceof RuntimeException)
+		throw (RuntimeException)cause ;
+	    if (cause instanceof Error)
+		throw (Error)cause ;
+	    throw new RuntimeException(cause) ;
+	}
+    }
+
+    //
+    // Cancel any tasks whose results have not been retrieved.
+    //
+    private static void cancel(List<Future<GeometryCompressor>> results) {
+	for (int i = 0 ; i < results.size() ; i++) {
+	    Future<GeometryCompressor> f = results.get(i) ;
+	    if (f != null)
+		f.cancel(true) ;
+	}
+    }
+
     //
     // Compress the stream and put the results in the output buffer.
     // Set up the CompressedGeometryData.Header object.
@@ -135,10 +320,7 @@ public class GeometryCompressor {
 	outputBuffer = new CommandStream(stream.getByteCount() / 3) ;
 	stream.outputCommands(huffmanTable, outputBuffer) ;
 
-	// Print any desired info.
-	if (benchmark) printBench(stream) ;
-	if (printStream) stream.print() ;
-	if (printHuffman) huffmanTable.print() ;
+	if (benchmark) elapsedTime = System.currentTimeMillis() - startTime ;
 
 	// Set up the compressed geometry header object.
 	cgHeader.bufferType = stream.streamType ;
@@ -160,13 +342,24 @@ public class GeometryCompressor {
 
 	cgHeader.start = 0 ;
 	cgHeader.size = outputBuffer.getByteCount() ;
+    }
+
+    //
+    // Print any desired info about the compressed stream, then clear the
+    // huffman table for next use.  Called on the calling thread in stream
+    // order after compressStream(), so output from streams compressed at
+    // the same time is not interleaved.
+    //
+    private void endStream(CompressionStream stream) {
+	if (benchmark) printBench(stream) ;
+	if (printStream) stream.print() ;
+	if (printHuffman) huffmanTable.print() ;
 
-	// Clear the huffman table for next use.
 	huffmanTable.clear() ;
     }
 
     private void printBench(CompressionStream stream) {
-	long t = System.currentTimeMillis() - startTime ;
+	long t = elapsedTime ;
 	int vertexCount = stream.getVertexCount() ;
 	int meshReferenceCount = stream.getMeshReferenceCount() ;
 	int totalVertices = meshReferenceCount + vertexCount ;
@@ -39,6 +39,9 @@
 
 package org.jogamp.java3d.utils.geometry.compression;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import org.jogamp.java3d.CompressedGeometryHeader;
 import org.jogamp.vecmath.Color4f;
 import org.jogamp.vecmath.Point3f;
@@ -125,6 +128,21 @@ abstract class GeometryDecompressor {
     private static final int GC_V_NO_OP      = 0x01 ;
     private static final int GC_SKIP_8       = 0x07 ;
 
+    // Opcode dispatch table, indexed by the full 8-bit header.  This
+    // replaces a chain of mask and compare tests for each opcode.
+    private static final byte OPCODES[] = new byte[256] ;
+    private static final byte OP_UNUSED       = 0 ;
+    private static final byte OP_SET_NORM     = 1 ;
+    private static final byte OP_SET_COLOR    = 2 ;
+    private static final byte OP_VERTEX       = 3 ;
+    private static final byte OP_MESH_B_R     = 4 ;
+    private static final byte OP_SET_STATE    = 5 ;
+    private static final byte OP_SET_TABLE    = 6 ;
+    private static final byte OP_EOS          = 7 ;
+    private static final byte OP_V_NO_OP      = 8 ;
+    private static final byte OP_PASS_THROUGH = 9 ;
+    private static final byte OP_SKIP_8       = 10 ;
+
     // Three 64-entry decompression tables are used: gctables[0] for
     // positions, gctables[1] for colors, and gctables[2] for normals.
     private HuffmanTableEntry gctables[][] ;
@@ -136,6 +154,10 @@ abstract class GeometryDecompressor {
 	int tagLength, dataLength ;
 	int rightShift, absolute ;
 
+	// Derived when the entry is set: the number of data bits following
+	// the tag in the 6-bit header, and the true length of each component.
+	int headerBits = 6, fieldLength ;
+
 	@Override
 	public String toString() {
 	    return
@@ -181,10 +203,11 @@ abstract class GeometryDecompressor {
     private boolean bundlingColor ;
     private boolean doingAlpha ;
 
-    // Internal decompression buffering variables.
+    // Internal decompression buffering variables.  The low-order
+    // bitBufferCount bits of bitBuffer are the next bits of the stream.
     private int currentHeader = 0 ;
     private int nextHeader = 0 ;
-    private int bitBuffer = 0 ;
+    private long bitBuffer = 0 ;
     private int bitBufferCount = 32 ;
 
     // Used for benchmarking if so configured.
@@ -204,8 +227,10 @@ abstract class GeometryDecompressor {
 	0xFFFFFFFF,
     } ;
 
-    // A reference to the compressed data and the current offset.
+    // A reference to the compressed data and the current offset.  The data
+    // is either in an array or, if gcBuffer is not null, in an NIO buffer.
     private byte gcData[] ;
+    private ByteBuffer gcBuffer ;
     private int gcIndex ;
 
     // The normals table for decoding 6-bit [u,v] spherical sextant coordinates.
@@ -266,6 +291,31 @@ abstract class GeometryDecompressor {
 	    }
 	    System.out.println("}") ;
 	}
+
+	for (i = 0 ; i < 256 ; i++) {
+	    if ((i & 0xC0) == GC_SET_NORM)
+		OPCODES[i] = OP_SET_NORM ;
+	    else if ((i & 0xC0) == GC_SET_COLOR)
+		OPCODES[i] = OP_SET_COLOR ;
+	    else if ((i & 0xC0) == GC_VERTEX)
+		OPCODES[i] = OP_VERTEX ;
+	    else if ((i & 0xE0) == GC_MESH_B_R)
+		OPCODES[i] = OP_MESH_B_R ;
+	    else if ((i & 0xF8) == GC_SET_STATE)
+		OPCODES[i] = OP_SET_STATE ;
+	    else if ((i & 0xF8) == GC_SET_TABLE)
+		OPCODES[i] = OP_SET_TABLE ;
+	    else if (i == GC_EOS)
+		OPCODES[i] = OP_EOS ;
+	    else if (i == GC_V_NO_OP)
+		OPCODES[i] = OP_V_NO_OP ;
+	    else if (i == GC_PASS_THROUGH)
+		OPCODES[i] = OP_PASS_THROUGH ;
+	    else if (i == GC_SKIP_8)
+		OPCODES[i] = OP_SKIP_8 ;
+	    else
+		OPCODES[i] = OP_UNUSED ;
+	}
     }
 
     //
@@ -319,8 +369,54 @@ abstract class GeometryDecompressor {
 	    throw new ArrayIndexOutOfBoundsException
 		(J3dUtilsI18N.getString("GeometryDecompressor0")) ;
 
-	// Set reference to compressed data and skip to start of data.
+	// Set reference to compressed data.
 	gcData = data ;
+	gcBuffer = null ;
+	decompress(start, length) ;
+	gcData = null ;
+
+	if (benchmark)
+	    benchmarkPrint(length) ;
+    }
+
+    /**
+     * Decompress data from an NIO buffer and invoke abstract output methods.
+     * The buffer is read with absolute gets, so its position, limit, and
+     * byte order are neither used nor changed.
+     *
+     * @param start byte offset to start of compressed geometry in buffer
+     * @param length size of compressed geometry in bytes
+     * @param data buffer containing compressed geometry of the specified
+     * length at the given offset from the start of the buffer
+     * @exception ArrayIndexOutOfBoundsException if start+length > data limit
+     */
+    void decompress(int start, int length, ByteBuffer data) {
+	if (debug)
+	    System.out.println("GeometryDecompressor.decompress\n" +
+			       " start: " + start +
+			       " length: " + length +
+			       " data buffer limit: " + data.limit()) ;
+	if (benchmark)
+	    benchmarkStart(length) ;
+
+	if (start+length > data.limit())
+	    throw new ArrayIndexOutOfBoundsException
+		(J3dUtilsI18N.getString("GeometryDecompressor0")) ;
+
+	// Compressed geometry is big-endian whatever the buffer's byte order.
+	gcData = null ;
+	gcBuffer = data.duplicate().order(ByteOrder.BIG_ENDIAN) ;
+	decompress(start, length) ;
+	gcBuffer = null ;
+
+	if (benchmark)
+	    benchmarkPrint(length) ;
+    }
+
+    //
+    // Decompress length bytes of the current data starting at start.
+    //
+    private void decompress(int start, int length) {
 	gcIndex = start ;
 
 	// Initialize state.
@@ -342,13 +438,30 @@ abstract class GeometryDecompressor {
 	// Finish out any bits left in bitBuffer.
 	while (bitBufferCount > 0)
 	    processDecompression() ;
+    }
 
-	if (benchmark)
-	    benchmarkPrint(length) ;
+    //
+    // Return the next 32 bits of compressed data.
+    //
+    private int nextWord() {
+	int word ;
+
+	if (gcBuffer != null)
+	    word = gcBuffer.getInt(gcIndex) ;
+	else
+	    word = (((gcData[gcIndex+0] & 0xff) << 24) |
+		    ((gcData[gcIndex+1] & 0xff) << 16) |
+		    ((gcData[gcIndex+2] & 0xff) <<  8) |
+		    ((gcData[gcIndex+3] & 0xff))) ;
+
+	gcIndex += 4 ;
+	return word ;
     }
 
     //
-    // Return the next bitCount bits of compressed data.
+    // Return the next bitCount bits of compressed data, up to 32.  A word
+    // is read only when the buffered bits run out, as they are consumed
+    // in the same order as the original bit-at-a-time implementation.
     //
     private int getBits(int bitCount, String d) {
 	int bits ;
@@ -363,36 +476,13 @@ abstract class GeometryDecompressor {
 	    return 0 ;
 	}
 
-	if (bitBufferCount == 0) {
-	    bitBuffer = (((gcData[gcIndex++] & 0xff) << 24) |
-			 ((gcData[gcIndex++] & 0xff) << 16) |
-			 ((gcData[gcIndex++] & 0xff) <<  8) |
-			 ((gcData[gcIndex++] & 0xff))) ;
-
-	    bitBufferCount = 32 ;
+	if (bitBufferCount < bitCount) {
+	    bitBuffer = (bitBuffer << 32) | (nextWord() & 0xFFFFFFFFL) ;
+	    bitBufferCount += 32 ;
 	}
 
-	if (bitBufferCount >= bitCount) {
-	    bits = (bitBuffer >>> (32 - bitCount)) & BMASK[bitCount] ;
-	    bitBuffer = bitBuffer << bitCount ;
-	    bitBufferCount -= bitCount ;
-	} else {
-	    bits = (bitBuffer >>> (32 - bitCount)) & BMASK[bitCount] ;
-	    bits = bits >>> (bitCount - bitBufferCount) ;
-	    bits = bits  << (bitCount - bitBufferCount) ;
-
-	    bitBuffer = (((gcData[gcIndex++] & 0xff) << 24) |
-			 ((gcData[gcIndex++] & 0xff) << 16) |
-			 ((gcData[gcIndex++] & 0xff) <<  8) |
-			 ((gcData[gcIndex++] & 0xff))) ;
-
-	    bits = bits |
-		((bitBuffer >>> (32 - (bitCount - bitBufferCount))) &
-		 BMASK[bitCount - bitBufferCount]) ;
-
-	    bitBuffer = bitBuffer << (bitCount - bitBufferCount) ;
-	    bitBufferCount = 32 - (bitCount - bitBufferCount) ;
-	}
+	bitBufferCount -= bitCount ;
+	bits = (int)(bitBuffer >>> bitBufferCount) & BMASK[bitCount] ;
 
 	if (debug)
 	    System.out.println(": got 0x" + Integer.toHexString(bits)) ;
@@ -400,6 +490,39 @@ abstract class GeometryDecompressor {
 	return bits ;
     }
 
+    //
+    // Return fieldCount consecutive fields of fieldLength bits each,
+    // packed into a long with the first field in the most significant
+    // position.  The first headerBits bits are the data bits of the current
+    // header and the rest are read from the stream with at most two
+    // getBits() calls.  If the header holds more bits than the fields need,
+    // the extra low-order header bits are ignored.
+    //
+    private long getFields(int fieldCount, int fieldLength,
+			   int headerBits, String d) {
+
+	long fields = currentHeader & BMASK[headerBits] ;
+	int streamBits = fieldCount*fieldLength - headerBits ;
+
+	if (streamBits <= 0)
+	    return fields >>> -streamBits ;
+
+	if (streamBits > 32) {
+	    fields = (fields << 32) | (getBits(32, d) & 0xFFFFFFFFL) ;
+	    streamBits -= 32 ;
+	}
+	return (fields << streamBits) | (getBits(streamBits, d) & 0xFFFFFFFFL) ;
+    }
+
+    //
+    // Return the sign extended field at the given position, counting from
+    // the last, of fields packed by getFields().
+    //
+    private static int field(long fields, int position, int fieldLength) {
+	int f = (int)(fields >>> (position * fieldLength)) ;
+	return (f << (32 - fieldLength)) >> (32 - fieldLength) ;
+    }
+
     //
     // Shuffle interleaved headers and opcodes.
     //
@@ -472,15 +595,18 @@ abstract class GeometryDecompressor {
     // processing method.
     //
     private int processDecompressionOpcode(int mbp) {
-	if ((currentHeader & 0xC0) == GC_SET_NORM)
+	switch (OPCODES[currentHeader & 0xFF]) {
+	  case OP_SET_NORM:
 	    processSetNormal(mbp) ;
-	else if ((currentHeader & 0xC0) == GC_SET_COLOR)
+	    break ;
+	  case OP_SET_COLOR:
 	    processSetColor(mbp) ;
-	else if ((currentHeader & 0xC0) == GC_VERTEX)
+	    break ;
+	  case OP_VERTEX:
 	    // Return the state of the mesh buffer push bit
 	    // when processing a vertex.
 	    return processVertex() ;
-	else if ((currentHeader & 0xE0) == GC_MESH_B_R) {
+	  case OP_MESH_B_R:
 	    processMeshBR() ;
 
 	    // Send out the complete vertex.
@@ -492,19 +618,26 @@ abstract class GeometryDecompressor {
 	    // reference should use.
 	    meshState |= USE_MESH_NORMAL ;
 	    meshState |= USE_MESH_COLOR ;
-	}
-	else if ((currentHeader & 0xF8) == GC_SET_STATE)
+	    break ;
+	  case OP_SET_STATE:
 	    processSetState() ;
-	else if ((currentHeader & 0xF8) == GC_SET_TABLE)
+	    break ;
+	  case OP_SET_TABLE:
 	    processSetTable() ;
-	else if ((currentHeader & 0xFF) == GC_EOS)
+	    break ;
+	  case OP_EOS:
 	    processEos() ;
-	else if ((currentHeader & 0xFF) == GC_V_NO_OP)
+	    break ;
+	  case OP_V_NO_OP:
 	    processVNoop() ;
-	else if ((currentHeader & 0xFF) == GC_PASS_THROUGH)
+	    break ;
+	  case OP_PASS_THROUGH:
 	    processPassThrough() ;
-	else if ((currentHeader & 0xFF) == GC_SKIP_8)
+	    break ;
+	  case OP_SKIP_8:
 	    processSkip8() ;
+	    break ;
+	}
 
 	return 0 ;
     }
@@ -591,6 +724,8 @@ abstract class GeometryDecompressor {
 	    gct[adr+i].dataLength = dataLength ;
 	    gct[adr+i].rightShift = rightShift ;
 	    gct[adr+i].absolute = absolute ;
+	    gct[adr+i].headerBits = 6 - tagLength ;
+	    gct[adr+i].fieldLength = dataLength - rightShift ;
 	}
     }
 
@@ -605,6 +740,7 @@ abstract class GeometryDecompressor {
 	short dx, dy, dz ;
 	int mbp, x, y, z, dataLen ;
 	int ii ;
+	long xyz ;
 
 	// If the next command is a mesh buffer reference
 	// then use colors and normals from the mesh buffer.
@@ -617,12 +753,13 @@ abstract class GeometryDecompressor {
 				      gct.toString()) ;
 
 	// Get the true length of the data.
-	dataLen = gct.dataLength - gct.rightShift ;
+	dataLen = gct.fieldLength ;
 
-	// Read in the replace code and mesh buffer push bits,
-	// if they're not in the current header.
-	if (6 - (3 * dataLen) - gct.tagLength > 0) {
-	    int numBits = 6 - (3 * dataLen) - gct.tagLength ;
+	// Read in the replace code and mesh buffer push bits, which follow
+	// the x, y, and z components if they fit in the current header and
+	// precede the remaining component bits in the stream otherwise.
+	if (gct.headerBits > 3 * dataLen) {
+	    int numBits = gct.headerBits - 3 * dataLen ;
 	    int jj ;
 
 	    jj = currentHeader & BMASK[numBits] ;
@@ -635,46 +772,11 @@ abstract class GeometryDecompressor {
 	repCode = ii >>> 1 ;
 	mbp = ii & 0x1 ;
 
-	// Read in x, y, and z components.
-	x = currentHeader & BMASK[6-gct.tagLength] ;
-
-	if (gct.tagLength + dataLen == 6) {
-	    y = getBits(dataLen, "y") ;
-	    z = getBits(dataLen, "z") ;
-	} else if (gct.tagLength + dataLen <  6) {
-	    x = x >> (6 - gct.tagLength - dataLen) ;
-
-	    y = currentHeader & BMASK[6 - gct.tagLength - dataLen] ;
-	    if (gct.tagLength + 2*dataLen == 6) {
-		z = getBits(dataLen, "z") ;
-	    } else if (gct.tagLength + 2*dataLen <  6) {
-		y = y >> (6 - gct.tagLength - 2*dataLen) ;
-
-		z = currentHeader & BMASK[6 - gct.tagLength - 2*dataLen] ;
-		if (gct.tagLength + 3*dataLen <  6) {
-		    z = z >> (6 - gct.tagLength - 3*dataLen) ;
-		} else if (gct.tagLength + 3*dataLen >  6) {
-		    ii = getBits(dataLen - (6 - gct.tagLength - 2*dataLen),
-				 "z") ;
-		    z = (z << (dataLen - (6 - gct.tagLength - 2*dataLen)))
-			| ii ;
-		}
-	    } else {
-		ii = getBits(dataLen - (6 - gct.tagLength - dataLen), "y") ;
-		y = (y << (dataLen - (6 - gct.tagLength - dataLen))) | ii ;
-		z = getBits(dataLen, "z") ;
-	    }
-	} else {
-	    ii = getBits(dataLen - (6 - gct.tagLength), "x") ;
-	    x = (x << (dataLen - (6 - gct.tagLength))) | ii ;
-	    y = getBits(dataLen, "y") ;
-	    z = getBits(dataLen, "z") ;
-	}
-
-	// Sign extend delta x y z components.
-	x = x << (32 - dataLen) ; x = x >> (32 - dataLen) ;
-	y = y << (32 - dataLen) ; y = y >> (32 - dataLen) ;
-	z = z << (32 - dataLen) ; z = z >> (32 - dataLen) ;
+	// Read in and sign extend the x, y, and z components.
+	xyz = getFields(3, dataLen, gct.headerBits, "xyz") ;
+	x = field(xyz, 2, dataLen) ;
+	y = field(xyz, 1, dataLen) ;
+	z = field(xyz, 0, dataLen) ;
 
 	// Normalize values.
 	dx = (short)(x << gct.rightShift) ;
@@ -722,7 +824,7 @@ abstract class GeometryDecompressor {
     private void processSetNormal(int mbp) {
 	HuffmanTableEntry gct ;
 	int index, du, dv, n, dataLength ;
-	int ii ;
+	long uv ;
 
 	// if next command is a mesh buffer reference, use this normal
 	meshState &= ~USE_MESH_NORMAL ;
@@ -735,23 +837,19 @@ abstract class GeometryDecompressor {
 			       gct.toString()) ;
 
 	// subtract up-shift amount to get true data (u, v) length
-	dataLength = gct.dataLength - gct.rightShift ;
+	dataLength = gct.fieldLength ;
 
 	if (gct.absolute != 0) {
 	    //
-	    // Absolute normal case.  Extract index from 6-bit tag.
+	    // Absolute normal case.  Extract index from 6-bit tag and read in
+	    // the rest of the 6-bit sex/oct pair.
 	    //
-	    index = currentHeader & BMASK[6-gct.tagLength] ;
-
-	    if (gct.tagLength != 0) {
-		// read in the rest of the 6-bit sex/oct pair (index)
-		ii = getBits(6 - (6 - gct.tagLength), "sex/oct") ;
-		index = (index << (6 - (6 - gct.tagLength))) | ii ;
-	    }
+	    index = (int)getFields(1, 6, gct.headerBits, "sex/oct") ;
 
 	    // read in u and v data
-	    curU = getBits(dataLength, "u") ;
-	    curV = getBits(dataLength, "v") ;
+	    uv = getFields(2, dataLength, 0, "uv") ;
+	    curU = (int)(uv >>> dataLength) & BMASK[dataLength] ;
+	    curV = (int)uv & BMASK[dataLength] ;
 
 	    // normalize u, v, sextant, and octant
 	    curU = curU << gct.rightShift ;
@@ -771,39 +869,12 @@ abstract class GeometryDecompressor {
 	    }
 	} else {
 	    //
-	    // Relative normal case.  Extract du from 6-bit tag.
+	    // Relative normal case.  Extract du and dv from the 6-bit tag and
+	    // the stream, and sign extend them.
 	    //
-	    du = currentHeader & BMASK[6-gct.tagLength] ;
-
-	    if (gct.tagLength + dataLength < 6) {
-		// normalize du, get dv
-		du = du >> (6 - gct.tagLength - dataLength) ;
-		dv = currentHeader & BMASK[6 - gct.tagLength - dataLength] ;
-
-		if (gct.tagLength + 2*dataLength <  6) {
-		    // normalize dv
-		    dv = dv >> (6 - gct.tagLength - 2*dataLength) ;
-		} else if (gct.tagLength + 2*dataLength >  6) {
-		    // read in rest of dv and normalize it
-		    ii = getBits(dataLength -
-				 (6 - gct.tagLength - dataLength), "dv") ;
-		    dv = (dv << (dataLength -
-				 (6 - gct.tagLength - dataLength))) | ii ;
-		}
-	    } else if (gct.tagLength + dataLength > 6) {
-		// read in rest of du and normalize it
-		ii = getBits(dataLength - (6 - gct.tagLength), "du") ;
-		du = (du << (dataLength - (6 - gct.tagLength))) | ii ;
-		// read in dv
-		dv = getBits(dataLength, "dv") ;
-	    } else {
-		// read in dv
-		dv = getBits(dataLength, "dv") ;
-	    }
-
-	    // Sign extend delta uv components.
-	    du = du << (32 - dataLength) ; du = du >> (32 - dataLength) ;
-	    dv = dv << (32 - dataLength) ; dv = dv >> (32 - dataLength) ;
+	    uv = getFields(2, dataLength, gct.headerBits, "du/dv") ;
+	    du = field(uv, 1, dataLength) ;
+	    dv = field(uv, 0, dataLength) ;
 
 	    // normalize values
 	    du = du << gct.rightShift ;
@@ -948,7 +1019,7 @@ abstract class GeometryDecompressor {
 	short dr, dg, db, da ;
 	float fR, fG, fB, fA ;
 	int r, g, b, a, index, dataLength ;
-	int ii ;
+	long rgba ;
 
 	// If the next command is a mesh buffer reference, use this color.
 	meshState &= ~USE_MESH_COLOR ;
@@ -961,83 +1032,23 @@ abstract class GeometryDecompressor {
 			       gct.toString()) ;
 
 	// Get the true length of the data.
-	dataLength = gct.dataLength - gct.rightShift ;
+	dataLength = gct.fieldLength ;
 
-	// Read in red, green, blue, and possibly alpha.
-	r = currentHeader & BMASK[6 - gct.tagLength] ;
-	a = 0 ;
-
-	if (gct.tagLength + dataLength == 6) {
-	    g = getBits(dataLength, "g") ;
-	    b = getBits(dataLength, "b") ;
-	    if (doingAlpha)
-		a = getBits(dataLength, "a") ;
-	}
-	else if (gct.tagLength + dataLength <  6) {
-	    r = r >> (6 - gct.tagLength - dataLength) ;
-
-	    g = currentHeader & BMASK[6-gct.tagLength-dataLength] ;
-	    if (gct.tagLength + 2*dataLength == 6) {
-		b = getBits(dataLength, "b") ;
-		if (doingAlpha)
-		    a = getBits(dataLength, "a") ;
-	    }
-	    else if (gct.tagLength + 2*dataLength <  6) {
-		g = g >> (6 - gct.tagLength - 2*dataLength) ;
-
-		b = currentHeader & BMASK[6-gct.tagLength-2*dataLength] ;
-		if (gct.tagLength + 3*dataLength == 6) {
-		    if (doingAlpha)
-			a = getBits(dataLength, "a") ;
-		}
-		else if (gct.tagLength + 3*dataLength <  6) {
-		    b = b >> (6 - gct.tagLength - 3*dataLength) ;
-
-		    if (doingAlpha) {
-			a = currentHeader &
-			    BMASK[6 - gct.tagLength - 4*dataLength] ;
-			if (gct.tagLength + 4 * dataLength < 6) {
-			    a = a >> (6 - gct.tagLength - 3*dataLength) ;
-			}
-			else if (gct.tagLength + 4 * dataLength > 6) {
-			    ii = getBits(dataLength -
-				       (6-gct.tagLength - 3*dataLength), "a") ;
-			    a = (a << (dataLength -
-				       (6-gct.tagLength - 3*dataLength))) | ii ;
-			}
-		    }
-		} else {
-		    ii = getBits(dataLength -
-				 (6 - gct.tagLength - 2*dataLength), "b") ;
-		    b = (b << (dataLength -
-			       (6 - gct.tagLength - 2*dataLength))) | ii ;
-		    if (doingAlpha)
-			a = getBits(dataLength, "a") ;
-		}
-	    } else {
-		ii = getBits(dataLength - (6 - gct.tagLength - dataLength),
-			     "g") ;
-		g = (g << (dataLength -
-			   (6 - gct.tagLength - dataLength))) | ii ;
-		b = getBits(dataLength, "b") ;
-		if (doingAlpha)
-		    a = getBits(dataLength, "a") ;
-	    }
+	// Read in and sign extend red, green, blue, and possibly alpha.
+	if (doingAlpha) {
+	    rgba = getFields(4, dataLength, gct.headerBits, "rgba") ;
+	    r = field(rgba, 3, dataLength) ;
+	    g = field(rgba, 2, dataLength) ;
+	    b = field(rgba, 1, dataLength) ;
+	    a = field(rgba, 0, dataLength) ;
 	} else {
-	    ii = getBits(dataLength - (6 - gct.tagLength), "r") ;
-	    r = (r << (dataLength - (6 - gct.tagLength))) | ii ;
-	    g = getBits(dataLength, "g") ;
-	    b = getBits(dataLength, "b") ;
-	    if (doingAlpha)
-		a = getBits(dataLength, "a") ;
+	    rgba = getFields(3, dataLength, gct.headerBits, "rgb") ;
+	    r = field(rgba, 2, dataLength) ;
+	    g = field(rgba, 1, dataLength) ;
+	    b = field(rgba, 0, dataLength) ;
+	    a = 0 ;
 	}
 
-	// Sign extend delta x y z components.
-	r <<= (32 - dataLength) ;  r >>= (32 - dataLength) ;
-	g <<= (32 - dataLength) ;  g >>= (32 - dataLength) ;
-	b <<= (32 - dataLength) ;  b >>= (32 - dataLength) ;
-	a <<= (32 - dataLength) ;  a >>= (32 - dataLength) ;
-
 	// Normalize values.
 	dr = (short)(r << gct.rightShift) ;
 	dg = (short)(g << gct.rightShift) ;
@@ -79,6 +79,10 @@ class GeometryDecompressorShape3D extends GeometryDecompressor {
     // GeometryArray representations.
     private GeneralizedVertexList vlist ;
 
+    // If true, vertices are accumulated in direct buffers and output as
+    // BY_REFERENCE and USE_NIO_BUFFER geometry.
+    private boolean nioBufferOutput = false ;
+
     // Accumulates Shape3D objects constructed from decompressor output.
     private ArrayList shapes ;
 
@@ -113,6 +117,17 @@ class GeometryDecompressorShape3D extends GeometryDecompressor {
     private static final int FRONTFACE_CCW =
 	GeneralizedStripFlags.FRONTFACE_CCW ;
 
+    /**
+     * Set whether the geometry output by this decompressor is accumulated
+     * in direct NIO buffers and referenced by BY_REFERENCE, USE_NIO_BUFFER
+     * geometry arrays instead of being copied into them.  This avoids
+     * creating objects for each decompressed vertex.
+     * @param nioBufferOutput true to output NIO buffer geometry
+     */
+    void setNioBufferOutput(boolean nioBufferOutput) {
+	this.nioBufferOutput = nioBufferOutput ;
+    }
+
     /**
      * Decompress the given compressed geometry.
      * @param cgr CompressedGeometryRetained object with compressed geometry
@@ -198,7 +213,11 @@ class GeometryDecompressorShape3D extends GeometryDecompressor {
 
 	// Call the superclass decompress() method which calls the output
 	// methods of this subclass.  The results are stored in vlist.
-	super.decompress(cgr.offset, cgr.size, cgr.compressedGeometry) ;
+	if (cgr.compressedGeometryBuffer != null)
+	    super.decompress(cgr.offset, cgr.size,
+			     cgr.compressedGeometryBuffer) ;
+	else
+	    super.decompress(cgr.offset, cgr.size, cgr.compressedGeometry) ;
 
 	// Convert the decompressor output to Shape3D objects.
 	addShape3D() ;
@@ -235,7 +254,18 @@ class GeometryDecompressorShape3D extends GeometryDecompressor {
             }
         }
 
-	vlist = new GeneralizedVertexList(vertexFormat, FRONTFACE_CCW) ;
+	vlist = newVertexList(vertexFormat) ;
+    }
+
+    /**
+     * Create a vertex list for the given vertex format using the current
+     * output type.
+     */
+    private GeneralizedVertexList newVertexList(int vertexFormat) {
+	if (nioBufferOutput)
+	    return new GeneralizedVertexBuffer(vertexFormat, FRONTFACE_CCW) ;
+	else
+	    return new GeneralizedVertexList(vertexFormat, FRONTFACE_CCW) ;
     }
 
     /**
@@ -273,8 +303,7 @@ class GeometryDecompressorShape3D extends GeometryDecompressor {
 	    addShape3D() ;
 
 	    // Start a new vertex list for the new color.
-	    vlist = new GeneralizedVertexList(vlist.vertexFormat,
-					      FRONTFACE_CCW) ;
+	    vlist = newVertexList(vlist.vertexFormat) ;
 	}
 	if (curColor == null) curColor = new Color4f() ;
 	curColor.set(color) ;
@@ -297,8 +326,7 @@ class GeometryDecompressorShape3D extends GeometryDecompressor {
 		addShape3D() ;
 
 	    // Start a new vertex list with the new format.
-	    vlist = new GeneralizedVertexList
-		(vlist.vertexFormat|GeometryArray.NORMALS, FRONTFACE_CCW) ;
+	    vlist = newVertexList(vlist.vertexFormat|GeometryArray.NORMALS) ;
 	}
 	if (curNormal == null) curNormal = new Vector3f() ;
 	curNormal.set(normal) ;
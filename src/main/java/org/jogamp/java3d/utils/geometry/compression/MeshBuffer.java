@@ -54,12 +54,13 @@ class MeshBuffer {
     // Three stack representations are provided: vertices, positions, and
     // indices.
     //
-    // The vertex representation stores references to CompressionStreamVertex
-    // objects.  The position representation stores references to Point3f,
-    // Vector3f, Color3f, and Color4f objects, while the index representation
-    // stores indices into externally maintained arrays of those objects.  All
-    // these representations may be used independently and all provide access
-    // to the stored references via a mesh buffer index.
+    // The vertex representation stores copies of the absolute quantized
+    // values of CompressionStreamVertex objects.  The position representation
+    // stores references to Point3f, Vector3f, Color3f, and Color4f objects,
+    // while the index representation stores indices into externally
+    // maintained arrays of those objects.  All these representations may be
+    // used independently and all provide access to the stored references via
+    // a mesh buffer index.
     //
     // In addition, the position and index representations provide lookup
     // mechanisms to check if positions or indices exist in the mesh buffer
@@ -127,11 +128,16 @@ class MeshBuffer {
     //
     // Mesh buffer vertex stack.  This is currently only used for vertex
     // lookup during the quantization pass in order to compute delta values;
-    // no mesh reference lookup is necessary.
+    // no mesh reference lookup is necessary.  The stream reuses a single
+    // vertex instance for quantization, so its absolute values are copied
+    // into stack elements allocated on first use.
     //
     void push(CompressionStreamVertex v) {
 	topVertex = nextTop(topVertex) ;
-	vertices[topVertex] = v ;
+	if (vertices[topVertex] == null)
+	    vertices[topVertex] = new CompressionStreamVertex() ;
+
+	vertices[topVertex].copyAbsolute(v) ;
     }
 
     CompressionStreamVertex getVertex(int meshReference) {
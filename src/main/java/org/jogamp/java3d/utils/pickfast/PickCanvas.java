@@ -96,6 +96,19 @@ public class PickCanvas extends PickTool {
     int save_xpos;
     int save_ypos;
 
+    /* reuse the start position between calls to setShapeLocation */
+    boolean reuseState = false;
+    private Point3d eyeStart = null;
+
+    /* temporaries for setShapeLocation */
+    private final Transform3D motion = new Transform3D();
+    private final Point3d eyePosn = new Point3d();
+    private final Point3d mousePosn = new Point3d();
+    private final Vector3d mouseVec = new Vector3d();
+    private final Vector3d eyeToCanvas = new Vector3d();
+    private final Point3d deltaImgPlate = new Point3d();
+    private final Vector3d ptToDelta = new Vector3d();
+
     /** Constructor with Canvas3D for mouse events and BranchGroup to be picked.
      */
     public PickCanvas (Canvas3D c, BranchGroup b) {
@@ -142,6 +155,28 @@ public class PickCanvas extends PickTool {
 	return tolerance;
     }
 
+    /**
+     * Sets whether setShapeLocation() updates the start position in
+     * place.  By default each call creates a new Point3d for the value
+     * returned by getStartPosition().  When reuse is on, the same
+     * Point3d is updated instead, so that together with the pick shape,
+     * which is always updated in place, and pickClosest(PickHit),
+     * picking on every mouse move creates no new objects in this class.
+     * A start position obtained before the call then changes.
+     * @param reuse true to update the start position in place
+     */
+    public void setReuseState(boolean reuse) {
+	reuseState = reuse;
+    }
+
+    /**
+     * Returns whether setShapeLocation() updates the start position in
+     * place.
+     */
+    public boolean getReuseState() {
+	return reuseState;
+    }
+
     /** Set the pick location. Defines the location on the canvas where the
        pick is to be performed.
       @param mevent The MouseEvent for the picking point
@@ -155,10 +190,6 @@ public class PickCanvas extends PickTool {
 	@param ypos the Y position of the picking point
     */
     public void setShapeLocation (int xpos, int ypos) {
-	Transform3D motion = new Transform3D();
-	Point3d eyePosn = new Point3d();
-	Point3d mousePosn = new Point3d();
-	Vector3d mouseVec = new Vector3d();
 	boolean isParallel = false;
 	double radius = 0.0;
 	double spreadAngle = 0.0;
@@ -180,14 +211,11 @@ public class PickCanvas extends PickTool {
 	}
 
 	// Calculate radius for PickCylinderRay and spread angle for PickConeRay
-	Vector3d eyeToCanvas = new Vector3d();
 	eyeToCanvas.sub (mousePosn, eyePosn);
 	double distanceEyeToCanvas = eyeToCanvas.length();
 
-	Point3d deltaImgPlate = new Point3d();
 	canvas.getPixelLocationInImagePlate (xpos+1, ypos, deltaImgPlate);
 
-	Vector3d ptToDelta = new Vector3d();
 	ptToDelta.sub (mousePosn, deltaImgPlate);
 	double distancePtToDelta = ptToDelta.length();
 	distancePtToDelta *= tolerance;
@@ -200,7 +228,13 @@ public class PickCanvas extends PickTool {
 	*/
 
 	motion.transform(eyePosn);
-	start = new Point3d (eyePosn); // store the eye position
+	// store the eye position
+	if (reuseState && (start != null) && (start == eyeStart)) {
+	    start.set(eyePosn);
+	} else {
+	    start = new Point3d (eyePosn);
+	    eyeStart = start;
+	}
 	motion.transform(mousePosn);
 	mouseVec.sub(mousePosn, eyePosn);
 	mouseVec.normalize();
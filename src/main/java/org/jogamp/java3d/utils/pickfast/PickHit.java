@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+package org.jogamp.java3d.utils.pickfast;
+
+import org.jogamp.java3d.Node;
+import org.jogamp.java3d.PickInfo;
+import org.jogamp.java3d.SceneGraphPath;
+import org.jogamp.java3d.Transform3D;
+import org.jogamp.vecmath.Point3d;
+
+/**
+ * Holds the closest pick found by PickTool.pickClosest(PickHit).  The
+ * same PickHit can be passed to a series of picks, for example one on
+ * every mouse move, and the transform, point and PickIntersection it
+ * holds are reused instead of being created for every pick.  The
+ * objects returned by its methods belong to the PickHit and change with
+ * the next pick.
+ * <p>
+ * Like PickInfo, only the values selected by the flags of the PickTool
+ * are available; the others are null.
+ * <blockquote><pre>
+ *     PickHit hit = new PickHit();
+ *     ...
+ *     pickCanvas.setShapeLocation(mouseEvent);
+ *     if (pickCanvas.pickClosest(hit)) {
+ *         Point3d pnt = hit.getClosestIntersectionPoint();
+ *         ...
+ *     }
+ * </pre></blockquote>
+ *
+ * @see PickTool#pickClosest(PickHit)
+ */
+public class PickHit {
+
+    private boolean hit = false;
+    private SceneGraphPath sceneGraphPath = null;
+    private Node node = null;
+    private final Transform3D localToVWorld = new Transform3D();
+    private boolean hasLocalToVWorld = false;
+    private final Point3d closestIntersectionPoint = new Point3d();
+    private boolean hasClosestIntersectionPoint = false;
+    private double closestDistance = Double.POSITIVE_INFINITY;
+    private final PickIntersection intersection = new PickIntersection();
+    private boolean hasIntersection = false;
+
+    /**
+     * Constructor for an empty PickHit.
+     */
+    public PickHit() {
+    }
+
+    /**
+     * Returns true if the last pick found a node.
+     */
+    public boolean isHit() {
+	return hit;
+    }
+
+    /**
+     * Returns the SceneGraphPath of the picked node, if requested with
+     * the PickInfo.SCENEGRAPHPATH flag.
+     */
+    public SceneGraphPath getSceneGraphPath() {
+	return sceneGraphPath;
+    }
+
+    /**
+     * Returns the picked node, if requested with the PickInfo.NODE flag.
+     */
+    public Node getNode() {
+	return node;
+    }
+
+    /**
+     * Returns the local to vworld transform of the picked node, if
+     * requested with the PickInfo.LOCAL_TO_VWORLD flag.
+     */
+    public Transform3D getLocalToVWorld() {
+	return hasLocalToVWorld ? localToVWorld : null;
+    }
+
+    /**
+     * Returns the closest intersection point in vworld coordinates, if
+     * requested with the PickInfo.CLOSEST_INTERSECTION_POINT flag.
+     */
+    public Point3d getClosestIntersectionPoint() {
+	return hasClosestIntersectionPoint ? closestIntersectionPoint : null;
+    }
+
+    /**
+     * Returns the distance from the start of the pick shape to the
+     * closest intersection, if requested with the
+     * PickInfo.CLOSEST_DISTANCE flag.  The distance is infinite if
+     * nothing was picked.
+     */
+    public double getClosestDistance() {
+	return closestDistance;
+    }
+
+    /**
+     * Returns the first intersection with the geometry of the picked
+     * node, if requested with the PickInfo.LOCAL_TO_VWORLD flag and the
+     * PickInfo.CLOSEST_GEOM_INFO or PickInfo.ALL_GEOM_INFO flag.
+     */
+    public PickIntersection getIntersection() {
+	return hasIntersection ? intersection : null;
+    }
+
+    /**
+     * Clears this PickHit, as if nothing was picked.
+     */
+    public void clear() {
+	hit = false;
+	sceneGraphPath = null;
+	node = null;
+	hasLocalToVWorld = false;
+	hasClosestIntersectionPoint = false;
+	closestDistance = Double.POSITIVE_INFINITY;
+	hasIntersection = false;
+    }
+
+    /**
+     * Copies the pick, or clears this PickHit if pickInfo is null.
+     */
+    void set(PickInfo pickInfo) {
+	clear();
+	if (pickInfo == null) return;
+
+	hit = true;
+	sceneGraphPath = pickInfo.getSceneGraphPath();
+	node = pickInfo.getNode();
+	Transform3D t = pickInfo.getLocalToVWorld();
+	if (t != null) {
+	    localToVWorld.set(t);
+	    hasLocalToVWorld = true;
+	}
+	Point3d pnt = pickInfo.getClosestIntersectionPoint();
+	if (pnt != null) {
+	    closestIntersectionPoint.set(pnt);
+	    hasClosestIntersectionPoint = true;
+	}
+	closestDistance = pickInfo.getClosestDistance();
+
+	PickInfo.IntersectionInfo[] infos = pickInfo.getIntersectionInfos();
+	if (hasLocalToVWorld && (infos != null) && (infos.length > 0)) {
+	    intersection.set(localToVWorld, infos[0]);
+	    hasIntersection = true;
+	}
+    }
+}
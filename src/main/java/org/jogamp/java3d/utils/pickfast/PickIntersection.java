@@ -196,6 +196,12 @@ public class PickIntersection {
     /** Coordinates of the closest vertex (World coordinates) */
     private Point3d closestVertexCoordinatesVW = null;
 
+    // Objects of the previous intersection, reused after set()
+    private Point3d sparePointCoordinatesVW = null;
+    private Point3d spareClosestVertexCoordinates = null;
+    private Point3d[] sparePrimitiveCoordinates = null;
+    private Point3d[] sparePrimitiveCoordinatesVW = null;
+
     /* ===================   METHODS  ======================= */
 
     /**
@@ -204,7 +210,68 @@ public class PickIntersection {
      */
     public PickIntersection (Transform3D localToVWorld,
 			     PickInfo.IntersectionInfo intersectionInfo) {
+	init(localToVWorld, intersectionInfo);
+    }
 
+    /**
+     * Constructor for an empty intersection, to be filled with set().
+     */
+    public PickIntersection () {
+    }
+
+    /**
+     * Makes this object hold another intersection, so that one
+     * PickIntersection can be used for a series of picks.  The
+     * coordinates computed for the previous intersection are dropped.
+     * The Point3d objects returned by getPointCoordinatesVW(),
+     * getClosestVertexCoordinates(), getPrimitiveCoordinates() and
+     * getPrimitiveCoordinatesVW() are reused, so the values returned
+     * before this call change when those methods are called again.
+     * @param localToVWorld The local to vworld transform of the node.
+     * @param intersectionInfo The IntersectionInfo this intersection is part of.
+     */
+    public void set (Transform3D localToVWorld,
+		     PickInfo.IntersectionInfo intersectionInfo) {
+	if (pointCoordinatesVW != null) {
+	    sparePointCoordinatesVW = pointCoordinatesVW;
+	}
+	if (closestVertexCoordinates != null) {
+	    spareClosestVertexCoordinates = closestVertexCoordinates;
+	}
+	if (primitiveCoordinates != null) {
+	    sparePrimitiveCoordinates = primitiveCoordinates;
+	}
+	if (primitiveCoordinatesVW != null) {
+	    sparePrimitiveCoordinatesVW = primitiveCoordinatesVW;
+	}
+
+	interpWeights = null;
+	geometryIsIndexed = false;
+	hasColors = false;
+	hasNormals = false;
+	hasTexCoords = false;
+	primitiveCoordinateIndices = null;
+	primitiveNormalIndices = null;
+	primitiveColorIndices = null;
+	primitiveTexCoordIndices = null;
+	primitiveCoordinates = null;
+	primitiveCoordinatesVW = null;
+	primitiveNormals = null;
+	primitiveColors = null;
+	primitiveTexCoords = null;
+	pointCoordinatesVW = null;
+	pointNormal = null;
+	pointColor = null;
+	pointTexCoord = null;
+	closestVertexIndex = -1;
+	closestVertexCoordinates = null;
+	closestVertexCoordinatesVW = null;
+
+	init(localToVWorld, intersectionInfo);
+    }
+
+    private void init (Transform3D localToVWorld,
+		       PickInfo.IntersectionInfo intersectionInfo) {
 	// Should check and throw NPE if the following is null.
 	// localToVWorld can't be null.
 	l2vw = localToVWorld;
@@ -256,9 +323,9 @@ public class PickIntersection {
 	    int val;
 
 	    int[] indices = getPrimitiveCoordinateIndices();
+	    Point3d pnt = reuse(spareClosestVertexCoordinates);
 	    if ((vformat & GeometryArray.BY_REFERENCE) == 0) {
-		closestVertexCoordinates = new Point3d();
-		geom.getCoordinate(indices[vertexIndex], closestVertexCoordinates);
+		geom.getCoordinate(indices[vertexIndex], pnt);
 		// System.out.println("PI.closestVertexCoordinates " +
 // 				   closestVertexCoordinates + " vertexIndex " +
 // 				   vertexIndex);
@@ -274,16 +341,16 @@ public class PickIntersection {
 			}
 			else {
 			    val = indices[vertexIndex] * 3; // for x,y,z
-			    closestVertexCoordinates = new Point3d(floatData[val],
-								   floatData[val+1],
-								   floatData[val+2]);
+			    pnt.set(floatData[val],
+				    floatData[val+1],
+				    floatData[val+2]);
 			}
 		    }
 		    else {
 			val = indices[vertexIndex] * 3; // for x,y,z
-			closestVertexCoordinates = new Point3d(doubleData[val],
-							       doubleData[val+1],
-							       doubleData[val+2]);
+			pnt.set(doubleData[val],
+				doubleData[val+1],
+				doubleData[val+2]);
 		    }
 		}
 		else {
@@ -291,11 +358,12 @@ public class PickIntersection {
 		    int offset = getInterleavedVertexOffset(geom);
 		    int stride = offset + 3; // for the vertices .
 		    val = stride * indices[vertexIndex]+offset;
-		    closestVertexCoordinates = new Point3d(floatData[val],
-							   floatData[val+1],
-							   floatData[val+2]);
+		    pnt.set(floatData[val],
+			    floatData[val+1],
+			    floatData[val+2]);
 		}
 	    }
+	    closestVertexCoordinates = pnt;
 	}
 
 	return closestVertexCoordinates;
@@ -401,7 +469,7 @@ public class PickIntersection {
 	    return pointCoordinatesVW;
 	}
 
-	pointCoordinatesVW = new Point3d();
+	pointCoordinatesVW = reuse(sparePointCoordinatesVW);
 
 	pointCoordinatesVW.x = pointCoordinates.x;
 	pointCoordinatesVW.y = pointCoordinates.y;
@@ -625,7 +693,8 @@ public class PickIntersection {
 	GeometryArray geom = (GeometryArray) geometry;
 
 	if (primitiveCoordinates == null) {
-	    primitiveCoordinates = new Point3d[primitiveVertexIndices.length];
+	    primitiveCoordinates = reuse(sparePrimitiveCoordinates,
+					 primitiveVertexIndices.length);
 	    int[] indices = getPrimitiveCoordinateIndices();
 	    int vformat = geom.getVertexFormat();
 	    int val;
@@ -633,7 +702,6 @@ public class PickIntersection {
 // 	    System.out.println("---- indices.length - " + indices.length);
 	    if ((vformat & GeometryArray.BY_REFERENCE) == 0) {
 		for (int i = 0; i < indices.length; i++) {
-		    primitiveCoordinates[i] = new Point3d();
 		    // System.out.println("PickIntersection : indices["+i+"] = " + indices[i]);
 		    geom.getCoordinate(indices[i], primitiveCoordinates[i]);
 		}
@@ -650,18 +718,18 @@ public class PickIntersection {
 			else {
 			    for (int i = 0; i < indices.length; i++) {
 				val = indices[i] * 3;
-				primitiveCoordinates[i] = new Point3d(floatData[val],
-								      floatData[val+1],
-								      floatData[val+2]);
+				primitiveCoordinates[i].set(floatData[val],
+							    floatData[val+1],
+							    floatData[val+2]);
 			    }
 			}
 		    }
 		    else {
 			for (int i = 0; i < indices.length; i++) {
 			    val = indices[i] * 3;
-			    primitiveCoordinates[i] = new Point3d(doubleData[val],
-								  doubleData[val+1],
-								  doubleData[val+2]);
+			    primitiveCoordinates[i].set(doubleData[val],
+							doubleData[val+1],
+							doubleData[val+2]);
 			}
 		    }
 		}
@@ -671,9 +739,9 @@ public class PickIntersection {
 		    int stride = offset + 3; // for the vertices .
 		    for (int i = 0; i < indices.length; i++) {
 			val = stride * indices[i]+offset;
-			primitiveCoordinates[i] = new Point3d(floatData[val],
-							      floatData[val+1],
-							      floatData[val+2]);
+			primitiveCoordinates[i].set(floatData[val],
+						    floatData[val+1],
+						    floatData[val+2]);
 		    }
 		}
 	    }
@@ -694,10 +762,9 @@ public class PickIntersection {
 	    // We need to call getPrimitiveCoordinates first.
 	    Point3d[] coords = getPrimitiveCoordinates();
 
-	    primitiveCoordinatesVW = new Point3d[coords.length];
+	    primitiveCoordinatesVW = reuse(sparePrimitiveCoordinatesVW,
+					   coords.length);
 	    for (int i = 0; i < coords.length; i++) {
-		primitiveCoordinatesVW[i] = new Point3d();
-
 		primitiveCoordinatesVW[i].x = coords[i].x;
 		primitiveCoordinatesVW[i].y = coords[i].y;
 		primitiveCoordinatesVW[i].z = coords[i].z;
@@ -897,6 +964,23 @@ public class PickIntersection {
 	return primitiveVertexIndices;
     }
 
+    /* Returns the spare point, or a new one if there is none */
+    private static Point3d reuse(Point3d spare) {
+	return (spare != null) ? spare : new Point3d();
+    }
+
+    /* Returns the spare points if there are n of them, or new ones */
+    private static Point3d[] reuse(Point3d[] spare, int n) {
+	if ((spare != null) && (spare.length == n)) {
+	    return spare;
+	}
+	Point3d[] pnts = new Point3d[n];
+	for (int i = 0; i < n; i++) {
+	    pnts[i] = new Point3d();
+	}
+	return pnts;
+    }
+
     /**
      * Gets the IntersectionInfo this intersection is part of.
      */
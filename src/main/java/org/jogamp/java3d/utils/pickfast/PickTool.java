@@ -39,6 +39,15 @@
 
 package org.jogamp.java3d.utils.pickfast;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.jogamp.java3d.BoundingBox;
+import org.jogamp.java3d.BoundingSphere;
 import org.jogamp.java3d.Bounds;
 import org.jogamp.java3d.BranchGroup;
 import org.jogamp.java3d.Group;
@@ -205,6 +214,12 @@ public class PickTool {
     int mode = PickInfo.PICK_BOUNDS;
     int flags = PickInfo.NODE;
 
+    /* runs the rays of a batch pick, null to pick on the calling thread */
+    ExecutorService executor = null;
+
+    /* rays picked by one task of a batch pick */
+    static final int RAY_CHUNK = 64;
+
     /* ============================ METHODS ============================ */
 
     /**
@@ -450,6 +465,234 @@ public class PickTool {
 	return pickInfo;
     }
 
+    /**
+     * Selects the closest node that intersects the PickShape, like
+     * pickClosest(), and stores it in a PickHit owned by the caller
+     * instead of returning it.  The PickHit reuses its objects, so
+     * passing the same one to every pick avoids creating new transforms,
+     * points and PickIntersections each time.
+     * @param hit The PickHit that receives the closest pick.  It is
+     * cleared if nothing was picked.
+     * @return true if a node was picked
+     * @see PickHit
+     */
+    public boolean pickClosest (PickHit hit) {
+	hit.set(pickClosest());
+	return hit.isHit();
+    }
+
+    /**
+     * Selects the closest node along each ray of a batch, the same as
+     * calling setShapeRay() and pickClosest() for every ray.  The pick
+     * mode of this tool is used, but not its pick shape or PickInfo
+     * flags: only the information returned in the arrays is computed.
+     * In PICK_BOUNDS mode (the default) the distance and point are where
+     * the ray enters the bounds of the picked node in virtual world
+     * coordinates (the bounding box of the node if its bounds are a
+     * BoundingPolytope), so the picked nodes must allow their bounds to
+     * be read.  In PICK_GEOMETRY mode they are the closest intersection
+     * with the geometry.
+     * If an executor was set with setExecutorService(), the rays are
+     * split between its threads.
+     * @param origins The ray origins, 3 values (x, y, z) per ray
+     * @param directions The ray directions, 3 values per ray
+     * @param numRays The number of rays
+     * @param distances Receives the distance from the origin of each ray
+     * to its closest intersection, or Double.POSITIVE_INFINITY if the ray
+     * picked nothing
+     * @param points Receives the closest intersection point of each ray,
+     * 3 values per ray, NaN if the ray picked nothing.  May be null.
+     * @param nodes Receives the node picked by each ray, null if the ray
+     * picked nothing.  May be null.
+     * @return The number of rays that picked a node
+     * @exception IllegalArgumentException if an array is too short for
+     * numRays rays
+     */
+    public int pickClosest (final double[] origins, final double[] directions,
+			    int numRays, final double[] distances,
+			    final double[] points, final Node[] nodes) {
+	if ((numRays < 0) || (origins.length < numRays * 3) ||
+	    (directions.length < numRays * 3) ||
+	    (distances.length < numRays) ||
+	    ((points != null) && (points.length < numRays * 3)) ||
+	    ((nodes != null) && (nodes.length < numRays))) {
+	    throw new java.lang.IllegalArgumentException();
+	}
+
+	// Java 3D doesn't allow the CLOSEST flags in PICK_BOUNDS mode, the
+	// distance is found from the bounds of the picked node instead
+	int rayFlags;
+	if (mode == PickInfo.PICK_BOUNDS) {
+	    rayFlags = PickInfo.NODE | PickInfo.LOCAL_TO_VWORLD;
+	} else {
+	    rayFlags = PickInfo.CLOSEST_DISTANCE;
+	    if (points != null) rayFlags |= PickInfo.CLOSEST_INTERSECTION_POINT;
+	    if (nodes != null) rayFlags |= PickInfo.NODE;
+	}
+	final int pickFlags = rayFlags;
+
+	if ((executor == null) || (numRays <= RAY_CHUNK)) {
+	    return pickRays(origins, directions, 0, numRays, pickFlags,
+			    distances, points, nodes);
+	}
+
+	final int[] hits = new int[(numRays + RAY_CHUNK - 1) / RAY_CHUNK];
+	List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+	for (int i = 0; i < numRays; i += RAY_CHUNK) {
+	    final int first = i;
+	    final int last = Math.min(numRays, i + RAY_CHUNK);
+	    tasks.add(new Callable<Object>() {
+		@Override
+		public Object call() {
+		    hits[first / RAY_CHUNK] =
+			pickRays(origins, directions, first, last, pickFlags,
+				 distances, points, nodes);
+		    return null;
+		}
+	    });
+	}
+
+	try {
+	    List<Future<Object>> results = executor.invokeAll(tasks);
+	    for (int i = 0; i < results.size(); i++) results.get(i).get();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new RuntimeException(e);
+	} catch (ExecutionException e) {
+	    Throwable cause = e.getCause();
+	    if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+	    if (cause instanceof Error) throw (Error)cause;
+	    throw new RuntimeException(cause);
+	}
+
+	int numHits = 0;
+	for (int i = 0; i < hits.length; i++) numHits += hits[i];
+	return numHits;
+    }
+
+    /* Picks rays first to last-1 of a batch, reusing one PickRay. */
+    private int pickRays (double[] origins, double[] directions,
+			  int first, int last, int pickFlags,
+			  double[] distances, double[] points, Node[] nodes) {
+	PickRay ray = new PickRay();
+	Point3d origin = new Point3d();
+	Vector3d direction = new Vector3d();
+	Point3d boundsPoint = new Point3d();
+	int numHits = 0;
+
+	for (int i = first; i < last; i++) {
+	    origin.set(origins[i*3], origins[i*3+1], origins[i*3+2]);
+	    direction.set(directions[i*3], directions[i*3+1],
+			  directions[i*3+2]);
+	    ray.set(origin, direction);
+
+	    PickInfo pickInfo = null;
+	    if (pickRootBG != null) {
+		pickInfo = pickRootBG.pickClosest(mode, pickFlags, ray);
+	    } else if (pickRootL != null) {
+		pickInfo = pickRootL.pickClosest(mode, pickFlags, ray);
+	    }
+
+	    if (pickInfo != null) {
+		numHits++;
+		Point3d point;
+		if (mode == PickInfo.PICK_BOUNDS) {
+		    Bounds bounds =
+			(Bounds)pickInfo.getNode().getBounds().clone();
+		    bounds.transform(pickInfo.getLocalToVWorld());
+		    distances[i] = boundsDistance(bounds, origin, direction,
+						  boundsPoint);
+		    point = boundsPoint;
+		} else {
+		    distances[i] = pickInfo.getClosestDistance();
+		    point = pickInfo.getClosestIntersectionPoint();
+		}
+		if (points != null) {
+		    points[i*3] = point.x;
+		    points[i*3+1] = point.y;
+		    points[i*3+2] = point.z;
+		}
+		if (nodes != null) nodes[i] = pickInfo.getNode();
+	    } else {
+		distances[i] = Double.POSITIVE_INFINITY;
+		if (points != null) {
+		    points[i*3] = Double.NaN;
+		    points[i*3+1] = Double.NaN;
+		    points[i*3+2] = Double.NaN;
+		}
+		if (nodes != null) nodes[i] = null;
+	    }
+	}
+	return numHits;
+    }
+
+    /* Sets point to where the ray enters the virtual world bounds of the
+       node picked in PICK_BOUNDS mode, and returns its distance from the
+       origin.  The point is the origin if it is inside the bounds. */
+    private static double boundsDistance (Bounds bounds,
+					  Point3d origin, Vector3d direction,
+					  Point3d point) {
+	Vector3d dir = new Vector3d(direction);
+	dir.normalize();
+	double t;
+
+	if (bounds instanceof BoundingSphere) {
+	    BoundingSphere sphere = (BoundingSphere)bounds;
+	    Point3d center = new Point3d();
+	    sphere.getCenter(center);
+	    double r = sphere.getRadius();
+	    double lx = center.x - origin.x;
+	    double ly = center.y - origin.y;
+	    double lz = center.z - origin.z;
+	    double tc = lx*dir.x + ly*dir.y + lz*dir.z;
+	    double d2 = lx*lx + ly*ly + lz*lz - tc*tc;
+	    t = tc - Math.sqrt(Math.max(0.0, r*r - d2));
+	} else {
+	    BoundingBox box = (bounds instanceof BoundingBox) ?
+		(BoundingBox)bounds : new BoundingBox(bounds);
+	    Point3d lower = new Point3d();
+	    Point3d upper = new Point3d();
+	    box.getLower(lower);
+	    box.getUpper(upper);
+	    t = slab(origin.x, dir.x, lower.x, upper.x);
+	    t = Math.max(t, slab(origin.y, dir.y, lower.y, upper.y));
+	    t = Math.max(t, slab(origin.z, dir.z, lower.z, upper.z));
+	}
+
+	if (!(t > 0.0)) t = 0.0;
+	point.scaleAdd(t, dir, origin);
+	return t;
+    }
+
+    /* Returns where a ray along one axis enters the slab from lower to
+       upper, 0 if the ray is parallel to it. */
+    private static double slab (double origin, double dir,
+				double lower, double upper) {
+	if (dir > 0.0) return (lower - origin) / dir;
+	if (dir < 0.0) return (upper - origin) / dir;
+	return 0.0;
+    }
+
+    /**
+     * Sets the ExecutorService used to pick the rays of a batch with
+     * pickClosest(double[], double[], int, double[], double[], Node[]).
+     * The PickTool does not shut the executor down.
+     * @param executor The executor to use, or null (the default) to pick
+     * every ray on the calling thread.
+     */
+    public void setExecutorService (ExecutorService executor) {
+	this.executor = executor;
+    }
+
+    /**
+     * Returns the ExecutorService used for batch picks, or null if they
+     * run on the calling thread.
+     * @see #setExecutorService(ExecutorService)
+     */
+    public ExecutorService getExecutorService () {
+	return executor;
+    }
+
     /** Get the first node of a certain type up the SceneGraphPath
      *@param type the type of node we are interested in
      *@return a Node object
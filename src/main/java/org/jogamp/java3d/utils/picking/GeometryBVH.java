@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+
+package org.jogamp.java3d.utils.picking;
+
+import java.util.Arrays;
+
+import org.jogamp.java3d.GeometryArray;
+import org.jogamp.java3d.IndexedGeometryArray;
+import org.jogamp.java3d.IndexedQuadArray;
+import org.jogamp.java3d.IndexedTriangleArray;
+import org.jogamp.java3d.IndexedTriangleFanArray;
+import org.jogamp.java3d.IndexedTriangleStripArray;
+import org.jogamp.java3d.QuadArray;
+import org.jogamp.java3d.TriangleArray;
+import org.jogamp.java3d.TriangleFanArray;
+import org.jogamp.java3d.TriangleStripArray;
+import org.jogamp.vecmath.Point3d;
+import org.jogamp.vecmath.Vector3d;
+
+/**
+ * A bounding volume hierarchy over the triangles or quads of a
+ * GeometryArray, built in the local coordinates of the geometry.  It
+ * is only used to rule out primitives that can't intersect a pick
+ * shape.  PickResult tests the remaining primitives the usual way and
+ * in the usual order, so the intersections found are the same as
+ * when every primitive is tested.
+ */
+class GeometryBVH {
+
+    // Geometry with fewer primitives than this is tested primitive
+    // by primitive
+    static final int MIN_PRIMITIVES = 64;
+
+    // Most primitives in a leaf
+    private static final int LEAF_SIZE = 4;
+
+    // Number of vertices of each primitive, 3 or 4
+    final int vertsPerPrim;
+    final int numPrims;
+
+    // Vertex and coordinate indices of the primitives, in the order
+    // the intersect methods of PickResult visit them.  For
+    // non-indexed geometry both are the same array.
+    final int vertIdx[];
+    final int coordIdx[];
+
+    // Local coordinates of the vertices, 3 per vertex
+    final double coords[];
+
+    // Nodes of the tree.  The bounds of node n are in bounds[6*n ..
+    // 6*n+5] (min x, y, z then max x, y, z).  For a leaf, first[n] is
+    // where its primitives start in order[] and count[n] is how many
+    // there are.  Otherwise count[n] is 0 and its children are
+    // first[n] and first[n]+1.
+    private double bounds[];
+    private int first[];
+    private int count[];
+    private int numNodes;
+    private int order[];
+
+    // Distance the nodes are grown by to allow for rounding errors
+    private double pad;
+
+    // What the geometry looked like when the tree was built
+    private final int vertexCount;
+    private final int indexCount;
+    private final int vertexFormat;
+    private final Object coordRef;
+
+
+
+    private GeometryBVH(GeometryArray geom, double coords[], int vertIdx[],
+			int coordIdx[], int vertsPerPrim) {
+	this.coords = coords;
+	this.vertIdx = vertIdx;
+	this.coordIdx = coordIdx;
+	this.vertsPerPrim = vertsPerPrim;
+	numPrims = (vertIdx == null) ? 0 : vertIdx.length / vertsPerPrim;
+
+	vertexCount = geom.getVertexCount();
+	if (geom instanceof IndexedGeometryArray)
+	    indexCount = ((IndexedGeometryArray)geom).getIndexCount();
+	else
+	    indexCount = -1;
+	vertexFormat = geom.getVertexFormat();
+	coordRef = getCoordRef(geom);
+
+	if (numPrims > 0) build();
+    }
+
+
+
+    /**
+     * Returns a placeholder recording that the geometry has no
+     * hierarchy, so that create() isn't tried again until the geometry
+     * changes.
+     */
+    static GeometryBVH none(GeometryArray geom) {
+	return new GeometryBVH(geom, null, null, null, 0);
+    }
+
+
+
+    /**
+     * Returns true if this is a placeholder from none().
+     */
+    boolean isNone() {
+	return numPrims == 0;
+    }
+
+
+
+    /**
+     * Builds the hierarchy for the geometry.  Returns null if the
+     * geometry isn't made of triangles or quads, is too small to be
+     * worth it, or its coordinates can't be read.
+     */
+    static GeometryBVH create(GeometryArray geom) {
+	int vertsPerPrim;
+	int vertIdx[], coordIdx[];
+
+	if ((geom instanceof TriangleArray) ||
+	    (geom instanceof TriangleStripArray) ||
+	    (geom instanceof TriangleFanArray) ||
+	    (geom instanceof IndexedTriangleArray) ||
+	    (geom instanceof IndexedTriangleStripArray) ||
+	    (geom instanceof IndexedTriangleFanArray)) {
+	    vertsPerPrim = 3;
+	} else if ((geom instanceof QuadArray) ||
+		   (geom instanceof IndexedQuadArray)) {
+	    vertsPerPrim = 4;
+	} else {
+	    return null;
+	}
+
+	int n;
+	if (geom instanceof IndexedGeometryArray)
+	    n = ((IndexedGeometryArray)geom).getIndexCount();
+	else
+	    n = geom.getVertexCount();
+	if (n < MIN_PRIMITIVES * vertsPerPrim) return null;
+
+	double coords[] = getCoordinates(geom);
+	if (coords == null) return null;
+
+	if (geom instanceof TriangleArray) {
+	    vertIdx = sequence(geom.getVertexCount() / 3 * 3);
+	    coordIdx = vertIdx;
+	} else if (geom instanceof QuadArray) {
+	    vertIdx = sequence(geom.getVertexCount() / 4 * 4);
+	    coordIdx = vertIdx;
+	} else if (geom instanceof IndexedTriangleArray) {
+	    vertIdx = sequence(n / 3 * 3);
+	    coordIdx = coordinateIndices((IndexedGeometryArray)geom, vertIdx);
+	} else if (geom instanceof IndexedQuadArray) {
+	    vertIdx = sequence(n / 4 * 4);
+	    coordIdx = coordinateIndices((IndexedGeometryArray)geom, vertIdx);
+	} else if (geom instanceof TriangleStripArray) {
+	    TriangleStripArray tsa = (TriangleStripArray)geom;
+	    int counts[] = new int[tsa.getNumStrips()];
+	    tsa.getStripVertexCounts(counts);
+	    vertIdx = strips(counts, false);
+	    coordIdx = vertIdx;
+	} else if (geom instanceof TriangleFanArray) {
+	    TriangleFanArray tfa = (TriangleFanArray)geom;
+	    int counts[] = new int[tfa.getNumStrips()];
+	    tfa.getStripVertexCounts(counts);
+	    vertIdx = fans(counts);
+	    coordIdx = vertIdx;
+	} else if (geom instanceof IndexedTriangleStripArray) {
+	    IndexedTriangleStripArray itsa = (IndexedTriangleStripArray)geom;
+	    int counts[] = new int[itsa.getNumStrips()];
+	    itsa.getStripIndexCounts(counts);
+	    vertIdx = strips(counts, true);
+	    coordIdx = coordinateIndices(itsa, vertIdx);
+	} else {
+	    IndexedTriangleFanArray itfa = (IndexedTriangleFanArray)geom;
+	    int counts[] = new int[itfa.getNumStrips()];
+	    itfa.getStripIndexCounts(counts);
+	    vertIdx = fans(counts);
+	    coordIdx = coordinateIndices(itfa, vertIdx);
+	}
+
+	for (int i = 0; i < coordIdx.length; i++) {
+	    if ((coordIdx[i] < 0) || (coordIdx[i] * 3 >= coords.length))
+		return null;
+	}
+	if (coordIdx.length < MIN_PRIMITIVES * vertsPerPrim) return null;
+
+	return new GeometryBVH(geom, coords, vertIdx, coordIdx, vertsPerPrim);
+    }
+
+
+
+    /**
+     * Returns true if the geometry still has the same size, format
+     * and coordinate array as when the hierarchy was built.  Changes
+     * to the coordinates or indices in place aren't detected.
+     */
+    boolean isCurrent(GeometryArray geom) {
+	if (geom.getVertexCount() != vertexCount) return false;
+	if (geom.getVertexFormat() != vertexFormat) return false;
+	if ((geom instanceof IndexedGeometryArray) &&
+	    (((IndexedGeometryArray)geom).getIndexCount() != indexCount))
+	    return false;
+	return getCoordRef(geom) == coordRef;
+    }
+
+
+
+    /**
+     * Returns, in increasing order, the primitives that may come
+     * within grow + slope*t of the point origin + t*dir for some t >=
+     * 0, where dir is a unit vector in local coordinates.  A slope of 0
+     * gives a ray (grow 0) or a cylinder, a positive slope gives a
+     * cone.  Returns null if the shape can't be used to rule out any
+     * primitives.
+     */
+    int[] find(Point3d origin, Vector3d dir, double grow, double slope) {
+	if (!(slope >= 0.0) || !(slope < 1.0) || !(grow >= 0.0)) return null;
+
+	int found[] = new int[16];
+	int numFound = 0;
+	int stack[] = new int[64];
+	int top = 0;
+	double tMin = -pad;
+	double range[] = new double[2];
+
+	stack[top++] = 0;
+	while (top > 0) {
+	    int n = stack[--top];
+	    int b = n * 6;
+	    double g = grow + pad;
+
+	    if (slope > 0.0) {
+		// the cone can only reach this box before t gets to
+		// tFar, since its radius grows slower than t.
+		double cx = (bounds[b] + bounds[b+3]) * 0.5;
+		double cy = (bounds[b+1] + bounds[b+4]) * 0.5;
+		double cz = (bounds[b+2] + bounds[b+5]) * 0.5;
+		double ex = bounds[b+3] - cx;
+		double ey = bounds[b+4] - cy;
+		double ez = bounds[b+5] - cz;
+		double r = Math.sqrt(ex*ex + ey*ey + ez*ez);
+		double tFar = ((cx - origin.x) * dir.x + (cy - origin.y) * dir.y +
+			       (cz - origin.z) * dir.z + r + grow) / (1.0 - slope);
+		if (tFar < tMin) continue;
+		g += slope * tFar;
+	    }
+
+	    if (!hitBox(b, g, origin, dir, tMin, range)) continue;
+
+	    if (count[n] > 0) {
+		if (numFound + count[n] > found.length)
+		    found = Arrays.copyOf(found, Math.max(found.length * 2,
+							  numFound + count[n]));
+		System.arraycopy(order, first[n], found, numFound, count[n]);
+		numFound += count[n];
+	    } else {
+		if (top + 2 > stack.length)
+		    stack = Arrays.copyOf(stack, stack.length * 2);
+		stack[top++] = first[n];
+		stack[top++] = first[n] + 1;
+	    }
+	}
+
+	found = Arrays.copyOf(found, numFound);
+	Arrays.sort(found);
+	return found;
+    }
+
+
+
+    // Slab test of the line origin + t*dir, t >= tMin, against the
+    // bounds of a node grown by g on every side.
+    private boolean hitBox(int b, double g, Point3d origin, Vector3d dir,
+			   double tMin, double t[]) {
+	t[0] = tMin;
+	t[1] = Double.POSITIVE_INFINITY;
+	return slab(bounds[b] - g, bounds[b+3] + g, origin.x, dir.x, t) &&
+	    slab(bounds[b+1] - g, bounds[b+4] + g, origin.y, dir.y, t) &&
+	    slab(bounds[b+2] - g, bounds[b+5] + g, origin.z, dir.z, t);
+    }
+
+
+
+    // Clips the range t[0] .. t[1] of the line to one slab, returns
+    // false if nothing is left.
+    private static boolean slab(double min, double max, double o, double d,
+				double t[]) {
+	if (d == 0.0) return (o >= min) && (o <= max);
+
+	double lo = (min - o) / d;
+	double hi = (max - o) / d;
+	if (lo > hi) {
+	    double tmp = lo;
+	    lo = hi;
+	    hi = tmp;
+	}
+	if (lo > t[0]) t[0] = lo;
+	if (hi < t[1]) t[1] = hi;
+	return t[0] <= t[1];
+    }
+
+
+
+    private void build() {
+	int i, j, c, k = vertsPerPrim;
+	double primBounds[] = new double[numPrims * 6];
+	double centers[] = new double[numPrims * 3];
+	double maxAbs = 0.0;
+
+	for (i = 0; i < numPrims; i++) {
+	    int b = i * 6;
+	    primBounds[b] = primBounds[b+1] = primBounds[b+2] =
+		Double.POSITIVE_INFINITY;
+	    primBounds[b+3] = primBounds[b+4] = primBounds[b+5] =
+		Double.NEGATIVE_INFINITY;
+	    for (j = 0; j < k; j++) {
+		int v = coordIdx[i * k + j] * 3;
+		for (c = 0; c < 3; c++) {
+		    double x = coords[v + c];
+		    if (x < primBounds[b+c]) primBounds[b+c] = x;
+		    if (x > primBounds[b+c+3]) primBounds[b+c+3] = x;
+		    if (Math.abs(x) > maxAbs) maxAbs = Math.abs(x);
+		}
+	    }
+	    for (c = 0; c < 3; c++)
+		centers[i*3+c] = (primBounds[b+c] + primBounds[b+c+3]) * 0.5;
+	}
+
+	order = new int[numPrims];
+	for (i = 0; i < numPrims; i++) order[i] = i;
+
+	// every leaf holds at least two primitives, so there are fewer
+	// nodes than primitives
+	int maxNodes = numPrims;
+	bounds = new double[maxNodes * 6];
+	first = new int[maxNodes];
+	count = new int[maxNodes];
+	numNodes = 1;
+	buildNode(0, 0, numPrims, primBounds, centers);
+
+	double dx = bounds[3] - bounds[0];
+	double dy = bounds[4] - bounds[1];
+	double dz = bounds[5] - bounds[2];
+	pad = 1e-6 * (Math.sqrt(dx*dx + dy*dy + dz*dz) + maxAbs);
+    }
+
+
+
+    private void buildNode(int n, int from, int to, double primBounds[],
+			   double centers[]) {
+	int i, c, b = n * 6;
+
+	for (c = 0; c < 3; c++) {
+	    bounds[b+c] = Double.POSITIVE_INFINITY;
+	    bounds[b+c+3] = Double.NEGATIVE_INFINITY;
+	}
+	double cmin[] = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+			 Double.POSITIVE_INFINITY};
+	double cmax[] = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+			 Double.NEGATIVE_INFINITY};
+	for (i = from; i < to; i++) {
+	    int p = order[i];
+	    for (c = 0; c < 3; c++) {
+		if (primBounds[p*6+c] < bounds[b+c])
+		    bounds[b+c] = primBounds[p*6+c];
+		if (primBounds[p*6+c+3] > bounds[b+c+3])
+		    bounds[b+c+3] = primBounds[p*6+c+3];
+		if (centers[p*3+c] < cmin[c]) cmin[c] = centers[p*3+c];
+		if (centers[p*3+c] > cmax[c]) cmax[c] = centers[p*3+c];
+	    }
+	}
+
+	if (to - from <= LEAF_SIZE) {
+	    first[n] = from;
+	    count[n] = to - from;
+	    return;
+	}
+
+	// split at the median center along the longest side
+	int axis = 0;
+	if (cmax[1] - cmin[1] > cmax[axis] - cmin[axis]) axis = 1;
+	if (cmax[2] - cmin[2] > cmax[axis] - cmin[axis]) axis = 2;
+	int mid = (from + to) >>> 1;
+	select(from, to - 1, mid, axis, centers);
+
+	int left = numNodes;
+	numNodes += 2;
+	first[n] = left;
+	count[n] = 0;
+	buildNode(left, from, mid, primBounds, centers);
+	buildNode(left + 1, mid, to, primBounds, centers);
+    }
+
+
+
+    // Partially sorts order[lo..hi] so that order[k] has the k-th
+    // smallest center along axis, with no larger center before it and
+    // no smaller one after it.
+    private void select(int lo, int hi, int k, int axis, double centers[]) {
+	while (hi > lo) {
+	    double pivot = centers[order[(lo + hi) >>> 1] * 3 + axis];
+	    int i = lo, j = hi;
+	    while (i <= j) {
+		while (centers[order[i] * 3 + axis] < pivot) i++;
+		while (centers[order[j] * 3 + axis] > pivot) j--;
+		if (i <= j) {
+		    int tmp = order[i];
+		    order[i] = order[j];
+		    order[j] = tmp;
+		    i++;
+		    j--;
+		}
+	    }
+	    if (k <= j) hi = j;
+	    else if (k >= i) lo = i;
+	    else return;
+	}
+    }
+
+
+
+    private static int[] sequence(int n) {
+	int s[] = new int[n];
+	for (int i = 0; i < n; i++) s[i] = i;
+	return s;
+    }
+
+
+
+    private static int[] coordinateIndices(IndexedGeometryArray geom,
+					   int vertIdx[]) {
+	int c[] = new int[vertIdx.length];
+	for (int i = 0; i < vertIdx.length; i++)
+	    c[i] = geom.getCoordinateIndex(vertIdx[i]);
+	return c;
+    }
+
+
+
+    // The triangles of a set of strips, with the same vertex order as
+    // PickResult.intersectTSA() and intersectITSA()
+    private static int[] strips(int counts[], boolean flip) {
+	int i, j, n = 0;
+	for (i = 0; i < counts.length; i++)
+	    if (counts[i] > 2) n += counts[i] - 2;
+
+	int idx[] = new int[n * 3];
+	int k = 0, stripStart = 0;
+	for (i = 0; i < counts.length; i++) {
+	    int v0 = stripStart, v1 = stripStart + 1, v2 = 0;
+	    boolean ccw = true;
+	    for (j = stripStart + 2; j < stripStart + counts[i]; j++) {
+		if (!flip) {
+		    v2 = j;
+		    idx[k++] = v0; idx[k++] = v1; idx[k++] = v2;
+		    v0 = v1;
+		    v1 = v2;
+		} else {
+		    if (ccw) v2 = j;
+		    else v1 = j;
+		    idx[k++] = v0; idx[k++] = v1; idx[k++] = v2;
+		    if (ccw) v0 = v1;
+		    else v0 = v2;
+		    ccw = !ccw;
+		}
+	    }
+	    stripStart += counts[i];
+	}
+	return idx;
+    }
+
+
+
+    // The triangles of a set of fans, with the same vertex order as
+    // PickResult.intersectTFA() and intersectITFA()
+    private static int[] fans(int counts[]) {
+	int i, j, n = 0;
+	for (i = 0; i < counts.length; i++)
+	    if (counts[i] > 2) n += counts[i] - 2;
+
+	int idx[] = new int[n * 3];
+	int k = 0, fanStart = 0;
+	for (i = 0; i < counts.length; i++) {
+	    for (j = fanStart + 2; j < fanStart + counts[i]; j++) {
+		idx[k++] = fanStart;
+		idx[k++] = j - 1;
+		idx[k++] = j;
+	    }
+	    fanStart += counts[i];
+	}
+	return idx;
+    }
+
+
+
+    /**
+     * Returns the local coordinates of all of the vertices of the
+     * geometry, 3 per vertex, or null if they can't be read.
+     */
+    static double[] getCoordinates(GeometryArray geom) {
+	GeometryCoordinates reader = new GeometryCoordinates();
+	if (!reader.set(geom)) return null;
+
+	int numPts = geom.getVertexCount();
+	double coords[] = new double[numPts * 3];
+	Point3d pnt = new Point3d();
+	for (int i = 0; i < numPts; i++) {
+	    reader.get(i, pnt);
+	    coords[i*3] = pnt.x;
+	    coords[i*3+1] = pnt.y;
+	    coords[i*3+2] = pnt.z;
+	}
+	return coords;
+    }
+
+
+
+    // The array holding the coordinates of by-reference geometry, or
+    // null for geometry whose coordinates are copied.
+    private static Object getCoordRef(GeometryArray geom) {
+	int vformat = geom.getVertexFormat();
+	Object ref;
+
+	if ((vformat & GeometryArray.BY_REFERENCE) == 0) return null;
+	if ((vformat & GeometryArray.USE_NIO_BUFFER) != 0) {
+	    if ((vformat & GeometryArray.INTERLEAVED) != 0)
+		return geom.getInterleavedVertexBuffer();
+	    return geom.getCoordRefBuffer();
+	}
+	if ((vformat & GeometryArray.INTERLEAVED) != 0)
+	    return geom.getInterleavedVertices();
+	if ((ref = geom.getCoordRefDouble()) != null) return ref;
+	if ((ref = geom.getCoordRefFloat()) != null) return ref;
+	if ((ref = geom.getCoordRef3f()) != null) return ref;
+	return geom.getCoordRef3d();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+package org.jogamp.java3d.utils.picking;
+
+import java.nio.Buffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import org.jogamp.java3d.GeometryArray;
+import org.jogamp.java3d.J3DBuffer;
+import org.jogamp.vecmath.Point3d;
+import org.jogamp.vecmath.Point3f;
+
+/**
+ * Reads the local coordinates of the vertices of a GeometryArray
+ * straight from the arrays or NIO buffers the geometry was given, so
+ * that by-reference geometry doesn't have to be copied to be picked.
+ */
+class GeometryCoordinates {
+
+    // Only one of these is set, the others are null
+    private double doubleData[] = null;
+    private float floatData[] = null;
+    private Point3f p3fData[] = null;
+    private Point3d p3dData[] = null;
+    private DoubleBuffer doubleBuffer = null;
+    private FloatBuffer floatBuffer = null;
+
+    // Where the first coordinate is and how far apart the vertices are
+    // in doubleData, floatData or the buffers
+    private int offset;
+    private int stride;
+
+
+
+    /**
+     * Reads the coordinates of geom.  The coordinates of geometry that
+     * isn't by-reference are copied once.  Returns false if the
+     * coordinates aren't set.
+     */
+    boolean set(GeometryArray geom) {
+	int vformat = geom.getVertexFormat();
+
+	clear();
+	if ((vformat & GeometryArray.BY_REFERENCE) == 0) {
+	    doubleData = new double[geom.getVertexCount() * 3];
+	    geom.getCoordinates(0, doubleData);
+	} else if ((vformat & GeometryArray.INTERLEAVED) != 0) {
+	    offset = 0;
+	    if ((vformat & GeometryArray.COLOR_3) == GeometryArray.COLOR_3) {
+		offset += 3;
+	    }
+	    else if ((vformat & GeometryArray.COLOR_4) == GeometryArray.COLOR_4) {
+		offset += 4;
+	    }
+	    if ((vformat & GeometryArray.NORMALS) != 0)
+		offset += 3;
+	    if ((vformat & GeometryArray.TEXTURE_COORDINATE_2) == GeometryArray.TEXTURE_COORDINATE_2) {
+		offset += 2 * geom.getTexCoordSetCount();
+	    }
+	    else if ((vformat & GeometryArray.TEXTURE_COORDINATE_3) == GeometryArray.TEXTURE_COORDINATE_3) {
+		offset += 3 * geom.getTexCoordSetCount();
+	    }
+	    stride = offset + 3;
+	    if ((vformat & GeometryArray.USE_NIO_BUFFER) != 0) {
+		setBuffer(geom.getInterleavedVertexBuffer());
+	    } else {
+		floatData = geom.getInterleavedVertices();
+	    }
+	} else if ((vformat & GeometryArray.USE_NIO_BUFFER) != 0) {
+	    setBuffer(geom.getCoordRefBuffer());
+	} else {
+	    doubleData = geom.getCoordRefDouble();
+	    // If data was set as float then ..
+	    if (doubleData == null) {
+		floatData = geom.getCoordRefFloat();
+		if (floatData == null) {
+		    p3fData = geom.getCoordRef3f();
+		    if (p3fData == null) {
+			p3dData = geom.getCoordRef3d();
+		    }
+		}
+	    }
+	}
+	return ((doubleData != null) || (floatData != null) ||
+		(p3fData != null) || (p3dData != null) ||
+		(doubleBuffer != null) || (floatBuffer != null));
+    }
+
+    /**
+     * Reads the coordinates from an array holding 3 per vertex.
+     */
+    void set(double coords[]) {
+	clear();
+	doubleData = coords;
+    }
+
+    /**
+     * Drops the references to the coordinates.
+     */
+    void clear() {
+	doubleData = null;
+	floatData = null;
+	p3fData = null;
+	p3dData = null;
+	doubleBuffer = null;
+	floatBuffer = null;
+	offset = 0;
+	stride = 3;
+    }
+
+    /**
+     * Copies the local coordinates of a vertex into pnt.
+     */
+    void get(int index, Point3d pnt) {
+	int i = offset + index * stride;
+
+	if (doubleData != null) {
+	    pnt.x = doubleData[i];
+	    pnt.y = doubleData[i+1];
+	    pnt.z = doubleData[i+2];
+	} else if (floatData != null) {
+	    pnt.x = floatData[i];
+	    pnt.y = floatData[i+1];
+	    pnt.z = floatData[i+2];
+	} else if (p3fData != null) {
+	    pnt.set(p3fData[index]);
+	} else if (p3dData != null) {
+	    pnt.set(p3dData[index]);
+	} else if (floatBuffer != null) {
+	    pnt.x = floatBuffer.get(i);
+	    pnt.y = floatBuffer.get(i+1);
+	    pnt.z = floatBuffer.get(i+2);
+	} else {
+	    pnt.x = doubleBuffer.get(i);
+	    pnt.y = doubleBuffer.get(i+1);
+	    pnt.z = doubleBuffer.get(i+2);
+	}
+    }
+
+
+
+    private void setBuffer(J3DBuffer j3dBuffer) {
+	if (j3dBuffer == null) return;
+	Buffer buffer = j3dBuffer.getBuffer();
+	if (buffer instanceof FloatBuffer) {
+	    floatBuffer = (FloatBuffer)buffer;
+	} else if (buffer instanceof DoubleBuffer) {
+	    doubleBuffer = (DoubleBuffer)buffer;
+	}
+    }
+}
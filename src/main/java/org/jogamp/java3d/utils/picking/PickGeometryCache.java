@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+
+package org.jogamp.java3d.utils.picking;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.jogamp.java3d.GeometryArray;
+
+/**
+ * A cache of bounding volume hierarchies used to speed up
+ * GEOMETRY_INTERSECT_INFO picking of large geometry.  The first time a
+ * GeometryArray made of triangles or quads is picked, a hierarchy of
+ * its primitives is built in the local coordinates of the geometry and
+ * kept in the cache.  Later picks with a ray, segment, cylinder or cone
+ * pick shape transform the pick shape into local coordinates and only
+ * test the primitives near it, instead of transforming and testing
+ * every vertex of the geometry.  The intersections found are the same
+ * as without the cache.
+ * <p>
+ * A hierarchy is rebuilt when the vertex count, index count, vertex
+ * format or by-reference coordinate array of its geometry changes.
+ * Java 3D doesn't report other changes, so after changing coordinates
+ * in place (for example with a GeometryUpdater or setCoordinates()),
+ * or changing the indices of indexed geometry (for example with
+ * setCoordinateIndices()), the geometry must be passed to
+ * invalidate().
+ * Geometry that is no longer used is dropped from the cache
+ * automatically.  One cache can be shared by several PickTools, and it
+ * may be used from several threads at the same time.
+ *
+ * @see PickTool#setGeometryCache(PickGeometryCache)
+ */
+public class PickGeometryCache {
+
+    private final Map<GeometryArray, GeometryBVH> hierarchies =
+	new WeakHashMap<GeometryArray, GeometryBVH>();
+
+    // geometry whose hierarchy is being built, mapped to an object
+    // identifying the latest build.  Guarded by hierarchies.
+    private final Map<GeometryArray, Object> building =
+	new WeakHashMap<GeometryArray, Object>();
+
+    /**
+     * Creates an empty cache.
+     */
+    public PickGeometryCache() {
+    }
+
+    /**
+     * Drops the hierarchy of a GeometryArray whose coordinates or
+     * indices have changed.  It is rebuilt the next time the geometry
+     * is picked.
+     * @param geom The GeometryArray that changed
+     */
+    public void invalidate(GeometryArray geom) {
+	synchronized (hierarchies) {
+	    hierarchies.remove(geom);
+	    building.remove(geom);
+	}
+    }
+
+    /**
+     * Drops all of the hierarchies in the cache.
+     */
+    public void clear() {
+	synchronized (hierarchies) {
+	    hierarchies.clear();
+	    building.clear();
+	}
+    }
+
+    /**
+     * Returns the hierarchy of the geometry, building it if needed, or
+     * null if the geometry should be tested primitive by primitive.
+     */
+    GeometryBVH get(GeometryArray geom) {
+	GeometryBVH bvh;
+	Object build;
+	synchronized (hierarchies) {
+	    bvh = hierarchies.get(geom);
+	    if ((bvh != null) && bvh.isCurrent(geom))
+		return bvh.isNone() ? null : bvh;
+	    build = new Object();
+	    building.put(geom, build);
+	}
+
+	// the hierarchy is built without holding the lock, so picks of
+	// other geometry and invalidate() aren't held up.  Geometry
+	// without a hierarchy gets a placeholder, so it isn't checked
+	// again on every pick.
+	GeometryBVH built = GeometryBVH.create(geom);
+	if (built == null) built = GeometryBVH.none(geom);
+
+	synchronized (hierarchies) {
+	    // keep a current hierarchy another thread put in meanwhile, and
+	    // don't keep one whose geometry was invalidated while building it
+	    boolean latest = (building.get(geom) == build);
+	    if (latest) building.remove(geom);
+	    bvh = hierarchies.get(geom);
+	    if ((bvh == null) || !bvh.isCurrent(geom)) {
+		bvh = built;
+		if (latest) hierarchies.put(geom, bvh);
+	    }
+	}
+	return bvh.isNone() ? null : bvh;
+    }
+}
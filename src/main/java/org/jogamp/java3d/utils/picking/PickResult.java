@@ -84,10 +84,12 @@ import org.jogamp.java3d.TransformGroup;
 import org.jogamp.java3d.TriangleArray;
 import org.jogamp.java3d.TriangleFanArray;
 import org.jogamp.java3d.TriangleStripArray;
+import org.jogamp.vecmath.Matrix3d;
 import org.jogamp.vecmath.Point2d;
 import org.jogamp.vecmath.Point3d;
 import org.jogamp.vecmath.Point3f;
 import org.jogamp.vecmath.Point4d;
+import org.jogamp.vecmath.SingularMatrixException;
 import org.jogamp.vecmath.Tuple3d;
 import org.jogamp.vecmath.Vector3d;
 import org.jogamp.vecmath.Vector4d;
@@ -256,6 +258,28 @@ public class PickResult {
     private Point3d 	pickShapeEnd = null;
     private Bounds 	pickShapeBounds = null;
 
+    /** hierarchies used to find the primitives near the pick shape */
+    private PickGeometryCache geometryCache = null;
+
+    /* the pick shape in the local coordinates of the geometry, see
+       toLocalPickShape() */
+    private boolean 	localPick = false;
+    private Transform3D 	vworldToLocal = null;
+    private Point3d 	localStart = null;
+    private Point3d 	localEnd = null;
+    private Vector3d 	localDir = null;
+    private boolean 	localSegment = false;
+    private double 	localDirLength;	/* length of localDir in vworld */
+    private double 	localScale;	/* vworld length of a local unit */
+    private double 	localRadius;
+    private double 	localAngle;
+
+    /* reads the local coordinates of the geometry being intersected */
+    private GeometryCoordinates coordinates = null;
+    /* scratch points for the primitive being intersected in local space */
+    private Point3d[][] localPrims = null;
+    private Point3d 	localPnt = null;
+
     static final Point3d zeroPnt = new Point3d();
 
     /** ArrayList to store intersection results
@@ -580,6 +604,11 @@ public class PickResult {
 	pickedNode = n;
     }
 
+    /** Set the cache of hierarchies used to speed up intersections */
+    void setGeometryCache(PickGeometryCache cache) {
+	geometryCache = cache;
+    }
+
     /** Get the first node of a certain type up the SceneGraphPath
       @param flags the type of node we are interested in
       @return a Node object
@@ -652,15 +681,14 @@ public class PickResult {
 	intersections = new ArrayList();
 	int hits = 0;
 
+	localPick = toLocalPickShape();
 	for (int i = 0; i < geometryArrays.length; i++) {
 	    if (intersect(i, firstIntersectOnly)) {
-		if (firstIntersectOnly) {
-		    return true;
-		} else {
-		    hits++;
-		}
+		hits++;
+		if (firstIntersectOnly) break;
 	    }
 	}
+	if (coordinates != null) coordinates.clear();
 	return (hits > 0);
     }
 
@@ -670,42 +698,21 @@ public class PickResult {
      *  it is (RTTI) and casts it to call the appropriate intersect method.
      */
     final boolean intersect(int geomIndex, boolean firstpick) {
-	int offset;
 	GeometryArray geom = geometryArrays[geomIndex];
 	int numPts = geom.getVertexCount();
-	double[] doubleData = null;
-	float[] floatData = null;
-	Point3d[] p3dData = null;
-	Point3f[] p3fData = null;
-	int vformat = geom.getVertexFormat();
-	int stride;
+	Point3d[] pnts = null;
 	boolean retFlag = false;
 
-	if ((vformat & GeometryArray.BY_REFERENCE) == 0) {
-	    doubleData = new double [numPts * 3];
-	    geom.getCoordinates (0, doubleData);
-	}
-	else {
-	    if ((vformat & GeometryArray.INTERLEAVED) == 0) {
-		doubleData = geom.getCoordRefDouble();
-		// If data was set as float then ..
-		if (doubleData == null) {
-		    floatData = geom.getCoordRefFloat();
-		    if (floatData == null) {
-			p3fData = geom.getCoordRef3f();
-			if (p3fData == null) {
-			    p3dData = geom.getCoordRef3d();
-			}
-		    }
-		}
-	    }
-	    else {
-		floatData = geom.getInterleavedVertices();
+	if ((geometryCache != null) && (vworldToLocal != null)) {
+	    GeometryBVH bvh = geometryCache.get(geom);
+	    if (bvh != null) {
+		int numint = intersectBVH(bvh, geom, geomIndex, firstpick);
+		if (numint >= 0) return (numint > 0);
 	    }
 	}
 
-
-	Point3d[] pnts = new Point3d[numPts];
+	if (coordinates == null) coordinates = new GeometryCoordinates();
+	if (!coordinates.set(geom)) return false;
 
 	/*
 	  System.out.println("geomIndex : " + geomIndex);
@@ -718,80 +725,17 @@ public class PickResult {
 	if (debug) {
 	    System.out.println("localToVWorld = " + localToVWorld);
 	}
-	if ((vformat & GeometryArray.INTERLEAVED) == 0) {
-	    if (doubleData != null) {
-		offset = 0;
-		for (int i=0; i < numPts; i++) {
-
-		    // Need to transform each pnt by localToVWorld.
-		    pnts[i] = new Point3d();
-		    pnts[i].x = doubleData[offset++];
-		    pnts[i].y = doubleData[offset++];
-		    pnts[i].z = doubleData[offset++];
 
-		    localToVWorld.transform(pnts[i]);
-		}
-	    }
-	    else  if (floatData != null) { // by reference and float data is defined ..
-		offset = 0;
-		for (int i=0; i < numPts; i++) {
-
-		    // Need to transform each pnt by localToVWorld.
-		    pnts[i] = new Point3d();
-		    pnts[i].x = floatData[offset++];
-		    pnts[i].y = floatData[offset++];
-		    pnts[i].z = floatData[offset++];
-
-		    localToVWorld.transform(pnts[i]);
-		}
-	    }
-	    else if (p3fData != null) {
-		for (int i=0; i < numPts; i++) {
-
-		    // Need to transform each pnt by localToVWorld.
-		    pnts[i] = new Point3d();
-		    pnts[i].set(p3fData[i]);
-		    localToVWorld.transform(pnts[i]);
-		}
-	    }
-	    else { // p3dData
-		for (int i=0; i < numPts; i++) {
-
-		    // Need to transform each pnt by localToVWorld.
-		    pnts[i] = new Point3d();
-		    pnts[i].set(p3dData[i]);
-		    localToVWorld.transform(pnts[i]);
-		}
-	    }
-	}
-	// Its an interleaved type ..
-	else {
-	    offset = 0;
-	    if ((vformat & GeometryArray.COLOR_3) == GeometryArray.COLOR_3) {
-		offset += 3;
-	    }
-	    else if ((vformat & GeometryArray.COLOR_4) == GeometryArray.COLOR_4) {
-		offset += 4;
-	    }
-	    if ((vformat & GeometryArray.NORMALS) != 0)
-		offset += 3;
-	    if ((vformat & GeometryArray.TEXTURE_COORDINATE_2) == GeometryArray.TEXTURE_COORDINATE_2) {
-		offset += 2 * geom.getTexCoordSetCount();
-	    }
-	    else if ((vformat & GeometryArray.TEXTURE_COORDINATE_3) == GeometryArray.TEXTURE_COORDINATE_3) {
-		offset += 3 * geom.getTexCoordSetCount();
-	    }
-	    stride = offset + 3; // for the vertices .
+	// With the pick shape in local space the primitives are read one
+	// at a time, pnts is only needed when intersecting in vworld.
+	if (!localPick) {
+	    pnts = new Point3d[numPts];
 	    for (int i=0; i < numPts; i++) {
 
 		// Need to transform each pnt by localToVWorld.
 		pnts[i] = new Point3d();
-		pnts[i].x = floatData[offset];
-		pnts[i].y = floatData[offset+1];
-		pnts[i].z = floatData[offset+2];
-
+		coordinates.get(i, pnts[i]);
 		localToVWorld.transform(pnts[i]);
-		offset += stride;
 	    }
 	}
 
@@ -852,6 +796,274 @@ public class PickResult {
 
 
 
+    /*  Intersects the pick shape with the primitives that the hierarchy
+     *  can't rule out, in the same order as the intersect methods for
+     *  each geometry type.  Returns the number of intersections, or -1
+     *  if the hierarchy can't be used with this pick shape.
+     */
+    int intersectBVH(GeometryBVH bvh, GeometryArray geom, int geomIndex,
+		     boolean firstpick) {
+	Point3d origin = new Point3d();
+	Vector3d dir = new Vector3d();
+	double grow = 0.0;
+	double tanAngle = 0.0;
+
+	switch (pickShapeType) {
+	case PICK_SHAPE_RAY:
+	case PICK_SHAPE_SEGMENT:
+	    origin.set(pickShapeStart);
+	    dir.set(pickShapeDir);
+	    break;
+	case PICK_SHAPE_CYLINDER:
+	    ((PickCylinder)pickShape).getOrigin(origin);
+	    ((PickCylinder)pickShape).getDirection(dir);
+	    grow = ((PickCylinder)pickShape).getRadius();
+	    break;
+	case PICK_SHAPE_CONE:
+	    ((PickCone)pickShape).getOrigin(origin);
+	    ((PickCone)pickShape).getDirection(dir);
+	    tanAngle = Math.tan(((PickCone)pickShape).getSpreadAngle());
+	    break;
+	default:
+	    return -1;
+	}
+
+	// Move the pick shape into local coordinates.  Segments are
+	// treated as rays, the tests for them can report hits past the
+	// end of the segment.
+	double len = dir.length();
+	if (!(len > 0.0)) return -1;
+	dir.scale(1.0 / len);
+	vworldToLocal.transform(origin);
+	vworldToLocal.transform(dir);
+	len = dir.length();
+	if (!(len > 0.0)) return -1;
+	dir.scale(1.0 / len);
+
+	// a distance in vworld is at most this many times longer in
+	// local coordinates
+	Matrix3d m = new Matrix3d();
+	vworldToLocal.getRotationScale(m);
+	double norm = Math.sqrt(m.m00*m.m00 + m.m01*m.m01 + m.m02*m.m02 +
+				m.m10*m.m10 + m.m11*m.m11 + m.m12*m.m12 +
+				m.m20*m.m20 + m.m21*m.m21 + m.m22*m.m22);
+
+	int prims[] = bvh.find(origin, dir, grow * norm, tanAngle * norm / len);
+	if (prims == null) return -1;
+
+	PickIntersection pi = new PickIntersection(this, geom);
+	if (geom instanceof IndexedGeometryArray) {
+	    pi.iGeom = (IndexedGeometryArray) geom;
+	}
+
+	int k = bvh.vertsPerPrim;
+	int[] vertIdx = new int[k];
+	int[] coordIdx = new int[k];
+	Point3d[] pnts = null;
+	int numint = 0;
+
+	if (localPick) {
+	    if (coordinates == null) coordinates = new GeometryCoordinates();
+	    coordinates.set(bvh.coords);
+	} else {
+	    pnts = new Point3d[k];
+	}
+	for (int i = 0; i < prims.length; i++) {
+	    int v = prims[i] * k;
+	    for (int j = 0; j < k; j++) {
+		vertIdx[j] = bvh.vertIdx[v + j];
+		coordIdx[j] = bvh.coordIdx[v + j];
+	    }
+	    if (!localPick) {
+		for (int j = 0; j < k; j++) {
+		    int c = coordIdx[j] * 3;
+		    // new points every time, the PickIntersection keeps them
+		    pnts[j] = new Point3d(bvh.coords[c], bvh.coords[c + 1],
+					  bvh.coords[c + 2]);
+		    localToVWorld.transform(pnts[j]);
+		    coordIdx[j] = j;
+		}
+	    }
+	    boolean hit;
+	    if (k == 3) {
+		hit = intersectTri(vertIdx, coordIdx, geomIndex, pnts, pi);
+	    } else {
+		hit = intersectQuad(vertIdx, coordIdx, geomIndex, pnts, pi);
+	    }
+	    if (hit) {
+		numint++;
+		if (firstpick) break;
+	    }
+	}
+	return numint;
+    }
+
+
+
+    /*  Moves the pick shape into the local coordinates of the picked
+     *  node, so that the primitives can be intersected without
+     *  transforming every vertex to vworld.  Rays and segments stay
+     *  rays and segments under any affine transform, cylinders and
+     *  cones only under angle preserving ones.  The ray parameter is
+     *  the same in both spaces, distances along the pick shape are
+     *  scaled back to vworld.  Returns false if the primitives have to
+     *  be intersected in vworld.
+     */
+    private boolean toLocalPickShape() {
+	vworldToLocal = null;
+	if ((pickShapeType != PICK_SHAPE_RAY) &&
+	    (pickShapeType != PICK_SHAPE_SEGMENT) &&
+	    (pickShapeType != PICK_SHAPE_CYLINDER) &&
+	    (pickShapeType != PICK_SHAPE_CONE)) {
+	    return false;
+	}
+
+	int type = localToVWorld.getType();
+	if ((type & Transform3D.AFFINE) == 0) return false;
+	Transform3D inverse = new Transform3D();
+	try {
+	    inverse.invert(localToVWorld);
+	} catch (SingularMatrixException e) {
+	    return false;
+	}
+	vworldToLocal = inverse;
+
+	if (localStart == null) localStart = new Point3d();
+	if (localEnd == null) localEnd = new Point3d();
+	if (localDir == null) localDir = new Vector3d();
+
+	switch (pickShapeType) {
+	case PICK_SHAPE_RAY:
+	case PICK_SHAPE_SEGMENT:
+	    localStart.set(pickShapeStart);
+	    localDir.set(pickShapeDir);
+	    break;
+	case PICK_SHAPE_CYLINDER:
+	    if ((type & Transform3D.CONGRUENT) == 0) return false;
+	    PickCylinder cyl = (PickCylinder)pickShape;
+	    cyl.getOrigin(localStart);
+	    cyl.getDirection(localDir);
+	    localSegment = (cyl instanceof PickCylinderSegment);
+	    if (localSegment) {
+		((PickCylinderSegment)cyl).getEnd(localEnd);
+		vworldToLocal.transform(localEnd);
+	    }
+	    break;
+	case PICK_SHAPE_CONE:
+	    if ((type & Transform3D.CONGRUENT) == 0) return false;
+	    PickCone cone = (PickCone)pickShape;
+	    cone.getOrigin(localStart);
+	    cone.getDirection(localDir);
+	    localAngle = cone.getSpreadAngle();
+	    localSegment = (cone instanceof PickConeSegment);
+	    if (localSegment) {
+		((PickConeSegment)cone).getEnd(localEnd);
+		vworldToLocal.transform(localEnd);
+	    }
+	    break;
+	}
+
+	localDirLength = localDir.length();
+	vworldToLocal.transform(localStart);
+	vworldToLocal.transform(localDir);
+	double len = localDir.length();
+	if (!(len > 0.0) || !(localDirLength > 0.0)) return false;
+	localScale = localDirLength / len;
+	if (pickShapeType == PICK_SHAPE_CYLINDER) {
+	    localRadius = ((PickCylinder)pickShape).getRadius() / localScale;
+	}
+
+	if (localPrims == null) {
+	    localPrims = new Point3d[4][];
+	    for (int i = 0; i < 4; i++) {
+		localPrims[i] = new Point3d[i + 1];
+		for (int j = 0; j <= i; j++) localPrims[i][j] = new Point3d();
+	    }
+	    localPnt = new Point3d();
+	}
+	return true;
+    }
+
+
+
+    /*  Intersects a point, line, triangle or quad with the pick shape
+     *  in local coordinates.  Only primitives that are hit are
+     *  transformed to vworld.
+     */
+    boolean intersectLocal(int[] vertidx, int[] coordidx, int geomIndex,
+			   int numVerts, PickIntersection pi) {
+	Point3d[] prim = localPrims[numVerts - 1];
+	for (int i = 0; i < numVerts; i++) {
+	    coordinates.get(coordidx[i], prim[i]);
+	}
+
+	// pi holds the intersection point in local coordinates
+	boolean intersect = false;
+	switch(pickShapeType) {
+	case PICK_SHAPE_RAY:
+	case PICK_SHAPE_SEGMENT:
+	    boolean isSegment = (pickShapeType == PICK_SHAPE_SEGMENT);
+	    if (numVerts == 1) {
+		intersect = intersectPntAndRay(prim[0], localStart, localDir, pi);
+	    } else if (numVerts == 2) {
+		intersect = intersectLineAndRay(prim[0], prim[1], localStart,
+						localDir, pi);
+	    } else {
+		intersect = intersectRayOrSegment(prim, localDir, localStart, pi,
+						  isSegment, localDirLength);
+	    }
+	    if (intersect && isSegment && (numVerts < 3)) {
+		intersect = (pi.getDistance() <= 1.0);
+	    }
+	    break;
+	case PICK_SHAPE_CYLINDER:
+	    if (numVerts == 1) {
+		intersect = intersectCylinder(prim[0], localStart, localDir,
+					      localSegment ? localEnd : null,
+					      localRadius, localScale, pi);
+	    } else {
+		intersect = intersectCylinder(prim, localStart, localDir,
+					      localSegment ? localEnd : null,
+					      localRadius, localScale, pi);
+	    }
+	    break;
+	case PICK_SHAPE_CONE:
+	    if (numVerts == 1) {
+		intersect = intersectCone(prim[0], localStart, localDir,
+					  localSegment ? localEnd : null,
+					  localAngle, localScale, pi);
+	    } else {
+		intersect = intersectCone(prim, localStart, localDir,
+					  localSegment ? localEnd : null,
+					  localAngle, localScale, pi);
+	    }
+	    break;
+	}
+	if (intersect) {
+	    PickIntersection newpi = new PickIntersection(this, pi.geom);
+	    newpi.iGeom = pi.iGeom;
+	    newpi.setDistance(pi.distance);
+	    localPnt.set(pi.getPointCoordinatesVW());
+	    localToVWorld.transform(localPnt);
+	    newpi.setPointCoordinatesVW(localPnt);
+
+	    // Set PickIntersection parameters
+	    newpi.setGeomIndex(geomIndex);
+	    newpi.setVertexIndices (vertidx);
+	    Point3d[] primVW = new Point3d[numVerts];
+	    for (int i = 0; i < numVerts; i++) {
+		primVW[i] = new Point3d(prim[i]);
+		localToVWorld.transform(primVW[i]);
+	    }
+	    newpi.setPrimitiveCoordinatesVW(primVW);
+	    intersections.add (newpi);
+	    return true;
+	}
+	return false;
+    }
+
+
+
     /* ==================================================================== */
     /*                 INTERSECT METHODS BY PRIMITIVE TYPE                  */
     /* ==================================================================== */
@@ -860,6 +1072,10 @@ public class PickResult {
 			   Point3d[] pnts, PickIntersection pi) {
 	// PickIntersection pi = new PickIntersection(this);
 
+	if (pnts == null) {
+	    return intersectLocal(vertidx, coordidx, geomIndex, 1, pi);
+	}
+
 	Point3d[] point = new Point3d[1];
 	point[0] = pnts[coordidx[0]];
 
@@ -923,6 +1139,10 @@ public class PickResult {
     boolean intersectLine(int[] vertidx, int[] coordidx, int geomIndex,
 			  Point3d[] pnts, PickIntersection pi) {
 
+	if (pnts == null) {
+	    return intersectLocal(vertidx, coordidx, geomIndex, 2, pi);
+	}
+
 	Point3d[] linePts = new Point3d[2];
 	linePts[0] = pnts[coordidx[0]];
 	linePts[1] = pnts[coordidx[1]];
@@ -994,6 +1214,10 @@ public class PickResult {
     boolean intersectTri(int[] vertidx, int[] coordidx, int geomIndex,
 			 Point3d[] pnts, PickIntersection pi) {
 
+	if (pnts == null) {
+	    return intersectLocal(vertidx, coordidx, geomIndex, 3, pi);
+	}
+
 	Point3d[] triPts = new Point3d[3];
 
 	triPts[0] = pnts[coordidx[0]];
@@ -1056,6 +1280,10 @@ public class PickResult {
     boolean intersectQuad(int[] vertidx, int[] coordidx, int geomIndex,
 			  Point3d[] pnts, PickIntersection pi) {
 
+	if (pnts == null) {
+	    return intersectLocal(vertidx, coordidx, geomIndex, 4, pi);
+	}
+
 	Point3d[] quadPts = new Point3d[4];
 
 	quadPts[0] = pnts[coordidx[0]];
@@ -1130,8 +1358,9 @@ public class PickResult {
 
 	int[] pntVertIdx = new int[1];
 	int numint = 0;
+	int vertexCount = geom.getVertexCount();
 
-	for (int i = 0; i < pnts.length; i++) {
+	for (int i = 0; i < vertexCount; i++) {
 	    pntVertIdx[0] = i;
 	    if (intersectPoint(pntVertIdx, pntVertIdx, geomIndex, pnts, pi)) {
 		numint++;
@@ -1183,8 +1412,9 @@ public class PickResult {
 	int[] lineVertIdx = new int[2];
 
 	int numint = 0;
+	int vertexCount = geom.getVertexCount();
 
-	for (int i=0; i< pnts.length;) {
+	for (int i=0; i< vertexCount;) {
 	    /* set up the parameters for the current line */
 	    lineVertIdx[0] = i++;
 	    lineVertIdx[1] = i++;
@@ -1305,7 +1535,8 @@ public class PickResult {
 	int[] triVertIdx = new int[3];
 
 	int numint = 0;
-	for (int i=0; i<pnts.length;) {
+	int vertexCount = geom.getVertexCount();
+	for (int i=0; i<vertexCount;) {
 	    triVertIdx[0] = i++;
 	    triVertIdx[1] = i++;
 	    triVertIdx[2] = i++;
@@ -1568,7 +1799,8 @@ public class PickResult {
 	int[] quadVertIdx = new int[4];
 
 	int numint = 0;
-	for (int i=0; i<pnts.length;) {
+	int vertexCount = geom.getVertexCount();
+	for (int i=0; i<vertexCount;) {
 	    quadVertIdx[0] = i++;
 	    quadVertIdx[1] = i++;
 	    quadVertIdx[2] = i++;
@@ -2522,7 +2754,21 @@ public class PickResult {
     static boolean intersectRayOrSegment(Point3d coordinates[],
 					 Vector3d direction, Point3d origin,
 					 PickIntersection pi, boolean isSegment) {
-	Vector3d vec0, vec1, pNrm, tempV3d;
+	return intersectRayOrSegment(coordinates, direction, origin, pi,
+				     isSegment, direction.length());
+    }
+
+    /**
+     *  Same as above, with the distance along the ray measured in units of
+     *  dirLength instead of the length of direction.  Used when the ray
+     *  has been moved to local coordinates and dirLength is the length of
+     *  direction in vworld.
+     * */
+    static boolean intersectRayOrSegment(Point3d coordinates[],
+					 Vector3d direction, Point3d origin,
+					 PickIntersection pi, boolean isSegment,
+					 double dirLength) {
+	Vector3d vec0, vec1, pNrm;
 	Point3d iPnt;
 
 	vec0 = new Vector3d();
@@ -2607,16 +2853,15 @@ public class PickResult {
 	}
 
 	// Plane equation: (p - p0)*pNrm = 0 or p*pNrm = pD;
-	tempV3d = new Vector3d();
-	tempV3d.set((Tuple3d) coordinates[0]);
-	pD = pNrm.dot(tempV3d);
-	tempV3d.set((Tuple3d) origin);
+	pD = pNrm.x*coordinates[0].x + pNrm.y*coordinates[0].y +
+	     pNrm.z*coordinates[0].z;
 
 	// Substitute Ray equation:
 	// p = origin + pi.distance*direction
 	// into the above Plane equation
 
-	double dist = (pD - pNrm.dot(tempV3d))/ pNrmDotrDir;
+	double dist = (pD - (pNrm.x*origin.x + pNrm.y*origin.y +
+			     pNrm.z*origin.z))/ pNrmDotrDir;
 
 	// Ray intersects the plane behind the ray's origin.
 	if ((dist < -EPS ) ||
@@ -2779,7 +3024,7 @@ public class PickResult {
 	}
 
 	if (isIntersect) {
-	    pi.setDistance(dist*direction.length());
+	    pi.setDistance(dist*dirLength);
 	    pi.setPointCoordinatesVW(iPnt);
 	}
 	return isIntersect;
@@ -3025,31 +3270,49 @@ public class PickResult {
 				      PickCylinder cyl, PickIntersection pi) {
 
 	Point3d origin = new Point3d();
-	Point3d end = new Point3d();
+	Point3d end = null;
 	Vector3d direction = new Vector3d();
-	Point3d iPnt1 = new Point3d();
-	Point3d iPnt2 = new Point3d();
-	Vector3d originToIpnt = new Vector3d();
 
 	// Get cylinder information
 	cyl.getOrigin (origin);
 	cyl.getDirection (direction);
-	double radius = cyl.getRadius ();
 
 	if (cyl instanceof PickCylinderSegment) {
+	    end = new Point3d();
 	    ((PickCylinderSegment)cyl).getEnd (end);
 	}
+	return intersectCylinder (coordinates, origin, direction, end,
+				  cyl.getRadius(), 1.0, pi);
+    }
+
+    /**
+      Same as above, with the cylinder given by its origin, direction,
+      end (null for an infinite cylinder) and radius.  The distance is
+      multiplied by scale.
+      */
+    static boolean intersectCylinder (Point3d coordinates[], Point3d origin,
+				      Vector3d direction, Point3d end,
+				      double radius, double scale,
+				      PickIntersection pi) {
+
+	Point3d iPnt1 = new Point3d();
+	Point3d iPnt2 = new Point3d();
+	Vector3d originToIpnt = new Vector3d();
 
 	// If the ray intersects, we're good (do not do this if we only have
 	// a segment
 	if (coordinates.length > 2) {
-	    if (cyl instanceof PickCylinderRay) {
-		if (intersectRay (coordinates, new PickRay (origin, direction), pi)) {
+	    if (end == null) {
+		if (intersectRayOrSegment (coordinates, direction, origin, pi,
+					   false, scale*direction.length())) {
 		    return true;
 		}
 	    }
 	    else {
-		if (intersectSegment (coordinates, new PickSegment (origin, end), pi)) {
+		Vector3d segDir = new Vector3d();
+		segDir.sub (end, origin);
+		if (intersectRayOrSegment (coordinates, segDir, origin, pi,
+					   true, scale*segDir.length())) {
 		    return true;
 		}
 	    }
@@ -3058,7 +3321,7 @@ public class PickResult {
 	// Ray doesn't intersect, check distance to edges
 	double sqDistToEdge;
 	for (int i=0; i<coordinates.length-1;i++) {
-	    if (cyl instanceof PickCylinderSegment) {
+	    if (end != null) {
 		sqDistToEdge =
 		    Distance.segmentToSegment (origin, end,
 					       coordinates[i], coordinates[i+1],
@@ -3073,7 +3336,7 @@ public class PickResult {
 	    if (sqDistToEdge <= radius*radius) {
 		pi.setPointCoordinatesVW (iPnt2);
 		originToIpnt.sub (iPnt1, origin);
-		pi.setDistance (originToIpnt.length());
+		pi.setDistance (originToIpnt.length()*scale);
 		return true;
 	    }
 	}
@@ -3088,35 +3351,52 @@ public class PickResult {
 				  PickCone cone, PickIntersection pi) {
 
 	Point3d origin = new Point3d();
-	Point3d end = new Point3d();
+	Point3d end = null;
 	Vector3d direction = new Vector3d();
-	Vector3d originToIpnt = new Vector3d();
-	double distance;
-
-	Point3d iPnt1 = new Point3d();
-	Point3d iPnt2 = new Point3d();
-	Vector3d vector = new Vector3d();
 
 	// Get cone information
 	cone.getOrigin (origin);
 	cone.getDirection (direction);
-	double radius;
 
 	if (cone instanceof PickConeSegment) {
+	    end = new Point3d();
 	    ((PickConeSegment)cone).getEnd (end);
 	}
+	return intersectCone (coordinates, origin, direction, end,
+			      cone.getSpreadAngle(), 1.0, pi);
+    }
+
+    /**
+      Same as above, with the cone given by its origin, direction, end
+      (null for an infinite cone) and spread angle.  The distance is
+      multiplied by scale.
+      */
+    static boolean intersectCone (Point3d coordinates[], Point3d origin,
+				  Vector3d direction, Point3d end,
+				  double angle, double scale,
+				  PickIntersection pi) {
+
+	Vector3d originToIpnt = new Vector3d();
+	double distance;
+
+	Point3d iPnt1 = new Point3d();
+	Point3d iPnt2 = new Point3d();
+	double radius;
 
 	// If the ray intersects, we're good (do not do this if we only have
 	// a segment
 	if (coordinates.length > 2) {
-	    if (cone instanceof PickConeRay) {
-		if (intersectRay (coordinates, new PickRay (origin, direction), pi)) {
+	    if (end == null) {
+		if (intersectRayOrSegment (coordinates, direction, origin, pi,
+					   false, scale*direction.length())) {
 		    return true;
 		}
 	    }
 	    else {
-		if (intersectSegment (coordinates, new PickSegment (origin, end),
-				      pi)) {
+		Vector3d segDir = new Vector3d();
+		segDir.sub (end, origin);
+		if (intersectRayOrSegment (coordinates, segDir, origin, pi,
+					   true, scale*segDir.length())) {
 		    return true;
 		}
 	    }
@@ -3125,7 +3405,7 @@ public class PickResult {
 	// Ray doesn't intersect, check distance to edges
 	double sqDistToEdge;
 	for (int i=0; i<coordinates.length-1;i++) {
-	    if (cone instanceof PickConeSegment) {
+	    if (end != null) {
 		sqDistToEdge =
 		    Distance.segmentToSegment (origin, end,
 					       coordinates[i], coordinates[i+1],
@@ -3139,11 +3419,11 @@ public class PickResult {
 	    }
 	    originToIpnt.sub (iPnt1, origin);
 	    distance = originToIpnt.length();
-	    radius = Math.tan (cone.getSpreadAngle()) * distance;
+	    radius = Math.tan (angle) * distance;
 	    if (sqDistToEdge <= radius*radius) {
 		//	System.out.println ("intersectCone: edge "+i+" intersected");
 		pi.setPointCoordinatesVW (iPnt2);
-		pi.setDistance (distance);
+		pi.setDistance (distance*scale);
 		return true;
 	    }
 	}
@@ -3159,19 +3439,36 @@ public class PickResult {
 				      PickCylinder cyl, PickIntersection pi) {
 
 	Point3d origin = new Point3d();
-	Point3d end = new Point3d();
+	Point3d end = null;
 	Vector3d direction = new Vector3d();
-	Point3d iPnt = new Point3d();
-	Vector3d originToIpnt = new Vector3d();
 
 	// Get cylinder information
 	cyl.getOrigin (origin);
 	cyl.getDirection (direction);
-	double radius = cyl.getRadius ();
-	double sqDist;
 
 	if (cyl instanceof PickCylinderSegment) {
+	    end = new Point3d();
 	    ((PickCylinderSegment)cyl).getEnd (end);
+	}
+	return intersectCylinder (pt, origin, direction, end,
+				  cyl.getRadius(), 1.0, pi);
+    }
+
+    /**
+      Same as above, with the cylinder given by its origin, direction,
+      end (null for an infinite cylinder) and radius.  The distance is
+      multiplied by scale.
+      */
+    static boolean intersectCylinder (Point3d pt, Point3d origin,
+				      Vector3d direction, Point3d end,
+				      double radius, double scale,
+				      PickIntersection pi) {
+
+	Point3d iPnt = new Point3d();
+	Vector3d originToIpnt = new Vector3d();
+	double sqDist;
+
+	if (end != null) {
 	    sqDist = Distance.pointToSegment (pt, origin, end, iPnt, null);
 	}
 	else {
@@ -3180,7 +3477,7 @@ public class PickResult {
 	if (sqDist <= radius*radius) {
 	    pi.setPointCoordinatesVW (pt);
 	    originToIpnt.sub (iPnt, origin);
-	    pi.setDistance (originToIpnt.length());
+	    pi.setDistance (originToIpnt.length()*scale);
 	    return true;
 	}
 	return false;
@@ -3195,20 +3492,38 @@ public class PickResult {
 	//    System.out.println ("Intersect.intersectCone point");
 
 	Point3d origin = new Point3d();
-	Point3d end = new Point3d();
+	Point3d end = null;
 	Vector3d direction = new Vector3d();
-	Point3d iPnt = new Point3d();// the closest point on the cone vector
-	Vector3d originToIpnt = new Vector3d();
 
 	// Get cone information
 	cone.getOrigin (origin);
 	cone.getDirection (direction);
+
+	if (cone instanceof PickConeSegment) {
+	    end = new Point3d();
+	    ((PickConeSegment)cone).getEnd (end);
+	}
+	return intersectCone (pt, origin, direction, end,
+			      cone.getSpreadAngle(), 1.0, pi);
+    }
+
+    /**
+      Same as above, with the cone given by its origin, direction, end
+      (null for an infinite cone) and spread angle.  The distance is
+      multiplied by scale.
+      */
+    static boolean intersectCone (Point3d pt, Point3d origin,
+				  Vector3d direction, Point3d end,
+				  double angle, double scale,
+				  PickIntersection pi) {
+
+	Point3d iPnt = new Point3d();// the closest point on the cone vector
+	Vector3d originToIpnt = new Vector3d();
 	double radius;
 	double distance;
 	double sqDist;
 
-	if (cone instanceof PickConeSegment) {
-	    ((PickConeSegment)cone).getEnd (end);
+	if (end != null) {
 	    sqDist = Distance.pointToSegment (pt, origin, end, iPnt, null);
 	}
 	else {
@@ -3216,10 +3531,10 @@ public class PickResult {
 	}
 	originToIpnt.sub (iPnt, origin);
 	distance = originToIpnt.length();
-	radius = Math.tan (cone.getSpreadAngle()) * distance;
+	radius = Math.tan (angle) * distance;
 	if (sqDist <= radius*radius) {
 	    pi.setPointCoordinatesVW (pt);
-	    pi.setDistance (distance);
+	    pi.setDistance (distance*scale);
 	    return true;
 	}
 	return false;
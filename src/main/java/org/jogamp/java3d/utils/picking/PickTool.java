@@ -156,6 +156,12 @@ public class PickTool {
     /* pick mode, one of BOUNDS, GEOMETRY, etc. */
     int mode = BOUNDS;
 
+    /* hierarchies used for GEOMETRY_INTERSECT_INFO picks, may be null */
+    PickGeometryCache geometryCache = null;
+
+    /* index of the shapes to pick, used instead of the scene graph */
+    ShapeBoundsTree boundsTree = null;
+
     /** Use this mode to pick by bounds and get basic information
         on the pick.
     */
@@ -472,6 +478,49 @@ p	 @param end The end of the segment
 	return start;
     }
 
+    /**
+     * Sets the cache of bounding volume hierarchies used to speed up
+     * GEOMETRY_INTERSECT_INFO picks with rays, segments, cylinders and
+     * cones.  The same cache may be shared by several PickTools.  The
+     * intersections found are the same as without a cache.  Passing
+     * null (the default) turns the cache off.
+     * @param cache the cache to use, or null
+     * @see PickGeometryCache
+     */
+    public void setGeometryCache(PickGeometryCache cache) {
+	geometryCache = cache;
+    }
+
+    /**
+     * Returns the cache of bounding volume hierarchies set with
+     * setGeometryCache(), or null if there is none.
+     */
+    public PickGeometryCache getGeometryCache() {
+	return geometryCache;
+    }
+
+    /**
+     * Sets the index used to find the nodes whose bounds intersect the
+     * pick shape, instead of asking the BranchGroup or Locale of this
+     * tool.  This is used by the BOUNDS and GEOMETRY_INTERSECT_INFO
+     * modes; the GEOMETRY mode still picks through the scene graph.
+     * The index must be kept up to date by the application.  Passing
+     * null (the default) turns the index off.
+     * @param tree the index to use, or null
+     * @see ShapeBoundsTree
+     */
+    public void setBoundsTree(ShapeBoundsTree tree) {
+	boundsTree = tree;
+    }
+
+    /**
+     * Returns the index set with setBoundsTree(), or null if there is
+     * none.
+     */
+    public ShapeBoundsTree getBoundsTree() {
+	return boundsTree;
+    }
+
     /** Selects all the nodes that intersect the PickShape.
       @return An array of <code>PickResult</code> objects which will contain
        information about the picked instances. <code>null</code> if nothing was
@@ -602,7 +651,9 @@ p	 @param end The end of the segment
 	PickResult[] pr = null;
 	SceneGraphPath[] sgp = null;
 
-	if (pickRootBG != null) {
+	if (boundsTree != null) {
+	    sgp = boundsTree.pickAll (pickShape);
+	} else if (pickRootBG != null) {
 	    sgp = pickRootBG.pickAll (pickShape);
 	} else if (pickRootL != null) {
 	    sgp = pickRootL.pickAll (pickShape);
@@ -621,7 +672,9 @@ p	 @param end The end of the segment
 	PickResult[] pr = null;
 	SceneGraphPath[] sgp = null;
 
-	if (pickRootBG != null) {
+	if (boundsTree != null) {
+	    sgp = boundsTree.pickAllSorted (pickShape);
+	} else if (pickRootBG != null) {
 	    sgp = pickRootBG.pickAllSorted (pickShape);
 	} else if (pickRootL != null) {
 	    sgp = pickRootL.pickAllSorted (pickShape);
@@ -640,7 +693,9 @@ p	 @param end The end of the segment
 	PickResult pr = null;
 	SceneGraphPath sgp = null;
 
-	if (pickRootBG != null) {
+	if (boundsTree != null) {
+	    sgp = boundsTree.pickAny (pickShape);
+	} else if (pickRootBG != null) {
 	    sgp = pickRootBG.pickAny (pickShape);
 	} else if (pickRootL != null) {
 	    sgp = pickRootL.pickAny (pickShape);
@@ -656,7 +711,9 @@ p	 @param end The end of the segment
 	PickResult pr = null;
 	SceneGraphPath sgp = null;
 
-	if (pickRootBG != null) {
+	if (boundsTree != null) {
+	    sgp = boundsTree.pickClosest (pickShape);
+	} else if (pickRootBG != null) {
 	    sgp = pickRootBG.pickClosest (pickShape);
 	} else if (pickRootL != null) {
 	    sgp = pickRootL.pickClosest (pickShape);
@@ -820,7 +877,9 @@ p	 @param end The end of the segment
 	int i, cnt=0;
 
 	// First pass
-	if (pickRootBG != null) {
+	if (boundsTree != null) {
+	    sgp = boundsTree.pickAll(pickShape);
+	} else if (pickRootBG != null) {
 	    sgp = pickRootBG.pickAll(pickShape);
 	} else if (pickRootL != null) {
 	    sgp = pickRootL.pickAll(pickShape);
@@ -833,6 +892,7 @@ p	 @param end The end of the segment
 	PickResult[] pr = new PickResult[sgp.length];
 	for (i=0; i<sgp.length; i++) {
 	    pr[i] = new PickResult (sgp[i], pickShape);
+	    pr[i].setGeometryCache(geometryCache);
 	    if (pr[i].numIntersections() > 0) {
 		found[i] = true;
 		cnt++;
@@ -858,7 +918,9 @@ p	 @param end The end of the segment
 	double[] dist = new double[1];
 
 	// First pass
-	if (pickRootBG != null) {
+	if (boundsTree != null) {
+	    sgp = boundsTree.pickAll(pickShape);
+	} else if (pickRootBG != null) {
 	    sgp = pickRootBG.pickAll(pickShape);
 	} else if (pickRootL != null) {
 	    sgp = pickRootL.pickAll(pickShape);
@@ -877,6 +939,7 @@ p	 @param end The end of the segment
 	PickResult[] pr = new PickResult[sgp.length];
 	for (i=0; i<sgp.length; i++) {
  	    pr[i] = new PickResult(sgp[i], pickShape);
+	    pr[i].setGeometryCache(geometryCache);
 	    int numIntersection = pr[i].numIntersections();
 	    if (numIntersection > 0) {
 		// System.out.println ("numIntersection " + numIntersection);
@@ -958,7 +1021,9 @@ p	 @param end The end of the segment
 	int i;
 	SceneGraphPath[] sgpa = null;
 
-	if (pickRootBG != null) {
+	if (boundsTree != null) {
+	    sgpa = boundsTree.pickAll(pickShape);
+	} else if (pickRootBG != null) {
 	    sgpa = pickRootBG.pickAll(pickShape);
 	} else if (pickRootL != null) {
 	    sgpa = pickRootL.pickAll(pickShape);
@@ -967,6 +1032,7 @@ p	 @param end The end of the segment
 	for(i=0; i<sgpa.length; i++) {
 	    PickResult pr = new PickResult(sgpa[i], pickShape);
 	    pr.setFirstIntersectOnly(true);
+	    pr.setGeometryCache(geometryCache);
 	    if (pr.numIntersections() > 0) {
 		return pr;
 	    }
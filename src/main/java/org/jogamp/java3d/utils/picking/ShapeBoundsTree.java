@@ -0,0 +1,895 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+package org.jogamp.java3d.utils.picking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import org.jogamp.java3d.BoundingBox;
+import org.jogamp.java3d.Bounds;
+import org.jogamp.java3d.BranchGroup;
+import org.jogamp.java3d.Group;
+import org.jogamp.java3d.Link;
+import org.jogamp.java3d.Locale;
+import org.jogamp.java3d.Morph;
+import org.jogamp.java3d.Node;
+import org.jogamp.java3d.PickBounds;
+import org.jogamp.java3d.PickCone;
+import org.jogamp.java3d.PickConeSegment;
+import org.jogamp.java3d.PickCylinder;
+import org.jogamp.java3d.PickCylinderSegment;
+import org.jogamp.java3d.PickPoint;
+import org.jogamp.java3d.PickRay;
+import org.jogamp.java3d.PickSegment;
+import org.jogamp.java3d.PickShape;
+import org.jogamp.java3d.SceneGraphPath;
+import org.jogamp.java3d.Shape3D;
+import org.jogamp.java3d.SharedGroup;
+import org.jogamp.java3d.Switch;
+import org.jogamp.java3d.Transform3D;
+import org.jogamp.java3d.TransformGroup;
+import org.jogamp.vecmath.Point3d;
+import org.jogamp.vecmath.Vector3d;
+
+/**
+ * An index of the virtual world bounds of the Shape3D and Morph nodes
+ * below a BranchGroup, used to find the nodes a pick shape may
+ * intersect without walking the whole scene graph.  The bounds are
+ * kept in a dynamic tree of axis aligned boxes.  Each box is made a
+ * little larger than the bounds it holds, so a node that moves by a
+ * small amount stays where it is in the tree.
+ * <p>
+ * The index is a snapshot: it is built by the constructor and does not
+ * follow changes to the scene graph by itself.  After changing the
+ * transform of a TransformGroup, the bounds of a shape, the children
+ * of a group or the active children of a Switch, call update(Node)
+ * with the node that changed, or update() to rebuild the whole index.
+ * update(Node) adds and moves the shapes below the node, but only
+ * update() drops shapes that have been removed or hidden.
+ * <p>
+ * The index follows TransformGroups, the active children of Switch
+ * nodes and Links, and skips nodes that aren't pickable, like the
+ * picking in Java 3D does.  Nodes above the BranchGroup are not part
+ * of the returned SceneGraphPaths.  If the BranchGroup is live, the
+ * read capabilities of the nodes below it must be set (they are by
+ * default), and the BranchGroup must allow its local to vworld
+ * transform to be read.
+ * <p>
+ * Rays, points and PickBounds are tested against the vworld bounds of
+ * the shapes, the way Java 3D does.  Segments, cylinders and cones are
+ * tested against the box around the vworld bounds, which may report a
+ * few more shapes than Java 3D.  Sorted picks are ordered by the
+ * distance from the start of the pick shape to the box around each
+ * shape, or, for PickBounds and PickPoint, to its center.
+ * <p>
+ * All of the methods of this class are synchronized, so one index can
+ * be shared by several PickTools.
+ *
+ * @see PickTool#setBoundsTree(ShapeBoundsTree)
+ */
+public class ShapeBoundsTree {
+
+    private static final int NULL_NODE = -1;
+
+    // fraction of the size of a box added on each side in the tree
+    private static final double MARGIN = 0.1;
+
+    // kinds of query
+    private static final int QUERY_AXIS = 0;
+    private static final int QUERY_BOX = 1;
+    private static final int QUERY_ALL = 2;
+
+    /*
+     * The transform to vworld and the reported nodes shared by the
+     * children of a group.  links holds the Links above the group,
+     * which together with a shape identify one instance of it.
+     */
+    private static class Frame {
+	final Transform3D localToVworld;
+	final Node[] path;
+	final Node[] links;
+
+	Frame(Transform3D localToVworld, Node[] path, Node[] links) {
+	    this.localToVworld = localToVworld;
+	    this.path = path;
+	    this.links = links;
+	}
+    }
+
+    // one instance of a shape
+    private static class Entry {
+	final Node node;
+	Frame frame;
+	Bounds bounds;		// vworld bounds, null if empty
+	final double[] box = new double[6];
+	int proxy = NULL_NODE;
+	boolean unbounded;
+	int stamp;
+	double distance;
+
+	Entry(Node node) {
+	    this.node = node;
+	}
+    }
+
+    private static final Frame SHARED = new Frame(null, null, null);
+
+    private static final Node[] NO_NODES = new Node[0];
+
+    private static final Comparator<Entry> BY_DISTANCE =
+	new Comparator<Entry>() {
+	    @Override
+	    public int compare(Entry a, Entry b) {
+		return Double.compare(a.distance, b.distance);
+	    }
+	};
+
+    private final BranchGroup root;
+
+    // shapes by node, or by the list of Links and the node if shared
+    private final HashMap<Object, Entry> entries =
+	new HashMap<Object, Entry>();
+
+    // the frame each node was last reached in, or SHARED
+    private final IdentityHashMap<Node, Frame> frames =
+	new IdentityHashMap<Node, Frame>();
+
+    // shapes with infinite bounds, which are always tested
+    private final ArrayList<Entry> unbounded = new ArrayList<Entry>();
+
+    private int stamp = 0;
+
+    // the tree, boxes[6*n] to boxes[6*n+5] is the box of node n
+    private double[] boxes = new double[6 * 16];
+    private int[] parent = new int[16];
+    private int[] child1 = new int[16];
+    private int[] child2 = new int[16];
+    private int[] height = new int[16];
+    private Entry[] leaves = new Entry[16];
+    private int treeRoot = NULL_NODE;
+    private int nodeCount = 0;
+    private int freeList = NULL_NODE;
+    private int[] stack = new int[64];
+
+    // the current query
+    private int queryType;
+    private PickShape queryShape;
+    private final Point3d queryOrigin = new Point3d();
+    private final Vector3d queryDir = new Vector3d();
+    private final double[] origin = new double[3];
+    private final double[] dir = new double[3];
+    private final double[] lower = new double[3];
+    private final double[] upper = new double[3];
+    private double maxDist;
+    private double grow;
+    private double slope;
+    private double enter;
+
+    private final BoundingBox tmpBox = new BoundingBox();
+    private final Point3d tmpPnt = new Point3d();
+    private final Point3d tmpPnt2 = new Point3d();
+    private final Transform3D tmpTrans = new Transform3D();
+
+    /**
+     * Creates the index of the shapes below a BranchGroup.
+     * @param root The BranchGroup to index
+     */
+    public ShapeBoundsTree(BranchGroup root) {
+	this.root = root;
+	update();
+    }
+
+    /**
+     * Returns the BranchGroup this index was created with.
+     */
+    public BranchGroup getBranchGroup() {
+	return root;
+    }
+
+    /**
+     * Walks the whole scene graph below the BranchGroup again, adding,
+     * moving and dropping shapes as needed.
+     */
+    public synchronized void update() {
+	frames.clear();
+	stamp++;
+
+	Transform3D localToVworld = new Transform3D();
+	if (root.isLive()) {
+	    root.getLocalToVworld(localToVworld);
+	}
+	visit(root, new Frame(localToVworld, NO_NODES, NO_NODES));
+
+	Iterator<Entry> iter = entries.values().iterator();
+	while (iter.hasNext()) {
+	    Entry e = iter.next();
+	    if (e.stamp != stamp) {
+		remove(e);
+		iter.remove();
+	    }
+	}
+    }
+
+    /**
+     * Updates the shapes below a node after it changed, for example
+     * after setting the transform of a TransformGroup or adding a
+     * child to a group.  Shapes that are no longer below the node are
+     * kept until the next call to update().  If the node is not part
+     * of the index yet, or is below a SharedGroup, the whole index is
+     * updated.
+     * @param node The node that changed
+     */
+    public synchronized void update(Node node) {
+	Frame frame = frames.get(node);
+	if ((frame == null) || (frame == SHARED)) {
+	    update();
+	    return;
+	}
+	stamp++;
+	visit(node, frame);
+    }
+
+    synchronized SceneGraphPath[] pickAll(PickShape pickShape) {
+	ArrayList<Entry> hits = query(pickShape, false);
+	if (hits.size() == 0) return null;
+	return toPaths(hits);
+    }
+
+    synchronized SceneGraphPath[] pickAllSorted(PickShape pickShape) {
+	ArrayList<Entry> hits = query(pickShape, false);
+	if (hits.size() == 0) return null;
+	Collections.sort(hits, BY_DISTANCE);
+	return toPaths(hits);
+    }
+
+    synchronized SceneGraphPath pickAny(PickShape pickShape) {
+	ArrayList<Entry> hits = query(pickShape, true);
+	if (hits.size() == 0) return null;
+	return toPath(hits.get(0));
+    }
+
+    synchronized SceneGraphPath pickClosest(PickShape pickShape) {
+	ArrayList<Entry> hits = query(pickShape, false);
+	if (hits.size() == 0) return null;
+	Entry closest = hits.get(0);
+	for (int i = 1; i < hits.size(); i++) {
+	    if (hits.get(i).distance < closest.distance) closest = hits.get(i);
+	}
+	return toPath(closest);
+    }
+
+    private SceneGraphPath[] toPaths(ArrayList<Entry> hits) {
+	SceneGraphPath[] sgp = new SceneGraphPath[hits.size()];
+	for (int i = 0; i < sgp.length; i++) {
+	    sgp[i] = toPath(hits.get(i));
+	}
+	return sgp;
+    }
+
+    private SceneGraphPath toPath(Entry e) {
+	SceneGraphPath sgp =
+	    new SceneGraphPath(root.getLocale(), e.frame.path, e.node);
+	sgp.setTransform(e.frame.localToVworld);
+	return sgp;
+    }
+
+    // ================================================================
+    // SCENE GRAPH TRAVERSAL
+    // ================================================================
+
+    private void visit(Node node, Frame frame) {
+	frames.put(node, (frame.links.length > 0) ? SHARED : frame);
+	if (!node.getPickable()) return;
+
+	if ((node instanceof Shape3D) || (node instanceof Morph)) {
+	    visitShape(node, frame);
+	} else if (node instanceof Link) {
+	    SharedGroup shared = ((Link)node).getSharedGroup();
+	    if (shared != null) {
+		visitChildren(shared, new Frame(frame.localToVworld,
+			append(frame.path, node), append(frame.links, node)));
+	    }
+	} else if (node instanceof Group) {
+	    Frame childFrame = frame;
+	    if (node instanceof TransformGroup) {
+		Transform3D localToVworld = new Transform3D();
+		((TransformGroup)node).getTransform(localToVworld);
+		localToVworld.mul(frame.localToVworld, localToVworld);
+		childFrame = new Frame(localToVworld, frame.path, frame.links);
+	    }
+	    if (node.getCapability(Node.ENABLE_PICK_REPORTING)) {
+		childFrame = new Frame(childFrame.localToVworld,
+			append(childFrame.path, node), childFrame.links);
+	    }
+	    visitChildren((Group)node, childFrame);
+	}
+    }
+
+    private void visitChildren(Group group, Frame frame) {
+	int numChildren = group.numChildren();
+	if (group instanceof Switch) {
+	    Switch sw = (Switch) group;
+	    int which = sw.getWhichChild();
+	    if (which == Switch.CHILD_MASK) {
+		BitSet mask = sw.getChildMask();
+		for (int i = 0; i < numChildren; i++) {
+		    if (mask.get(i)) visitChild(group.getChild(i), frame);
+		}
+		return;
+	    } else if (which != Switch.CHILD_ALL) {
+		if ((which >= 0) && (which < numChildren)) {
+		    visitChild(group.getChild(which), frame);
+		}
+		return;
+	    }
+	}
+	for (int i = 0; i < numChildren; i++) {
+	    visitChild(group.getChild(i), frame);
+	}
+    }
+
+    private void visitChild(Node child, Frame frame) {
+	if (child != null) visit(child, frame);
+    }
+
+    private void visitShape(Node node, Frame frame) {
+	Object key = node;
+	if (frame.links.length > 0) {
+	    key = Arrays.asList(append(frame.links, node));
+	}
+	Entry e = entries.get(key);
+	if (e == null) {
+	    e = new Entry(node);
+	    entries.put(key, e);
+	}
+	e.frame = frame;
+	e.stamp = stamp;
+
+	Bounds bounds = node.getBounds();
+	if ((bounds != null) && !bounds.isEmpty()) {
+	    bounds = (Bounds) bounds.clone();
+	    bounds.transform(frame.localToVworld);
+	} else {
+	    bounds = null;
+	}
+	e.bounds = bounds;
+	move(e);
+    }
+
+    private static Node[] append(Node[] nodes, Node node) {
+	Node[] result = new Node[nodes.length + 1];
+	System.arraycopy(nodes, 0, result, 0, nodes.length);
+	result[nodes.length] = node;
+	return result;
+    }
+
+    // ================================================================
+    // TREE MAINTENANCE
+    // ================================================================
+
+    // puts the entry where its bounds say it should be
+    private void move(Entry e) {
+	boolean finite = false;
+	if (e.bounds != null) {
+	    tmpBox.set(e.bounds);
+	    tmpBox.getLower(tmpPnt);
+	    tmpBox.getUpper(tmpPnt2);
+	    double[] box = e.box;
+	    box[0] = tmpPnt.x;  box[1] = tmpPnt.y;  box[2] = tmpPnt.z;
+	    box[3] = tmpPnt2.x; box[4] = tmpPnt2.y; box[5] = tmpPnt2.z;
+	    finite = true;
+	    for (int i = 0; i < 6; i++) {
+		if (Double.isInfinite(box[i]) || Double.isNaN(box[i])) {
+		    finite = false;
+		}
+	    }
+	}
+
+	if ((e.bounds != null) && !finite) {
+	    removeProxy(e);
+	    if (!e.unbounded) {
+		e.unbounded = true;
+		unbounded.add(e);
+	    }
+	    return;
+	}
+	if (e.unbounded) {
+	    e.unbounded = false;
+	    unbounded.remove(e);
+	}
+	if (e.bounds == null) {
+	    removeProxy(e);
+	    return;
+	}
+
+	if (e.proxy != NULL_NODE) {
+	    if (contains(e.proxy, e.box)) return;
+	    removeLeaf(e.proxy);
+	} else {
+	    e.proxy = allocateNode();
+	    leaves[e.proxy] = e;
+	}
+
+	double[] box = e.box;
+	double margin = MARGIN * Math.max(box[3] - box[0],
+		Math.max(box[4] - box[1], box[5] - box[2]));
+	int o = 6 * e.proxy;
+	for (int i = 0; i < 3; i++) {
+	    boxes[o + i] = box[i] - margin;
+	    boxes[o + 3 + i] = box[3 + i] + margin;
+	}
+	insertLeaf(e.proxy);
+    }
+
+    private void remove(Entry e) {
+	removeProxy(e);
+	if (e.unbounded) {
+	    e.unbounded = false;
+	    unbounded.remove(e);
+	}
+    }
+
+    private void removeProxy(Entry e) {
+	if (e.proxy != NULL_NODE) {
+	    removeLeaf(e.proxy);
+	    freeNode(e.proxy);
+	    e.proxy = NULL_NODE;
+	}
+    }
+
+    private boolean contains(int node, double[] box) {
+	int o = 6 * node;
+	return (boxes[o] <= box[0]) && (boxes[o + 1] <= box[1]) &&
+	    (boxes[o + 2] <= box[2]) && (boxes[o + 3] >= box[3]) &&
+	    (boxes[o + 4] >= box[4]) && (boxes[o + 5] >= box[5]);
+    }
+
+    private int allocateNode() {
+	if (freeList == NULL_NODE) {
+	    if (nodeCount == parent.length) {
+		int size = 2 * nodeCount;
+		boxes = Arrays.copyOf(boxes, 6 * size);
+		parent = Arrays.copyOf(parent, size);
+		child1 = Arrays.copyOf(child1, size);
+		child2 = Arrays.copyOf(child2, size);
+		height = Arrays.copyOf(height, size);
+		leaves = Arrays.copyOf(leaves, size);
+	    }
+	    freeList = nodeCount++;
+	    child1[freeList] = NULL_NODE;
+	}
+	int node = freeList;
+	freeList = child1[node];
+	parent[node] = NULL_NODE;
+	child1[node] = NULL_NODE;
+	child2[node] = NULL_NODE;
+	height[node] = 0;
+	leaves[node] = null;
+	return node;
+    }
+
+    private void freeNode(int node) {
+	leaves[node] = null;
+	child1[node] = freeList;
+	height[node] = -1;
+	freeList = node;
+    }
+
+    private static double area(double x0, double y0, double z0,
+	    double x1, double y1, double z1) {
+	double dx = x1 - x0, dy = y1 - y0, dz = z1 - z0;
+	return dx * dy + dy * dz + dz * dx;
+    }
+
+    // area of the union of the boxes of nodes a and b
+    private double unionArea(int a, int b) {
+	int i = 6 * a, j = 6 * b;
+	return area(Math.min(boxes[i], boxes[j]),
+		Math.min(boxes[i + 1], boxes[j + 1]),
+		Math.min(boxes[i + 2], boxes[j + 2]),
+		Math.max(boxes[i + 3], boxes[j + 3]),
+		Math.max(boxes[i + 4], boxes[j + 4]),
+		Math.max(boxes[i + 5], boxes[j + 5]));
+    }
+
+    private double area(int a) {
+	int i = 6 * a;
+	return area(boxes[i], boxes[i + 1], boxes[i + 2],
+		boxes[i + 3], boxes[i + 4], boxes[i + 5]);
+    }
+
+    // sets the box of node to the union of the boxes of a and b
+    private void union(int node, int a, int b) {
+	int o = 6 * node, i = 6 * a, j = 6 * b;
+	for (int k = 0; k < 3; k++) {
+	    boxes[o + k] = Math.min(boxes[i + k], boxes[j + k]);
+	    boxes[o + 3 + k] = Math.max(boxes[i + 3 + k], boxes[j + 3 + k]);
+	}
+    }
+
+    private void insertLeaf(int leaf) {
+	if (treeRoot == NULL_NODE) {
+	    treeRoot = leaf;
+	    parent[leaf] = NULL_NODE;
+	    return;
+	}
+
+	// find the sibling that grows the total area the least
+	int index = treeRoot;
+	while (child1[index] != NULL_NODE) {
+	    int c1 = child1[index];
+	    int c2 = child2[index];
+	    double area = area(index);
+	    double combinedArea = unionArea(index, leaf);
+	    double cost = 2.0 * combinedArea;
+	    double inheritanceCost = 2.0 * (combinedArea - area);
+	    double cost1 = unionArea(c1, leaf) + inheritanceCost;
+	    if (child1[c1] != NULL_NODE) cost1 -= area(c1);
+	    double cost2 = unionArea(c2, leaf) + inheritanceCost;
+	    if (child1[c2] != NULL_NODE) cost2 -= area(c2);
+	    if ((cost < cost1) && (cost < cost2)) break;
+	    index = (cost1 < cost2) ? c1 : c2;
+	}
+
+	int sibling = index;
+	int oldParent = parent[sibling];
+	int newParent = allocateNode();
+	parent[newParent] = oldParent;
+	union(newParent, leaf, sibling);
+	height[newParent] = height[sibling] + 1;
+	if (oldParent != NULL_NODE) {
+	    if (child1[oldParent] == sibling) child1[oldParent] = newParent;
+	    else child2[oldParent] = newParent;
+	} else {
+	    treeRoot = newParent;
+	}
+	child1[newParent] = sibling;
+	child2[newParent] = leaf;
+	parent[sibling] = newParent;
+	parent[leaf] = newParent;
+
+	refit(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+	if (leaf == treeRoot) {
+	    treeRoot = NULL_NODE;
+	    return;
+	}
+	int p = parent[leaf];
+	int grandParent = parent[p];
+	int sibling = (child1[p] == leaf) ? child2[p] : child1[p];
+	if (grandParent != NULL_NODE) {
+	    if (child1[grandParent] == p) child1[grandParent] = sibling;
+	    else child2[grandParent] = sibling;
+	    parent[sibling] = grandParent;
+	    freeNode(p);
+	    refit(grandParent);
+	} else {
+	    treeRoot = sibling;
+	    parent[sibling] = NULL_NODE;
+	    freeNode(p);
+	}
+	parent[leaf] = NULL_NODE;
+    }
+
+    // rebalances and recomputes the boxes from index up to the root
+    private void refit(int index) {
+	while (index != NULL_NODE) {
+	    index = balance(index);
+	    int c1 = child1[index];
+	    int c2 = child2[index];
+	    height[index] = 1 + Math.max(height[c1], height[c2]);
+	    union(index, c1, c2);
+	    index = parent[index];
+	}
+    }
+
+    // rotates the taller child of a up if the children of a are
+    // unbalanced, returns the node now in the place of a
+    private int balance(int a) {
+	if ((child1[a] == NULL_NODE) || (height[a] < 2)) return a;
+
+	int b = child1[a];
+	int c = child2[a];
+	int diff = height[c] - height[b];
+
+	if (diff > 1) {
+	    int f = child1[c];
+	    int g = child2[c];
+	    replaceChild(parent[a], a, c);
+	    child1[c] = a;
+	    parent[a] = c;
+	    if (height[f] > height[g]) {
+		child2[c] = f;
+		child2[a] = g;
+		parent[g] = a;
+		union(a, b, g);
+		union(c, a, f);
+		height[a] = 1 + Math.max(height[b], height[g]);
+		height[c] = 1 + Math.max(height[a], height[f]);
+	    } else {
+		child2[c] = g;
+		child2[a] = f;
+		parent[f] = a;
+		union(a, b, f);
+		union(c, a, g);
+		height[a] = 1 + Math.max(height[b], height[f]);
+		height[c] = 1 + Math.max(height[a], height[g]);
+	    }
+	    return c;
+	}
+
+	if (diff < -1) {
+	    int d = child1[b];
+	    int e = child2[b];
+	    replaceChild(parent[a], a, b);
+	    child1[b] = a;
+	    parent[a] = b;
+	    if (height[d] > height[e]) {
+		child2[b] = d;
+		child1[a] = e;
+		parent[e] = a;
+		union(a, c, e);
+		union(b, a, d);
+		height[a] = 1 + Math.max(height[c], height[e]);
+		height[b] = 1 + Math.max(height[a], height[d]);
+	    } else {
+		child2[b] = e;
+		child1[a] = d;
+		parent[d] = a;
+		union(a, c, d);
+		union(b, a, e);
+		height[a] = 1 + Math.max(height[c], height[d]);
+		height[b] = 1 + Math.max(height[a], height[e]);
+	    }
+	    return b;
+	}
+
+	return a;
+    }
+
+    // puts node in the place of child of p
+    private void replaceChild(int p, int child, int node) {
+	parent[node] = p;
+	if (p == NULL_NODE) {
+	    treeRoot = node;
+	} else if (child1[p] == child) {
+	    child1[p] = node;
+	} else {
+	    child2[p] = node;
+	}
+    }
+
+    // ================================================================
+    // QUERIES
+    // ================================================================
+
+    private ArrayList<Entry> query(PickShape pickShape, boolean any) {
+	ArrayList<Entry> hits = new ArrayList<Entry>();
+	prepare(pickShape);
+
+	if (treeRoot != NULL_NODE) {
+	    int top = 0;
+	    stack[top++] = treeRoot;
+	    while (top > 0) {
+		int node = stack[--top];
+		if (!overlaps(boxes, 6 * node)) continue;
+		Entry e = leaves[node];
+		if (e != null) {
+		    if (overlaps(e.box, 0) && intersect(e)) {
+			e.distance = enter;
+			hits.add(e);
+			if (any) return hits;
+		    }
+		} else {
+		    if (top + 2 > stack.length) {
+			stack = Arrays.copyOf(stack, 2 * stack.length);
+		    }
+		    stack[top++] = child1[node];
+		    stack[top++] = child2[node];
+		}
+	    }
+	}
+
+	for (int i = 0; i < unbounded.size(); i++) {
+	    Entry e = unbounded.get(i);
+	    if (intersect(e)) {
+		e.distance = 0.0;
+		hits.add(e);
+		if (any) return hits;
+	    }
+	}
+	return hits;
+    }
+
+    private void prepare(PickShape pickShape) {
+	queryShape = pickShape;
+	queryType = QUERY_AXIS;
+	maxDist = Double.POSITIVE_INFINITY;
+	grow = 0.0;
+	slope = 0.0;
+
+	if (pickShape instanceof PickRay) {
+	    ((PickRay)pickShape).get(queryOrigin, queryDir);
+	    setAxis(false);
+	} else if (pickShape instanceof PickSegment) {
+	    ((PickSegment)pickShape).get(queryOrigin, tmpPnt);
+	    queryDir.sub(tmpPnt, queryOrigin);
+	    setAxis(true);
+	} else if (pickShape instanceof PickCylinder) {
+	    PickCylinder cyl = (PickCylinder) pickShape;
+	    cyl.getOrigin(queryOrigin);
+	    if (cyl instanceof PickCylinderSegment) {
+		((PickCylinderSegment)cyl).getEnd(tmpPnt);
+		queryDir.sub(tmpPnt, queryOrigin);
+	    } else {
+		cyl.getDirection(queryDir);
+	    }
+	    grow = Math.abs(cyl.getRadius());
+	    setAxis(cyl instanceof PickCylinderSegment);
+	} else if (pickShape instanceof PickCone) {
+	    PickCone cone = (PickCone) pickShape;
+	    cone.getOrigin(queryOrigin);
+	    if (cone instanceof PickConeSegment) {
+		((PickConeSegment)cone).getEnd(tmpPnt);
+		queryDir.sub(tmpPnt, queryOrigin);
+	    } else {
+		cone.getDirection(queryDir);
+	    }
+	    slope = Math.tan(cone.getSpreadAngle());
+	    setAxis(cone instanceof PickConeSegment);
+	    if (!(slope >= 0.0) || Double.isInfinite(slope)) {
+		queryType = QUERY_ALL;
+	    }
+	} else if (pickShape instanceof PickBounds) {
+	    Bounds bounds = ((PickBounds)pickShape).get();
+	    if (bounds == null) {
+		queryType = QUERY_ALL;
+	    } else {
+		tmpBox.set(bounds);
+		tmpBox.getLower(tmpPnt);
+		tmpBox.getUpper(tmpPnt2);
+		setBox(tmpPnt, tmpPnt2);
+	    }
+	} else if (pickShape instanceof PickPoint) {
+	    ((PickPoint)pickShape).get(tmpPnt);
+	    setBox(tmpPnt, tmpPnt);
+	} else {
+	    queryType = QUERY_ALL;
+	}
+    }
+
+    // sets up a ray or segment along queryDir from queryOrigin
+    private void setAxis(boolean isSegment) {
+	double length = queryDir.length();
+	origin[0] = queryOrigin.x;
+	origin[1] = queryOrigin.y;
+	origin[2] = queryOrigin.z;
+	if (!(length > 0.0)) {
+	    // treat as the point at the origin
+	    setBox(queryOrigin, queryOrigin);
+	    return;
+	}
+	dir[0] = queryDir.x / length;
+	dir[1] = queryDir.y / length;
+	dir[2] = queryDir.z / length;
+	if (isSegment) maxDist = length;
+    }
+
+    private void setBox(Point3d lo, Point3d hi) {
+	queryType = QUERY_BOX;
+	double pad = grow + slope * maxDist;
+	if (Double.isNaN(pad)) pad = 0.0;
+	lower[0] = lo.x - pad; lower[1] = lo.y - pad; lower[2] = lo.z - pad;
+	upper[0] = hi.x + pad; upper[1] = hi.y + pad; upper[2] = hi.z + pad;
+    }
+
+    /*
+     * Tests the box at b[o] to b[o+5] against the query, setting enter
+     * to the distance from the query to the box.
+     */
+    private boolean overlaps(double[] b, int o) {
+	if (queryType == QUERY_BOX) {
+	    double d = 0.0;
+	    for (int k = 0; k < 3; k++) {
+		if ((b[o + k] > upper[k]) || (b[o + 3 + k] < lower[k])) {
+		    return false;
+		}
+		double c = 0.5 * ((b[o + k] + b[o + 3 + k]) -
+			(lower[k] + upper[k]));
+		d += c * c;
+	    }
+	    enter = Math.sqrt(d);
+	    return true;
+	}
+	if (queryType == QUERY_ALL) {
+	    enter = 0.0;
+	    return true;
+	}
+
+	double pad = grow;
+	if (slope > 0.0) {
+	    // the cone is no wider than at the farthest corner of the box
+	    double far = 0.0;
+	    for (int k = 0; k < 3; k++) {
+		double d = Math.max(Math.abs(b[o + k] - origin[k]),
+			Math.abs(b[o + 3 + k] - origin[k]));
+		far += d * d;
+	    }
+	    pad += slope * Math.sqrt(far);
+	}
+
+	double tmin = 0.0;
+	double tmax = maxDist;
+	for (int k = 0; k < 3; k++) {
+	    double lo = b[o + k] - pad;
+	    double hi = b[o + 3 + k] + pad;
+	    if (dir[k] == 0.0) {
+		if ((origin[k] < lo) || (origin[k] > hi)) return false;
+	    } else {
+		double inv = 1.0 / dir[k];
+		double t1 = (lo - origin[k]) * inv;
+		double t2 = (hi - origin[k]) * inv;
+		if (t1 > t2) {
+		    double t = t1;
+		    t1 = t2;
+		    t2 = t;
+		}
+		if (t1 > tmin) tmin = t1;
+		if (t2 < tmax) tmax = t2;
+		if (tmin > tmax) return false;
+	    }
+	}
+	enter = tmin;
+	return true;
+    }
+
+    // the exact test of the bounds of an entry that passed the box test
+    private boolean intersect(Entry e) {
+	PickShape pickShape = queryShape;
+	if (pickShape instanceof PickRay) {
+	    return e.bounds.intersect(queryOrigin, queryDir);
+	} else if (pickShape instanceof PickBounds) {
+	    Bounds bounds = ((PickBounds)pickShape).get();
+	    return (bounds != null) && e.bounds.intersect(bounds);
+	} else if (pickShape instanceof PickPoint) {
+	    ((PickPoint)pickShape).get(tmpPnt);
+	    return e.bounds.intersect(tmpPnt);
+	}
+	return true;
+    }
+}
@@ -40,6 +40,7 @@
 package org.jogamp.java3d.utils.scenegraph.io;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import org.jogamp.java3d.BranchGroup;
 import org.jogamp.java3d.Canvas3D;
@@ -65,6 +66,23 @@ public class SceneGraphFileReader extends java.lang.Object {
         fileControl.openFile( file );
     }
 
+    /**
+     * Set the ExecutorService on which images are decompressed while the
+     * rest of the graph is read. If executor is null, the default, images
+     * are decompressed on the calling thread. The file format is not affected.
+     * The executor is not shut down by this class.
+     */
+    public void setImageExecutorService( ExecutorService executor ) {
+        fileControl.setImageExecutorService( executor );
+    }
+
+    /**
+     * Get the ExecutorService on which images are decompressed
+     */
+    public ExecutorService getImageExecutorService() {
+        return fileControl.getImageExecutorService();
+    }
+
     /**
      * Create and return a ConfiguredUniverse with the PlatformGeometry, ViewerAvatar,
      * and Locales saved in the file.  The MultiTransformGroup between the ViewingPlatform
@@ -41,6 +41,7 @@ package org.jogamp.java3d.utils.scenegraph.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import org.jogamp.java3d.BranchGroup;
 import org.jogamp.java3d.SceneGraphObject;
@@ -126,6 +127,58 @@ public class SceneGraphFileWriter extends java.lang.Object {
         fileControl.writeBranchGraph( graph, data );
     }
 
+    /**
+     * Set the compression used for images, one of
+     * ImageComponentState.NO_COMPRESSION, GZIP_COMPRESSION,
+     * JPEG_COMPRESSION or FAST_COMPRESSION.
+     * FAST_COMPRESSION is lossless and much faster to load than
+     * GZIP_COMPRESSION.
+     */
+    public void setImageCompression( int compression ) {
+        fileControl.setImageCompression( compression );
+    }
+
+    /**
+     * Set the ExecutorService on which images are compressed while the
+     * rest of the graph is written. If executor is null, the default, images
+     * are compressed on the calling thread. The file format is not affected.
+     * The executor is not shut down by this class.
+     */
+    public void setImageExecutorService( ExecutorService executor ) {
+        fileControl.setImageExecutorService( executor );
+    }
+
+    /**
+     * Get the ExecutorService on which images are compressed
+     */
+    public ExecutorService getImageExecutorService() {
+        return fileControl.getImageExecutorService();
+    }
+
+    /**
+     * If true, geometry and images with the same content as a
+     * NodeComponent already written to the file are stored once and
+     * shared, as if the same object had been used. Content includes the
+     * capabilities, name and user data. The default is false.
+     *
+     * Geometry and images with a capability that allows their data to
+     * be written, such as ALLOW_COORDINATE_WRITE or ALLOW_IMAGE_WRITE,
+     * are not shared, since a change to one would change all the copies
+     * once the file is loaded.
+     *
+     * This must be set before the branch graphs are written.
+     */
+    public void setDeduplicateNodeComponents( boolean deduplicate ) {
+        fileControl.setDeduplicateNodeComponents( deduplicate );
+    }
+
+    /**
+     * Returns true if NodeComponents with the same content are shared
+     */
+    public boolean getDeduplicateNodeComponents() {
+        return fileControl.getDeduplicateNodeComponents();
+    }
+
     /**
      * Add a named reference to a SceneGraphObject in the file.
      *
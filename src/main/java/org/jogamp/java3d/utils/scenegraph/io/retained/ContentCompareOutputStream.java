@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+
+package org.jogamp.java3d.utils.scenegraph.io.retained;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A ByteArrayOutputStream which, once startCompare() is called, stops
+ * storing its data and compares it with the data already stored. Used
+ * to rule out a hash collision between two NodeComponents without
+ * keeping a copy of the data of the second one.
+ */
+class ContentCompareOutputStream extends ByteArrayOutputStream {
+
+    private boolean comparing = false;
+    private boolean equal = true;
+    private int position = 0;
+
+    /**
+     * Compare all the data written from now on with the data written
+     * so far
+     */
+    public void startCompare() {
+        comparing = true;
+    }
+
+    @Override
+    public void write( int b ) {
+        if (!comparing) {
+            super.write( b );
+            return;
+        }
+        equal = equal && position<count && buf[position]==(byte)b;
+        position++;
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) {
+        if (!comparing) {
+            super.write( b, off, len );
+            return;
+        }
+        if (position+len>count)
+            equal = false;
+        for(int i=0; equal && i<len; i++)
+            equal = buf[position+i]==b[off+i];
+        position += len;
+    }
+
+    /**
+     * Returns true if the data written since startCompare() is the same
+     * as the data written before it
+     */
+    public boolean isEqual() {
+        return equal && position==count;
+    }
+}
@@ -48,7 +48,14 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.jogamp.java3d.BoundingBox;
 import org.jogamp.java3d.BoundingPolytope;
@@ -144,6 +151,22 @@ public abstract class Controller extends java.lang.Object {
 
     private int imageCompression = ImageComponentState.NO_COMPRESSION;
 
+    /**
+     * If not null images are encoded and decoded on this executor
+     */
+    private ExecutorService imageExecutor = null;
+
+    /**
+     * If true NodeComponents with identical content are written once and
+     * shared
+     */
+    private boolean deduplicateNodeComponents = false;
+
+    /**
+     * ImageComponents whose images are still being decoded
+     */
+    private LinkedList<ImageComponentState> pendingImages = new LinkedList<ImageComponentState>();
+
     /** Creates new Controller */
     public Controller() {
         try {
@@ -158,6 +181,8 @@ public abstract class Controller extends java.lang.Object {
                     imageCompression = ImageComponentState.GZIP_COMPRESSION;
                 else if (imageC.equalsIgnoreCase("JPEG"))
                     imageCompression = ImageComponentState.JPEG_COMPRESSION;
+                else if (imageC.equalsIgnoreCase("FAST"))
+                    imageCompression = ImageComponentState.FAST_COMPRESSION;
             }
         } catch( Exception e ) {}
 
@@ -216,92 +241,124 @@ public abstract class Controller extends java.lang.Object {
         SceneGraphObject obj = symbol.getJ3dNode();
         if (obj==null) return nullObject;
 
-        String name = obj.getClass().getName();
-        SceneGraphObjectState ret;
-
-          try {
-              Class state;
-              if (obj instanceof SceneGraphStateProvider)
-                  state = ((SceneGraphStateProvider)obj).getStateClass();
-              else
-                  state = Class.forName( "org.jogamp.java3d.utils.scenegraph.io.state."+name+"State" );
-              ret = constructStateObj( symbol, state, obj.getClass() );
-          } catch(ClassNotFoundException e) {
-              ret = checkSuperClasses( symbol );
-              if (!(obj instanceof org.jogamp.java3d.utils.scenegraph.io.SceneGraphIO))
-                System.out.println("Could not find "+"org.jogamp.java3d.utils.scenegraph.io.state."+name+"State, using superclass "+ret.getClass().getName() );
-              if (ret==null)
-                  throw new SGIORuntimeException( "No State class for "+
-                                                  obj.getClass().getName() );
-          }
+        StateFactory factory;
+        if (obj instanceof SceneGraphStateProvider)
+            factory = new StateFactory( ((SceneGraphStateProvider)obj).getStateClass() );
+        else
+            factory = getStateFactory( obj.getClass() );
+
+        SceneGraphObjectState ret = factory.newState( symbol, this );
+
+        // Start encoding the images now so they are ready by the time
+        // the state is written
+        if (ret instanceof ImageComponentState && imageExecutor!=null)
+            ((ImageComponentState)ret).encodeImages( imageExecutor );
 
         symbol.nodeState = ret;
 
         return ret;
     }
-    private SceneGraphObjectState constructStateObj( SymbolTableData symbol,
-                                                     Class state,
-                                                     Class objClass ) {
 
-        SceneGraphObjectState ret = null;
+    /**
+     * Return the factory for the State class of objClass, resolving it
+     * the first time the class is seen.
+     */
+    private static StateFactory getStateFactory( Class objClass ) {
+        StateFactory factory = stateFactories.get( objClass );
 
-        try {
-            Constructor construct = state.getConstructor(
-                                new Class[] { org.jogamp.java3d.utils.scenegraph.io.retained.SymbolTableData.class,
-                                              org.jogamp.java3d.utils.scenegraph.io.retained.Controller.class
-                                            } );
-            ret = (SceneGraphObjectState)construct.newInstance(
-                                                new Object[]{ symbol, this } );
-
-        } catch( NoSuchMethodException ex ) {
-            System.out.println("Looking for Constructor ("+symbol.j3dNode.getClass().getName()+", Controller )");
-            throw new SGIORuntimeException( "1 Broken State class for "+
-                                                state.getName() );
-        } catch( InvocationTargetException exc ) {
-            exc.printStackTrace();
-            throw new SGIORuntimeException( "2 Broken State class for "+
-                                                state.getName() );
-        } catch( IllegalAccessException exce ) {
-            throw new SGIORuntimeException( "3 Broken State class for "+
-                                                state.getName() );
-        } catch( InstantiationException excep ) {
-            throw new SGIORuntimeException( "4 Broken State class for "+
-                                                state.getName() );
+        if (factory==null) {
+            factory = resolveStateFactory( objClass );
+            stateFactories.put( objClass, factory );
         }
 
-        return ret;
+        return factory;
     }
 
     /**
-      * Check to see if any of the superclasses of obj are
-      * known to the Java3D IO package
-      */
-    private SceneGraphObjectState checkSuperClasses( SymbolTableData symbol ) {
-
-        Class cl = symbol.j3dNode.getClass().getSuperclass();
+     * Find the State class for objClass or, failing that, for the first
+     * of its superclasses known to the Java3D IO package
+     */
+    private static StateFactory resolveStateFactory( Class objClass ) {
+        Class cl = objClass;
         Class state = null;
-        boolean finished = false;
-
 
-        while( cl != null & !finished ) {
-            String name = cl.getName();
-            //System.out.println("Got superclass "+name);
+        while( cl!=null && state==null ) {
             try {
-                state = Class.forName( "org.jogamp.java3d.utils.scenegraph.io.state."+name+"State" );
+                state = Class.forName( "org.jogamp.java3d.utils.scenegraph.io.state."+cl.getName()+"State" );
             } catch(ClassNotFoundException e) {
-                state = null;
+                cl = cl.getSuperclass();
             }
+        }
 
-            if (state!=null)
-                finished = true;
-            else
-                cl = cl.getSuperclass();
+        if (state==null)
+            return new StateFactory( "Unsupported class "+objClass.getName() );
+
+        if (cl!=objClass && !org.jogamp.java3d.utils.scenegraph.io.SceneGraphIO.class.isAssignableFrom( objClass ))
+            System.out.println("Could not find "+"org.jogamp.java3d.utils.scenegraph.io.state."+objClass.getName()+"State, using superclass "+state.getName() );
+
+        return new StateFactory( state );
+    }
+
+    /**
+     * Factories for the State classes, indexed by the class of the
+     * SceneGraphObject they were resolved for. Classes without a usable
+     * State class are cached too so the search is not repeated for
+     * every instance.
+     */
+    private static final Map<Class<?>, StateFactory> stateFactories =
+            Collections.synchronizedMap( new WeakHashMap<Class<?>, StateFactory>() );
+
+    /**
+     * Creates State objects through the (SymbolTableData, Controller)
+     * constructor of a State class, or reports why the class can not
+     * be used.
+     */
+    private static final class StateFactory {
+        private final Constructor construct;
+        private final String error;
+
+        StateFactory( String error ) {
+            this.construct = null;
+            this.error = error;
+        }
+
+        StateFactory( Class state ) {
+            Constructor c = null;
+            String e = null;
+
+            if (Modifier.isAbstract( state.getModifiers() ))
+                e = "4 Broken State class for "+state.getName();
+            else {
+                try {
+                    c = state.getConstructor( new Class[] { SymbolTableData.class, Controller.class } );
+                } catch( NoSuchMethodException ex ) {
+                    System.out.println("Looking for Constructor ( SymbolTableData, Controller ) in "+state.getName() );
+                    e = "1 Broken State class for "+state.getName();
+                }
+            }
+
+            this.construct = c;
+            this.error = e;
         }
 
-        if (cl==null)
-            throw new SGIORuntimeException( "Unsupported class "+symbol.j3dNode.getClass().getName() );
+        SceneGraphObjectState newState( SymbolTableData symbol, Controller control ) {
+            if (construct==null)
+                throw new SGIORuntimeException( error );
 
-        return constructStateObj( symbol, state, cl );
+            try {
+                return (SceneGraphObjectState)construct.newInstance( new Object[]{ symbol, control } );
+            } catch( InvocationTargetException exc ) {
+                exc.printStackTrace();
+                throw new SGIORuntimeException( "2 Broken State class for "+
+                                                    construct.getDeclaringClass().getName() );
+            } catch( IllegalAccessException exce ) {
+                throw new SGIORuntimeException( "3 Broken State class for "+
+                                                    construct.getDeclaringClass().getName() );
+            } catch( InstantiationException excep ) {
+                throw new SGIORuntimeException( "4 Broken State class for "+
+                                                    construct.getDeclaringClass().getName() );
+            }
+        }
     }
 
 
@@ -518,6 +575,7 @@ public abstract class Controller extends java.lang.Object {
      */
     public void reset() {
         symbolTable.clear();
+        pendingImages.clear();
     }
 
     /**
@@ -533,14 +591,9 @@ public abstract class Controller extends java.lang.Object {
             return null;
 
         Class j3dClass = getNodeClassFromID( classID-1 );
-        String j3dClassName = j3dClass.getName();
-        String stateClassName = "org.jogamp.java3d.utils.scenegraph.io.state."+j3dClassName+"State";
-
         SceneGraphObjectState stateObj = null;
         try {
-            Class stateClass = Class.forName( stateClassName );
-            Constructor stateConstructor = stateClass.getConstructor( new Class[] { SymbolTableData.class, Controller.class } );
-            stateObj = (SceneGraphObjectState)stateConstructor.newInstance( new Object[] { null, this } );
+            stateObj = getStateFactory( j3dClass ).newState( null, this );
         } catch( Exception e ) {
             e.printStackTrace();
         }
@@ -626,6 +679,9 @@ public abstract class Controller extends java.lang.Object {
         org.jogamp.java3d.ViewPlatform.class
     };
 
+    // Index of j3dClasses by class, built on first use
+    private HashMap<Class<?>, Integer> j3dClassIDs;
+
     public Class getNodeClassFromID( int classID ) {
         if (classID<0)
             return null;
@@ -633,18 +689,17 @@ public abstract class Controller extends java.lang.Object {
             return j3dClasses[classID];
     }
 
-    // TODO Use a HashMap to eliminate the linear search for the class
-    //
     public int getNodeClassID( org.jogamp.java3d.SceneGraphObject node ) {
 
-        int ret = -1;
-        Class cl = node.getClass();
+        if (j3dClassIDs==null) {
+            j3dClassIDs = new HashMap<Class<?>, Integer>();
+            for(int i=0; i<j3dClasses.length; i++)
+                j3dClassIDs.put( j3dClasses[i], Integer.valueOf(i) );
+        }
 
-        for(int i=0; i<j3dClasses.length && ret==-1; i++)
-            if (j3dClasses[i]==cl)
-                ret = i;
+        Integer ret = j3dClassIDs.get( node.getClass() );
 
-        return ret;
+        return ret==null ? -1 : ret.intValue();
     }
 
     /**
@@ -936,14 +991,117 @@ public abstract class Controller extends java.lang.Object {
         return useSuperClass;
     }
 
+    /**
+     * Set the compression used for images written after this call,
+     * one of ImageComponentState.NO_COMPRESSION, GZIP_COMPRESSION,
+     * JPEG_COMPRESSION or FAST_COMPRESSION
+     *
+     * The default is NO_COMPRESSION unless the j3d.io.ImageCompression
+     * property is set to None, GZIP, JPEG or FAST.
+     */
+    public void setImageCompression( int compression ) {
+        if (compression!=ImageComponentState.NO_COMPRESSION &&
+            compression!=ImageComponentState.GZIP_COMPRESSION &&
+            compression!=ImageComponentState.JPEG_COMPRESSION &&
+            compression!=ImageComponentState.FAST_COMPRESSION)
+            throw new IllegalArgumentException( "Unknown image compression "+compression );
+
+        imageCompression = compression;
+    }
+
     /**
      * Returns the imageCompression to be used
-     * IMAGE_COMPRESSION_NONE, IMAGE_COMPRESSION_GZIP, IMAGE_COMPRESSION_JPEG
+     * NO_COMPRESSION, GZIP_COMPRESSION, JPEG_COMPRESSION or FAST_COMPRESSION
      */
     public int getImageCompression() {
         return imageCompression;
     }
 
+    /**
+     * Set the ExecutorService used to encode and decode images.
+     *
+     * When an executor is set the images are compressed and decompressed
+     * on it while the rest of the scene graph is processed, otherwise
+     * they are handled on the calling thread. The file format is the
+     * same either way. The executor is not shut down by this class.
+     */
+    public void setImageExecutorService( ExecutorService executor ) {
+        imageExecutor = executor;
+    }
+
+    /**
+     * Returns the ExecutorService used to encode and decode images, or
+     * null if they are handled on the calling thread
+     */
+    public ExecutorService getImageExecutorService() {
+        return imageExecutor;
+    }
+
+    /**
+     * When true, geometry and images whose content is identical to a
+     * NodeComponent already referenced in the file are written as a
+     * reference to that NodeComponent. Their content is compared by a
+     * 64 bit hash of their serialized form, which is confirmed by a
+     * complete comparison when two hashes match. NodeComponents with a
+     * capability that allows their data to be written, such as
+     * ALLOW_COORDINATE_WRITE or ALLOW_IMAGE_WRITE, are never shared this
+     * way, as once loaded a change to one would change all of them.
+     *
+     * The default is false, only the same object is written as a shared
+     * NodeComponent.
+     */
+    public void setDeduplicateNodeComponents( boolean deduplicate ) {
+        deduplicateNodeComponents = deduplicate;
+    }
+
+    /**
+     * Returns true if NodeComponents with identical content are shared
+     */
+    public boolean getDeduplicateNodeComponents() {
+        return deduplicateNodeComponents;
+    }
+
+    /**
+     * Write the content of a NodeComponent as its State object writes it,
+     * without a node ID and with uncompressed images, for comparison with
+     * other NodeComponents
+     */
+    void writeContent( DataOutput out, SceneGraphObject node ) throws IOException {
+        SymbolTableData symbol = new SymbolTableData( 0, node, null, -1 );
+        int compression = imageCompression;
+        imageCompression = ImageComponentState.NO_COMPRESSION;
+        try {
+            getStateFactory( node.getClass() ).newState( symbol, this ).writeObject( out );
+        } finally {
+            imageCompression = compression;
+        }
+    }
+
+    /**
+     * Register an ImageComponent whose images are being decoded in the
+     * background
+     */
+    public void addPendingImages( ImageComponentState state ) {
+        pendingImages.add( state );
+    }
+
+    /**
+     * Wait for all the images being decoded in the background and pass
+     * them to their ImageComponents
+     */
+    protected void completeImages() {
+        while( !pendingImages.isEmpty() )
+            pendingImages.removeFirst().completeImages();
+    }
+
+    /**
+     * Forget the images still being decoded, so a failed read does not
+     * leave them to the next one
+     */
+    protected void clearPendingImages() {
+        pendingImages.clear();
+    }
+
 
     /**
       * An ObjectInputStream that uses a different classLoader
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+
+package org.jogamp.java3d.utils.scenegraph.io.retained;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A DataInput that reads a file through read-only memory mapped regions,
+ * so reading a primitive field doesn't require a system call.  Files
+ * larger than a single mapping are mapped in several regions, each
+ * mapped the first time it is read.
+ */
+class MappedFileInput implements DataInput {
+
+    private static final long REGION_SIZE = 1L << 30;
+
+    private RandomAccessFile file;
+    private long length;
+
+    private ByteBuffer[] regions;
+    private ByteBuffer region;          // Current region
+    private long regionStart;           // File position of region
+
+    public MappedFileInput( RandomAccessFile file ) throws IOException {
+        this.file = file;
+        length = file.length();
+        regions = new ByteBuffer[ (int)((length+REGION_SIZE-1)/REGION_SIZE)+1 ];
+        seek( 0 );
+    }
+
+    public long getFilePointer() {
+        return regionStart+region.position();
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Move the file pointer to the specified position
+     */
+    public void seek( long position ) throws IOException {
+        if (position<0 || position>length)
+            throw new EOFException( "Seek to "+position+" outside file of length "+length );
+
+        int index = (int)(position/REGION_SIZE);
+        region = getRegion( index );
+        regionStart = index*REGION_SIZE;
+        region.position( (int)(position-regionStart) );
+    }
+
+    private ByteBuffer getRegion( int index ) throws IOException {
+        if (regions[index]==null) {
+            long start = index*REGION_SIZE;
+            long size = Math.min( REGION_SIZE, length-start );
+            regions[index] = file.getChannel().map( FileChannel.MapMode.READ_ONLY, start, size );
+        }
+        return regions[index];
+    }
+
+    /**
+     * Release the mappings and close the file.
+     */
+    public void close() throws IOException {
+        regions = null;
+        region = null;
+        file.close();
+    }
+
+    // Move to the start of the next region, if any
+    private void nextRegion() throws IOException {
+        long position = regionStart+region.capacity();
+        if (position>=length)
+            throw new EOFException();
+        seek( position );
+    }
+
+    @Override
+    public void readFully( byte[] b ) throws IOException {
+        readFully( b, 0, b.length );
+    }
+
+    @Override
+    public void readFully( byte[] b, int off, int len ) throws IOException {
+        while( len>0 ) {
+            if (!region.hasRemaining())
+                nextRegion();
+            int n = Math.min( len, region.remaining() );
+            region.get( b, off, n );
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public int skipBytes( int n ) throws IOException {
+        long position = getFilePointer();
+        long newPosition = Math.min( length, position+Math.max( n, 0 ) );
+        seek( newPosition );
+        return (int)(newPosition-position);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte()!=0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        if (!region.hasRemaining())
+            nextRegion();
+        return region.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        if (region.remaining()>=2)
+            return region.getShort();
+        return (short)((readUnsignedByte() << 8) | readUnsignedByte());
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char)readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        if (region.remaining()>=4)
+            return region.getInt();
+        return (readUnsignedShort() << 16) | readUnsignedShort();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        if (region.remaining()>=8)
+            return region.getLong();
+        return ((long)readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat( readInt() );
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble( readLong() );
+    }
+
+    /**
+     * Read a line of text, with the same semantics as
+     * RandomAccessFile.readLine
+     */
+    @Override
+    public String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        long position = getFilePointer();
+
+        if (position==length)
+            return null;
+
+        while( getFilePointer()<length ) {
+            int c = readUnsignedByte();
+            if (c=='\n')
+                break;
+            if (c=='\r') {
+                if (getFilePointer()<length) {
+                    long cr = getFilePointer();
+                    if (readUnsignedByte()!='\n')
+                        seek( cr );
+                }
+                break;
+            }
+            line.append( (char)c );
+        }
+
+        return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF( this );
+    }
+}
@@ -63,7 +63,10 @@ public class RandomAccessFileControl extends Controller {
 
     private long symbol_table;
 
-    private RandomAccessFile raf;
+    // Writes go through a block buffer and reads through a memory
+    // mapping of the file
+    private RandomAccessFileOutput output;
+    private MappedFileInput input;
 
     private int branchGraphCount=0;
 
@@ -87,29 +90,29 @@ public class RandomAccessFileControl extends Controller {
                                                             UnsupportedUniverseException,
                                                             CapabilityNotSetException {
 
-        raf = new RandomAccessFile( file, "rw" );
+        output = new RandomAccessFileOutput( new RandomAccessFile( file, "rw" ) );
         writeMode = true;
 
-        raf.seek(0);
-        raf.writeUTF( FILE_IDENT );
+        output.seek(0);
+        output.writeUTF( FILE_IDENT );
 
-        raf.seek(20);
-        raf.writeInt( outputFileVersion );
+        output.seek(20);
+        output.writeInt( outputFileVersion );
 
-        raf.seek( BRANCH_GRAPH_COUNT );
-        raf.writeInt( 0 );          // Place holder to branch graph count
+        output.seek( BRANCH_GRAPH_COUNT );
+        output.writeInt( 0 );          // Place holder to branch graph count
 
-        raf.seek( FILE_DESCRIPTION );
+        output.seek( FILE_DESCRIPTION );
 
         if (description==null)
             description="";
-        raf.writeUTF( description );
+        output.writeUTF( description );
 
         try {
-            writeSerializedData( raf, userData );
+            writeSerializedData( output, userData );
 
-            universe_config = raf.getFilePointer();
-            writeUniverse( raf, universe, writeUniverseContent );
+            universe_config = output.getFilePointer();
+            writeUniverse( output, universe, writeUniverseContent );
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
         }
@@ -119,11 +122,11 @@ public class RandomAccessFileControl extends Controller {
      * Open the file for reading
      */
     public void openFile( java.io.File file ) throws IOException {
-        raf = new RandomAccessFile( file, "r" );
+        input = new MappedFileInput( new RandomAccessFile( file, "r" ) );
         writeMode = false;
 
-        raf.seek(0);
-        String ident = raf.readUTF();
+        input.seek(0);
+        String ident = input.readUTF();
 
         if ( ident.equals("demo_j3f") )
             throw new IOException(
@@ -133,8 +136,8 @@ public class RandomAccessFileControl extends Controller {
             throw new IOException(
 		"This is a Stream - use SceneGraphStreamReader instead");
 
-        raf.seek(20);
-        currentFileVersion = raf.readInt();
+        input.seek(20);
+        currentFileVersion = input.readInt();
 
 	if ( currentFileVersion > outputFileVersion ) {
             throw new IOException("Unsupported file version. This file was written using a new version of the SceneGraph IO API, please update your installtion to the latest version");
@@ -143,29 +146,29 @@ public class RandomAccessFileControl extends Controller {
         // readFileDescription sets user_data
         String description = readFileDescription();
 
-        raf.seek( BRANCH_GRAPH_COUNT );
-        branchGraphCount = raf.readInt();
+        input.seek( BRANCH_GRAPH_COUNT );
+        branchGraphCount = input.readInt();
         //System.out.println("BranchGraph count : "+branchGraphCount );
 
-        raf.seek( UNIVERSE_CONFIG_PTR );
-        universe_config = raf.readLong();
+        input.seek( UNIVERSE_CONFIG_PTR );
+        universe_config = input.readLong();
 
-        raf.seek( SYMBOL_TABLE_PTR );
-        symbol_table = raf.readLong();
+        input.seek( SYMBOL_TABLE_PTR );
+        symbol_table = input.readLong();
 
         ConfiguredUniverse universe;
 
-        raf.seek( symbol_table );
-        symbolTable.readTable( raf, false );
-        raf.seek(user_data);
+        input.seek( symbol_table );
+        symbolTable.readTable( input, false );
+        input.seek(user_data);
 
-        userData = readSerializedData(raf);
+        userData = readSerializedData(input);
     }
 
     public ConfiguredUniverse readUniverse( boolean attachBranchGraphs,
 					    Canvas3D canvas) throws IOException {
-        raf.seek( universe_config );
-        return readUniverse( raf, attachBranchGraphs, canvas );
+        input.seek( universe_config );
+        return readUniverse( input, attachBranchGraphs, canvas );
     }
 
     public Object getUserData() {
@@ -196,12 +199,12 @@ public class RandomAccessFileControl extends Controller {
 
     @Override
     public void writeBranchGraph( BranchGroup bg, java.io.Serializable userData ) throws IOException {
-        long filePointer = raf.getFilePointer();
-        raf.writeInt( 0 );          // Node count
+        long filePointer = output.getFilePointer();
+        output.writeInt( 0 );          // Node count
         try {
-            writeSerializedData( raf, userData );  // Size and byte[]
+            writeSerializedData( output, userData );  // Size and byte[]
 
-            //System.out.println("Actual Write at "+raf.getFilePointer() );
+            //System.out.println("Actual Write at "+output.getFilePointer() );
 
             SymbolTableData symbol = symbolTable.getSymbol( bg );
 
@@ -216,8 +219,8 @@ public class RandomAccessFileControl extends Controller {
             SceneGraphObjectState state = createState( bg, symbol );
             //System.out.println(state);
             try {
-                writeObject( raf, state );
-                writeNodeComponents( raf );
+                writeObject( output, state );
+                writeNodeComponents( output );
             } catch( IOException e ) {
                 e.printStackTrace();
             }
@@ -254,11 +257,15 @@ public class RandomAccessFileControl extends Controller {
                 ret[i] = (BranchGroup)states[i].getNode();
             }
 
+            completeImages();
+
             symbolTable.clearUnshared();            // Remove all unshared symbols
 
             return ret;
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
+        } finally {
+            clearPendingImages();
         }
     }
 
@@ -283,9 +290,13 @@ public class RandomAccessFileControl extends Controller {
                 ret[i] = (BranchGroup)states[i].getNode();
             }
 
+            completeImages();
+
             symbolTable.clearUnshared();            // Remove all unshared symbols
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
+        } finally {
+            clearPendingImages();
         }
 
         return ret;
@@ -301,7 +312,7 @@ public class RandomAccessFileControl extends Controller {
             return (BranchGroupState)symbol.nodeState;
         }
 
-        raf.seek( symbolTable.getBranchGraphFilePosition( graphID ) );
+        input.seek( symbolTable.getBranchGraphFilePosition( graphID ) );
 
         return readNextBranchGraph();
     }
@@ -311,14 +322,14 @@ public class RandomAccessFileControl extends Controller {
      * at the current position
      */
     private BranchGroupState readNextBranchGraph() throws IOException {
-        int nodeCount = raf.readInt();
-        skipUserData( raf );
+        int nodeCount = input.readInt();
+        skipUserData( input );
 
         BranchGroupState state=null;
         try {
-            state = (BranchGroupState)readObject( raf );
+            state = (BranchGroupState)readObject( input );
 
-            readNodeComponents( raf );
+            readNodeComponents( input );
 
         } catch( IOException e ) {
             e.printStackTrace();
@@ -329,10 +340,10 @@ public class RandomAccessFileControl extends Controller {
 
     public Object readBranchGraphUserData( int graphID ) throws IOException {
         try {
-            raf.seek( symbolTable.getBranchGraphFilePosition( graphID ) );
+            input.seek( symbolTable.getBranchGraphFilePosition( graphID ) );
 
-            int nodeCount = raf.readInt();
-            return readSerializedData( raf );
+            int nodeCount = input.readInt();
+            return readSerializedData( input );
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
         }
@@ -354,15 +365,12 @@ public class RandomAccessFileControl extends Controller {
             SymbolTableData symbol = (SymbolTableData)list.next();
 
 	    out.writeInt( symbol.nodeID );
-	    ptrLoc = raf.getFilePointer();
+	    ptrLoc = output.getFilePointer();
 	    out.writeLong( 0L );            // Pointer to next NodeComponent
 
             writeObject( out, symbol.getNodeState() );
 
-	    long ptr = raf.getFilePointer();
-	    raf.seek( ptrLoc );
-	    out.writeLong( ptr );
-	    raf.seek( ptr );
+	    output.patchLong( ptrLoc, output.getFilePointer() );
         }
     }
 
@@ -378,7 +386,7 @@ public class RandomAccessFileControl extends Controller {
 	    long nextNC = in.readLong();
 		if (symbolTable.isLoaded( nodeID )) {
 		    // Skip this object
-		    raf.seek( nextNC );
+		    input.seek( nextNC );
 		} else {
 		    // Reading the objects will register them in the symbol table
 		    SceneGraphObjectState nodeComponent = readObject( in );
@@ -390,19 +398,19 @@ public class RandomAccessFileControl extends Controller {
 
     @Override
     public void writeObject( DataOutput out, SceneGraphObjectState obj ) throws IOException {
-        symbolTable.setFilePosition( raf.getFilePointer(), obj );
+        symbolTable.setFilePosition( output.getFilePointer(), obj );
         try {
             // These commented out lines will display the size of each object
             // as it's written to the file
 
-            //long start = raf.getFilePointer();
+            //long start = output.getFilePointer();
 
 
             //int childStart = objSizeTracker.size();
 
             super.writeObject( out, obj );
 
-            //long size = raf.getFilePointer()-start;
+            //long size = output.getFilePointer()-start;
             //while( childStart!=objSizeTracker.size() )
             //    size -= ((Long)objSizeTracker.removeLast()).longValue();
 
@@ -417,10 +425,10 @@ public class RandomAccessFileControl extends Controller {
 }
 
     public String readFileDescription() throws IOException {
-        raf.seek( FILE_DESCRIPTION );
-        String ret = raf.readUTF();
+        input.seek( FILE_DESCRIPTION );
+        String ret = input.readUTF();
 
-        user_data = raf.getFilePointer();
+        user_data = input.getFilePointer();
         return ret;
     }
 
@@ -430,8 +438,8 @@ public class RandomAccessFileControl extends Controller {
      */
     public void loadNodeComponent( SymbolTableData symbol ) throws IOException {
         try {
-            raf.seek( symbol.filePosition );
-            readObject( raf );
+            input.seek( symbol.filePosition );
+            readObject( input );
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
         }
@@ -442,8 +450,8 @@ public class RandomAccessFileControl extends Controller {
      */
     public void loadSharedGroup( SymbolTableData symbol ) throws IOException {
         try {
-            raf.seek( symbol.filePosition );
-            readObject( raf );
+            input.seek( symbol.filePosition );
+            readObject( input );
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
         }
@@ -455,8 +463,10 @@ public class RandomAccessFileControl extends Controller {
             if (writeMode)
                 writeClose();
 
-            //System.out.println("File size at close "+raf.length() );
-            raf.close();
+            if (writeMode)
+                output.close();
+            else
+                input.close();
             super.reset();
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
@@ -468,25 +478,22 @@ public class RandomAccessFileControl extends Controller {
      * Write all the pointers etc
      */
     private void writeClose() throws IOException {
-        symbol_table = raf.getFilePointer();
-        super.getSymbolTable().writeTable( raf );
+        symbol_table = output.getFilePointer();
+        super.getSymbolTable().writeTable( output );
 
-        //System.out.println("Symbol table size "+(raf.getFilePointer()-symbol_table));
+        //System.out.println("Symbol table size "+(output.getFilePointer()-symbol_table));
 
-        raf.seek( UNIVERSE_CONFIG_PTR );
-        raf.writeLong( universe_config );
-        raf.seek( SYMBOL_TABLE_PTR );
-        raf.writeLong( symbol_table );
-        raf.seek( BRANCH_GRAPH_COUNT );
-        raf.writeInt( symbolTable.getBranchGraphCount() );
+        output.patchLong( UNIVERSE_CONFIG_PTR, universe_config );
+        output.patchLong( SYMBOL_TABLE_PTR, symbol_table );
+        output.patchInt( BRANCH_GRAPH_COUNT, symbolTable.getBranchGraphCount() );
     }
 
     @Override
     public long getFilePointer() {
-        try {
-            return raf.getFilePointer();
-        } catch(IOException e ) {}
-        return 0;
+        if (writeMode)
+            return output.getFilePointer();
+        else
+            return input.getFilePointer();
     }
 
     /**
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2026 JogAmp Community. All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those
+ * of the authors and should not be interpreted as representing official policies,
+ * either expressed or implied, of the JogAmp Community.
+ *
+ */
+
+
+package org.jogamp.java3d.utils.scenegraph.io.retained;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
+
+/**
+ * A DataOutput that writes to a RandomAccessFile through a block buffer,
+ * so primitive fields are batched into large writes rather than written
+ * to the file one at a time.
+ *
+ * Pointers to data that has not been written yet are filled in with
+ * patchInt and patchLong.  Patches inside the current block are applied
+ * directly, others are kept and applied when the output is flushed.
+ */
+class RandomAccessFileOutput implements DataOutput {
+
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private RandomAccessFile file;
+
+    private byte[] block = new byte[ BLOCK_SIZE ];
+    private long blockStart = 0;        // File position of block[0]
+    private int pos = 0;                // Current position in block
+    private int count = 0;              // Number of valid bytes in block
+
+    // Patches to file positions outside the block
+    private long[] patchPositions = new long[ 16 ];
+    private long[] patchValues = new long[ 16 ];
+    private int[] patchSizes = new int[ 16 ];
+    private int patchCount = 0;
+
+    public RandomAccessFileOutput( RandomAccessFile file ) throws IOException {
+        this.file = file;
+        blockStart = file.getFilePointer();
+    }
+
+    public long getFilePointer() {
+        return blockStart+pos;
+    }
+
+    /**
+     * Move the file pointer to the specified position.  Positions in
+     * or just after the current block are handled in the block, with
+     * any gap filled with zeros.
+     */
+    public void seek( long position ) throws IOException {
+        if (position>=blockStart && position<=blockStart+BLOCK_SIZE) {
+            pos = (int)(position-blockStart);
+            while( count<pos )
+                block[count++] = 0;
+        } else {
+            flush();
+            file.seek( position );
+            blockStart = position;
+            pos = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * Write the int at the specified position, which must be before the
+     * current position, without moving the file pointer.
+     */
+    public void patchInt( long position, int value ) throws IOException {
+        patch( position, value, 4 );
+    }
+
+    /**
+     * Write the long at the specified position, which must be before the
+     * current position, without moving the file pointer.
+     */
+    public void patchLong( long position, long value ) throws IOException {
+        patch( position, value, 8 );
+    }
+
+    private void patch( long position, long value, int size ) {
+        if (position>=blockStart && position+size<=blockStart+count) {
+            int p = (int)(position-blockStart);
+            for(int i=size-1; i>=0; i--) {
+                block[p+i] = (byte)value;
+                value >>>= 8;
+            }
+        } else {
+            if (patchCount==patchPositions.length) {
+                patchPositions = grow( patchPositions );
+                patchValues = grow( patchValues );
+                int[] sizes = new int[ patchSizes.length*2 ];
+                System.arraycopy( patchSizes, 0, sizes, 0, patchCount );
+                patchSizes = sizes;
+            }
+            patchPositions[patchCount] = position;
+            patchValues[patchCount] = value;
+            patchSizes[patchCount] = size;
+            patchCount++;
+        }
+    }
+
+    private static long[] grow( long[] array ) {
+        long[] ret = new long[ array.length*2 ];
+        System.arraycopy( array, 0, ret, 0, array.length );
+        return ret;
+    }
+
+    /**
+     * Write the block to the file and start a new block at the current
+     * position.
+     */
+    private void writeBlock() throws IOException {
+        if (count>0)
+            file.write( block, 0, count );
+        if (pos!=count)
+            file.seek( blockStart+pos );
+
+        blockStart += pos;
+        pos = 0;
+        count = 0;
+    }
+
+    /**
+     * Write the block and all outstanding patches to the file.
+     */
+    public void flush() throws IOException {
+        writeBlock();
+
+        if (patchCount>0) {
+            for(int i=0; i<patchCount; i++) {
+                file.seek( patchPositions[i] );
+                if (patchSizes[i]==4)
+                    file.writeInt( (int)patchValues[i] );
+                else
+                    file.writeLong( patchValues[i] );
+            }
+            patchCount = 0;
+            file.seek( blockStart );
+        }
+    }
+
+    /**
+     * Flush and close the file.
+     */
+    public void close() throws IOException {
+        flush();
+        file.close();
+    }
+
+    // Make room for size bytes in the block
+    private void ensure( int size ) throws IOException {
+        if (pos+size>BLOCK_SIZE)
+            writeBlock();
+    }
+
+    // Called after writing at pos
+    private void advance( int size ) {
+        pos += size;
+        if (pos>count)
+            count = pos;
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+        ensure( 1 );
+        block[pos] = (byte)b;
+        advance( 1 );
+    }
+
+    @Override
+    public void write( byte[] b ) throws IOException {
+        write( b, 0, b.length );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+        if (len>BLOCK_SIZE) {
+            writeBlock();
+            file.write( b, off, len );
+            blockStart += len;
+        } else {
+            ensure( len );
+            System.arraycopy( b, off, block, pos, len );
+            advance( len );
+        }
+    }
+
+    @Override
+    public void writeBoolean( boolean v ) throws IOException {
+        write( v ? 1 : 0 );
+    }
+
+    @Override
+    public void writeByte( int v ) throws IOException {
+        write( v );
+    }
+
+    @Override
+    public void writeShort( int v ) throws IOException {
+        ensure( 2 );
+        block[pos] = (byte)(v >>> 8);
+        block[pos+1] = (byte)v;
+        advance( 2 );
+    }
+
+    @Override
+    public void writeChar( int v ) throws IOException {
+        writeShort( v );
+    }
+
+    @Override
+    public void writeInt( int v ) throws IOException {
+        ensure( 4 );
+        block[pos] = (byte)(v >>> 24);
+        block[pos+1] = (byte)(v >>> 16);
+        block[pos+2] = (byte)(v >>> 8);
+        block[pos+3] = (byte)v;
+        advance( 4 );
+    }
+
+    @Override
+    public void writeLong( long v ) throws IOException {
+        writeInt( (int)(v >>> 32) );
+        writeInt( (int)v );
+    }
+
+    @Override
+    public void writeFloat( float v ) throws IOException {
+        writeInt( Float.floatToIntBits( v ) );
+    }
+
+    @Override
+    public void writeDouble( double v ) throws IOException {
+        writeLong( Double.doubleToLongBits( v ) );
+    }
+
+    @Override
+    public void writeBytes( String s ) throws IOException {
+        for(int i=0; i<s.length(); i++)
+            write( s.charAt(i) );
+    }
+
+    @Override
+    public void writeChars( String s ) throws IOException {
+        for(int i=0; i<s.length(); i++)
+            writeChar( s.charAt(i) );
+    }
+
+    /**
+     * Write the string in modified UTF-8, as DataOutputStream does.
+     */
+    @Override
+    public void writeUTF( String s ) throws IOException {
+        int len = s.length();
+        int utfLen = 0;
+
+        for(int i=0; i<len; i++) {
+            char c = s.charAt(i);
+            if (c>=0x0001 && c<=0x007F)
+                utfLen++;
+            else if (c>0x07FF)
+                utfLen += 3;
+            else
+                utfLen += 2;
+        }
+
+        if (utfLen>65535)
+            throw new UTFDataFormatException( "encoded string too long: "+utfLen+" bytes" );
+
+        writeShort( utfLen );
+        for(int i=0; i<len; i++) {
+            char c = s.charAt(i);
+            if (c>=0x0001 && c<=0x007F) {
+                write( c );
+            } else if (c>0x07FF) {
+                write( 0xE0 | ((c >> 12) & 0x0F) );
+                write( 0x80 | ((c >>  6) & 0x3F) );
+                write( 0x80 | (c & 0x3F) );
+            } else {
+                write( 0xC0 | ((c >>  6) & 0x1F) );
+                write( 0x80 | (c & 0x3F) );
+            }
+        }
+    }
+}
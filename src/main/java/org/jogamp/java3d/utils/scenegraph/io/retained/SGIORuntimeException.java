@@ -66,4 +66,15 @@ public class SGIORuntimeException extends java.lang.RuntimeException {
     public SGIORuntimeException(String msg) {
         super(msg);
     }
+
+    /**
+     * Constructs an instance of <code>SGIORuntimeException</code>
+     * with the specified detail message and cause.
+     *
+     * @param msg the detail message.
+     * @param cause the cause of the exception.
+     */
+    public SGIORuntimeException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
 }
@@ -143,6 +143,7 @@ public class StreamControl extends Controller {
             symbolTable.setBranchGraphRoot( state.getSymbol(), 0 );
 
             state.buildGraph();
+            completeImages();
 
             if (namedObjects!=null)
                 symbolTable.getNamedObjectMap( namedObjects );
@@ -150,6 +151,8 @@ public class StreamControl extends Controller {
             return (BranchGroup)state.getNode();
         } catch( SGIORuntimeException e ) {
             throw new IOException( e.getMessage() );
+        } finally {
+            clearPendingImages();
         }
     }
 
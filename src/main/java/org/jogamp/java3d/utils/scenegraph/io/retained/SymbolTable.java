@@ -40,6 +40,7 @@
 package org.jogamp.java3d.utils.scenegraph.io.retained;
 
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -70,6 +71,8 @@ public class SymbolTable extends java.lang.Object implements SceneGraphObjectRef
     private Stack unsavedNodeComponentsStack;
     private LinkedList sharedNodes;         // Nodes and NodeComponents referenced more than once
     private HashMap namedObjects;
+    private HashMap<Long, SymbolTableData> contentIndex;    // NodeComponents by content hash
+    private HashMap<SceneGraphObject, SymbolTableData> duplicateNodes;  // NodeComponents written as an identical NodeComponent
     private ArrayList branchGraphs;         // Root of each branch graph
     private ArrayList branchGraphDependencies;  // Dependencies between the branchgraphs
                                                 // For a graph branchGraphDep[graph] will contain a set of all nodes (in other graphs) on which the graph is dependent
@@ -87,6 +90,8 @@ public class SymbolTable extends java.lang.Object implements SceneGraphObjectRef
         nodeIDIndex.add( null );            // Element zero is null
         sharedNodes = new LinkedList();
         namedObjects = new HashMap();
+        contentIndex = new HashMap<Long, SymbolTableData>();
+        duplicateNodes = new HashMap<SceneGraphObject, SymbolTableData>();
         branchGraphs = new ArrayList();
         branchGraphDependencies = new ArrayList();
         unsavedNodeComponentsStack = new Stack();
@@ -507,6 +512,8 @@ public class SymbolTable extends java.lang.Object implements SceneGraphObjectRef
                     addInterGraphDependency( symbol );
                     sharedNodes.add( symbol );
                 }
+            } else if (control.getDeduplicateNodeComponents() && isContentComparable( node )) {
+                return addContentReference( node );
             } else {
                 symbol = createNodeComponentSymbol( node );
             }
@@ -516,6 +523,109 @@ public class SymbolTable extends java.lang.Object implements SceneGraphObjectRef
         }
     }
 
+    private static final int[] GEOMETRY_WRITE_CAPABILITIES = {
+        org.jogamp.java3d.GeometryArray.ALLOW_COORDINATE_WRITE,
+        org.jogamp.java3d.GeometryArray.ALLOW_COLOR_WRITE,
+        org.jogamp.java3d.GeometryArray.ALLOW_NORMAL_WRITE,
+        org.jogamp.java3d.GeometryArray.ALLOW_TEXCOORD_WRITE,
+        org.jogamp.java3d.GeometryArray.ALLOW_VERTEX_ATTR_WRITE,
+        org.jogamp.java3d.GeometryArray.ALLOW_COUNT_WRITE,
+        org.jogamp.java3d.GeometryArray.ALLOW_REF_DATA_WRITE
+    };
+
+    private static final int[] INDEX_WRITE_CAPABILITIES = {
+        org.jogamp.java3d.IndexedGeometryArray.ALLOW_COORDINATE_INDEX_WRITE,
+        org.jogamp.java3d.IndexedGeometryArray.ALLOW_COLOR_INDEX_WRITE,
+        org.jogamp.java3d.IndexedGeometryArray.ALLOW_NORMAL_INDEX_WRITE,
+        org.jogamp.java3d.IndexedGeometryArray.ALLOW_TEXCOORD_INDEX_WRITE,
+        org.jogamp.java3d.IndexedGeometryArray.ALLOW_VERTEX_ATTR_INDEX_WRITE
+    };
+
+    /**
+     * Only geometry and images are compared by content, their State
+     * objects do not reference other symbols. NodeComponents which
+     * allow their data to be written are never shared by content, a
+     * change to one would change all the others once loaded.
+     */
+    private static boolean isContentComparable( SceneGraphObject node ) {
+        if (node instanceof org.jogamp.java3d.utils.scenegraph.io.SceneGraphIO ||
+            node instanceof org.jogamp.java3d.utils.scenegraph.io.SceneGraphStateProvider)
+            return false;
+
+        if (node instanceof org.jogamp.java3d.ImageComponent)
+            return !node.getCapability( org.jogamp.java3d.ImageComponent.ALLOW_IMAGE_WRITE );
+
+        if (!(node instanceof org.jogamp.java3d.GeometryArray))
+            return false;
+        if (hasCapability( node, GEOMETRY_WRITE_CAPABILITIES ))
+            return false;
+        return !(node instanceof org.jogamp.java3d.IndexedGeometryArray &&
+                 hasCapability( node, INDEX_WRITE_CAPABILITIES ));
+    }
+
+    private static boolean hasCapability( SceneGraphObject node, int[] capabilities ) {
+        for(int i=0; i<capabilities.length; i++)
+            if (node.getCapability( capabilities[i] ))
+                return true;
+        return false;
+    }
+
+    /**
+     * Add a reference to a NodeComponent with the same content as node
+     * if one has already been referenced, otherwise create a symbol
+     * for node. Returns the id of the symbol.
+     *
+     * Two NodeComponents have the same content if their State objects
+     * write the same data, including capabilities, name and user data.
+     * Images are written without compression for the comparison. Only
+     * the hash of the data is kept, when it matches both NodeComponents
+     * are written again to compare them.
+     */
+    private int addContentReference( SceneGraphObject node ) {
+        try {
+            ContentHashOutputStream hashStream = new ContentHashOutputStream();
+            DataOutputStream out = new DataOutputStream( hashStream );
+            control.writeContent( out, node );
+            out.flush();
+
+            Long hash = Long.valueOf( hashStream.getHash() );
+            SymbolTableData symbol = contentIndex.get( hash );
+
+            // Check the match is not a hash collision
+            if (symbol!=null &&
+                symbol.j3dNode.getClass()==node.getClass() &&
+                isSameContent( symbol.j3dNode, node )) {
+                duplicateNodes.put( node, symbol );
+                j3dNodeIndex.put( node, symbol );
+                return addReference( symbol );
+            }
+
+            SymbolTableData newSymbol = createNodeComponentSymbol( node );
+            if (symbol==null)
+                contentIndex.put( hash, newSymbol );
+
+            return newSymbol.nodeID;
+        } catch( IOException e ) {
+            throw new SGIORuntimeException( e.getMessage() );
+        }
+    }
+
+    /**
+     * Returns true if the State objects of both nodes write the same data.
+     * Only the data of node1 is held in memory, the data of node2 is
+     * compared as it is written.
+     */
+    private boolean isSameContent( SceneGraphObject node1, SceneGraphObject node2 ) throws IOException {
+        ContentCompareOutputStream compareStream = new ContentCompareOutputStream();
+        DataOutputStream out = new DataOutputStream( compareStream );
+        control.writeContent( out, node1 );
+        out.flush();
+        compareStream.startCompare();
+        control.writeContent( out, node2 );
+        out.flush();
+        return compareStream.isEqual();
+    }
+
     /**
      * Add a refernce to the specified node
      * Also returns the nodes id
@@ -787,6 +897,8 @@ public class SymbolTable extends java.lang.Object implements SceneGraphObjectRef
         danglingReferences.clear();
         sharedNodes.clear();
         namedObjects.clear();
+        contentIndex.clear();
+        duplicateNodes.clear();
         nodeID = 1;
     }
 
@@ -831,6 +943,16 @@ public class SymbolTable extends java.lang.Object implements SceneGraphObjectRef
             j3dNodeIndex.put( symbol.j3dNode, symbol );
         }
 
+        // NodeComponents written as an identical NodeComponent keep
+        // referencing it, it is always shared. Unshared NodeComponents
+        // can not be referenced by later graphs.
+        j3dNodeIndex.putAll( duplicateNodes );
+
+        Iterator<SymbolTableData> contents = contentIndex.values().iterator();
+        while(contents.hasNext()) {
+            if (contents.next().referenceCount<2)
+                contents.remove();
+        }
 
     }
 
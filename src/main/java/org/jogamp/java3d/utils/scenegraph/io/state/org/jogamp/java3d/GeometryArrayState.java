@@ -39,12 +39,8 @@
 
 package org.jogamp.java3d.utils.scenegraph.io.state.org.jogamp.java3d;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.DataOutput;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -107,11 +103,7 @@ public abstract class GeometryArrayState extends GeometryState {
 	    }
 
 	    if ( nio ) {
-		FloatBuffer x = (FloatBuffer)((GeometryArray)node).getInterleavedVertexBuffer().getBuffer();
-		float[] f = new float[x.limit()];
-		x.position( 0 );
-		x.get( f );
-		writeFloatArray( out, f );
+		writeFloatBuffer( out, (FloatBuffer)((GeometryArray)node).getInterleavedVertexBuffer().getBuffer() );
 	    } else writeFloatArray( out, ((GeometryArray)node).getInterleavedVertices() );
 	} else {
 	    boolean byRef = (vertexFormat & GeometryArray.BY_REFERENCE) != 0;
@@ -145,11 +137,7 @@ public abstract class GeometryArrayState extends GeometryState {
 			break;
 			case BufferWrapper.TYPE_FLOAT: {
 			    out.writeInt( FORMAT_FLOAT );
-			    FloatBuffer bb = (FloatBuffer)buf.getBuffer();
-			    float[] floats = new float[ bb.limit() ];
-			    bb.position( 0 );
-			    bb.get( floats );
-			    writeFloatArray( out, floats );
+			    writeFloatBuffer( out, (FloatBuffer)buf.getBuffer() );
 			}
 			break;
 			case BufferWrapper.TYPE_NULL: {
@@ -216,11 +204,7 @@ public abstract class GeometryArrayState extends GeometryState {
 			break;
 			case BufferWrapper.TYPE_FLOAT: {
 			    out.writeInt( FORMAT_FLOAT );
-			    FloatBuffer bb = (FloatBuffer)buf.getBuffer();
-			    float[] floats = new float[ bb.limit() ];
-			    bb.position( 0 );
-			    bb.get( floats );
-			    writeFloatArray( out, floats );
+			    writeFloatBuffer( out, (FloatBuffer)buf.getBuffer() );
 			}
 			break;
 			case BufferWrapper.TYPE_NULL: {
@@ -278,20 +262,12 @@ public abstract class GeometryArrayState extends GeometryState {
 			switch( BufferWrapper.getBufferType( buf ) ) {
 			case BufferWrapper.TYPE_FLOAT: {
 			    out.writeInt( FORMAT_FLOAT );
-			    FloatBuffer bb = (FloatBuffer)buf.getBuffer();
-			    float[] floats = new float[ bb.limit() ];
-			    bb.position( 0 );
-			    bb.get( floats );
-			    writeFloatArray( out, floats );
+			    writeFloatBuffer( out, (FloatBuffer)buf.getBuffer() );
 			}
 			break;
 			case BufferWrapper.TYPE_DOUBLE: {
 			    out.writeInt( FORMAT_DOUBLE );
-			    DoubleBuffer bb = (DoubleBuffer)buf.getBuffer();
-			    double[] doubles = new double[ bb.limit() ];
-			    bb.position( 0 );
-			    bb.get( doubles );
-			    writeDoubleArray( out, doubles );
+			    writeDoubleBuffer( out, (DoubleBuffer)buf.getBuffer() );
 			}
 			break;
 			case BufferWrapper.TYPE_NULL: {
@@ -346,11 +322,7 @@ public abstract class GeometryArrayState extends GeometryState {
 			    out.writeInt( FORMAT_NULL );
 			else {
 			    out.writeInt( FORMAT_FLOAT );
-			    FloatBuffer bb = (FloatBuffer)buf.getBuffer();
-			    float[] floats = new float[ bb.limit() ];
-			    bb.position( 0 );
-			    bb.get( floats );
-			    writeFloatArray( out, floats );
+			    writeFloatBuffer( out, (FloatBuffer)buf.getBuffer() );
 			}
 		    } else if ( ((GeometryArray)node).getNormalRef3f()!=null ) {
 			out.writeInt( FORMAT_3F );
@@ -387,11 +359,7 @@ public abstract class GeometryArrayState extends GeometryState {
 				out.writeInt( FORMAT_NULL );
 			    else {
 				out.writeInt( FORMAT_FLOAT );
-				FloatBuffer bb = (FloatBuffer)buf.getBuffer();
-				float[] floats = new float[ bb.limit() ];
-				bb.position( 0 );
-				bb.get( floats );
-				writeFloatArray( out, floats );
+				writeFloatBuffer( out, (FloatBuffer)buf.getBuffer() );
 			    }
 			} else if ( ((GeometryArray)node).getTexCoordRef2f(set)!=null ) {
 			    out.writeInt( FORMAT_2F );
@@ -426,11 +394,7 @@ public abstract class GeometryArrayState extends GeometryState {
 				out.writeInt( FORMAT_NULL );
 			    else {
 				out.writeInt( FORMAT_FLOAT );
-				FloatBuffer bb = (FloatBuffer)buf.getBuffer();
-				float[] floats = new float[ bb.limit() ];
-				bb.position( 0 );
-				bb.get( floats );
-				writeFloatArray( out, floats );
+				writeFloatBuffer( out, (FloatBuffer)buf.getBuffer() );
 			    }
 			} else if ( ((GeometryArray)node).getTexCoordRef3f(set)!=null ) {
 			    out.writeInt( FORMAT_3F );
@@ -466,11 +430,7 @@ public abstract class GeometryArrayState extends GeometryState {
 				out.writeInt( FORMAT_NULL );
 			    else {
 				out.writeInt( FORMAT_FLOAT );
-				FloatBuffer bb = (FloatBuffer)buf.getBuffer();
-				float[] floats = new float[ bb.limit() ];
-				bb.position( 0 );
-				bb.get( floats );
-				writeFloatArray( out, floats );
+				writeFloatBuffer( out, (FloatBuffer)buf.getBuffer() );
 			    }
 			// There is no TexCoordRef4f
 			} else if ( ((GeometryArray)node).getTexCoordRefFloat(set)!=null ) {
@@ -500,10 +460,7 @@ public abstract class GeometryArrayState extends GeometryState {
 		    ((GeometryArray)node).setValidVertexCount( in.readInt() );
 	    }
 	    if ( nio ) {
-		float[] floats = readFloatArray( in );
-		ByteBuffer b = ByteBuffer.allocateDirect(floats.length * 4);
-		FloatBuffer f = b.order(ByteOrder.nativeOrder()).asFloatBuffer();
-		f.put(floats);
+		FloatBuffer f = readFloatBuffer( in );
 		((GeometryArray)node).setInterleavedVertexBuffer(new J3DBuffer(f));
 	    } else ((GeometryArray)node).setInterleavedVertices( readFloatArray( in ) );
 	} else {
@@ -536,10 +493,7 @@ public abstract class GeometryArrayState extends GeometryState {
 			}
 			break;
 			case FORMAT_FLOAT: {
-			    float[] floats = readFloatArray( in );
-			    ByteBuffer b = ByteBuffer.allocateDirect(floats.length * 4);
-			    FloatBuffer f = b.order(ByteOrder.nativeOrder()).asFloatBuffer();
-			    f.put( floats );
+			    FloatBuffer f = readFloatBuffer( in );
 			    ((GeometryArray)node).setColorRefBuffer(new J3DBuffer(f));
 			}
 			break;
@@ -605,10 +559,7 @@ public abstract class GeometryArrayState extends GeometryState {
 			}
 			break;
 			case FORMAT_FLOAT: {
-			    float[] floats = readFloatArray( in );
-			    ByteBuffer b = ByteBuffer.allocateDirect(floats.length * 4);
-			    FloatBuffer f = b.order(ByteOrder.nativeOrder()).asFloatBuffer();
-			    f.put(floats);
+			    FloatBuffer f = readFloatBuffer( in );
 			    ((GeometryArray)node).setColorRefBuffer(new J3DBuffer(f));
 			}
 			break;
@@ -666,18 +617,12 @@ public abstract class GeometryArrayState extends GeometryState {
 		    if ( nio ) {
 			switch( in.readInt() ) {
 			case FORMAT_FLOAT: {
-			    float[] floats = readFloatArray( in );
-			    ByteBuffer b = ByteBuffer.allocateDirect(floats.length * 4);
-			    FloatBuffer f = b.order(ByteOrder.nativeOrder()).asFloatBuffer();
-			    f.put(floats);
+			    FloatBuffer f = readFloatBuffer( in );
 			    ((GeometryArray)node).setCoordRefBuffer(new J3DBuffer(f));
 			}
 			break;
 			case FORMAT_DOUBLE: {
-			    double[] doubles = readDoubleArray( in );
-			    ByteBuffer b = ByteBuffer.allocateDirect(doubles.length * 8);
-			    DoubleBuffer f = b.order(ByteOrder.nativeOrder()).asDoubleBuffer();
-			    f.put(doubles);
+			    DoubleBuffer f = readDoubleBuffer( in );
 			    ((GeometryArray)node).setCoordRefBuffer(new J3DBuffer(f));
 			}
 			break;
@@ -729,10 +674,7 @@ public abstract class GeometryArrayState extends GeometryState {
 
 		    if ( nio ) {
 			if ( in.readInt() == FORMAT_FLOAT ) {
-			    float[] floats = readFloatArray( in );
-			    ByteBuffer b = ByteBuffer.allocateDirect(floats.length * 4);
-			    FloatBuffer f = b.order(ByteOrder.nativeOrder()).asFloatBuffer();
-			    f.put(floats);
+			    FloatBuffer f = readFloatBuffer( in );
 			    ((GeometryArray)node).setNormalRefBuffer(new J3DBuffer(f));
 			}
 		    } else {
@@ -771,10 +713,7 @@ public abstract class GeometryArrayState extends GeometryState {
 
 			if ( nio ) {
 			    if ( in.readInt() == FORMAT_FLOAT ) {
-				float[] floats = readFloatArray( in );
-				ByteBuffer b = ByteBuffer.allocateDirect(floats.length * 4);
-				FloatBuffer f = b.order(ByteOrder.nativeOrder()).asFloatBuffer();
-				f.put(floats);
+				FloatBuffer f = readFloatBuffer( in );
 				((GeometryArray)node).setTexCoordRefBuffer(set, new J3DBuffer(f));
 			    }
 			} else {
@@ -853,69 +792,126 @@ public abstract class GeometryArrayState extends GeometryState {
        super.readConstructorParams( in );
     }
 
-    protected void writeDoubleArray( DataOutput out, double[] array ) throws IOException {
-
-        // Writing the array into a ByteArray in memory and then dumping
-        // the byte array to DataOutput with a single call is MUCH quicker
-        // than writing each double to DataOutput.
+    // Arrays are written as the size in bytes of the encoded array, the
+    // number of elements and the elements themselves.  The elements are
+    // copied from the source buffer in bulk through NIO views of a byte
+    // array of at most WRITE_CHUNK bytes, which is written to DataOutput
+    // each time it fills, so large arrays are never copied whole.
 
-        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        DataOutputStream dataOut = new DataOutputStream( byteStream );
+    private static final int WRITE_CHUNK = 1 << 16;
 
-        dataOut.writeInt( array.length );
-        for(int i=0; i<array.length; i++)
-            dataOut.writeDouble( array[i] );
-        dataOut.close();
+    protected void writeDoubleArray( DataOutput out, double[] array ) throws IOException {
+        writeDoubleBuffer( out, DoubleBuffer.wrap( array ) );
+    }
 
-        out.writeInt( byteStream.size() );
-        out.write( byteStream.toByteArray() );
+    /**
+     * Write the contents of the buffer up to its limit, in the format of
+     * writeDoubleArray.  The position of the buffer is not changed.
+     */
+    protected void writeDoubleBuffer( DataOutput out, DoubleBuffer buffer ) throws IOException {
+        DoubleBuffer src = buffer.duplicate();
+        src.position( 0 );
+
+        int count = src.remaining();
+        ByteBuffer bytes = startArray( out, count, 8 );
+        DoubleBuffer view = bytes.asDoubleBuffer();
+        while( src.hasRemaining() ) {
+            int n = Math.min( view.capacity(), src.remaining() );
+            src.limit( src.position()+n );
+            view.clear();
+            view.put( src );
+            src.limit( count );
+            out.write( bytes.array(), 0, n*8 );
+        }
     }
 
     protected double[] readDoubleArray( DataInput in ) throws IOException {
-        byte[] buffer = new byte[ in.readInt() ];
-        in.readFully( buffer );
-        ByteArrayInputStream byteStream = new ByteArrayInputStream( buffer );
-        DataInputStream dataIn = new DataInputStream( byteStream );
-
-        double[] array = new double[ dataIn.readInt() ];
-        for(int i=0; i<array.length; i++)
-            array[i] = dataIn.readDouble();
+        ByteBuffer bytes = readArray( in );
 
-        dataIn.close();
+        double[] array = new double[ bytes.getInt() ];
+        bytes.asDoubleBuffer().get( array );
 
         return array;
     }
 
-    protected void writeFloatArray( DataOutput out, float[] array ) throws IOException {
+    /**
+     * Read an array written by writeDoubleArray into a new direct buffer
+     * in native byte order, as required by J3DBuffer.
+     */
+    protected DoubleBuffer readDoubleBuffer( DataInput in ) throws IOException {
+        ByteBuffer bytes = readArray( in );
 
-        // Writing the array into a ByteArray in memory and then dumping
-        // the byte array to DataOutput with a single call is MUCH quicker
-        // than writing each float to DataOutput.
+        DoubleBuffer buffer = ByteBuffer.allocateDirect( bytes.getInt()*8 ).order( ByteOrder.nativeOrder() ).asDoubleBuffer();
+        buffer.put( bytes.asDoubleBuffer() );
+        buffer.rewind();
 
-        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        DataOutputStream dataOut = new DataOutputStream( byteStream );
+        return buffer;
+    }
 
-        dataOut.writeInt( array.length );
-        for(int i=0; i<array.length; i++)
-            dataOut.writeFloat( array[i] );
-        dataOut.close();
+    protected void writeFloatArray( DataOutput out, float[] array ) throws IOException {
+        writeFloatBuffer( out, FloatBuffer.wrap( array ) );
+    }
 
-        out.writeInt( byteStream.size() );
-        out.write( byteStream.toByteArray() );
+    /**
+     * Write the contents of the buffer up to its limit, in the format of
+     * writeFloatArray.  The position of the buffer is not changed.
+     */
+    protected void writeFloatBuffer( DataOutput out, FloatBuffer buffer ) throws IOException {
+        FloatBuffer src = buffer.duplicate();
+        src.position( 0 );
+
+        int count = src.remaining();
+        ByteBuffer bytes = startArray( out, count, 4 );
+        FloatBuffer view = bytes.asFloatBuffer();
+        while( src.hasRemaining() ) {
+            int n = Math.min( view.capacity(), src.remaining() );
+            src.limit( src.position()+n );
+            view.clear();
+            view.put( src );
+            src.limit( count );
+            out.write( bytes.array(), 0, n*4 );
+        }
     }
 
     protected float[] readFloatArray( DataInput in ) throws IOException {
-        byte[] buffer = new byte[ in.readInt() ];
-        in.readFully( buffer );
-        ByteArrayInputStream byteStream = new ByteArrayInputStream( buffer );
-        DataInputStream dataIn = new DataInputStream( byteStream );
-
-        float[] array = new float[ dataIn.readInt() ];
-        for(int i=0; i<array.length; i++)
-            array[i] = dataIn.readFloat();
+        ByteBuffer bytes = readArray( in );
 
-        dataIn.close();
+        float[] array = new float[ bytes.getInt() ];
+        bytes.asFloatBuffer().get( array );
 
         return array;
     }
+
+    /**
+     * Read an array written by writeFloatArray into a new direct buffer
+     * in native byte order, as required by J3DBuffer.
+     */
+    protected FloatBuffer readFloatBuffer( DataInput in ) throws IOException {
+        ByteBuffer bytes = readArray( in );
+
+        FloatBuffer buffer = ByteBuffer.allocateDirect( bytes.getInt()*4 ).order( ByteOrder.nativeOrder() ).asFloatBuffer();
+        buffer.put( bytes.asFloatBuffer() );
+        buffer.rewind();
+
+        return buffer;
+    }
+
+    /**
+     * Write the size and element count of an array of count elements of
+     * the given size, and return a scratch buffer for its elements
+     */
+    private static ByteBuffer startArray( DataOutput out, int count, int elementSize ) throws IOException {
+        out.writeInt( 4+count*elementSize );
+        out.writeInt( count );
+        return ByteBuffer.allocate( Math.max( elementSize, Math.min( count*elementSize, WRITE_CHUNK ) ) );
+    }
+
+    /**
+     * Read an encoded array and return it positioned at the element count.
+     */
+    private static ByteBuffer readArray( DataInput in ) throws IOException {
+        byte[] buffer = new byte[ in.readInt() ];
+        in.readFully( buffer );
+        return ByteBuffer.wrap( buffer );
+    }
 }
@@ -62,19 +62,26 @@ public class ImageComponent2DState extends ImageComponentState {
     public void writeConstructorParams( DataOutput out ) throws
 							IOException {
         super.writeConstructorParams( out );
-	ImageComponent2D ic = ((ImageComponent2D)node);
-
-	// If the BufferedImage is associated with the ImageComponent2D by
-	// reference then we don't know much about it, so it'd be hard to
-	// save.  So we copy it into an ImageComponent2D and then copy it
-	// out.  It comes out in a known format so it's easier to save.
-	if ( ic.isByReference() ) {
-	    ImageComponent2D noByRef = new ImageComponent2D(
-		ic.getFormat(), ic.getRenderedImage(), false, ic.isYUp() );
-	    bufferedImage = noByRef.getImage();
-	} else bufferedImage = ic.getImage();
-
-        writeBufferedImage( out, bufferedImage );
+        writeBufferedImage( out, getImages()[0] );
+    }
+
+    @Override
+    protected BufferedImage[] getImages() {
+        if (bufferedImage==null) {
+	    ImageComponent2D ic = ((ImageComponent2D)node);
+
+	    // If the BufferedImage is associated with the ImageComponent2D by
+	    // reference then we don't know much about it, so it'd be hard to
+	    // save.  So we copy it into an ImageComponent2D and then copy it
+	    // out.  It comes out in a known format so it's easier to save.
+	    if ( ic.isByReference() ) {
+	        ImageComponent2D noByRef = new ImageComponent2D(
+		    ic.getFormat(), ic.getRenderedImage(), false, ic.isYUp() );
+	        bufferedImage = noByRef.getImage();
+	    } else bufferedImage = ic.getImage();
+        }
+
+        return new BufferedImage[] { bufferedImage };
     }
 
     @Override
@@ -83,10 +90,18 @@ public class ImageComponent2DState extends ImageComponentState {
 
        super.readConstructorParams( in );
 
-       bufferedImage = (BufferedImage)readBufferedImage( in );
+       BufferedImage[] images = readBufferedImages( in, 1 );
+       if (images!=null)
+           bufferedImage = images[0];
 
     }
 
+    @Override
+    protected void setImages( BufferedImage[] images ) {
+        bufferedImage = images[0];
+        ((ImageComponent2D)node).set( bufferedImage );
+    }
+
     @Override
     protected SceneGraphObject createNode( Class j3dClass ) {
         return super.createNode( j3dClass, new Class[] { Integer.TYPE,
@@ -101,6 +116,10 @@ public class ImageComponent2DState extends ImageComponentState {
 
     @Override
     protected org.jogamp.java3d.SceneGraphObject createNode() {
+        // The image is still being decoded, it is set by setImages()
+        if (bufferedImage==null)
+            return new ImageComponent2D( format, width, height, byReference, yUp );
+
         return new ImageComponent2D( format, bufferedImage, byReference, yUp );
     }
 }
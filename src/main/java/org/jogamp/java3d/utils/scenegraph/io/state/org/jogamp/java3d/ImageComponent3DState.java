@@ -53,6 +53,7 @@ import org.jogamp.java3d.utils.scenegraph.io.retained.SymbolTableData;
 public class ImageComponent3DState extends ImageComponentState {
 
     private BufferedImage[] bufferedImages;
+    private int depth;
 
     public ImageComponent3DState(SymbolTableData symbol,Controller control) {
 	super( symbol, control );
@@ -63,34 +64,42 @@ public class ImageComponent3DState extends ImageComponentState {
 							IOException {
         super.writeConstructorParams( out );
 
-	ImageComponent3D ic = ((ImageComponent3D)node);
+        BufferedImage[] images = getImages();
 
-        // If the BufferedImages are associated with the ImageComponent3D by
-        // reference then we don't know much about them, so it'd be hard to
-        // save.  So we copy them into an ImageComponent3D and then copy them
-        // out.  It comes out in a known format so it's easier to save.
-	if ( ic.isByReference() ) {
-	    ImageComponent3D noByRef = new ImageComponent3D(
-		ic.getFormat(), ic.getRenderedImage(), false, ic.isYUp() );
-	    bufferedImages = noByRef.getImage();
-	} else bufferedImages = ic.getImage();
+	out.writeInt( images.length );
 
-	out.writeInt( bufferedImages.length );
-
-        for(int i=0; i<bufferedImages.length; i++) {
-            writeBufferedImage( out, bufferedImages[i] );
+        for(int i=0; i<images.length; i++) {
+            writeBufferedImage( out, images[i] );
 	}
     }
 
+    @Override
+    protected BufferedImage[] getImages() {
+        if (bufferedImages==null) {
+	    ImageComponent3D ic = ((ImageComponent3D)node);
+
+            // If the BufferedImages are associated with the ImageComponent3D by
+            // reference then we don't know much about them, so it'd be hard to
+            // save.  So we copy them into an ImageComponent3D and then copy them
+            // out.  It comes out in a known format so it's easier to save.
+	    if ( ic.isByReference() ) {
+	        ImageComponent3D noByRef = new ImageComponent3D(
+		    ic.getFormat(), ic.getRenderedImage(), false, ic.isYUp() );
+	        bufferedImages = noByRef.getImage();
+	    } else bufferedImages = ic.getImage();
+        }
+
+        return bufferedImages;
+    }
+
     @Override
     public void readConstructorParams( DataInput in ) throws
 							IOException {
 
         super.readConstructorParams( in );
 
-        bufferedImages = new BufferedImage[ in.readInt() ];
-        for(int i=0; i<bufferedImages.length; i++)
-            bufferedImages[i] = readBufferedImage( in );
+        depth = in.readInt();
+        bufferedImages = readBufferedImages( in, depth );
 
        /*
 	// Debug code to show the original images
@@ -122,8 +131,18 @@ public class ImageComponent3DState extends ImageComponentState {
     }
 
 
+    @Override
+    protected void setImages( BufferedImage[] images ) {
+        bufferedImages = images;
+        ((ImageComponent3D)node).set( bufferedImages );
+    }
+
     @Override
     protected org.jogamp.java3d.SceneGraphObject createNode() {
+        // The images are still being decoded, they are set by setImages()
+        if (bufferedImages==null)
+            return new ImageComponent3D( format, width, height, depth, byReference, yUp );
+
         return new ImageComponent3D( format, bufferedImages, byReference, yUp );
     }
 
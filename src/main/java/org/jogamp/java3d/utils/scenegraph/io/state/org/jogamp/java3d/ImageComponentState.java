@@ -57,8 +57,19 @@ import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 
 import javax.imageio.ImageIO;
 import org.jogamp.java3d.ImageComponent;
@@ -103,10 +114,74 @@ public abstract class ImageComponentState extends NodeComponentState {
      */
     public static final byte JPEG_COMPRESSION = 2;
 
+    /**
+     * Use fast lossless compression for images.
+     *
+     * Each pixel is stored as the difference from its left neighbour,
+     * split into one plane per 8 bit channel, and the planes are compressed
+     * with a Deflater at BEST_SPEED. Decompression is several times faster
+     * than GZIP_COMPRESSION.
+     */
+    public static final byte FAST_COMPRESSION = 3;
+
+    /**
+     * Records for the images being encoded in the background, in the
+     * order they are written
+     */
+    private LinkedList<Future<byte[]>> encodedImages;
+
+    /**
+     * The images being decoded in the background
+     */
+    private List<Future<BufferedImage>> decodedImages;
+
     public ImageComponentState( SymbolTableData symbol, Controller control ) {
 	super( symbol, control );
     }
 
+    /**
+     * Return the images of the ImageComponent in the order they are
+     * written by writeConstructorParams, or null if the images are
+     * not written with writeBufferedImage
+     */
+    protected BufferedImage[] getImages() {
+        return null;
+    }
+
+    /**
+     * Pass the images decoded in the background by readBufferedImages
+     * to the ImageComponent
+     */
+    protected void setImages( BufferedImage[] images ) {
+    }
+
+    /**
+     * Start encoding the images on executor. writeBufferedImage will
+     * write the results instead of encoding the images itself.
+     */
+    public void encodeImages( ExecutorService executor ) {
+        BufferedImage[] images = getImages();
+        if (images==null)
+            return;
+
+        final int compressionType = control.getImageCompression();
+
+        encodedImages = new LinkedList<Future<byte[]>>();
+        for(int i=0; i<images.length; i++) {
+            final BufferedImage image = images[i];
+            encodedImages.add( executor.submit( new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws IOException {
+                    ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+                    DataOutputStream dataOut = new DataOutputStream( byteStream );
+                    writeBufferedImage( dataOut, image, compressionType );
+                    dataOut.close();
+                    return byteStream.toByteArray();
+                }
+            } ) );
+        }
+    }
+
 
     @Override
     protected void writeConstructorParams( DataOutput out ) throws
@@ -133,7 +208,14 @@ public abstract class ImageComponentState extends NodeComponentState {
     protected void writeBufferedImage( DataOutput out,
 				       BufferedImage image ) throws IOException {
 
-        int compressionType = control.getImageCompression();
+        if (encodedImages!=null && !encodedImages.isEmpty())
+            out.write( getResult( encodedImages.removeFirst() ) );
+        else
+            writeBufferedImage( out, image, control.getImageCompression() );
+    }
+
+    private void writeBufferedImage( DataOutput out, BufferedImage image,
+                                     int compressionType ) throws IOException {
 
         out.writeByte( compressionType );
 
@@ -143,11 +225,31 @@ public abstract class ImageComponentState extends NodeComponentState {
             writeBufferedImageGzipCompression( out, image );
         else if (compressionType==JPEG_COMPRESSION)
             writeBufferedImageJpegCompression( out, image );
+        else if (compressionType==FAST_COMPRESSION)
+            writeBufferedImageFastCompression( out, image );
     }
 
     private void writeBufferedImageNoCompression( DataOutput out, BufferedImage image ) throws IOException {
         ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
         DataOutputStream dataOut = new DataOutputStream( byteStream );
+        image = toDirectColorModel( image );
+
+        writeColorModel( dataOut, image.getColorModel() );
+        writeWritableRaster( dataOut, image.getRaster() );
+        dataOut.writeBoolean( image.isAlphaPremultiplied() );
+
+        dataOut.close();
+
+        byte[] buffer = byteStream.toByteArray();
+        out.writeInt( buffer.length );
+        out.write( buffer );
+    }
+
+    /**
+     * Copy images with a ComponentColorModel into an INT_RGB or INT_ARGB
+     * image, the only formats the raster encoding supports
+     */
+    private static BufferedImage toDirectColorModel( BufferedImage image ) {
         ColorModel colorModel = (ColorModel) image.getColorModel();
 
         if (colorModel instanceof ComponentColorModel) {
@@ -170,18 +272,10 @@ public abstract class ImageComponentState extends NodeComponentState {
             WritableRaster dstRaster = tmpBuf.getRaster();
             Raster srcRaster = image.getRaster();
             dstRaster.setRect(srcRaster);
-           image = tmpBuf;
+            image = tmpBuf;
         }
 
-        writeColorModel( dataOut, image.getColorModel() );
-        writeWritableRaster( dataOut, image.getRaster() );
-        dataOut.writeBoolean( image.isAlphaPremultiplied() );
-
-        dataOut.close();
-
-        byte[] buffer = byteStream.toByteArray();
-        out.writeInt( buffer.length );
-        out.write( buffer );
+        return image;
     }
 
     private void writeBufferedImageGzipCompression( DataOutput out, BufferedImage image ) throws IOException {
@@ -214,22 +308,213 @@ public abstract class ImageComponentState extends NodeComponentState {
         out.write( buffer );
     }
 
+    private void writeBufferedImageFastCompression( DataOutput out, BufferedImage image ) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream( byteStream );
+
+        image = toDirectColorModel( image );
+        WritableRaster raster = image.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+
+        writeColorModel( dataOut, image.getColorModel() );
+        writeSampleModel( dataOut, raster.getSampleModel() );
+
+        if (!(buffer instanceof DataBufferInt))
+            throw new SGIORuntimeException("Unsupported DataBuffer "+buffer.getClass().getName() );
+
+        int stride = ((SinglePixelPackedSampleModel)raster.getSampleModel()).getScanlineStride();
+        int[][] data = ((DataBufferInt)buffer).getBankData();
+        dataOut.writeInt( data.length );
+        for(int i=0; i<data.length; i++)
+            writeFilteredPixels( dataOut, data[i], stride );
+        dataOut.writeInt( buffer.getSize() );
+
+        // Raster origin, see writeWritableRaster
+        dataOut.writeInt( 0 );
+        dataOut.writeInt( 0 );
+        dataOut.writeBoolean( image.isAlphaPremultiplied() );
+
+        dataOut.close();
+
+        out.writeInt( byteStream.size() );
+        out.write( byteStream.toByteArray() );
+    }
+
+    /**
+     * Write the pixels as the difference of each channel from the same
+     * channel of the pixel to the left, one plane per channel, compressed
+     * with a Deflater
+     */
+    private static void writeFilteredPixels( DataOutput out, int[] pixels, int stride ) throws IOException {
+        int n = pixels.length;
+        byte[] planes = new byte[ n*4 ];
+
+        int prev = 0;
+        int x = 0;
+        for(int i=0; i<n; i++) {
+            int p = pixels[i];
+            if (x==stride) {
+                prev = 0;
+                x = 0;
+            }
+            planes[i] = (byte)((p>>>24) - (prev>>>24));
+            planes[n+i] = (byte)((p>>>16) - (prev>>>16));
+            planes[2*n+i] = (byte)((p>>>8) - (prev>>>8));
+            planes[3*n+i] = (byte)(p - prev);
+            prev = p;
+            x++;
+        }
+
+        Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+        deflater.setInput( planes );
+        deflater.finish();
+
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream( planes.length/2+64 );
+        byte[] buffer = new byte[ 65536 ];
+        while( !deflater.finished() ) {
+            int count = deflater.deflate( buffer );
+            byteStream.write( buffer, 0, count );
+        }
+        deflater.end();
+
+        out.writeInt( n );
+        out.writeInt( byteStream.size() );
+        out.write( byteStream.toByteArray() );
+    }
+
+    private static int[] readFilteredPixels( DataInput in, int stride ) throws IOException {
+        int n = in.readInt();
+        byte[] compressed = new byte[ in.readInt() ];
+        in.readFully( compressed );
+
+        byte[] planes = new byte[ n*4 ];
+        Inflater inflater = new Inflater();
+        inflater.setInput( compressed );
+        try {
+            if (inflater.inflate( planes )!=planes.length || !inflater.finished())
+                throw new SGIORuntimeException("Invalid image data - file corrupt");
+        } catch( DataFormatException e ) {
+            throw new SGIORuntimeException("Invalid image data - file corrupt");
+        } finally {
+            inflater.end();
+        }
+
+        int[] pixels = new int[ n ];
+        int a = 0, r = 0, g = 0, b = 0;
+        int x = 0;
+        for(int i=0; i<n; i++) {
+            if (x==stride) {
+                a = r = g = b = 0;
+                x = 0;
+            }
+            a = (a + planes[i]) & 0xff;
+            r = (r + planes[n+i]) & 0xff;
+            g = (g + planes[2*n+i]) & 0xff;
+            b = (b + planes[3*n+i]) & 0xff;
+            pixels[i] = (a<<24) | (r<<16) | (g<<8) | b;
+            x++;
+        }
+
+        return pixels;
+    }
+
     protected BufferedImage readBufferedImage( DataInput in ) throws IOException {
         byte compression = in.readByte();
 
+        checkCompression( compression );
+
+        byte[] buffer = new byte[ in.readInt() ];
+        in.readFully( buffer );
+
+        return decodeBufferedImage( compression, buffer );
+    }
+
+    /**
+     * Read count images.
+     *
+     * If the Controller has an ExecutorService for images and the node is
+     * a core class, the images are decoded on the executor and null is
+     * returned. The node must then be created without its images, which
+     * are passed to setImages() when the graph is built.
+     */
+    protected BufferedImage[] readBufferedImages( DataInput in, int count ) throws IOException {
+        ExecutorService executor = control.getImageExecutorService();
+
+        if (executor==null || nodeClassName!=null) {
+            BufferedImage[] images = new BufferedImage[ count ];
+            for(int i=0; i<count; i++)
+                images[i] = readBufferedImage( in );
+            return images;
+        }
+
+        decodedImages = new ArrayList<Future<BufferedImage>>( count );
+        for(int i=0; i<count; i++) {
+            final byte compression = in.readByte();
+
+            checkCompression( compression );
+
+            final byte[] buffer = new byte[ in.readInt() ];
+            in.readFully( buffer );
+
+            decodedImages.add( executor.submit( new Callable<BufferedImage>() {
+                @Override
+                public BufferedImage call() throws IOException {
+                    return decodeBufferedImage( compression, buffer );
+                }
+            } ) );
+        }
+        control.addPendingImages( this );
+
+        return null;
+    }
+
+    /**
+     * Wait for the images being decoded in the background, if any, and
+     * pass them to setImages()
+     */
+    public void completeImages() {
+        if (decodedImages==null)
+            return;
+
+        BufferedImage[] images = new BufferedImage[ decodedImages.size() ];
+        try {
+            for(int i=0; i<images.length; i++)
+                images[i] = getResult( decodedImages.get(i) );
+        } catch( IOException e ) {
+            throw new SGIORuntimeException( e.getMessage(), e );
+        }
+
+        decodedImages = null;
+        setImages( images );
+    }
+
+    @Override
+    public void buildGraph() {
+        completeImages();
+
+        super.buildGraph(); // Must be last call in method
+    }
+
+    private static void checkCompression( byte compression ) {
+        if (compression!=NO_COMPRESSION &&
+            compression!=GZIP_COMPRESSION &&
+            compression!=JPEG_COMPRESSION &&
+            compression!=FAST_COMPRESSION)
+	    throw new SGIORuntimeException("Unknown Image Compression");
+    }
+
+    private BufferedImage decodeBufferedImage( byte compression, byte[] buffer ) throws IOException {
         if (compression==NO_COMPRESSION)
-            return readBufferedImageNoCompression( in );
+            return readBufferedImageNoCompression( buffer );
         else if (compression==GZIP_COMPRESSION)
-            return readBufferedImageGzipCompression( in );
+            return readBufferedImageGzipCompression( buffer );
         else if (compression==JPEG_COMPRESSION)
-            return readBufferedImageJpegCompression( in );
-	throw new SGIORuntimeException("Unknown Image Compression");
+            return readBufferedImageJpegCompression( buffer );
+        else
+            return readBufferedImageFastCompression( buffer );
     }
 
-    private BufferedImage readBufferedImageNoCompression( DataInput in ) throws IOException {
-        int size = in.readInt();
-        byte[] buffer = new byte[ size ];
-        in.readFully( buffer );
+    private BufferedImage readBufferedImageNoCompression( byte[] buffer ) throws IOException {
         ByteArrayInputStream byteIn = new ByteArrayInputStream( buffer );
         DataInputStream dataIn = new DataInputStream( byteIn );
 
@@ -241,10 +526,7 @@ public abstract class ImageComponentState extends NodeComponentState {
         return new BufferedImage( colorModel, raster, alphaPreMult, null );
     }
 
-    private BufferedImage readBufferedImageGzipCompression( DataInput in ) throws IOException {
-        int size = in.readInt();
-        byte[] buffer = new byte[ size ];
-        in.readFully( buffer );
+    private BufferedImage readBufferedImageGzipCompression( byte[] buffer ) throws IOException {
         ByteArrayInputStream byteIn = new ByteArrayInputStream( buffer );
         GZIPInputStream gzipIn = new GZIPInputStream( byteIn );
         DataInputStream dataIn = new DataInputStream( gzipIn );
@@ -257,15 +539,54 @@ public abstract class ImageComponentState extends NodeComponentState {
         return new BufferedImage( colorModel, raster, alphaPremult, null );
     }
 
-    private BufferedImage readBufferedImageJpegCompression( DataInput in ) throws IOException {
-        int size = in.readInt();
-        byte[] buffer = new byte[ size ];
-        in.readFully( buffer );
+    private BufferedImage readBufferedImageJpegCompression( byte[] buffer ) throws IOException {
         ByteArrayInputStream byteStream = new ByteArrayInputStream( buffer );
 
         return ImageIO.read(byteStream);
     }
 
+    private BufferedImage readBufferedImageFastCompression( byte[] buffer ) throws IOException {
+        DataInputStream dataIn = new DataInputStream( new ByteArrayInputStream( buffer ) );
+
+        ColorModel colorModel = readColorModel( dataIn );
+        SampleModel sampleModel = readSampleModel( dataIn );
+        int stride = ((SinglePixelPackedSampleModel)sampleModel).getScanlineStride();
+
+        int[][] data = new int[ dataIn.readInt() ][];
+        for(int i=0; i<data.length; i++)
+            data[i] = readFilteredPixels( dataIn, stride );
+        DataBufferInt dataBuffer = new DataBufferInt( data, dataIn.readInt() );
+
+        WritableRaster raster = Raster.createWritableRaster( sampleModel, dataBuffer,
+                                   new Point( dataIn.readInt(), dataIn.readInt() ));
+        boolean alphaPremult = dataIn.readBoolean();
+        dataIn.close();
+
+        return new BufferedImage( colorModel, raster, alphaPremult, null );
+    }
+
+    /**
+     * Wait for a background task and return its result, rethrowing
+     * its exception
+     */
+    private static <T> T getResult( Future<T> future ) throws IOException {
+        try {
+            return future.get();
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch( ExecutionException e ) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException)cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if (cause instanceof Error)
+                throw (Error)cause;
+            throw new SGIORuntimeException( cause.toString(), cause );
+        }
+    }
+
     private void writeColorModel( DataOutput out, ColorModel colorModel ) throws IOException {
         if (colorModel instanceof DirectColorModel) {
             out.writeInt( DIRECT_COLOR_MODEL );
@@ -39,13 +39,10 @@
 
 package org.jogamp.java3d.utils.scenegraph.io.state.org.jogamp.java3d;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.DataOutput;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.jogamp.java3d.GeometryArray;
 import org.jogamp.java3d.IndexedGeometryArray;
@@ -155,27 +152,16 @@ public abstract class IndexedGeometryArrayState extends GeometryArrayState {
     }
 
     protected void writeIntArray( DataOutput out, int[] array ) throws IOException {
-        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        DataOutputStream dataOut = new DataOutputStream( byteStream );
+        ByteBuffer bytes = ByteBuffer.allocate( array.length*4 );
+        bytes.asIntBuffer().put( array );
 
-        for(int i=0; i<array.length; i++)
-            dataOut.writeInt( array[i] );
-        dataOut.close();
-
-        out.writeInt( byteStream.size() );
-        out.write( byteStream.toByteArray() );
+        out.writeInt( bytes.capacity() );
+        out.write( bytes.array() );
     }
 
     private void readIntArray( DataInput in, int[] array ) throws IOException {
         byte[] buffer = new byte[ in.readInt() ];
         in.readFully( buffer );
-        ByteArrayInputStream byteStream = new ByteArrayInputStream( buffer );
-        DataInputStream dataIn = new DataInputStream( byteStream );
-
-        for(int i=0; i<array.length; i++)
-            array[i] = dataIn.readInt();
-
-        dataIn.close();
+        ByteBuffer.wrap( buffer ).asIntBuffer().get( array );
     }
-
 }